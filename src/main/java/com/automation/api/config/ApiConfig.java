@@ -6,7 +6,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
+import java.util.stream.Collectors;
 
 /**
  * Enhanced API Configuration manager with multi-environment support.
@@ -172,6 +175,206 @@ public class ApiConfig {
         return getIntProperty("performance.duration", 60);
     }
     
+    public String getPerformanceEngine() {
+        return getProperty("performance.engine", "jmeter");
+    }
+    
+    /**
+     * Expected time between requests of one virtual user for coordinated-omission correction; 0 estimates it.
+     */
+    public int getPerformanceExpectedIntervalMillis() {
+        return getIntProperty("performance.expected.interval.ms", 0);
+    }
+    
+    /**
+     * Shared token remote load workers expect from the coordinator; empty for local workers only.
+     */
+    public String getPerformanceWorkerToken() {
+        return getProperty("performance.worker.token", "");
+    }
+    
+    /**
+     * Remote load workers for distributed runs, as a comma-separated list of host:port.
+     */
+    public List<String> getPerformanceWorkers() {
+        String workers = getProperty("performance.workers", "");
+        return Arrays.stream(workers.split(","))
+                .map(String::trim)
+                .filter(worker -> !worker.isEmpty())
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Live SLA checked while a test runs; each threshold of 0 disables its rule.
+     */
+    public double getPerformanceSlaMaxErrorRate() {
+        return getDoubleProperty("performance.sla.max.error.rate", 0);
+    }
+    
+    public double getPerformanceSlaMaxP99Millis() {
+        return getDoubleProperty("performance.sla.max.p99.ms", 0);
+    }
+    
+    public double getPerformanceSlaMinThroughput() {
+        return getDoubleProperty("performance.sla.min.throughput", 0);
+    }
+    
+    public int getPerformanceSlaWindowSeconds() {
+        return getIntProperty("performance.sla.window.seconds", 30);
+    }
+    
+    public int getPerformanceSlaGracePeriodSeconds() {
+        return getIntProperty("performance.sla.grace.seconds", 15);
+    }
+    
+    /**
+     * Gate on regressions against the rolling baseline of past runs instead of fixed SLA thresholds.
+     */
+    public boolean isPerformanceBaselineEnabled() {
+        return getBooleanProperty("performance.baseline.enabled", false);
+    }
+    
+    public String getPerformanceBaselineFile() {
+        return getProperty("performance.baseline.file", "performance-history/baselines.bin");
+    }
+    
+    public int getPerformanceBaselineRuns() {
+        return getIntProperty("performance.baseline.runs", 10);
+    }
+    
+    /**
+     * HTTP client implementation of JMeter samplers: HttpClient4 or Java.
+     */
+    public String getPerformanceHttpImplementation() {
+        return getProperty("performance.http.implementation", "HttpClient4");
+    }
+    
+    public boolean isPerformanceHttpKeepAlive() {
+        return getBooleanProperty("performance.http.keepalive", true);
+    }
+    
+    /**
+     * Most connections open at once; 0 leaves the pool unbounded.
+     */
+    public int getPerformanceHttpMaxConnections() {
+        return getIntProperty("performance.http.max.connections", 0);
+    }
+    
+    public int getPerformanceHttpIdleTimeoutMillis() {
+        return getIntProperty("performance.http.idle.timeout.ms", 30000);
+    }
+    
+    public boolean isPerformanceHttpTlsSessionReuse() {
+        return getBooleanProperty("performance.http.tls.session.reuse", true);
+    }
+    
+    /**
+     * Whether each result is published with the load engine's calibrated throughput ceiling.
+     * Off by default, since calibrating runs an extra loopback load test of its own.
+     */
+    public boolean isPerformanceCalibrationEnabled() {
+        return getBooleanProperty("performance.calibration.enabled", false);
+    }
+    
+    public int getPerformanceCalibrationSeconds() {
+        return getIntProperty("performance.calibration.seconds", 5);
+    }
+    
+    /**
+     * Users of the calibration run; 0 uses two per core.
+     */
+    public int getPerformanceCalibrationUsers() {
+        return getIntProperty("performance.calibration.users", 0);
+    }
+    
+    /**
+     * Process CPU of the load generator, in percent of all cores, above which a run counts as generator-saturated.
+     */
+    public int getPerformanceGeneratorMaxCpuPercent() {
+        return getIntProperty("performance.generator.max.cpu.percent", 90);
+    }
+    
+    /**
+     * Share of each interval the load generator may spend in GC pauses, in percent.
+     */
+    public int getPerformanceGeneratorMaxGcPercent() {
+        return getIntProperty("performance.generator.max.gc.percent", 10);
+    }
+    
+    public int getPerformanceGeneratorMaxHeapPercent() {
+        return getIntProperty("performance.generator.max.heap.percent", 90);
+    }
+    
+    /**
+     * Initial hold of each capacity search step; doubled while the step has not settled.
+     */
+    public int getPerformanceCapacityStepSeconds() {
+        return getIntProperty("performance.capacity.step.seconds", 10);
+    }
+    
+    public int getPerformanceCapacityMaxStepSeconds() {
+        return getIntProperty("performance.capacity.max.step.seconds", 60);
+    }
+    
+    /**
+     * Port serving live OpenMetrics while a performance test runs; 0 disables the endpoint.
+     */
+    public int getPerformanceMetricsPort() {
+        return getIntProperty("performance.metrics.port", 0);
+    }
+    
+    /**
+     * Address the live metrics endpoint binds to; loopback unless scrapers on other hosts need it.
+     */
+    public String getPerformanceMetricsHost() {
+        return getProperty("performance.metrics.host", "127.0.0.1");
+    }
+    
+    /**
+     * Relative weight of listing users in the stress test's traffic mix.
+     */
+    public int getPerformanceMixGetAllWeight() {
+        return getIntProperty("performance.mix.get.all.weight", 40);
+    }
+    
+    public int getPerformanceMixGetByIdWeight() {
+        return getIntProperty("performance.mix.get.by.id.weight", 40);
+    }
+    
+    public int getPerformanceMixCreateWeight() {
+        return getIntProperty("performance.mix.create.weight", 10);
+    }
+    
+    public int getPerformanceMixUpdateWeight() {
+        return getIntProperty("performance.mix.update.weight", 10);
+    }
+    
+    /**
+     * Seconds at the start of each run excluded from the statistics; the upper bound when the
+     * warm-up ends once p50 is stable. 0 disables the time-based warm-up.
+     */
+    public int getPerformanceWarmUpSeconds() {
+        return getIntProperty("performance.warmup.seconds", 0);
+    }
+    
+    /**
+     * First samples of each run excluded from the statistics; takes precedence over the seconds.
+     */
+    public int getPerformanceWarmUpSamples() {
+        return getIntProperty("performance.warmup.samples", 0);
+    }
+    
+    public boolean isPerformanceWarmUpUntilStable() {
+        return getBooleanProperty("performance.warmup.until.stable", false);
+    }
+    
+    /**
+     * Most unique request bodies pre-generated for POST/PUT load; 0 sends one fixed body.
+     */
+    public int getPerformancePayloadPoolSize() {
+        return getIntProperty("performance.payload.pool.size", 1000000);
+    }
+    
     // Database configuration
     public String getDatabaseHost() {
         return getProperty("db.host", "localhost");
@@ -224,6 +427,15 @@ public class ApiConfig {
         }
     }
     
+    private double getDoubleProperty(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(getProperty(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid number value for property: {}, using default: {}", key, defaultValue);
+            return defaultValue;
+        }
+    }
+    
     private boolean getBooleanProperty(String key, boolean defaultValue) {
         return Boolean.parseBoolean(getProperty(key, String.valueOf(defaultValue)));
     }
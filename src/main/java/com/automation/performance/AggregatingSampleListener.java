@@ -0,0 +1,98 @@
+package com.automation.performance;
+
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestStateListener;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMeter listener that folds every sample into in-memory accumulators as it happens.
+ * Shared by all sampler threads (NoThreadClone), so results are ready as soon as the run ends
+ * without re-reading the JTL file. Also times the run from JMeter's own start and end events
+ * and signals completion, so callers never need to poll the engine.
+ */
+public class AggregatingSampleListener extends AbstractTestElement
+        implements SampleListener, TestStateListener, NoThreadClone {
+
+    /** Response code prefix JMeter uses when a sample failed before receiving a response. */
+    private static final String NON_HTTP_RESPONSE = "Non HTTP";
+
+    private final transient ResultAggregator aggregator = new ResultAggregator();
+    private final transient CompletableFuture<Long> completion = new CompletableFuture<>();
+    private transient volatile long startNanos;
+    private transient volatile boolean keepAlive = true;
+
+    public AggregatingSampleListener() {
+        setName("Aggregating Sample Listener");
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+        SampleResult result = event.getResult();
+        boolean success = result.isSuccessful();
+        boolean counted = aggregator.record(result.getSampleLabel(), result.getStartTime(), result.getTime() * 1000, success,
+                result.getAllThreads(), success ? null : result.getResponseCode() + " " + result.getResponseMessage());
+        // Warm-up samples and samples that never got a response have no connection to account for
+        if (counted && !result.getResponseCode().startsWith(NON_HTTP_RESPONSE)) {
+            aggregator.recordConnection(!keepAlive || result.getConnectTime() > 0, result.getConnectTime());
+            aggregator.recordTimings(result.getSampleLabel(), result.getConnectTime() * 1000,
+                    result.getLatency() * 1000, result.getTime() * 1000);
+        }
+    }
+
+    /**
+     * Whether samplers keep connections alive. Without keep-alive every sample opens a connection; with it,
+     * JMeter only reports the connect time of a new connection, in whole milliseconds, so a new connection
+     * that took under a millisecond cannot be told apart from a reused one and counts as reused.
+     */
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    @Override
+    public void sampleStarted(SampleEvent event) {
+        // Not needed - only completed samples are aggregated
+    }
+
+    @Override
+    public void sampleStopped(SampleEvent event) {
+        // Not needed - only completed samples are aggregated
+    }
+
+    @Override
+    public void testStarted() {
+        startNanos = System.nanoTime();
+        aggregator.markRunStart(System.currentTimeMillis());
+    }
+
+    @Override
+    public void testStarted(String host) {
+        testStarted();
+    }
+
+    @Override
+    public void testEnded() {
+        completion.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    @Override
+    public void testEnded(String host) {
+        testEnded();
+    }
+
+    public ResultAggregator getAggregator() {
+        return aggregator;
+    }
+
+    /**
+     * Completes with the run duration in milliseconds when JMeter reports the test has ended.
+     */
+    public CompletableFuture<Long> getCompletion() {
+        return completion;
+    }
+}
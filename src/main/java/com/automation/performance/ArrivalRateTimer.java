@@ -0,0 +1,117 @@
+package com.automation.performance;
+
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.timers.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-model timer that paces requests to a constant arrival rate.
+ * All threads share one schedule of evenly spaced slots; each request claims the next slot and
+ * waits until its start time, independent of how long earlier responses took. The thread count
+ * only caps concurrency: when every thread is busy, slots are issued late (delayed) or, once they
+ * fall more than the allowed lag behind, skipped entirely (dropped).
+ */
+public class ArrivalRateTimer extends AbstractTestElement implements Timer, NoThreadClone, TestStateListener {
+
+    public static final long DEFAULT_MAX_LAG_MILLIS = 100;
+
+    private final double targetRequestsPerSecond;
+    private final long intervalNanos;
+    private final long maxLagNanos;
+    private final transient AtomicLong startNanos = new AtomicLong();
+    private final transient AtomicLong nextSlot = new AtomicLong();
+    private final transient LongAdder issuedRequests = new LongAdder();
+    private final transient LongAdder delayedRequests = new LongAdder();
+    private final transient LongAdder droppedRequests = new LongAdder();
+
+    public ArrivalRateTimer(double targetRequestsPerSecond) {
+        this(targetRequestsPerSecond, DEFAULT_MAX_LAG_MILLIS);
+    }
+
+    public ArrivalRateTimer(double targetRequestsPerSecond, long maxLagMillis) {
+        if (targetRequestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Target requests per second must be positive: " + targetRequestsPerSecond);
+        }
+        this.targetRequestsPerSecond = targetRequestsPerSecond;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / targetRequestsPerSecond));
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxLagMillis));
+        setName("Arrival Rate Timer");
+    }
+
+    @Override
+    public long delay() {
+        long now = System.nanoTime();
+        long start = startNanos.get();
+        if (start == 0) {
+            // The schedule starts with the first request rather than at engine start-up
+            startNanos.compareAndSet(0, now);
+            start = startNanos.get();
+        }
+
+        while (true) {
+            long slot = nextSlot.get();
+            long slotTime = start + slot * intervalNanos;
+            long lag = now - slotTime;
+            long skipped = 0;
+            if (lag > maxLagNanos) {
+                // No thread was free in time: drop slots until we are back within the allowed lag
+                skipped = (lag - maxLagNanos + intervalNanos - 1) / intervalNanos;
+            }
+            if (nextSlot.compareAndSet(slot, slot + skipped + 1)) {
+                issuedRequests.increment();
+                if (skipped > 0) {
+                    droppedRequests.add(skipped);
+                }
+                long wait = slotTime + skipped * intervalNanos - now;
+                if (wait < -TimeUnit.MILLISECONDS.toNanos(1)) {
+                    delayedRequests.increment();
+                }
+                return wait > 0 ? TimeUnit.NANOSECONDS.toMillis(wait) : 0;
+            }
+            now = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void testStarted() {
+        startNanos.set(0);
+        nextSlot.set(0);
+        issuedRequests.reset();
+        delayedRequests.reset();
+        droppedRequests.reset();
+    }
+
+    @Override
+    public void testStarted(String host) {
+        testStarted();
+    }
+
+    @Override
+    public void testEnded() {
+        // Counters stay available for reporting after the run
+    }
+
+    @Override
+    public void testEnded(String host) {
+        testEnded();
+    }
+
+    public double getTargetRequestsPerSecond() { return targetRequestsPerSecond; }
+
+    public long getIssuedRequests() { return issuedRequests.sum(); }
+
+    /**
+     * Requests sent later than scheduled because the concurrency cap was reached.
+     */
+    public long getDelayedRequests() { return delayedRequests.sum(); }
+
+    /**
+     * Scheduled requests that were never sent because they fell too far behind schedule.
+     */
+    public long getDroppedRequests() { return droppedRequests.sum(); }
+}
@@ -0,0 +1,38 @@
+package com.automation.performance;
+
+/**
+ * One sampler of one past run in the {@link BaselineStore}, keyed by test plan, environment and sampler.
+ */
+public class BaselineRecord {
+
+    /** Sampler name under which the totals of a run are stored. */
+    public static final String OVERALL_SAMPLER = "TOTAL";
+
+    private final long timestampMillis;
+    private final String testPlanName;
+    private final String environment;
+    private final MetricsSummary summary;
+
+    public BaselineRecord(long timestampMillis, String testPlanName, String environment, MetricsSummary summary) {
+        this.timestampMillis = timestampMillis;
+        this.testPlanName = testPlanName;
+        this.environment = environment;
+        this.summary = summary;
+    }
+
+    public long getTimestampMillis() { return timestampMillis; }
+    public String getTestPlanName() { return testPlanName; }
+    public String getEnvironment() { return environment; }
+    public String getSampler() { return summary.getLabel(); }
+    public MetricsSummary getSummary() { return summary; }
+
+    public boolean matches(String testPlanName, String environment, String sampler) {
+        return this.testPlanName.equals(testPlanName) && this.environment.equals(environment)
+                && getSampler().equals(sampler);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s] @%d %s", testPlanName, environment, timestampMillis, summary);
+    }
+}
@@ -0,0 +1,203 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Local, append-only history of past runs used as the baseline for regression detection.
+ * The file holds one length-prefixed binary record per sampler and run with the summary
+ * statistics and the encoded latency histogram, so it stays compact. A run interrupted mid-write
+ * leaves a partial record at the end, which reads skip and the next append truncates before writing,
+ * so it only loses its own trailing records.
+ */
+public class BaselineStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BaselineStore.class);
+
+    public static final int MAGIC = 0x50424C31;
+
+    private final Path file;
+
+    public BaselineStore(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Append the totals and every sampler of a run under the given environment.
+     */
+    public synchronized void record(PerformanceResults results, String environment) {
+        long timestamp = System.currentTimeMillis();
+        List<BaselineRecord> records = new ArrayList<>();
+        records.add(new BaselineRecord(timestamp, results.getTestPlanName(), environment, overallSummary(results)));
+        for (MetricsSummary summary : results.getSamplerResults().values()) {
+            records.add(new BaselineRecord(timestamp, results.getTestPlanName(), environment, summary));
+        }
+        append(records);
+        logger.info("Recorded baseline of '{}' [{}] with {} samplers in {}",
+                   results.getTestPlanName(), environment, records.size() - 1, file);
+    }
+
+    public synchronized void append(List<BaselineRecord> records) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            truncatePartialRecord();
+            boolean created = Files.notExists(file) || Files.size(file) == 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)))) {
+                if (created) {
+                    out.writeInt(MAGIC);
+                }
+                for (BaselineRecord record : records) {
+                    byte[] encoded = encode(record);
+                    out.writeInt(encoded.length);
+                    out.write(encoded);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Baseline append failed: " + file, e);
+        }
+    }
+
+    /**
+     * Cut off a partial record left by an interrupted write, so the next record starts where the
+     * last complete one ends instead of after its stray bytes.
+     */
+    private void truncatePartialRecord() throws IOException {
+        if (Files.notExists(file)) {
+            return;
+        }
+        long size = Files.size(file);
+        long complete = size < Integer.BYTES ? 0 : Integer.BYTES;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (complete > 0) {
+                in.skipNBytes(Integer.BYTES);
+            }
+            while (complete > 0 && size - complete >= Integer.BYTES) {
+                int length = in.readInt();
+                if (length < 0 || length > size - complete - Integer.BYTES) {
+                    break;
+                }
+                in.skipNBytes(length);
+                complete += Integer.BYTES + length;
+            }
+        }
+        if (complete < size) {
+            logger.warn("Truncating partial record at the end of {} ({} of {} bytes are complete)", file, complete, size);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+            }
+        }
+    }
+
+    /**
+     * The most recent runs of one sampler, oldest first.
+     */
+    public synchronized List<BaselineRecord> history(String testPlanName, String environment, String sampler,
+                                                     int maxRuns) {
+        Deque<BaselineRecord> recent = new ArrayDeque<>();
+        for (BaselineRecord record : readAll()) {
+            if (record.matches(testPlanName, environment, sampler)) {
+                recent.addLast(record);
+                if (recent.size() > maxRuns) {
+                    recent.pollFirst();
+                }
+            }
+        }
+        return new ArrayList<>(recent);
+    }
+
+    public synchronized List<BaselineRecord> readAll() {
+        List<BaselineRecord> records = new ArrayList<>();
+        if (Files.notExists(file)) {
+            return records;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if (in.available() < Integer.BYTES) {
+                return records;
+            }
+            int magic = in.readInt();
+            if (magic != MAGIC) {
+                throw new IOException("Not a baseline store: 0x" + Integer.toHexString(magic));
+            }
+            while (in.available() > 0) {
+                int length = in.available() >= Integer.BYTES ? in.readInt() : -1;
+                if (length < 0 || length > in.available()) {
+                    logger.warn("Ignoring truncated record at the end of {}", file);
+                    break;
+                }
+                byte[] encoded = new byte[length];
+                in.readFully(encoded);
+                records.add(decode(encoded));
+            }
+            return records;
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("Baseline read failed: " + file, e);
+        }
+    }
+
+    private static MetricsSummary overallSummary(PerformanceResults results) {
+        return new MetricsSummary(BaselineRecord.OVERALL_SAMPLER, results.getTotalSamples(), results.getErrorCount(),
+                results.getAverageResponseTime(), results.getMinResponseTime(), results.getMaxResponseTime(),
+                results.getThroughputPerSecond(), results.getResponseTimeHistogram());
+    }
+
+    private static byte[] encode(BaselineRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        MetricsSummary summary = record.getSummary();
+        out.writeLong(record.getTimestampMillis());
+        out.writeUTF(record.getTestPlanName());
+        out.writeUTF(record.getEnvironment());
+        out.writeUTF(summary.getLabel());
+        out.writeLong(summary.getSamples());
+        out.writeLong(summary.getErrors());
+        out.writeDouble(summary.getAverageResponseTime());
+        out.writeDouble(summary.getMinResponseTime());
+        out.writeDouble(summary.getMaxResponseTime());
+        out.writeDouble(summary.getThroughputPerSecond());
+        byte[] histogram = summary.getHistogram().encode();
+        out.writeInt(histogram.length);
+        out.write(histogram);
+        return bytes.toByteArray();
+    }
+
+    private static BaselineRecord decode(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        long timestamp = in.readLong();
+        String testPlanName = in.readUTF();
+        String environment = in.readUTF();
+        String label = in.readUTF();
+        long samples = in.readLong();
+        long errors = in.readLong();
+        double average = in.readDouble();
+        double min = in.readDouble();
+        double max = in.readDouble();
+        double throughput = in.readDouble();
+        byte[] histogram = new byte[in.readInt()];
+        in.readFully(histogram);
+        return new BaselineRecord(timestamp, testPlanName, environment, new MetricsSummary(label, samples, errors,
+                average, min, max, throughput, LatencyHistogram.decode(histogram)));
+    }
+}
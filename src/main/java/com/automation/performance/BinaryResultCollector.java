@@ -0,0 +1,108 @@
+package com.automation.performance;
+
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * JMeter listener that logs every sample to a {@link BinaryResultWriter} instead of a CSV JTL,
+ * keeping string formatting and file I/O off the sampler threads. The log is opened when the
+ * test starts and closed when it ends.
+ */
+public class BinaryResultCollector extends AbstractTestElement
+        implements SampleListener, TestStateListener, NoThreadClone {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryResultCollector.class);
+
+    private final String filename;
+    private transient volatile BinaryResultWriter writer;
+    private transient volatile boolean writeFailed;
+
+    public BinaryResultCollector(String filename) {
+        this.filename = filename;
+        setName("Binary Result Collector");
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+        BinaryResultWriter current = writer;
+        if (current == null) {
+            return;
+        }
+        SampleResult result = event.getResult();
+        try {
+            // The log holds start times whatever sampleresult.timestamp.start says getTimeStamp() returns
+            current.write(result.getStartTime(), result.getTime(), result.getSampleLabel(), result.getResponseCode(),
+                    result.getResponseMessage(), result.getThreadName(), result.isSuccessful(),
+                    result.getBytesAsLong(), result.getAllThreads(), result.getLatency(), result.getConnectTime());
+        } catch (IOException e) {
+            if (!writeFailed) {
+                writeFailed = true;
+                logger.warn("Failed to write sample to result file: {}", filename, e);
+            }
+        }
+    }
+
+    @Override
+    public void sampleStarted(SampleEvent event) {
+        // Not needed - only completed samples are logged
+    }
+
+    @Override
+    public void sampleStopped(SampleEvent event) {
+        // Not needed - only completed samples are logged
+    }
+
+    @Override
+    public synchronized void testStarted() {
+        close();
+        try {
+            writeFailed = false;
+            writer = new BinaryResultWriter(filename);
+        } catch (IOException e) {
+            throw new RuntimeException("Binary result log creation failed: " + filename, e);
+        }
+    }
+
+    @Override
+    public void testStarted(String host) {
+        testStarted();
+    }
+
+    @Override
+    public void testEnded() {
+        close();
+    }
+
+    @Override
+    public void testEnded(String host) {
+        testEnded();
+    }
+
+    /**
+     * Flush and close the log; safe to call more than once.
+     */
+    public synchronized void close() {
+        BinaryResultWriter current = writer;
+        if (current == null) {
+            return;
+        }
+        writer = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close result file: {}", filename, e);
+        }
+    }
+}
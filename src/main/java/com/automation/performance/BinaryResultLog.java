@@ -0,0 +1,172 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format of the binary result log written by {@link BinaryResultWriter}, and a reader and CSV converter for it.
+ * <pre>
+ * header:    MAGIC (int), VERSION (byte)
+ * STRING:    'D', id (short), length (short), UTF-8 bytes   - dictionary entry, written before first use
+ * TIMESTAMP: 'T', timestamp (long)                         - new reference time for the deltas
+ * SAMPLE:    'S', timestamp delta (int), elapsed, latency, connect, bytes, active threads (int each),
+ *            label, response code, response message, thread name (short dictionary ids), success (byte)
+ * </pre>
+ * A connect time of -1 means it is unknown.
+ * Samples are fixed-width; their timestamps are deltas to the previous sample.
+ */
+public final class BinaryResultLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryResultLog.class);
+
+    public static final String EXTENSION = ".brl";
+    public static final int MAGIC = 0x42524C31;
+    public static final byte VERSION = 1;
+
+    static final byte STRING = 'D';
+    static final byte TIMESTAMP = 'T';
+    static final byte SAMPLE = 'S';
+
+    static final int HEADER_BYTES = 5;
+    static final int SAMPLE_BYTES = 1 + 6 * 4 + 4 * 2 + 1;
+    static final int MAX_STRING_BYTES = 4096;
+    static final int MAX_DICTIONARY_SIZE = 0xFFFF;
+
+    private static final int READ_BUFFER_BYTES = 1024 * 1024;
+
+    private BinaryResultLog() {
+    }
+
+    /**
+     * Receives the samples of a log in the order they were written.
+     */
+    @FunctionalInterface
+    public interface SampleVisitor {
+        void sample(long timeStamp, long elapsedMillis, String label, String responseCode, String responseMessage,
+                    String threadName, boolean success, long bytes, int activeThreads, long latencyMillis,
+                    long connectMillis) throws IOException;
+    }
+
+    /**
+     * Read every sample of a log; returns the number of samples read.
+     */
+    public static long read(Path file, SampleVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+            buffer.flip();
+            if (!fill(channel, buffer, HEADER_BYTES)) {
+                throw new IOException("Not a binary result log: " + file);
+            }
+            int magic = buffer.getInt();
+            byte version = buffer.get();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException("Not a binary result log (version " + VERSION + "): " + file);
+            }
+
+            List<String> dictionary = new ArrayList<>();
+            long previous = 0;
+            long samples = 0;
+            while (fill(channel, buffer, 1)) {
+                byte tag = buffer.get();
+                if (tag == SAMPLE) {
+                    if (!fill(channel, buffer, SAMPLE_BYTES - 1)) {
+                        break;
+                    }
+                    long timestamp = previous + buffer.getInt();
+                    long elapsed = buffer.getInt();
+                    long latency = buffer.getInt();
+                    long connect = buffer.getInt();
+                    long bytes = buffer.getInt();
+                    int threads = buffer.getInt();
+                    String label = dictionary.get(buffer.getShort() & 0xFFFF);
+                    String code = dictionary.get(buffer.getShort() & 0xFFFF);
+                    String message = dictionary.get(buffer.getShort() & 0xFFFF);
+                    String thread = dictionary.get(buffer.getShort() & 0xFFFF);
+                    boolean success = buffer.get() != 0;
+                    visitor.sample(timestamp, elapsed, label, code, message, thread, success, bytes, threads, latency, connect);
+                    previous = timestamp;
+                    samples++;
+                } else if (tag == TIMESTAMP) {
+                    if (!fill(channel, buffer, 8)) {
+                        break;
+                    }
+                    previous = buffer.getLong();
+                } else if (tag == STRING) {
+                    if (!fill(channel, buffer, 4)) {
+                        break;
+                    }
+                    int id = buffer.getShort() & 0xFFFF;
+                    int length = buffer.getShort() & 0xFFFF;
+                    if (!fill(channel, buffer, length)) {
+                        break;
+                    }
+                    byte[] utf8 = new byte[length];
+                    buffer.get(utf8);
+                    if (id != dictionary.size()) {
+                        throw new IOException("Dictionary entry " + id + " out of order at record " + samples);
+                    }
+                    dictionary.add(new String(utf8, StandardCharsets.UTF_8));
+                } else {
+                    throw new IOException("Corrupt binary result log: tag " + tag + " after " + samples + " samples");
+                }
+            }
+            if (buffer.hasRemaining()) {
+                logger.warn("Ignoring truncated record at the end of {}", file);
+            }
+            return samples;
+        }
+    }
+
+    /**
+     * Make sure at least the given number of bytes are buffered; false at end of file.
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Convert a binary log into a CSV JTL for tools that expect JMeter's format.
+     */
+    public static long convertToCsv(Path binaryFile, Path csvFile) throws IOException {
+        try (JtlCsvWriter writer = new JtlCsvWriter(csvFile.toString())) {
+            long samples = read(binaryFile, writer::write);
+            logger.info("Converted {} samples from {} to {}", samples, binaryFile, csvFile);
+            return samples;
+        }
+    }
+
+    /**
+     * Convert a binary log to CSV: {@code BinaryResultLog <results.brl> [results.jtl]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: BinaryResultLog <results" + EXTENSION + "> [results.jtl]");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args.length > 1 ? args[1]
+                : args[0].substring(0, args[0].length() - (args[0].endsWith(EXTENSION) ? EXTENSION.length() : 0)) + ".jtl");
+        System.out.println("Converted " + convertToCsv(input, output) + " samples to " + output);
+    }
+}
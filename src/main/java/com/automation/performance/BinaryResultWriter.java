@@ -0,0 +1,289 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes samples in the compact {@link BinaryResultLog} format.
+ * Sampler threads only copy their sample into a slot of a preallocated ring buffer; a single
+ * background thread encodes the slots, maintains the string dictionary and writes in large
+ * batches through a {@link FileChannel}. When the ring is full, sampler threads wait for space
+ * rather than drop samples.
+ */
+public class BinaryResultWriter implements SampleWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryResultWriter.class);
+
+    public static final int DEFAULT_RING_CAPACITY = 64 * 1024;
+
+    private static final int BATCH_BYTES = 1024 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    /** Set in the claim counter on close, so claims racing close() fail instead of being lost. */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLongArray published;
+    private final LongAdder stalledWrites = new LongAdder();
+    private final Thread writerThread;
+    private volatile long consumed;
+    private volatile long closedAt;
+    private volatile boolean closing;
+    private volatile IOException failure;
+
+    // Owned by the writer thread
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BYTES);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private long previousTimestamp;
+    private boolean dictionaryFull;
+
+    public BinaryResultWriter(String filename) throws IOException {
+        this(filename, DEFAULT_RING_CAPACITY);
+    }
+
+    public BinaryResultWriter(String filename, int ringCapacity) throws IOException {
+        if (Integer.bitCount(ringCapacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + ringCapacity);
+        }
+        this.file = Paths.get(filename);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.ring = new Slot[ringCapacity];
+        for (int i = 0; i < ringCapacity; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = ringCapacity - 1;
+        this.published = new AtomicLongArray(ringCapacity);
+        for (int i = 0; i < ringCapacity; i++) {
+            published.set(i, -1);
+        }
+
+        batch.putInt(BinaryResultLog.MAGIC);
+        batch.put(BinaryResultLog.VERSION);
+        dictionaryId("");
+
+        this.writerThread = new Thread(this::drainLoop, "binary-result-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Hand a sample to the writer thread; never touches the file.
+     */
+    @Override
+    public void write(long timeStamp, long elapsedMillis, String label, String responseCode, String responseMessage,
+                      String threadName, boolean success, long bytes, int activeThreads, long latencyMillis,
+                      long connectMillis) throws IOException {
+        if (failure != null) {
+            throw new IOException("Binary result writer failed: " + file, failure);
+        }
+        long sequence = claimed.getAndIncrement();
+        if (sequence < 0) {
+            throw new IOException("Binary result writer closed: " + file);
+        }
+        if (sequence - consumed >= ring.length) {
+            stalledWrites.increment();
+            while (sequence - consumed >= ring.length && failure == null) {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+        Slot slot = ring[(int) (sequence & mask)];
+        slot.timeStamp = timeStamp;
+        slot.elapsed = elapsedMillis;
+        slot.latency = latencyMillis;
+        slot.connect = connectMillis;
+        slot.bytes = bytes;
+        slot.activeThreads = activeThreads;
+        slot.label = label;
+        slot.responseCode = responseCode;
+        slot.responseMessage = responseMessage;
+        slot.threadName = threadName;
+        slot.success = success;
+        published.set((int) (sequence & mask), sequence);
+    }
+
+    /**
+     * Number of writes that had to wait because the ring was full.
+     */
+    public long getStalledWrites() {
+        return stalledWrites.sum();
+    }
+
+    private void drainLoop() {
+        try {
+            while (true) {
+                // Read the flag before draining so samples published before close() are always written
+                boolean finishing = closing;
+                long next = consumed;
+                int index = (int) (next & mask);
+                if (published.get(index) == next) {
+                    encode(ring[index]);
+                    ring[index].clear();
+                    consumed = next + 1;
+                    continue;
+                }
+                flush();
+                if (finishing && next == closedAt) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Binary result writer failed: {}", file, e);
+            failure = e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    private void encode(Slot slot) throws IOException {
+        int label = dictionaryId(slot.label);
+        int code = dictionaryId(slot.responseCode);
+        int message = dictionaryId(slot.responseMessage);
+        int thread = dictionaryId(slot.threadName);
+
+        long delta = slot.timeStamp - previousTimestamp;
+        if (delta != (int) delta) {
+            ensureCapacity(9);
+            batch.put(BinaryResultLog.TIMESTAMP);
+            batch.putLong(slot.timeStamp);
+            delta = 0;
+        }
+        ensureCapacity(BinaryResultLog.SAMPLE_BYTES);
+        batch.put(BinaryResultLog.SAMPLE);
+        batch.putInt((int) delta);
+        batch.putInt(clamp(slot.elapsed));
+        batch.putInt(clamp(slot.latency));
+        batch.putInt(slot.connect < 0 ? -1 : clamp(slot.connect));
+        batch.putInt(clamp(slot.bytes));
+        batch.putInt(slot.activeThreads);
+        batch.putShort((short) label);
+        batch.putShort((short) code);
+        batch.putShort((short) message);
+        batch.putShort((short) thread);
+        batch.put((byte) (slot.success ? 1 : 0));
+        previousTimestamp = slot.timeStamp;
+    }
+
+    /**
+     * Id of a string, writing a dictionary entry the first time it is seen. Once the dictionary is
+     * full, new strings are logged as the empty string.
+     */
+    private int dictionaryId(String value) throws IOException {
+        String key = value == null ? "" : value;
+        Integer id = dictionary.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (dictionary.size() >= BinaryResultLog.MAX_DICTIONARY_SIZE) {
+            if (!dictionaryFull) {
+                dictionaryFull = true;
+                logger.warn("Dictionary of {} is full, logging further distinct strings as empty", file);
+            }
+            return 0;
+        }
+        byte[] utf8 = key.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(utf8.length, BinaryResultLog.MAX_STRING_BYTES);
+        int newId = dictionary.size();
+        ensureCapacity(5 + length);
+        batch.put(BinaryResultLog.STRING);
+        batch.putShort((short) newId);
+        batch.putShort((short) length);
+        batch.put(utf8, 0, length);
+        dictionary.put(key, newId);
+        return newId;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (batch.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (batch.position() == 0) {
+            return;
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        batch.clear();
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Write every sample handed over so far and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        // Every sequence claimed before this point is written; later claims see the flag and fail
+        long claimedBeforeClose = claimed.getAndUpdate(count -> count | CLOSED);
+        if (claimedBeforeClose < 0) {
+            return;
+        }
+        closedAt = claimedBeforeClose;
+        closing = true;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing " + file, e);
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        logger.info("Wrote {} samples to {} ({} stalled writes)", closedAt, file, getStalledWrites());
+    }
+
+    /**
+     * One preallocated sample; references are cleared once encoded.
+     */
+    private static final class Slot {
+        private long timeStamp;
+        private long elapsed;
+        private long latency;
+        private long connect;
+        private long bytes;
+        private int activeThreads;
+        private String label;
+        private String responseCode;
+        private String responseMessage;
+        private String threadName;
+        private boolean success;
+
+        private void clear() {
+            label = null;
+            responseCode = null;
+            responseMessage = null;
+            threadName = null;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.automation.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a {@link CapacitySearch}: every measured step in order of load, the highest load that
+ * met the targets, the first that broke them and where queueing began.
+ */
+public class CapacityReport {
+
+    /** Queueing has begun once median latency exceeds the lightest step's by this factor. */
+    public static final double QUEUEING_LATENCY_FACTOR = 1.5;
+
+    private final List<CapacityStep> steps;
+    private final double targetP99Millis;
+    private final double maxErrorPercentage;
+    private final boolean generatorLimited;
+
+    public CapacityReport(List<CapacityStep> steps, double targetP99Millis, double maxErrorPercentage,
+                          boolean generatorLimited) {
+        List<CapacityStep> sorted = new ArrayList<>(steps);
+        sorted.sort((a, b) -> Integer.compare(a.getUsers(), b.getUsers()));
+        this.steps = Collections.unmodifiableList(sorted);
+        this.targetP99Millis = targetP99Millis;
+        this.maxErrorPercentage = maxErrorPercentage;
+        this.generatorLimited = generatorLimited;
+    }
+
+    /**
+     * Latency curve: every measured step, ordered by users.
+     */
+    public List<CapacityStep> getSteps() { return steps; }
+
+    public double getTargetP99Millis() { return targetP99Millis; }
+    public double getMaxErrorPercentage() { return maxErrorPercentage; }
+
+    /**
+     * Whether the search stopped because the load generator saturated before the target broke;
+     * the capacity found is then a lower bound.
+     */
+    public boolean isGeneratorLimited() { return generatorLimited; }
+
+    /**
+     * The highest load that met the targets, or null if even the lightest step broke them.
+     */
+    public CapacityStep getMaxSustainableStep() {
+        CapacityStep best = null;
+        for (CapacityStep step : steps) {
+            if (step.isWithinTarget() && !step.isGeneratorSaturated()) {
+                best = step;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Highest throughput any step achieved within the targets.
+     */
+    public double getMaxSustainableThroughput() {
+        double max = 0;
+        for (CapacityStep step : steps) {
+            if (step.isWithinTarget() && !step.isGeneratorSaturated()) {
+                max = Math.max(max, step.getThroughputPerSecond());
+            }
+        }
+        return max;
+    }
+
+    /**
+     * The lightest step that broke the targets, or null if none did. Steps of a saturated
+     * generator say nothing about the target and are skipped.
+     */
+    public CapacityStep getBreakingStep() {
+        for (CapacityStep step : steps) {
+            if (!step.isWithinTarget() && !step.isGeneratorSaturated()) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The first step whose median latency rose {@link #QUEUEING_LATENCY_FACTOR} above the lightest
+     * step's: more users from there on mostly wait instead of adding throughput. Null if latency held.
+     */
+    public CapacityStep getQueueingStep() {
+        if (steps.isEmpty() || Double.isNaN(steps.get(0).getP50ResponseTime())) {
+            return null;
+        }
+        double baseline = steps.get(0).getP50ResponseTime();
+        for (CapacityStep step : steps) {
+            if (!(step.getP50ResponseTime() <= baseline * QUEUEING_LATENCY_FACTOR)) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Capacity Search Results:\n");
+        summary.append(String.format("Targets: p99 <= %.2f ms, errors <= %.2f%%%n", targetP99Millis, maxErrorPercentage));
+        CapacityStep sustainable = getMaxSustainableStep();
+        summary.append("Max Sustainable: ").append(sustainable != null
+                ? String.format("%.2f requests/sec at %d users", getMaxSustainableThroughput(), sustainable.getUsers())
+                : "none, the lightest step broke the targets").append("\n");
+        CapacityStep breaking = getBreakingStep();
+        summary.append("Breaking Point: ").append(breaking != null ? breaking.getUsers() + " users" : "not reached").append("\n");
+        CapacityStep queueing = getQueueingStep();
+        summary.append("Queueing Began: ").append(queueing != null ? queueing.getUsers() + " users" : "not observed").append("\n");
+        if (generatorLimited) {
+            summary.append("WARNING: search stopped by a saturated load generator, capacity is a lower bound\n");
+        }
+        summary.append("Latency Curve:\n");
+        for (CapacityStep step : steps) {
+            summary.append("  - ").append(step).append("\n");
+        }
+        return summary.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+}
@@ -0,0 +1,191 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the knee of a system: the most concurrent users it sustains while p99 and the error rate
+ * meet their targets. Load doubles from the start level until a step breaks a target, then the
+ * range between the last good and the first bad step is bisected down to the configured precision.
+ * Each level is held until throughput and p99 settle, up to a maximum hold, and judged on its
+ * settled part only. The search stops early if the load generator saturates.
+ */
+public class CapacitySearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapacitySearch.class);
+
+    /**
+     * Time-series resolution step runs should use, so a step of a few seconds has enough intervals
+     * for steady-state detection.
+     */
+    public static final long STEP_RESOLUTION_MILLIS = 250;
+
+    /**
+     * Runs one load level for the given duration.
+     */
+    @FunctionalInterface
+    public interface StepRunner {
+        PerformanceResults run(int users, int durationSeconds);
+    }
+
+    private final double targetP99Millis;
+    private final double maxErrorPercentage;
+    private final int startUsers;
+    private final int maxUsers;
+    private final int stepSeconds;
+    private final int maxStepSeconds;
+    private final double precision;
+
+    private CapacitySearch(CapacitySearchBuilder builder) {
+        if (builder.targetP99Millis <= 0) {
+            throw new IllegalArgumentException("Target p99 must be positive: " + builder.targetP99Millis);
+        }
+        if (builder.startUsers <= 0 || builder.maxUsers < builder.startUsers) {
+            throw new IllegalArgumentException("Users must satisfy 0 < start <= max: "
+                    + builder.startUsers + ", " + builder.maxUsers);
+        }
+        if (builder.stepSeconds <= 0 || builder.maxStepSeconds < builder.stepSeconds) {
+            throw new IllegalArgumentException("Step durations must satisfy 0 < step <= max: "
+                    + builder.stepSeconds + ", " + builder.maxStepSeconds);
+        }
+        this.targetP99Millis = builder.targetP99Millis;
+        this.maxErrorPercentage = builder.maxErrorPercentage;
+        this.startUsers = builder.startUsers;
+        this.maxUsers = builder.maxUsers;
+        this.stepSeconds = builder.stepSeconds;
+        this.maxStepSeconds = builder.maxStepSeconds;
+        this.precision = builder.precision;
+    }
+
+    public static CapacitySearchBuilder builder() {
+        return new CapacitySearchBuilder();
+    }
+
+    /**
+     * Run the search, one step at a time.
+     */
+    public CapacityReport search(StepRunner runner) {
+        logger.info("Capacity search: p99 <= {} ms, errors <= {}%, {} to {} users",
+                   targetP99Millis, maxErrorPercentage, startUsers, maxUsers);
+        List<CapacityStep> steps = new ArrayList<>();
+        int good = 0;
+        int bad = 0;
+
+        // Double until a step breaks the targets
+        for (int users = startUsers; ; users = (int) Math.min(maxUsers, 2L * users)) {
+            CapacityStep step = measure(runner, users);
+            steps.add(step);
+            if (step.isGeneratorSaturated()) {
+                return finish(steps, true);
+            }
+            if (!step.isWithinTarget()) {
+                bad = users;
+                break;
+            }
+            good = users;
+            if (users >= maxUsers) {
+                return finish(steps, false);
+            }
+        }
+
+        // Bisect between the last good and the first bad level
+        while (bad - good > Math.max(1, good * precision)) {
+            int users = good + (bad - good) / 2;
+            CapacityStep step = measure(runner, users);
+            steps.add(step);
+            if (step.isGeneratorSaturated()) {
+                return finish(steps, true);
+            }
+            if (step.isWithinTarget()) {
+                good = users;
+            } else {
+                bad = users;
+            }
+        }
+        return finish(steps, false);
+    }
+
+    /**
+     * Run a level, doubling its hold until throughput and p99 settle or the maximum hold is reached.
+     */
+    private CapacityStep measure(StepRunner runner, int users) {
+        int seconds = stepSeconds;
+        while (true) {
+            PerformanceResults results = runner.run(users, seconds);
+            CapacityStep step = CapacityStep.measure(users, seconds, results, targetP99Millis, maxErrorPercentage);
+            if (step.isSteady() || step.isGeneratorSaturated() || seconds >= maxStepSeconds) {
+                logger.info("Capacity step {}", step);
+                return step;
+            }
+            seconds = Math.min(maxStepSeconds, seconds * 2);
+            logger.info("{} users not steady yet, holding for {} s", users, seconds);
+        }
+    }
+
+    private CapacityReport finish(List<CapacityStep> steps, boolean generatorLimited) {
+        CapacityReport report = new CapacityReport(steps, targetP99Millis, maxErrorPercentage, generatorLimited);
+        logger.info(report.getSummary());
+        return report;
+    }
+
+    public static class CapacitySearchBuilder {
+        private double targetP99Millis = 1000;
+        private double maxErrorPercentage = 1.0;
+        private int startUsers = 1;
+        private int maxUsers = 1024;
+        private int stepSeconds = 10;
+        private int maxStepSeconds = 60;
+        private double precision = 0.1;
+
+        /**
+         * Highest acceptable p99 of a step, in milliseconds.
+         */
+        public CapacitySearchBuilder targetP99Millis(double targetP99Millis) {
+            this.targetP99Millis = targetP99Millis;
+            return this;
+        }
+
+        public CapacitySearchBuilder maxErrorPercentage(double maxErrorPercentage) {
+            this.maxErrorPercentage = maxErrorPercentage;
+            return this;
+        }
+
+        public CapacitySearchBuilder startUsers(int startUsers) {
+            this.startUsers = startUsers;
+            return this;
+        }
+
+        public CapacitySearchBuilder maxUsers(int maxUsers) {
+            this.maxUsers = maxUsers;
+            return this;
+        }
+
+        /**
+         * Initial hold of each step; doubled while the step has not settled.
+         */
+        public CapacitySearchBuilder stepSeconds(int stepSeconds) {
+            this.stepSeconds = stepSeconds;
+            return this;
+        }
+
+        public CapacitySearchBuilder maxStepSeconds(int maxStepSeconds) {
+            this.maxStepSeconds = maxStepSeconds;
+            return this;
+        }
+
+        /**
+         * Bisection stops once the gap between good and bad is within this fraction of the good level.
+         */
+        public CapacitySearchBuilder precision(double precision) {
+            this.precision = precision;
+            return this;
+        }
+
+        public CapacitySearch build() {
+            return new CapacitySearch(this);
+        }
+    }
+}
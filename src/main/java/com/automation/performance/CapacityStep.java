@@ -0,0 +1,91 @@
+package com.automation.performance;
+
+import java.util.List;
+
+/**
+ * One load level of a {@link CapacitySearch}: the users offered, how long the level was held and
+ * the throughput, latency and errors measured once the run had settled.
+ */
+public class CapacityStep {
+
+    private final int users;
+    private final int durationSeconds;
+    private final boolean steady;
+    private final double throughputPerSecond;
+    private final double p50ResponseTime;
+    private final double p99ResponseTime;
+    private final double errorPercentage;
+    private final boolean withinTarget;
+    private final boolean generatorSaturated;
+
+    public CapacityStep(int users, int durationSeconds, boolean steady, double throughputPerSecond,
+                        double p50ResponseTime, double p99ResponseTime, double errorPercentage,
+                        boolean withinTarget, boolean generatorSaturated) {
+        this.users = users;
+        this.durationSeconds = durationSeconds;
+        this.steady = steady;
+        this.throughputPerSecond = throughputPerSecond;
+        this.p50ResponseTime = p50ResponseTime;
+        this.p99ResponseTime = p99ResponseTime;
+        this.errorPercentage = errorPercentage;
+        this.withinTarget = withinTarget;
+        this.generatorSaturated = generatorSaturated;
+    }
+
+    /**
+     * Measure a step over the settled part of its time series: from the steady-state interval on, or
+     * over the second half of the run if it never settled. The last interval is partial and left out.
+     */
+    static CapacityStep measure(int users, int durationSeconds, PerformanceResults results,
+                                double targetP99Millis, double maxErrorPercentage) {
+        List<TimeSeriesPoint> points = results.getTimeSeries();
+        List<TimeSeriesPoint> complete = points.isEmpty() ? points : points.subList(0, points.size() - 1);
+        int steadyFrom = TimeSeriesAnalysis.steadyStateIndex(complete);
+        List<TimeSeriesPoint> settled = complete.subList(steadyFrom >= 0 ? steadyFrom : complete.size() / 2, complete.size());
+
+        TimeSeriesPoint merged = null;
+        long spanMillis = 0;
+        for (TimeSeriesPoint point : settled) {
+            merged = merged == null ? point : merged.merge(point);
+            spanMillis += point.getIntervalMillis();
+        }
+        if (merged == null || merged.getSamples() == 0) {
+            // Nothing completed: the level is far past capacity
+            return new CapacityStep(users, durationSeconds, false, 0.0, Double.NaN, Double.NaN, 100.0,
+                    false, results.isGeneratorSaturated());
+        }
+
+        double throughput = merged.getSamples() * 1000.0 / spanMillis;
+        double p99 = merged.getP99ResponseTime();
+        double errors = merged.getErrorPercentage();
+        return new CapacityStep(users, durationSeconds, steadyFrom >= 0, throughput, merged.getP50ResponseTime(), p99,
+                errors, p99 <= targetP99Millis && errors <= maxErrorPercentage, results.isGeneratorSaturated());
+    }
+
+    public int getUsers() { return users; }
+    public int getDurationSeconds() { return durationSeconds; }
+
+    /**
+     * Whether throughput and p99 settled before the step ended; unsettled steps are judged on their second half.
+     */
+    public boolean isSteady() { return steady; }
+
+    public double getThroughputPerSecond() { return throughputPerSecond; }
+    public double getP50ResponseTime() { return p50ResponseTime; }
+    public double getP99ResponseTime() { return p99ResponseTime; }
+    public double getErrorPercentage() { return errorPercentage; }
+
+    /**
+     * Whether p99 and the error rate both met the search targets.
+     */
+    public boolean isWithinTarget() { return withinTarget; }
+
+    public boolean isGeneratorSaturated() { return generatorSaturated; }
+
+    @Override
+    public String toString() {
+        return String.format("%d users: %.2f requests/sec, p50=%.2f ms, p99=%.2f ms, %.2f%% errors over %d s%s%s",
+                users, throughputPerSecond, p50ResponseTime, p99ResponseTime, errorPercentage, durationSeconds,
+                steady ? "" : " (not steady)", withinTarget ? "" : " - BREAKS TARGET");
+    }
+}
@@ -0,0 +1,147 @@
+package com.automation.performance;
+
+/**
+ * Per-plan HTTP connection handling: which client implementation JMeter samplers use, whether
+ * connections are kept alive and reused, and how large and long-lived the pool is.
+ * Engines apply what their HTTP client supports, and reject or warn about what it cannot honour.
+ */
+public class ConnectionSettings {
+
+    /**
+     * HTTP client implementation of the JMeter samplers.
+     */
+    public enum Implementation {
+        HTTP_CLIENT4("HttpClient4"),
+        JAVA("Java");
+
+        private final String jmeterName;
+
+        Implementation(String jmeterName) {
+            this.jmeterName = jmeterName;
+        }
+
+        /**
+         * Name JMeter uses for this implementation on a sampler.
+         */
+        public String getJMeterName() {
+            return jmeterName;
+        }
+
+        /**
+         * Resolve an implementation from its configuration name, e.g. "HttpClient4" or "Java".
+         */
+        public static Implementation fromName(String implementationName) {
+            if (implementationName == null || implementationName.trim().isEmpty()) {
+                return HTTP_CLIENT4;
+            }
+            String normalized = implementationName.trim().replace("-", "").replace("_", "");
+            for (Implementation implementation : values()) {
+                if (implementation.jmeterName.equalsIgnoreCase(normalized)) {
+                    return implementation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown HTTP implementation: " + implementationName);
+        }
+
+        @Override
+        public String toString() {
+            return jmeterName;
+        }
+    }
+
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30_000;
+
+    private final Implementation implementation;
+    private final boolean keepAlive;
+    private final int maxConnections;
+    private final long idleTimeoutMillis;
+    private final boolean tlsSessionReuse;
+
+    private ConnectionSettings(ConnectionSettingsBuilder builder) {
+        if (builder.maxConnections < 0) {
+            throw new IllegalArgumentException("Max connections must not be negative: " + builder.maxConnections);
+        }
+        if (builder.idleTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Idle timeout must not be negative: " + builder.idleTimeoutMillis);
+        }
+        this.implementation = builder.implementation;
+        this.keepAlive = builder.keepAlive;
+        this.maxConnections = builder.maxConnections;
+        this.idleTimeoutMillis = builder.idleTimeoutMillis;
+        this.tlsSessionReuse = builder.tlsSessionReuse;
+    }
+
+    /**
+     * HttpClient4 with keep-alive, TLS session reuse, an unbounded pool and a 30 second idle timeout.
+     */
+    public static ConnectionSettings defaults() {
+        return builder().build();
+    }
+
+    public static ConnectionSettingsBuilder builder() {
+        return new ConnectionSettingsBuilder();
+    }
+
+    public Implementation getImplementation() { return implementation; }
+    public boolean isKeepAlive() { return keepAlive; }
+
+    /**
+     * Most connections open at once; 0 leaves the pool unbounded.
+     */
+    public int getMaxConnections() { return maxConnections; }
+
+    /**
+     * How long a pooled connection may sit idle before it is evicted.
+     */
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+
+    /**
+     * Whether a virtual user keeps its TLS sessions and connections from one iteration to the next.
+     * When false, every iteration starts with new connections and full TLS handshakes.
+     */
+    public boolean isTlsSessionReuse() { return tlsSessionReuse; }
+
+    @Override
+    public String toString() {
+        return String.format("%s keepAlive=%s maxConnections=%s idleTimeout=%d ms tlsSessionReuse=%s",
+                implementation, keepAlive, maxConnections > 0 ? String.valueOf(maxConnections) : "unbounded",
+                idleTimeoutMillis, tlsSessionReuse);
+    }
+
+    public static class ConnectionSettingsBuilder {
+        private Implementation implementation = Implementation.HTTP_CLIENT4;
+        private boolean keepAlive = true;
+        private int maxConnections;
+        private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+        private boolean tlsSessionReuse = true;
+
+        public ConnectionSettingsBuilder implementation(Implementation implementation) {
+            this.implementation = implementation;
+            return this;
+        }
+
+        public ConnectionSettingsBuilder keepAlive(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        public ConnectionSettingsBuilder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public ConnectionSettingsBuilder idleTimeoutMillis(long idleTimeoutMillis) {
+            this.idleTimeoutMillis = idleTimeoutMillis;
+            return this;
+        }
+
+        public ConnectionSettingsBuilder tlsSessionReuse(boolean tlsSessionReuse) {
+            this.tlsSessionReuse = tlsSessionReuse;
+            return this;
+        }
+
+        public ConnectionSettings build() {
+            return new ConnectionSettings(this);
+        }
+    }
+}
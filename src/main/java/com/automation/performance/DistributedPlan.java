@@ -0,0 +1,175 @@
+package com.automation.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closed-model test plan for a distributed run.
+ * Holds the same parameters as {@link LoadEngine#createTestPlan} plus the requests to send and the
+ * engine settings of the run; the {@link LoadCoordinator} splits the users across workers and each
+ * worker replays the plan with its share on its own engine. Live SLA rules are evaluated by each
+ * worker over its own share of the load.
+ */
+public class DistributedPlan {
+
+    private final String testPlanName;
+    private final int threadCount;
+    private final int rampUpSeconds;
+    private final int loops;
+    private String engine = LoadEngineType.JMETER.toString();
+    private final List<Request> requests = new ArrayList<>();
+    private ConnectionSettings connectionSettings;
+    private TrafficMix trafficMix;
+    private WarmUpWindow warmUp;
+    private int liveSlaWindowSeconds;
+    private int liveSlaGracePeriodSeconds;
+    private List<SlaRule> liveSlaRules = Collections.emptyList();
+
+    public DistributedPlan(String testPlanName, int threadCount, int rampUpSeconds, int loops) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threadCount);
+        }
+        this.testPlanName = testPlanName;
+        this.threadCount = threadCount;
+        this.rampUpSeconds = rampUpSeconds;
+        this.loops = loops;
+    }
+
+    /**
+     * Load engine the workers run the plan on, by {@link LoadEngineType} name.
+     */
+    public DistributedPlan withEngine(String engine) {
+        this.engine = LoadEngineType.fromName(engine).toString();
+        return this;
+    }
+
+    /**
+     * See {@link LoadEngine#withConnectionSettings}; engine defaults if not set.
+     */
+    public DistributedPlan withConnectionSettings(ConnectionSettings connectionSettings) {
+        this.connectionSettings = connectionSettings;
+        return this;
+    }
+
+    /**
+     * See {@link LoadEngine#withTrafficMix}.
+     */
+    public DistributedPlan withTrafficMix(TrafficMix trafficMix) {
+        this.trafficMix = trafficMix;
+        return this;
+    }
+
+    /**
+     * See {@link LoadEngine#withWarmUp}.
+     */
+    public DistributedPlan withWarmUp(WarmUpWindow warmUp) {
+        this.warmUp = warmUp;
+        return this;
+    }
+
+    /**
+     * See {@link LoadEngine#withLiveSla}.
+     */
+    public DistributedPlan withLiveSla(int windowSeconds, int gracePeriodSeconds, List<SlaRule> rules) {
+        this.liveSlaWindowSeconds = windowSeconds;
+        this.liveSlaGracePeriodSeconds = gracePeriodSeconds;
+        this.liveSlaRules = new ArrayList<>(rules);
+        return this;
+    }
+
+    public DistributedPlan addHttpRequest(String samplerName, String protocol, String serverName,
+                                          int port, String path, String method) {
+        return addHttpRequest(samplerName, protocol, serverName, port, path, method, null, null);
+    }
+
+    public DistributedPlan addHttpRequest(String samplerName, String protocol, String serverName,
+                                          int port, String path, String method,
+                                          Map<String, String> headers, String requestBody) {
+        requests.add(new Request(samplerName, protocol, serverName, port, path, method,
+                headers == null ? Collections.emptyMap() : new LinkedHashMap<>(headers), requestBody));
+        return this;
+    }
+
+    public String getTestPlanName() { return testPlanName; }
+    public int getThreadCount() { return threadCount; }
+    public int getRampUpSeconds() { return rampUpSeconds; }
+    public int getLoops() { return loops; }
+    public String getEngine() { return engine; }
+    public List<Request> getRequests() { return Collections.unmodifiableList(requests); }
+    public ConnectionSettings getConnectionSettings() { return connectionSettings; }
+    public TrafficMix getTrafficMix() { return trafficMix; }
+    public WarmUpWindow getWarmUp() { return warmUp; }
+    public int getLiveSlaWindowSeconds() { return liveSlaWindowSeconds; }
+    public int getLiveSlaGracePeriodSeconds() { return liveSlaGracePeriodSeconds; }
+    public List<SlaRule> getLiveSlaRules() { return Collections.unmodifiableList(liveSlaRules); }
+
+    /**
+     * Number of users the given worker runs; the remainder goes to the first workers.
+     */
+    public int threadsForWorker(int workerIndex, int workerCount) {
+        return threadCount / workerCount + (workerIndex < threadCount % workerCount ? 1 : 0);
+    }
+
+    /**
+     * Create this plan on the given engine with the given number of users.
+     */
+    public LoadEngine applyTo(LoadEngine loadEngine, int threads) {
+        if (connectionSettings != null) {
+            loadEngine.withConnectionSettings(connectionSettings);
+        }
+        loadEngine.createTestPlan(testPlanName, threads, rampUpSeconds, loops);
+        if (trafficMix != null) {
+            loadEngine.withTrafficMix(trafficMix);
+        }
+        if (warmUp != null) {
+            loadEngine.withWarmUp(warmUp);
+        }
+        if (!liveSlaRules.isEmpty()) {
+            loadEngine.withLiveSla(liveSlaWindowSeconds, liveSlaGracePeriodSeconds, liveSlaRules);
+        }
+        for (Request request : requests) {
+            loadEngine.addHttpRequest(request.getSamplerName(), request.getProtocol(), request.getServerName(),
+                    request.getPort(), request.getPath(), request.getMethod(),
+                    request.getHeaders(), request.getRequestBody());
+        }
+        return loadEngine;
+    }
+
+    /**
+     * One HTTP request of the plan, with the arguments of {@link LoadEngine#addHttpRequest}.
+     */
+    public static class Request {
+        private final String samplerName;
+        private final String protocol;
+        private final String serverName;
+        private final int port;
+        private final String path;
+        private final String method;
+        private final Map<String, String> headers;
+        private final String requestBody;
+
+        public Request(String samplerName, String protocol, String serverName, int port, String path,
+                       String method, Map<String, String> headers, String requestBody) {
+            this.samplerName = samplerName;
+            this.protocol = protocol;
+            this.serverName = serverName;
+            this.port = port;
+            this.path = path;
+            this.method = method;
+            this.headers = headers;
+            this.requestBody = requestBody;
+        }
+
+        public String getSamplerName() { return samplerName; }
+        public String getProtocol() { return protocol; }
+        public String getServerName() { return serverName; }
+        public int getPort() { return port; }
+        public String getPath() { return path; }
+        public String getMethod() { return method; }
+        public Map<String, String> getHeaders() { return headers; }
+        public String getRequestBody() { return requestBody; }
+    }
+}
@@ -0,0 +1,458 @@
+package com.automation.performance;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format between {@link LoadCoordinator} and {@link LoadWorker}.
+ * A session is one run over a plain TCP connection:
+ * <pre>
+ * coordinator -> worker: HELLO (magic and the shared token), PLAN (with the worker's share of users
+ *                        and the engine settings of the run)
+ * worker -> coordinator: READY
+ * coordinator -> worker: START (delay before the run starts, coordinator's clock at the start)
+ * worker -> coordinator: RESULT (counters and encoded histograms) or ERROR
+ * </pre>
+ * A worker answers a HELLO with the wrong token with an ERROR and never reads the plan.
+ * Results carry histograms rather than percentiles so the coordinator can merge them exactly.
+ * Workers move their time series onto the coordinator's clock before sending it, so intervals
+ * of hosts whose clocks disagree still line up when merged.
+ */
+public final class DistributedProtocol {
+
+    public static final int MAGIC = 0x4C445031;
+
+    public static final byte HELLO = 0;
+    public static final byte PLAN = 1;
+    public static final byte READY = 2;
+    public static final byte START = 3;
+    public static final byte RESULT = 4;
+    public static final byte ERROR = 5;
+
+    private DistributedProtocol() {
+    }
+
+    public static void writeHello(DataOutputStream out, String token) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(HELLO);
+        out.writeUTF(token);
+        out.flush();
+    }
+
+    /**
+     * Read a HELLO and check its token; false if it does not match the expected one.
+     */
+    public static boolean readHello(DataInputStream in, String expectedToken) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not a load coordinator: 0x" + Integer.toHexString(magic));
+        }
+        expect(in, HELLO);
+        // Constant-time comparison, so response timing does not reveal how much of the token matched
+        return MessageDigest.isEqual(in.readUTF().getBytes(StandardCharsets.UTF_8),
+                expectedToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void writePlan(DataOutputStream out, DistributedPlan plan, int threads) throws IOException {
+        out.writeByte(PLAN);
+        out.writeUTF(plan.getTestPlanName());
+        out.writeInt(threads);
+        out.writeInt(plan.getRampUpSeconds());
+        out.writeInt(plan.getLoops());
+        out.writeUTF(plan.getEngine());
+        List<DistributedPlan.Request> requests = plan.getRequests();
+        out.writeInt(requests.size());
+        for (DistributedPlan.Request request : requests) {
+            out.writeUTF(request.getSamplerName());
+            out.writeUTF(request.getProtocol());
+            out.writeUTF(request.getServerName());
+            out.writeInt(request.getPort());
+            out.writeUTF(request.getPath());
+            out.writeUTF(request.getMethod());
+            out.writeInt(request.getHeaders().size());
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeUTF(header.getValue());
+            }
+            // Bodies may exceed the 64 KB limit of writeUTF
+            String body = request.getRequestBody();
+            out.writeBoolean(body != null);
+            if (body != null) {
+                writeBytes(out, body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        writeSettings(out, plan);
+        out.flush();
+    }
+
+    private static void writeSettings(DataOutputStream out, DistributedPlan plan) throws IOException {
+        ConnectionSettings connections = plan.getConnectionSettings();
+        out.writeBoolean(connections != null);
+        if (connections != null) {
+            out.writeUTF(connections.getImplementation().getJMeterName());
+            out.writeBoolean(connections.isKeepAlive());
+            out.writeInt(connections.getMaxConnections());
+            out.writeLong(connections.getIdleTimeoutMillis());
+            out.writeBoolean(connections.isTlsSessionReuse());
+        }
+
+        TrafficMix mix = plan.getTrafficMix();
+        out.writeInt(mix == null ? 0 : mix.getWeights().size());
+        if (mix != null) {
+            for (Map.Entry<String, Double> weight : mix.getWeights().entrySet()) {
+                out.writeUTF(weight.getKey());
+                out.writeDouble(weight.getValue());
+            }
+        }
+
+        WarmUpWindow warmUp = plan.getWarmUp();
+        out.writeBoolean(warmUp != null);
+        if (warmUp != null) {
+            out.writeLong(warmUp.getDurationMillis());
+            out.writeLong(warmUp.getSamples());
+            out.writeBoolean(warmUp.isUntilStable());
+        }
+
+        out.writeInt(plan.getLiveSlaWindowSeconds());
+        out.writeInt(plan.getLiveSlaGracePeriodSeconds());
+        out.writeInt(plan.getLiveSlaRules().size());
+        for (SlaRule rule : plan.getLiveSlaRules()) {
+            writeRule(out, rule);
+        }
+    }
+
+    private static void readSettings(DataInputStream in, DistributedPlan plan) throws IOException {
+        if (in.readBoolean()) {
+            plan.withConnectionSettings(ConnectionSettings.builder()
+                    .implementation(ConnectionSettings.Implementation.fromName(in.readUTF()))
+                    .keepAlive(in.readBoolean())
+                    .maxConnections(in.readInt())
+                    .idleTimeoutMillis(in.readLong())
+                    .tlsSessionReuse(in.readBoolean())
+                    .build());
+        }
+
+        int weightCount = in.readInt();
+        if (weightCount > 0) {
+            TrafficMix.TrafficMixBuilder mix = TrafficMix.builder();
+            for (int i = 0; i < weightCount; i++) {
+                mix.weight(in.readUTF(), in.readDouble());
+            }
+            plan.withTrafficMix(mix.build());
+        }
+
+        if (in.readBoolean()) {
+            long durationMillis = in.readLong();
+            long samples = in.readLong();
+            boolean untilStable = in.readBoolean();
+            plan.withWarmUp(samples > 0 ? WarmUpWindow.samples(samples)
+                    : untilStable ? WarmUpWindow.untilStable(durationMillis) : WarmUpWindow.duration(durationMillis));
+        }
+
+        int windowSeconds = in.readInt();
+        int gracePeriodSeconds = in.readInt();
+        int ruleCount = in.readInt();
+        List<SlaRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(readRule(in));
+        }
+        if (!rules.isEmpty()) {
+            plan.withLiveSla(windowSeconds, gracePeriodSeconds, rules);
+        }
+    }
+
+    /**
+     * Read a plan; its thread count is the share assigned to this worker.
+     */
+    public static DistributedPlan readPlan(DataInputStream in) throws IOException {
+        expect(in, PLAN);
+        String name = in.readUTF();
+        int threads = in.readInt();
+        int rampUp = in.readInt();
+        int loops = in.readInt();
+        DistributedPlan plan = new DistributedPlan(name, threads, rampUp, loops).withEngine(in.readUTF());
+        int requestCount = in.readInt();
+        for (int i = 0; i < requestCount; i++) {
+            String samplerName = in.readUTF();
+            String protocol = in.readUTF();
+            String serverName = in.readUTF();
+            int port = in.readInt();
+            String path = in.readUTF();
+            String method = in.readUTF();
+            int headerCount = in.readInt();
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (int h = 0; h < headerCount; h++) {
+                headers.put(in.readUTF(), in.readUTF());
+            }
+            String body = in.readBoolean() ? new String(readBytes(in), StandardCharsets.UTF_8) : null;
+            plan.addHttpRequest(samplerName, protocol, serverName, port, path, method, headers, body);
+        }
+        readSettings(in, plan);
+        return plan;
+    }
+
+    public static void writeResults(DataOutputStream out, PerformanceResults results) throws IOException {
+        out.writeByte(RESULT);
+        out.writeLong(results.getTotalExecutionTime());
+        out.writeInt(results.getThreadCount());
+        out.writeLong(results.getTotalSamples());
+        out.writeLong(results.getErrorCount());
+        out.writeDouble(results.getAverageResponseTime());
+        out.writeDouble(results.getMinResponseTime());
+        out.writeDouble(results.getMaxResponseTime());
+        out.writeDouble(results.getThroughputPerSecond());
+        out.writeDouble(results.getExpectedIntervalMillis());
+        writeHistogram(out, results.getResponseTimeHistogram());
+        writeHistogram(out, results.getCorrectedResponseTimeHistogram());
+
+        out.writeInt(results.getSamplerResults().size());
+        for (MetricsSummary summary : results.getSamplerResults().values()) {
+            writeSummary(out, summary);
+        }
+
+        out.writeInt(results.getTimeSeries().size());
+        for (TimeSeriesPoint point : results.getTimeSeries()) {
+            out.writeLong(point.getStartTimeMillis());
+            out.writeLong(point.getIntervalMillis());
+            out.writeLong(point.getSamples());
+            out.writeLong(point.getErrors());
+            out.writeInt(point.getActiveThreads());
+            writeHistogram(out, point.getHistogram());
+        }
+
+        out.writeInt(results.getErrors().size());
+        for (String error : results.getErrors()) {
+            out.writeUTF(error);
+        }
+
+        GeneratorHealthReport health = results.getGeneratorHealth();
+        out.writeBoolean(health != null);
+        if (health != null) {
+            out.writeInt(health.getSampleCount());
+            out.writeDouble(health.getPeakCpuPercent());
+            out.writeLong(health.getTotalGcPauseMillis());
+            out.writeDouble(health.getPeakAllocationMBPerSecond());
+            out.writeDouble(health.getPeakHeapUsedPercent());
+            out.writeInt(health.getPeakThreadCount());
+            writeNullableString(out, health.getSaturationReason());
+        }
+
+        out.writeInt(results.getLatencyBreakdowns().size());
+        for (LatencyBreakdown breakdown : results.getLatencyBreakdowns().values()) {
+            out.writeUTF(breakdown.getLabel());
+            writeHistogram(out, breakdown.getConnectHistogram());
+            writeHistogram(out, breakdown.getTimeToFirstByteHistogram());
+            writeHistogram(out, breakdown.getDownloadHistogram());
+        }
+
+        out.writeDouble(results.getTargetThroughput());
+        out.writeLong(results.getDelayedRequests());
+        out.writeLong(results.getDroppedRequests());
+        out.writeLong(results.getConnectionsOpened());
+        out.writeLong(results.getConnectionsReused());
+        out.writeLong(results.getTotalConnectTimeMillis());
+
+        TrafficMix mix = results.getTrafficMix();
+        out.writeInt(mix == null ? 0 : mix.getWeights().size());
+        if (mix != null) {
+            for (Map.Entry<String, Double> weight : mix.getWeights().entrySet()) {
+                out.writeUTF(weight.getKey());
+                out.writeDouble(weight.getValue());
+            }
+        }
+
+        out.writeBoolean(results.getWarmUpResults() != null);
+        if (results.getWarmUpResults() != null) {
+            writeSummary(out, results.getWarmUpResults());
+            out.writeLong(results.getWarmUpTimeMillis());
+            out.writeInt(results.getWarmUpErrors().size());
+            for (String error : results.getWarmUpErrors()) {
+                out.writeUTF(error);
+            }
+        }
+
+        SlaViolation violation = results.getSlaViolation();
+        out.writeBoolean(violation != null);
+        if (violation != null) {
+            writeRule(out, violation.getRule());
+            out.writeDouble(violation.getMeasuredValue());
+            out.writeLong(violation.getBreachStartMillis());
+            out.writeLong(violation.getAbortedAtMillis());
+        }
+        out.flush();
+    }
+
+    /**
+     * Read the results of a worker; the RESULT tag must already have been consumed.
+     */
+    public static PerformanceResults readResults(DataInputStream in) throws IOException {
+        PerformanceResults results = new PerformanceResults();
+        results.setTotalExecutionTime(in.readLong());
+        results.setThreadCount(in.readInt());
+        results.setTotalSamples(in.readLong());
+        results.setErrorCount(in.readLong());
+        results.setAverageResponseTime(in.readDouble());
+        results.setMinResponseTime(in.readDouble());
+        results.setMaxResponseTime(in.readDouble());
+        results.setThroughputPerSecond(in.readDouble());
+        results.setExpectedIntervalMillis(in.readDouble());
+        results.setErrorPercentage(results.getTotalSamples() == 0 ? 0.0
+                : results.getErrorCount() * 100.0 / results.getTotalSamples());
+        results.setResponseTimeHistogram(readHistogram(in));
+        results.setCorrectedResponseTimeHistogram(readHistogram(in));
+
+        int samplerCount = in.readInt();
+        for (int i = 0; i < samplerCount; i++) {
+            results.addSamplerResults(readSummary(in));
+        }
+
+        int pointCount = in.readInt();
+        for (int i = 0; i < pointCount; i++) {
+            long start = in.readLong();
+            long interval = in.readLong();
+            long samples = in.readLong();
+            long errors = in.readLong();
+            int activeThreads = in.readInt();
+            results.getTimeSeries().add(new TimeSeriesPoint(start, interval, samples, errors, activeThreads, readHistogram(in)));
+        }
+
+        int errorCount = in.readInt();
+        for (int i = 0; i < errorCount; i++) {
+            results.addError(in.readUTF());
+        }
+
+        if (in.readBoolean()) {
+            results.setGeneratorHealth(new GeneratorHealthReport(in.readInt(), in.readDouble(), in.readLong(),
+                    in.readDouble(), in.readDouble(), in.readInt(), readNullableString(in)));
+        }
+
+        int breakdownCount = in.readInt();
+        for (int i = 0; i < breakdownCount; i++) {
+            results.addLatencyBreakdown(new LatencyBreakdown(in.readUTF(), readHistogram(in), readHistogram(in), readHistogram(in)));
+        }
+
+        results.setTargetThroughput(in.readDouble());
+        results.setDelayedRequests(in.readLong());
+        results.setDroppedRequests(in.readLong());
+        results.setConnectionsOpened(in.readLong());
+        results.setConnectionsReused(in.readLong());
+        results.setTotalConnectTimeMillis(in.readLong());
+
+        int weightCount = in.readInt();
+        if (weightCount > 0) {
+            TrafficMix.TrafficMixBuilder mix = TrafficMix.builder();
+            for (int i = 0; i < weightCount; i++) {
+                mix.weight(in.readUTF(), in.readDouble());
+            }
+            results.setTrafficMix(mix.build());
+        }
+
+        if (in.readBoolean()) {
+            results.setWarmUpResults(readSummary(in));
+            results.setWarmUpTimeMillis(in.readLong());
+            int warmUpErrorCount = in.readInt();
+            for (int i = 0; i < warmUpErrorCount; i++) {
+                results.addWarmUpError(in.readUTF());
+            }
+        }
+
+        if (in.readBoolean()) {
+            results.setSlaViolation(new SlaViolation(readRule(in), in.readDouble(), in.readLong(), in.readLong()));
+        }
+        return results;
+    }
+
+    public static void writeError(DataOutputStream out, String message) throws IOException {
+        out.writeByte(ERROR);
+        out.writeUTF(message == null ? "" : message);
+        out.flush();
+    }
+
+    /**
+     * Read the next message tag, turning a worker ERROR into an exception.
+     */
+    public static void expect(DataInputStream in, byte tag) throws IOException {
+        byte actual = in.readByte();
+        if (actual == ERROR) {
+            throw new IOException("Worker error: " + in.readUTF());
+        }
+        if (actual != tag) {
+            throw new IOException("Unexpected message " + actual + ", expected " + tag);
+        }
+    }
+
+    private static void writeSummary(DataOutputStream out, MetricsSummary summary) throws IOException {
+        out.writeUTF(summary.getLabel());
+        out.writeLong(summary.getSamples());
+        out.writeLong(summary.getErrors());
+        out.writeDouble(summary.getAverageResponseTime());
+        out.writeDouble(summary.getMinResponseTime());
+        out.writeDouble(summary.getMaxResponseTime());
+        out.writeDouble(summary.getThroughputPerSecond());
+        writeHistogram(out, summary.getHistogram());
+    }
+
+    private static MetricsSummary readSummary(DataInputStream in) throws IOException {
+        return new MetricsSummary(in.readUTF(), in.readLong(), in.readLong(), in.readDouble(),
+                in.readDouble(), in.readDouble(), in.readDouble(), readHistogram(in));
+    }
+
+    private static void writeRule(DataOutputStream out, SlaRule rule) throws IOException {
+        out.writeUTF(rule.getMetric().name());
+        out.writeDouble(rule.getThreshold());
+    }
+
+    private static SlaRule readRule(DataInputStream in) throws IOException {
+        String metric = in.readUTF();
+        try {
+            return new SlaRule(SlaRule.Metric.valueOf(metric), in.readDouble());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown SLA metric: " + metric, e);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeHistogram(DataOutputStream out, LatencyHistogram histogram) throws IOException {
+        byte[] encoded = histogram.encode();
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static LatencyHistogram readHistogram(DataInputStream in) throws IOException {
+        byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        return LatencyHistogram.decode(encoded);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,129 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measured capacity of a load engine on this machine, taken against a {@link LoopbackServer} so the
+ * target costs next to nothing. The throughput ceiling is the most requests per second the engine
+ * completes against an instant server; the overhead is the latency it adds on top of a server with a
+ * known response time at light load. A run whose throughput approaches the ceiling was limited by the
+ * generator rather than by the system under test.
+ */
+public class GeneratorCalibration {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneratorCalibration.class);
+
+    /** Server response time of the overhead probe; anything measured above it is added by the generator. */
+    public static final long PROBE_LATENCY_MILLIS = 20;
+
+    /** Share of the ceiling above which a run's throughput is considered generator-bound. */
+    public static final double SATURATION_PERCENTAGE = 80.0;
+
+    private static final int PROBE_USERS = 2;
+    private static final Map<LoadEngineType, GeneratorCalibration> calibrations = new ConcurrentHashMap<>();
+
+    private final LoadEngineType engineType;
+    private final int users;
+    private final double maxThroughput;
+    private final double overheadP50Millis;
+    private final double overheadP99Millis;
+
+    public GeneratorCalibration(LoadEngineType engineType, int users, double maxThroughput,
+                                double overheadP50Millis, double overheadP99Millis) {
+        this.engineType = engineType;
+        this.users = users;
+        this.maxThroughput = maxThroughput;
+        this.overheadP50Millis = overheadP50Millis;
+        this.overheadP99Millis = overheadP99Millis;
+    }
+
+    /**
+     * Calibration of the given engine, measured on first use and reused for the rest of the process.
+     */
+    public static GeneratorCalibration forEngine(LoadEngineType engineType, int users, int durationSeconds) {
+        return calibrations.computeIfAbsent(engineType, type -> calibrate(type, users, durationSeconds));
+    }
+
+    /**
+     * Measure the throughput ceiling with the given number of users for the given duration, then the
+     * latency overhead with a light probe for half as long.
+     */
+    public static GeneratorCalibration calibrate(LoadEngineType engineType, int users, int durationSeconds) {
+        if (users <= 0 || durationSeconds <= 0) {
+            throw new IllegalArgumentException("Calibration needs users and a duration: " + users + ", " + durationSeconds);
+        }
+        logger.info("Calibrating {} engine with {} users for {} seconds", engineType, users, durationSeconds);
+
+        double maxThroughput;
+        try (LoopbackServer server = new LoopbackServer().start()) {
+            PerformanceResults results = engineType.create()
+                .createDurationTestPlan("Generator Calibration - throughput", users, 0, durationSeconds)
+                .addHttpRequest("GET users", "http", server.getHost(), server.getPort(), LoopbackServer.USERS_PATH, "GET")
+                .execute();
+            maxThroughput = results.getThroughputPerSecond();
+        }
+
+        double overheadP50;
+        double overheadP99;
+        try (LoopbackServer server = new LoopbackServer(PROBE_LATENCY_MILLIS, 0).start()) {
+            PerformanceResults results = engineType.create()
+                .createDurationTestPlan("Generator Calibration - overhead", PROBE_USERS, 0, Math.max(1, durationSeconds / 2))
+                .addHttpRequest("GET users", "http", server.getHost(), server.getPort(), LoopbackServer.USERS_PATH, "GET")
+                .execute();
+            overheadP50 = Math.max(0, results.getP50ResponseTime() - PROBE_LATENCY_MILLIS);
+            overheadP99 = Math.max(0, results.getP99ResponseTime() - PROBE_LATENCY_MILLIS);
+        }
+
+        GeneratorCalibration calibration = new GeneratorCalibration(engineType, users, maxThroughput, overheadP50, overheadP99);
+        logger.info("Generator calibration: {}", calibration);
+        return calibration;
+    }
+
+    public LoadEngineType getEngineType() { return engineType; }
+    public int getUsers() { return users; }
+
+    /**
+     * Most requests per second the engine completed against an instant loopback server.
+     */
+    public double getMaxThroughput() { return maxThroughput; }
+
+    /**
+     * Median latency the engine adds to each request at light load.
+     */
+    public double getOverheadP50Millis() { return overheadP50Millis; }
+    public double getOverheadP99Millis() { return overheadP99Millis; }
+
+    /**
+     * Share of the ceiling the given throughput used, in percent.
+     */
+    public double getCeilingPercentage(double throughputPerSecond) {
+        return maxThroughput <= 0 ? 0.0 : throughputPerSecond * 100.0 / maxThroughput;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s ceiling %.2f requests/sec with %d users, overhead p50 %.2f ms p99 %.2f ms",
+                engineType, maxThroughput, users, overheadP50Millis, overheadP99Millis);
+    }
+
+    /**
+     * Calibrate from the command line: {@code GeneratorCalibration [engine] [users] [seconds]}.
+     */
+    public static void main(String[] args) {
+        LoadEngineType engineType = LoadEngineType.fromName(args.length > 0 ? args[0] : null);
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : defaultUsers();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        System.out.println(calibrate(engineType, users, seconds));
+    }
+
+    /**
+     * Two users per core, enough to saturate an engine against an instant server.
+     */
+    public static int defaultUsers() {
+        return Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,256 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the load generator's own JVM once per time-series interval while a test runs, records
+ * each {@link GeneratorHealthSample} into the run's time series and flags the generator as saturated
+ * once CPU, GC pauses or heap stay above their thresholds for {@link #SUSTAINED_SAMPLES} intervals
+ * in a row. The readings cover the whole process, so concurrent runs in one JVM see each other's load.
+ */
+public class GeneratorHealthMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneratorHealthMonitor.class);
+
+    public static final double DEFAULT_MAX_CPU_PERCENT = 90.0;
+    public static final double DEFAULT_MAX_GC_PAUSE_PERCENT = 10.0;
+    public static final double DEFAULT_MAX_HEAP_PERCENT = 90.0;
+
+    /** Consecutive intervals above a threshold before the generator counts as saturated, so a single GC or JIT burst is not enough. */
+    public static final int SUSTAINED_SAMPLES = 3;
+
+    private static final long MIN_PERIOD_MILLIS = 100;
+
+    private final double maxCpuPercent;
+    private final double maxGcPausePercent;
+    private final double maxHeapPercent;
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final int processors = Runtime.getRuntime().availableProcessors();
+
+    private ScheduledExecutorService scheduler;
+    private TimeSeries timeSeries;
+    private long lastWallMillis;
+    private long lastNanos;
+    private long lastCpuNanos;
+    private long lastGcMillis;
+    private long lastAllocatedBytes;
+
+    private int sampleCount;
+    private double peakCpuPercent;
+    private long totalGcPauseMillis;
+    private double peakAllocationMBPerSecond;
+    private double peakHeapUsedPercent;
+    private int peakThreadCount;
+    private int consecutiveBreaches;
+    private String saturationReason;
+
+    public GeneratorHealthMonitor() {
+        this(DEFAULT_MAX_CPU_PERCENT, DEFAULT_MAX_GC_PAUSE_PERCENT, DEFAULT_MAX_HEAP_PERCENT);
+    }
+
+    /**
+     * @param maxCpuPercent     process CPU as a percentage of all cores
+     * @param maxGcPausePercent share of an interval spent in GC pauses
+     * @param maxHeapPercent    used heap as a percentage of the maximum heap
+     */
+    public GeneratorHealthMonitor(double maxCpuPercent, double maxGcPausePercent, double maxHeapPercent) {
+        if (maxCpuPercent <= 0 || maxGcPausePercent <= 0 || maxHeapPercent <= 0) {
+            throw new IllegalArgumentException(String.format("Health thresholds must be positive: cpu %s, gc %s, heap %s",
+                    maxCpuPercent, maxGcPausePercent, maxHeapPercent));
+        }
+        this.maxCpuPercent = maxCpuPercent;
+        this.maxGcPausePercent = maxGcPausePercent;
+        this.maxHeapPercent = maxHeapPercent;
+    }
+
+    /**
+     * Start sampling for a run that starts now, recording into the given time series.
+     */
+    public void start(TimeSeries timeSeries) {
+        stop();
+        synchronized (this) {
+            this.timeSeries = timeSeries;
+            sampleCount = 0;
+            peakCpuPercent = 0;
+            totalGcPauseMillis = 0;
+            peakAllocationMBPerSecond = 0;
+            peakHeapUsedPercent = 0;
+            peakThreadCount = 0;
+            consecutiveBreaches = 0;
+            saturationReason = null;
+            resetBaseline();
+
+            long period = Math.max(MIN_PERIOD_MILLIS, timeSeries.getResolutionMillis());
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "generator-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::tick, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop sampling, take a last sample of the partial interval and report the run.
+     */
+    public GeneratorHealthReport stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        // Wait outside the lock, a tick in progress needs it to finish
+        if (running != null) {
+            running.shutdownNow();
+            try {
+                running.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            // Very short partial intervals give meaningless rates
+            if (running != null && (sampleCount == 0
+                    || System.nanoTime() - lastNanos >= TimeUnit.MILLISECONDS.toNanos(MIN_PERIOD_MILLIS))) {
+                sample();
+            }
+            return new GeneratorHealthReport(sampleCount, peakCpuPercent, totalGcPauseMillis,
+                    peakAllocationMBPerSecond, peakHeapUsedPercent, peakThreadCount, saturationReason);
+        }
+    }
+
+    private synchronized void tick() {
+        if (scheduler != null) {
+            sample();
+        }
+    }
+
+    /**
+     * Read the JVM's counters, record the interval since the previous reading and check the thresholds.
+     */
+    synchronized GeneratorHealthSample sample() {
+        long nowMillis = System.currentTimeMillis();
+        long nowNanos = System.nanoTime();
+        long cpuNanos = processCpuNanos();
+        long gcMillis = gcPauseMillis();
+        long allocatedBytes = allocatedBytes();
+        long elapsedNanos = Math.max(1, nowNanos - lastNanos);
+
+        double cpuPercent = cpuNanos < 0 || lastCpuNanos < 0 ? Double.NaN
+                : (cpuNanos - lastCpuNanos) * 100.0 / ((double) elapsedNanos * processors);
+        double allocationRate = allocatedBytes < 0 || lastAllocatedBytes < 0 ? Double.NaN
+                : Math.max(0, allocatedBytes - lastAllocatedBytes) * 1e9 / elapsedNanos;
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        GeneratorHealthSample sample = new GeneratorHealthSample(lastWallMillis, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                cpuPercent, Math.max(0, gcMillis - lastGcMillis), allocationRate,
+                heap.getUsed(), heap.getMax(), threads.getThreadCount());
+
+        lastWallMillis = nowMillis;
+        lastNanos = nowNanos;
+        lastCpuNanos = cpuNanos;
+        lastGcMillis = gcMillis;
+        lastAllocatedBytes = allocatedBytes;
+
+        if (timeSeries != null) {
+            timeSeries.recordHealth(sample);
+        }
+        accumulate(sample);
+        return sample;
+    }
+
+    private void accumulate(GeneratorHealthSample sample) {
+        sampleCount++;
+        peakCpuPercent = max(peakCpuPercent, sample.getProcessCpuPercent());
+        totalGcPauseMillis += sample.getGcPauseMillis();
+        peakAllocationMBPerSecond = max(peakAllocationMBPerSecond, sample.getAllocationMBPerSecond());
+        peakHeapUsedPercent = max(peakHeapUsedPercent, sample.getHeapUsedPercent());
+        peakThreadCount = Math.max(peakThreadCount, sample.getThreadCount());
+
+        String breach = breach(sample);
+        consecutiveBreaches = breach == null ? 0 : consecutiveBreaches + 1;
+        if (saturationReason == null && consecutiveBreaches >= SUSTAINED_SAMPLES) {
+            saturationReason = String.format("%s for %d intervals", breach, consecutiveBreaches);
+            logger.warn("Load generator saturated: {}; results reflect the generator, not the system under test",
+                       saturationReason);
+        }
+    }
+
+    /**
+     * The first threshold the sample exceeds, or null if it is within all of them.
+     */
+    private String breach(GeneratorHealthSample sample) {
+        if (sample.getProcessCpuPercent() > maxCpuPercent) {
+            return String.format("process CPU %.1f%% above %.1f%%", sample.getProcessCpuPercent(), maxCpuPercent);
+        }
+        if (sample.getGcPausePercent() > maxGcPausePercent) {
+            return String.format("GC pauses %.1f%% of the interval above %.1f%%", sample.getGcPausePercent(), maxGcPausePercent);
+        }
+        if (sample.getHeapUsedPercent() > maxHeapPercent) {
+            return String.format("heap %.1f%% used above %.1f%%", sample.getHeapUsedPercent(), maxHeapPercent);
+        }
+        return null;
+    }
+
+    private void resetBaseline() {
+        lastWallMillis = System.currentTimeMillis();
+        lastNanos = System.nanoTime();
+        lastCpuNanos = processCpuNanos();
+        lastGcMillis = gcPauseMillis();
+        lastAllocatedBytes = allocatedBytes();
+    }
+
+    private long processCpuNanos() {
+        return operatingSystem instanceof com.sun.management.OperatingSystemMXBean
+                ? ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuTime() : -1;
+    }
+
+    /**
+     * Accumulated collection time of the pausing collectors. ZGC and Shenandoah report their
+     * concurrent cycles through separate "Cycles" beans, which are left out.
+     */
+    private long gcPauseMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            if (collector.getName().endsWith("Cycles")) {
+                continue;
+            }
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Bytes allocated so far by the live threads. Threads that ended since the last reading take
+     * their allocations with them, so the rate is a lower bound and is clamped at zero.
+     */
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+            if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled()) {
+                long total = 0;
+                for (long bytes : allocation.getThreadAllocatedBytes(allocation.getAllThreadIds())) {
+                    total += Math.max(0, bytes);
+                }
+                return total;
+            }
+        }
+        return -1;
+    }
+
+    private static double max(double peak, double value) {
+        return Double.isNaN(value) ? peak : Math.max(peak, value);
+    }
+}
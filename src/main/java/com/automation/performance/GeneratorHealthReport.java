@@ -0,0 +1,48 @@
+package com.automation.performance;
+
+/**
+ * Peaks of the load generator's health over a run, and why it counted as saturated, if it did.
+ * Results of a saturated generator describe the generator rather than the system under test.
+ */
+public class GeneratorHealthReport {
+
+    private final int sampleCount;
+    private final double peakCpuPercent;
+    private final long totalGcPauseMillis;
+    private final double peakAllocationMBPerSecond;
+    private final double peakHeapUsedPercent;
+    private final int peakThreadCount;
+    private final String saturationReason;
+
+    public GeneratorHealthReport(int sampleCount, double peakCpuPercent, long totalGcPauseMillis,
+                                 double peakAllocationMBPerSecond, double peakHeapUsedPercent,
+                                 int peakThreadCount, String saturationReason) {
+        this.sampleCount = sampleCount;
+        this.peakCpuPercent = peakCpuPercent;
+        this.totalGcPauseMillis = totalGcPauseMillis;
+        this.peakAllocationMBPerSecond = peakAllocationMBPerSecond;
+        this.peakHeapUsedPercent = peakHeapUsedPercent;
+        this.peakThreadCount = peakThreadCount;
+        this.saturationReason = saturationReason;
+    }
+
+    public int getSampleCount() { return sampleCount; }
+    public double getPeakCpuPercent() { return peakCpuPercent; }
+    public long getTotalGcPauseMillis() { return totalGcPauseMillis; }
+    public double getPeakAllocationMBPerSecond() { return peakAllocationMBPerSecond; }
+    public double getPeakHeapUsedPercent() { return peakHeapUsedPercent; }
+    public int getPeakThreadCount() { return peakThreadCount; }
+
+    /**
+     * The threshold that was exceeded, or null if the generator stayed healthy.
+     */
+    public String getSaturationReason() { return saturationReason; }
+
+    public boolean isGeneratorSaturated() { return saturationReason != null; }
+
+    @Override
+    public String toString() {
+        return String.format("peak cpu %.1f%%, gc %d ms, peak alloc %.1f MB/s, peak heap %.1f%%, peak %d threads",
+                peakCpuPercent, totalGcPauseMillis, peakAllocationMBPerSecond, peakHeapUsedPercent, peakThreadCount);
+    }
+}
@@ -0,0 +1,78 @@
+package com.automation.performance;
+
+/**
+ * Immutable reading of the load generator's own JVM over one sampling interval: process CPU,
+ * time spent in GC pauses, allocation rate, heap and live threads. Values the JVM cannot
+ * report are NaN.
+ */
+public class GeneratorHealthSample {
+
+    private final long startTimeMillis;
+    private final long intervalMillis;
+    private final double processCpuPercent;
+    private final long gcPauseMillis;
+    private final double allocationBytesPerSecond;
+    private final long heapUsedBytes;
+    private final long heapMaxBytes;
+    private final int threadCount;
+
+    public GeneratorHealthSample(long startTimeMillis, long intervalMillis, double processCpuPercent,
+                                 long gcPauseMillis, double allocationBytesPerSecond,
+                                 long heapUsedBytes, long heapMaxBytes, int threadCount) {
+        this.startTimeMillis = startTimeMillis;
+        this.intervalMillis = intervalMillis;
+        this.processCpuPercent = processCpuPercent;
+        this.gcPauseMillis = gcPauseMillis;
+        this.allocationBytesPerSecond = allocationBytesPerSecond;
+        this.heapUsedBytes = heapUsedBytes;
+        this.heapMaxBytes = heapMaxBytes;
+        this.threadCount = threadCount;
+    }
+
+    public long getStartTimeMillis() { return startTimeMillis; }
+    public long getIntervalMillis() { return intervalMillis; }
+
+    /**
+     * CPU used by this process over the interval, as a percentage of all cores.
+     */
+    public double getProcessCpuPercent() { return processCpuPercent; }
+
+    /**
+     * Time the collectors spent in stop-the-world pauses during the interval.
+     */
+    public long getGcPauseMillis() { return gcPauseMillis; }
+
+    public double getAllocationBytesPerSecond() { return allocationBytesPerSecond; }
+    public long getHeapUsedBytes() { return heapUsedBytes; }
+
+    /**
+     * Maximum heap size; -1 if undefined.
+     */
+    public long getHeapMaxBytes() { return heapMaxBytes; }
+    public int getThreadCount() { return threadCount; }
+
+    /**
+     * Share of the interval the application was paused for GC, in percent.
+     */
+    public double getGcPausePercent() {
+        return intervalMillis <= 0 ? 0.0 : gcPauseMillis * 100.0 / intervalMillis;
+    }
+
+    public double getAllocationMBPerSecond() {
+        return allocationBytesPerSecond / (1024.0 * 1024.0);
+    }
+
+    /**
+     * Used heap as a percentage of the maximum heap; NaN if the maximum is undefined.
+     */
+    public double getHeapUsedPercent() {
+        return heapMaxBytes <= 0 ? Double.NaN : heapUsedBytes * 100.0 / heapMaxBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cpu %.1f%%, gc %d ms (%.1f%%), alloc %.1f MB/s, heap %d MB, %d threads",
+                processCpuPercent, gcPauseMillis, getGcPausePercent(), getAllocationMBPerSecond(),
+                heapUsedBytes / (1024 * 1024), threadCount);
+    }
+}
@@ -0,0 +1,751 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Load engine built on the JDK {@link HttpClient}.
+ * Virtual users are asynchronous request chains rather than threads: each user sends its next
+ * request from the completion callback of the previous one, so tens of thousands of concurrent
+ * users share a small callback pool instead of needing one platform thread each, and there is
+ * no JMeter start-up cost.
+ */
+public class HttpClientLoadEngine implements LoadEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientLoadEngine.class);
+    private static final int LOOP_FOREVER = -1;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final List<RequestDefinition> requests = new ArrayList<>();
+    private final AtomicInteger activeUsers = new AtomicInteger();
+    private final LongAdder delayedRequests = new LongAdder();
+    private final LongAdder droppedRequests = new LongAdder();
+    private ResultAggregator aggregator;
+    private String testPlanName;
+    private int threadCount;
+    private int rampUpSeconds;
+    private int loops;
+    private double targetRequestsPerSecond;
+    private int durationSeconds;
+    private LoadProfile loadProfile;
+    private TrafficMix trafficMix;
+    private double[] mixWeights;
+    private WarmUpWindow warmUp;
+    private long expectedIntervalMillis;
+    private final ProgressPublisher progressPublisher = new ProgressPublisher();
+    private GeneratorHealthMonitor healthMonitor = new GeneratorHealthMonitor();
+    private MetricsEndpoint metricsEndpoint;
+    private List<SlaRule> liveSlaRules = new ArrayList<>();
+    private long liveSlaWindowMillis;
+    private long liveSlaGracePeriodMillis;
+    private String resultFilename;
+    private SampleWriter resultWriter;
+    private ConnectionSettings connectionSettings = ConnectionSettings.defaults();
+    private Semaphore connectionSlots;
+    private final Queue<Runnable> waitingForConnection = new ConcurrentLinkedQueue<>();
+    private HttpClient httpClient;
+    private ExecutorService callbackExecutor;
+    private volatile boolean stopping;
+
+    @Override
+    public HttpClientLoadEngine createTestPlan(String testPlanName, int threadCount, int rampUpSeconds, int loops) {
+        this.testPlanName = testPlanName;
+        this.threadCount = threadCount;
+        this.rampUpSeconds = rampUpSeconds;
+        this.loops = loops;
+        this.targetRequestsPerSecond = 0;
+        this.durationSeconds = 0;
+        this.loadProfile = null;
+        this.trafficMix = null;
+        this.requests.clear();
+        this.aggregator = new ResultAggregator();
+        this.resultFilename = null;
+
+        logger.info("Test plan '{}' created with {} virtual users, {} second ramp-up, {} loops",
+                   testPlanName, threadCount, rampUpSeconds, loops);
+
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine createDurationTestPlan(String testPlanName, int threadCount, int rampUpSeconds,
+                                                       int durationSeconds) {
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Duration must be positive: " + durationSeconds);
+        }
+        createTestPlan(testPlanName, threadCount, rampUpSeconds, LOOP_FOREVER);
+        this.durationSeconds = durationSeconds;
+
+        logger.info("Duration plan '{}': {} virtual users for {} seconds", testPlanName, threadCount, durationSeconds);
+
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine createArrivalRateTestPlan(String testPlanName, double targetRequestsPerSecond,
+                                                          int durationSeconds, int maxConcurrency) {
+        if (targetRequestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Target requests per second must be positive: " + targetRequestsPerSecond);
+        }
+        createTestPlan(testPlanName, maxConcurrency, 0, LOOP_FOREVER);
+        this.targetRequestsPerSecond = targetRequestsPerSecond;
+        this.durationSeconds = durationSeconds;
+
+        logger.info("Open-model plan '{}': {} req/sec for {} seconds, max concurrency {}",
+                   testPlanName, targetRequestsPerSecond, durationSeconds, maxConcurrency);
+
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine createLoadProfileTestPlan(String testPlanName, LoadProfile profile) {
+        createTestPlan(testPlanName, profile.getMaxUsers(), profile.getStages().get(0).getRampUpSeconds(), LOOP_FOREVER);
+        this.loadProfile = profile;
+        this.durationSeconds = profile.getTotalDurationSeconds();
+        aggregator.setLoadProfile(profile);
+
+        logger.info("Load profile plan '{}' created with stages: {}", testPlanName, profile);
+
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine addHttpRequest(String samplerName, String protocol, String serverName,
+                                               int port, String path, String method) {
+        return addHttpRequest(samplerName, protocol, serverName, port, path, method, null, null);
+    }
+
+    @Override
+    public HttpClientLoadEngine addHttpRequest(String samplerName, String protocol, String serverName,
+                                               int port, String path, String method,
+                                               Map<String, String> headers, String requestBody) {
+        requireTestPlan();
+        requireMixWeight(samplerName);
+
+        HttpRequest.BodyPublisher body = requestBody != null && !requestBody.trim().isEmpty()
+                ? HttpRequest.BodyPublishers.ofString(requestBody)
+                : HttpRequest.BodyPublishers.noBody();
+
+        requests.add(new RequestDefinition(samplerName,
+                buildRequest(protocol, serverName, port, path, method, headers, body), null));
+        logger.info("Added HTTP request: {} {} {}:{}{}", method, samplerName, serverName, port, path);
+
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine addHttpRequestWithPayloads(String samplerName, String protocol, String serverName,
+                                                           int port, String path, String method,
+                                                           Map<String, String> headers, PayloadPool payloads) {
+        requireTestPlan();
+        requireMixWeight(samplerName);
+
+        // The body is swapped for the next payload on every send
+        requests.add(new RequestDefinition(samplerName, buildRequest(protocol, serverName, port, path, method,
+                headers, HttpRequest.BodyPublishers.noBody()), payloads));
+        logger.info("Added HTTP request: {} {} {}:{}{} with {} pooled payloads",
+                   method, samplerName, serverName, port, path, payloads.size());
+
+        return this;
+    }
+
+    private HttpRequest buildRequest(String protocol, String serverName, int port, String path, String method,
+                                     Map<String, String> headers, HttpRequest.BodyPublisher body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(protocol + "://" + serverName + ":" + port + path))
+                .timeout(REQUEST_TIMEOUT)
+                .method(method, body);
+
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                try {
+                    builder.header(entry.getKey(), entry.getValue());
+                } catch (IllegalArgumentException e) {
+                    // Restricted headers (Host, Connection, ...) are managed by the client itself
+                    logger.warn("Skipping header not allowed by HttpClient: {}", entry.getKey());
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public HttpClientLoadEngine addResultCollector(String filename) {
+        requireTestPlan();
+        this.resultFilename = filename;
+        logger.info("Added result collector with output file: {}", filename);
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine withTimeSeries(long resolutionMillis, int capacity) {
+        requireTestPlan();
+        aggregator.setTimeSeries(new TimeSeries(resolutionMillis, capacity));
+        logger.info("Time series configured with {} ms resolution, {} intervals retained", resolutionMillis, capacity);
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine withTrafficMix(TrafficMix trafficMix) {
+        requireTestPlan();
+        if (!requests.isEmpty()) {
+            throw new IllegalStateException("Set the traffic mix before adding requests");
+        }
+        this.trafficMix = trafficMix;
+        logger.info("Traffic mix: {}", trafficMix);
+        return this;
+    }
+
+    private void requireMixWeight(String samplerName) {
+        if (trafficMix != null && !trafficMix.contains(samplerName)) {
+            throw new IllegalArgumentException("No traffic mix weight for sampler: " + samplerName);
+        }
+    }
+
+    @Override
+    public HttpClientLoadEngine withWarmUp(WarmUpWindow warmUp) {
+        this.warmUp = warmUp;
+        logger.info("Warm-up window: {}", warmUp);
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine withExpectedInterval(long expectedIntervalMillis) {
+        this.expectedIntervalMillis = Math.max(0, expectedIntervalMillis);
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine withLiveSla(int windowSeconds, int gracePeriodSeconds, List<SlaRule> rules) {
+        this.liveSlaRules = new ArrayList<>(rules);
+        this.liveSlaWindowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.liveSlaGracePeriodMillis = TimeUnit.SECONDS.toMillis(gracePeriodSeconds);
+        logger.info("Live SLA over {} s windows with {} s grace period: {}", windowSeconds, gracePeriodSeconds, rules);
+        return this;
+    }
+
+    /**
+     * The JDK client always pools keep-alive connections and resumes TLS sessions, and reads its idle
+     * timeout once per process from {@code jdk.httpclient.keepalive.timeout}; only the connection limit
+     * applies per plan. It does not report connect times, so results carry no connection metrics.
+     */
+    @Override
+    public HttpClientLoadEngine withConnectionSettings(ConnectionSettings settings) {
+        this.connectionSettings = settings;
+        logger.info("Connection settings: {}", settings);
+        if (!settings.isKeepAlive() || !settings.isTlsSessionReuse()) {
+            logger.warn("The JDK HttpClient always keeps connections alive and reuses TLS sessions");
+        }
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine withGeneratorHealthThresholds(double maxCpuPercent, double maxGcPausePercent,
+                                                              double maxHeapPercent) {
+        this.healthMonitor = new GeneratorHealthMonitor(maxCpuPercent, maxGcPausePercent, maxHeapPercent);
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine withMetricsEndpoint(int port) {
+        this.metricsEndpoint = new MetricsEndpoint(port);
+        return this;
+    }
+
+    @Override
+    public HttpClientLoadEngine withMetricsEndpoint(String host, int port) {
+        this.metricsEndpoint = new MetricsEndpoint(host, port);
+        return this;
+    }
+
+    /**
+     * The live metrics endpoint, or null if none was configured.
+     */
+    public MetricsEndpoint getMetricsEndpoint() {
+        return metricsEndpoint;
+    }
+
+    @Override
+    public HttpClientLoadEngine onProgress(ProgressListener listener) {
+        progressPublisher.subscribe(listener);
+        return this;
+    }
+
+    /**
+     * Run the test plan on a dedicated thread; the run itself is already asynchronous.
+     */
+    @Override
+    public CompletableFuture<PerformanceResults> executeAsync() {
+        requireTestPlan();
+        CompletableFuture<PerformanceResults> future = new CompletableFuture<>();
+        Thread runner = daemonThreads("http-load-run").newThread(() -> {
+            try {
+                future.complete(execute());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        runner.start();
+        return future;
+    }
+
+    @Override
+    public PerformanceResults execute() {
+        requireTestPlan();
+        if (requests.isEmpty()) {
+            throw new IllegalStateException("No HTTP requests added. Call addHttpRequest() first.");
+        }
+
+        stopping = false;
+        mixWeights = trafficMix == null ? null : trafficMix.cumulativeWeights(
+                requests.stream().map(request -> request.label).collect(Collectors.toList()));
+        activeUsers.set(0);
+        delayedRequests.reset();
+        droppedRequests.reset();
+        connectionSlots = connectionSettings.getMaxConnections() > 0
+                ? new Semaphore(connectionSettings.getMaxConnections()) : null;
+        waitingForConnection.clear();
+        callbackExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                daemonThreads("http-load"));
+        httpClient = HttpClient.newBuilder()
+                .executor(callbackExecutor)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        LiveSlaMonitor slaMonitor = liveSlaRules.isEmpty() ? null
+                : new LiveSlaMonitor(liveSlaRules, liveSlaWindowMillis, liveSlaGracePeriodMillis, () -> stopping = true);
+
+        try {
+            if (resultFilename != null) {
+                resultWriter = SampleWriter.open(resultFilename);
+            }
+
+            logger.info("Starting HttpClient test execution...");
+            long startNanos = System.nanoTime();
+            aggregator.markRunStart(System.currentTimeMillis());
+            aggregator.setExpectedIntervalMicros(expectedIntervalMicros());
+            aggregator.setWarmUp(warmUp);
+            if (slaMonitor != null) {
+                progressPublisher.subscribe(slaMonitor);
+            }
+            progressPublisher.start(aggregator);
+            healthMonitor.start(aggregator.getTimeSeries());
+            if (metricsEndpoint != null) {
+                metricsEndpoint.start(testPlanName, aggregator);
+            }
+
+            if (targetRequestsPerSecond > 0) {
+                runOpenModel(startNanos);
+            } else if (loadProfile != null) {
+                runLoadProfile(startNanos);
+            } else {
+                runClosedModel(startNanos);
+            }
+
+            long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            progressPublisher.stop();
+            GeneratorHealthReport health = healthMonitor.stop();
+            logger.info("HttpClient test execution completed in {} ms", duration);
+
+            PerformanceResults results = new PerformanceResults();
+            results.setTestPlanName(testPlanName);
+            results.setTotalExecutionTime(duration);
+            results.setThreadCount(loadProfile != null ? loadProfile.getMaxUsers() : threadCount);
+            results.setRampUpTime(rampUpSeconds);
+            results.setLoopCount(loops);
+            aggregator.populate(results, duration);
+            results.setGeneratorHealth(health);
+            results.setTrafficMix(trafficMix);
+            if (targetRequestsPerSecond > 0) {
+                results.setTargetThroughput(targetRequestsPerSecond);
+                results.setDelayedRequests(delayedRequests.sum());
+                results.setDroppedRequests(droppedRequests.sum());
+            }
+            if (slaMonitor != null) {
+                results.setSlaViolation(slaMonitor.getViolation());
+            }
+
+            return results;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Test execution interrupted", e);
+        } catch (Exception e) {
+            logger.error("HttpClient test execution failed", e);
+            throw new RuntimeException("Test execution failed", e);
+        } finally {
+            progressPublisher.stop();
+            healthMonitor.stop();
+            if (metricsEndpoint != null) {
+                metricsEndpoint.stop();
+            }
+            if (slaMonitor != null) {
+                progressPublisher.unsubscribe(slaMonitor);
+            }
+            closeResultWriter();
+            callbackExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Start every virtual user on the ramp-up schedule and wait for all of them to finish.
+     * Duration-driven plans stop issuing requests at the deadline and drain the ones in flight.
+     */
+    private void runClosedModel(long startNanos) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(threadCount);
+        ScheduledExecutorService rampUpScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("http-rampup"));
+        try {
+            long rampUpMillis = TimeUnit.SECONDS.toMillis(rampUpSeconds);
+            long deadlineNanos = durationSeconds > 0
+                    ? startNanos + TimeUnit.SECONDS.toNanos(durationSeconds) : Long.MAX_VALUE;
+            for (int i = 0; i < threadCount; i++) {
+                VirtualUser user = new VirtualUser(i + 1, finished, deadlineNanos);
+                rampUpScheduler.schedule(user::start, rampUpMillis * i / threadCount, TimeUnit.MILLISECONDS);
+            }
+            awaitUsers(finished, deadlineNanos);
+        } finally {
+            rampUpScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Run each group of users from its start offset until it stops, then wait for all of them.
+     * Users carry over between stages, so a spike adds users on top of the baseline.
+     */
+    private void runLoadProfile(long startNanos) throws InterruptedException {
+        List<LoadProfile.UserGroup> userGroups = loadProfile.getUserGroups();
+        int totalUsers = userGroups.stream().mapToInt(LoadProfile.UserGroup::getUsers).sum();
+        CountDownLatch finished = new CountDownLatch(totalUsers);
+        ScheduledExecutorService stageScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("http-stages"));
+        try {
+            int userNumber = 0;
+            for (LoadProfile.UserGroup group : userGroups) {
+                long offsetNanos = TimeUnit.MILLISECONDS.toNanos(group.getStartOffsetMillis());
+                long rampUpNanos = TimeUnit.MILLISECONDS.toNanos(group.getRampUpMillis());
+                long deadlineNanos = startNanos + offsetNanos + TimeUnit.MILLISECONDS.toNanos(group.getDurationMillis());
+                for (int i = 0; i < group.getUsers(); i++) {
+                    VirtualUser user = new VirtualUser(++userNumber, finished, deadlineNanos);
+                    long startAt = startNanos + offsetNanos + rampUpNanos * i / group.getUsers();
+                    stageScheduler.schedule(user::start, startAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+            }
+            awaitUsers(finished, startNanos + TimeUnit.SECONDS.toNanos(loadProfile.getTotalDurationSeconds()));
+        } finally {
+            stageScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Wait for every virtual user to finish. Past the deadline, in-flight requests get the drain
+     * timeout to complete before the remaining users are abandoned.
+     */
+    private void awaitUsers(CountDownLatch finished, long deadlineNanos) throws InterruptedException {
+        if (deadlineNanos == Long.MAX_VALUE) {
+            finished.await();
+            return;
+        }
+        long waitNanos = deadlineNanos - System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        if (!finished.await(waitNanos, TimeUnit.NANOSECONDS)) {
+            logger.warn("{} virtual users did not drain within {} of the deadline", finished.getCount(), REQUEST_TIMEOUT);
+            stopping = true;
+        }
+    }
+
+    /**
+     * Issue requests on a fixed schedule, capped at threadCount requests in flight.
+     */
+    private void runOpenModel(long startNanos) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(threadCount);
+        long intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / targetRequestsPerSecond));
+        long maxLagNanos = TimeUnit.MILLISECONDS.toNanos(ArrivalRateTimer.DEFAULT_MAX_LAG_MILLIS);
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        long slot = 0;
+        int requestIndex = 0;
+        while (!stopping) {
+            long slotTime = startNanos + slot++ * intervalNanos;
+            if (slotTime >= endNanos) {
+                break;
+            }
+            long wait = slotTime - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            // At the concurrency cap, wait for a free slot while the request is still within the allowed lag
+            if (!inFlight.tryAcquire()) {
+                long remainingLagNanos = maxLagNanos - (System.nanoTime() - slotTime);
+                if (remainingLagNanos <= 0 || !inFlight.tryAcquire(remainingLagNanos, TimeUnit.NANOSECONDS)) {
+                    droppedRequests.increment();
+                    continue;
+                }
+            }
+            // Lateness counts whatever caused it, as in ArrivalRateTimer: past the allowed lag the
+            // request is dropped, more than 1 ms late it is delayed
+            long lateNanos = System.nanoTime() - slotTime;
+            if (lateNanos > maxLagNanos) {
+                inFlight.release();
+                droppedRequests.increment();
+                continue;
+            }
+            if (lateNanos > TimeUnit.MILLISECONDS.toNanos(1)) {
+                delayedRequests.increment();
+            }
+
+            RequestDefinition request;
+            if (mixWeights != null) {
+                request = requests.get(TrafficMix.select(mixWeights));
+            } else {
+                request = requests.get(requestIndex);
+                requestIndex = (requestIndex + 1) % requests.size();
+            }
+            activeUsers.incrementAndGet();
+            send(request, "Arrival " + slot, () -> {
+                activeUsers.decrementAndGet();
+                inFlight.release();
+            });
+        }
+
+        // Drain requests still in flight
+        inFlight.tryAcquire(threadCount, REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send a request, or with a connection limit queue it until a connection is free. Waiting is
+     * non-blocking because completions run on the same small callback pool that would have to wait.
+     */
+    private void send(RequestDefinition request, String threadName, Runnable onComplete) {
+        if (connectionSlots == null) {
+            dispatch(request, threadName, onComplete);
+            return;
+        }
+        waitingForConnection.add(() -> dispatch(request, threadName, () -> {
+            connectionSlots.release();
+            sendWaiting();
+            onComplete.run();
+        }));
+        sendWaiting();
+    }
+
+    private void sendWaiting() {
+        while (!waitingForConnection.isEmpty() && connectionSlots.tryAcquire()) {
+            Runnable next = waitingForConnection.poll();
+            if (next == null) {
+                connectionSlots.release();
+            } else {
+                next.run();
+            }
+        }
+    }
+
+    private void dispatch(RequestDefinition request, String threadName, Runnable onComplete) {
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        // The body handler is called once the status line and headers have arrived
+        AtomicLong firstByteNanos = new AtomicLong();
+        CompletableFuture<HttpResponse<Void>> sent;
+        try {
+            sent = httpClient.sendAsync(request.nextRequest(), responseInfo -> {
+                firstByteNanos.set(System.nanoTime());
+                return HttpResponse.BodySubscribers.discarding();
+            });
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        BiConsumer<HttpResponse<Void>, Throwable> completion = (response, error) -> {
+            record(request, threadName, startMillis, startNanos, firstByteNanos.get(), response, error);
+            onComplete.run();
+        };
+        // A request that failed without being sent would run onComplete, and with it the user's next send,
+        // on this stack; when every send fails at once that recursion overflows, so hand it to the executor
+        if (sent.isDone()) {
+            sent.whenCompleteAsync(completion, callbackExecutor);
+        } else {
+            sent.whenComplete(completion);
+        }
+    }
+
+    /**
+     * Record a finished request. The JDK client does not expose connection setup, so the time to
+     * the first byte of its samples includes connecting.
+     */
+    private void record(RequestDefinition request, String threadName, long startMillis, long startNanos,
+                        long firstByteNanos, HttpResponse<?> response, Throwable error) {
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        long latencyMicros = firstByteNanos > 0 ? TimeUnit.NANOSECONDS.toMicros(firstByteNanos - startNanos) : 0;
+        boolean success;
+        String responseCode;
+        String responseMessage;
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            success = false;
+            responseCode = "Non HTTP response code: " + cause.getClass().getName();
+            responseMessage = "Non HTTP response message: " + cause.getMessage();
+        } else {
+            int status = response.statusCode();
+            success = status >= 200 && status < 400;
+            responseCode = String.valueOf(status);
+            responseMessage = "";
+        }
+
+        int active = activeUsers.get();
+        boolean counted = aggregator.record(request.label, startMillis, elapsedMicros, success, active,
+                success ? null : responseCode + " " + responseMessage);
+        if (counted && response != null) {
+            aggregator.recordTimings(request.label, -1, latencyMicros, elapsedMicros);
+        }
+
+        if (resultWriter != null) {
+            try {
+                resultWriter.write(startMillis, elapsedMicros / 1000, request.label, responseCode, responseMessage,
+                        threadName, success, 0, active, latencyMicros / 1000, -1);
+            } catch (IOException e) {
+                logger.warn("Failed to write sample to result file: {}", resultFilename, e);
+            }
+        }
+    }
+
+    /**
+     * Configured interval, or for open-model plans each in-flight slot's share of the arrival schedule.
+     */
+    private long expectedIntervalMicros() {
+        if (expectedIntervalMillis > 0) {
+            return TimeUnit.MILLISECONDS.toMicros(expectedIntervalMillis);
+        }
+        if (targetRequestsPerSecond > 0) {
+            return (long) (threadCount * 1_000_000.0 / targetRequestsPerSecond);
+        }
+        return 0;
+    }
+
+    private void closeResultWriter() {
+        if (resultWriter != null) {
+            try {
+                resultWriter.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close result file: {}", resultFilename, e);
+            }
+            resultWriter = null;
+        }
+    }
+
+    private void requireTestPlan() {
+        if (aggregator == null) {
+            throw new IllegalStateException("Test plan not created. Call createTestPlan() first.");
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void shutdown() {
+        stopping = true;
+        logger.info("HttpClient engine shutdown requested");
+    }
+
+    /**
+     * A prepared request with its sampler label.
+     */
+    private static final class RequestDefinition {
+        private final String label;
+        private final HttpRequest request;
+        private final PayloadPool payloads;
+
+        private RequestDefinition(String label, HttpRequest request, PayloadPool payloads) {
+            this.label = label;
+            this.request = request;
+            this.payloads = payloads;
+        }
+
+        private HttpRequest nextRequest() {
+            if (payloads == null) {
+                return request;
+            }
+            return HttpRequest.newBuilder(request, (name, value) -> true)
+                    .method(request.method(), HttpRequest.BodyPublishers.ofByteArray(payloads.next()))
+                    .build();
+        }
+    }
+
+    /**
+     * A closed-model user: runs its loops by chaining each request onto the previous response,
+     * until the loops are done or its deadline has passed.
+     */
+    private final class VirtualUser {
+        private final String name;
+        private final CountDownLatch finished;
+        private final long deadlineNanos;
+        private int iteration;
+        private int requestIndex;
+
+        private VirtualUser(int number, CountDownLatch finished, long deadlineNanos) {
+            this.name = "Virtual User " + number;
+            this.finished = finished;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private void start() {
+            activeUsers.incrementAndGet();
+            sendNext();
+        }
+
+        private void sendNext() {
+            if (stopping || (loops != LOOP_FOREVER && iteration >= loops)
+                    || (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0)) {
+                activeUsers.decrementAndGet();
+                finished.countDown();
+                return;
+            }
+            RequestDefinition request;
+            if (mixWeights != null) {
+                // One weighted pick per iteration
+                request = requests.get(TrafficMix.select(mixWeights));
+                iteration++;
+            } else {
+                request = requests.get(requestIndex);
+                if (++requestIndex == requests.size()) {
+                    requestIndex = 0;
+                    iteration++;
+                }
+            }
+            send(request, name, this::sendNext);
+        }
+    }
+}
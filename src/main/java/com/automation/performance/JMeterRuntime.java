@@ -0,0 +1,220 @@
+package com.automation.performance;
+
+import org.apache.jmeter.engine.StandardJMeterEngine;
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide JMeter runtime. JMeter keeps its properties, logging and locale in global state, so
+ * they are set up once per JVM instead of by every engine; the HTTP sampler classes and the TLS stack
+ * are loaded at the same time so the first plan does not pay for them either. Every run still gets
+ * its own {@link StandardJMeterEngine} and test tree, so plans can run back to back or concurrently.
+ * Concurrent runs share JMeter's global thread counters, so the active-thread counts of their samples
+ * cover every run in flight. HttpClient4 reads its idle timeout once per process, so it comes from the
+ * connection settings of the first engine.
+ */
+public final class JMeterRuntime {
+
+    private static final Logger logger = LoggerFactory.getLogger(JMeterRuntime.class);
+
+    /** Classes loaded and initialized up front; missing optional ones are skipped. */
+    private static final String[] WARM_CLASSES = {
+        "org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy",
+        "org.apache.jmeter.protocol.http.sampler.HTTPSamplerFactory",
+        "org.apache.jmeter.protocol.http.sampler.HTTPHC4Impl",
+        "org.apache.jmeter.protocol.http.sampler.HTTPJavaImpl",
+        "org.apache.jmeter.protocol.http.control.HeaderManager",
+        "org.apache.jmeter.threads.JMeterThread",
+        "org.apache.jmeter.threads.JMeterContextService",
+        "org.apache.jmeter.samplers.SampleResult",
+        "org.apache.http.impl.client.HttpClientBuilder",
+        "org.apache.http.impl.conn.PoolingHttpClientConnectionManager"
+    };
+
+    private static volatile JMeterRuntime instance;
+
+    private final long idleTimeoutMillis;
+    private final boolean tlsSessionReuse;
+    private final long initializationMillis;
+    private final long warmUpMillis;
+    private final AtomicLong enginesCreated = new AtomicLong();
+
+    private JMeterRuntime(ConnectionSettings connectionSettings) {
+        long startNanos = System.nanoTime();
+        this.idleTimeoutMillis = connectionSettings.getIdleTimeoutMillis();
+        this.tlsSessionReuse = connectionSettings.isTlsSessionReuse();
+        configureJMeter(connectionSettings);
+        long configuredNanos = System.nanoTime();
+        warmUp();
+        long warmNanos = System.nanoTime();
+
+        this.initializationMillis = TimeUnit.NANOSECONDS.toMillis(configuredNanos - startNanos);
+        this.warmUpMillis = TimeUnit.NANOSECONDS.toMillis(warmNanos - configuredNanos);
+        logger.info("JMeter runtime initialized in {} ms (configuration {} ms, warm-up {} ms)",
+                   initializationMillis + warmUpMillis, initializationMillis, warmUpMillis);
+    }
+
+    /**
+     * The shared runtime, initialized by the first caller with default connection settings.
+     */
+    public static JMeterRuntime get() {
+        return get(ConnectionSettings.defaults());
+    }
+
+    /**
+     * The shared runtime, initialized by the first caller; process-wide connection settings
+     * are taken from the first caller only.
+     */
+    public static JMeterRuntime get(ConnectionSettings connectionSettings) {
+        JMeterRuntime runtime = instance;
+        if (runtime == null) {
+            synchronized (JMeterRuntime.class) {
+                runtime = instance;
+                if (runtime == null) {
+                    runtime = new JMeterRuntime(connectionSettings);
+                    instance = runtime;
+                }
+            }
+        }
+        return runtime;
+    }
+
+    /**
+     * Whether the runtime has been initialized, i.e. whether the next engine starts warm.
+     */
+    public static boolean isInitialized() {
+        return instance != null;
+    }
+
+    /**
+     * A fresh JMeter engine for one run.
+     */
+    public StandardJMeterEngine newEngine() {
+        enginesCreated.incrementAndGet();
+        return new StandardJMeterEngine();
+    }
+
+    /**
+     * Time spent loading JMeter properties, logging and locale.
+     */
+    public long getInitializationMillis() {
+        return initializationMillis;
+    }
+
+    /**
+     * Time spent loading the HTTP sampler classes and initializing TLS.
+     */
+    public long getWarmUpMillis() {
+        return warmUpMillis;
+    }
+
+    /**
+     * Idle timeout of pooled HttpClient4 connections for every plan in this process.
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Whether TLS sessions and connections outlive a thread group iteration, fixed by the first caller.
+     */
+    public boolean isTlsSessionReuse() {
+        return tlsSessionReuse;
+    }
+
+    public long getEnginesCreated() {
+        return enginesCreated.get();
+    }
+
+    private static void configureJMeter(ConnectionSettings connectionSettings) {
+        try {
+            // Set system properties for JMeter
+            System.setProperty("jmeter.home", System.getProperty("user.dir"));
+            System.setProperty("java.awt.headless", "true");
+
+            // Initialize JMeter home directory first
+            JMeterUtils.setJMeterHome(System.getProperty("user.dir"));
+
+            // Create minimal properties
+            Properties jmeterProps = new Properties();
+
+            // Add essential JMeter properties to avoid initialization issues
+            jmeterProps.setProperty("jmeter.reportgenerator.overall_granularity", "1000");
+            jmeterProps.setProperty("jmeter.save.saveservice.output_format", "csv");
+            jmeterProps.setProperty("jmeter.save.saveservice.response_data.on_error", "false");
+            jmeterProps.setProperty("jmeter.save.saveservice.successful", "true");
+            jmeterProps.setProperty("jmeter.save.saveservice.thread_counts", "true");
+            jmeterProps.setProperty("jmeter.save.saveservice.time", "true");
+            jmeterProps.setProperty("jmeter.save.saveservice.latency", "true");
+            jmeterProps.setProperty("jmeter.save.saveservice.connect_time", "true");
+            jmeterProps.setProperty("jmeter.save.saveservice.response_code", "true");
+            jmeterProps.setProperty("jmeter.save.saveservice.response_message", "true");
+            jmeterProps.setProperty("jmeter.save.saveservice.thread_name", "true");
+            jmeterProps.setProperty("jmeter.save.saveservice.label", "true");
+
+            // JTL timeStamps are sample start times, like JtlCsvWriter's; JMeter writes end times by default
+            jmeterProps.setProperty("sampleresult.timestamp.start", "true");
+
+            // HttpClient4 reads these when its sampler class loads, so they cannot change per plan
+            jmeterProps.setProperty("httpclient4.idletimeout", String.valueOf(connectionSettings.getIdleTimeoutMillis()));
+            jmeterProps.setProperty("httpclient4.time_to_live", String.valueOf(connectionSettings.getIdleTimeoutMillis()));
+            // Without TLS session reuse every thread group iteration closes its connections and starts a new SSL context
+            jmeterProps.setProperty("https.use.cached.ssl.context", String.valueOf(connectionSettings.isTlsSessionReuse()));
+            jmeterProps.setProperty("httpclient.reset_state_on_thread_group_iteration",
+                                    String.valueOf(!connectionSettings.isTlsSessionReuse()));
+
+            // Add locale properties to avoid locale initialization issues
+            jmeterProps.setProperty("language", "en");
+            jmeterProps.setProperty("country", "US");
+            jmeterProps.setProperty("jmeter.locale", "en_US");
+
+            // JMeter only loads properties from a file, so write them to a temporary one
+            File tempProps = File.createTempFile("jmeter", ".properties");
+            try {
+                try (FileOutputStream fos = new FileOutputStream(tempProps)) {
+                    jmeterProps.store(fos, "JMeter properties for test automation");
+                }
+
+                // Load JMeter properties BEFORE initializing logging and locale
+                JMeterUtils.loadJMeterProperties(tempProps.getAbsolutePath());
+            } finally {
+                if (!tempProps.delete()) {
+                    tempProps.deleteOnExit();
+                }
+            }
+
+            // Now safely initialize logging and locale (properties are loaded)
+            JMeterUtils.initLogging();
+            JMeterUtils.initLocale();
+
+        } catch (Exception e) {
+            logger.error("Failed to initialize JMeter runtime", e);
+            throw new RuntimeException("JMeter initialization failed", e);
+        }
+    }
+
+    private static void warmUp() {
+        ClassLoader loader = JMeterRuntime.class.getClassLoader();
+        for (String className : WARM_CLASSES) {
+            try {
+                Class.forName(className, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                logger.debug("Skipping warm-up of unavailable class {}", className);
+            }
+        }
+        try {
+            // Provider lookup and the default trust store are the slow part of the first HTTPS request
+            SSLContext.getDefault().createSSLEngine();
+        } catch (Exception e) {
+            logger.debug("TLS warm-up failed", e);
+        }
+    }
+}
@@ -4,12 +4,11 @@ import org.apache.jmeter.control.LoopController;
 import org.apache.jmeter.engine.StandardJMeterEngine;
 import org.apache.jmeter.protocol.http.control.Header;
 import org.apache.jmeter.protocol.http.control.HeaderManager;
-import org.apache.jmeter.protocol.http.sampler.HTTPSampler;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
 import org.apache.jmeter.reporters.ResultCollector;
 import org.apache.jmeter.reporters.Summariser;
 import org.apache.jmeter.testelement.TestPlan;
 import org.apache.jmeter.threads.ThreadGroup;
-import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.collections.HashTree;
 import org.apache.jorphan.collections.ListedHashTree;
 import org.slf4j.Logger;
@@ -17,117 +16,105 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JMeter Test Engine for programmatic performance testing.
  * Provides a simplified interface to create and execute JMeter test plans.
  */
-public class JMeterTestEngine {
+public class JMeterTestEngine implements LoadEngine {
     
     private static final Logger logger = LoggerFactory.getLogger(JMeterTestEngine.class);
+    private static final int LOOP_FOREVER = -1;
+    private static final long DRAIN_TIMEOUT_MILLIS = 30_000;
+    private static final String PAYLOAD_VARIABLE_PREFIX = "payload_";
     private StandardJMeterEngine jmeterEngine;
     private ListedHashTree testPlanTree;
     private TestPlan testPlan;
     private ThreadGroup threadGroup;
     private LoopController loopController;
-    private boolean initialized = false;
+    private AggregatingSampleListener sampleAggregator;
+    private ArrivalRateTimer arrivalRateTimer;
+    private LoadProfile loadProfile;
+    private int plannedDurationSeconds;
+    private long expectedIntervalMillis;
+    private final ProgressPublisher progressPublisher = new ProgressPublisher();
+    private GeneratorHealthMonitor healthMonitor = new GeneratorHealthMonitor();
+    private MetricsEndpoint metricsEndpoint;
+    private List<SlaRule> liveSlaRules = new ArrayList<>();
+    private long liveSlaWindowMillis;
+    private long liveSlaGracePeriodMillis;
+    private final List<ThreadGroup> threadGroups = new ArrayList<>();
+    private String resultFilename;
+    private BinaryResultCollector binaryResultCollector;
+    private int payloadVariables;
+    private ConnectionSettings connectionSettings = ConnectionSettings.defaults();
+    private final List<HTTPSamplerProxy> httpSamplers = new ArrayList<>();
+    private TrafficMix trafficMix;
+    private WarmUpWindow warmUp;
+    private final Map<ThreadGroup, TrafficMixController> trafficMixControllers = new HashMap<>();
+    private JMeterRuntime runtime;
+    private long planStartNanos;
+    private long startupMillis;
     
     /**
-     * Initialize JMeter engine with default settings.
+     * Attach to the shared JMeter runtime, initializing it if this is the first engine in the process.
      */
     public void initialize() {
-        if (initialized) {
-            return;
-        }
-        
-        try {
-            // Set system properties for JMeter
-            System.setProperty("jmeter.home", System.getProperty("user.dir"));
-            System.setProperty("java.awt.headless", "true");
-            
-            // Initialize JMeter home directory first
-            JMeterUtils.setJMeterHome(System.getProperty("user.dir"));
-            
-            // Create minimal properties
-            java.util.Properties jmeterProps = new java.util.Properties();
-            
-            // Add essential JMeter properties to avoid initialization issues
-            jmeterProps.setProperty("jmeter.reportgenerator.overall_granularity", "1000");
-            jmeterProps.setProperty("jmeter.save.saveservice.output_format", "csv");
-            jmeterProps.setProperty("jmeter.save.saveservice.response_data.on_error", "false");
-            jmeterProps.setProperty("jmeter.save.saveservice.successful", "true");
-            jmeterProps.setProperty("jmeter.save.saveservice.thread_counts", "true");
-            jmeterProps.setProperty("jmeter.save.saveservice.time", "true");
-            jmeterProps.setProperty("jmeter.save.saveservice.latency", "true");
-            jmeterProps.setProperty("jmeter.save.saveservice.connect_time", "true");
-            jmeterProps.setProperty("jmeter.save.saveservice.response_code", "true");
-            jmeterProps.setProperty("jmeter.save.saveservice.response_message", "true");
-            jmeterProps.setProperty("jmeter.save.saveservice.thread_name", "true");
-            jmeterProps.setProperty("jmeter.save.saveservice.label", "true");
-            
-            // Add locale properties to avoid locale initialization issues
-            jmeterProps.setProperty("language", "en");
-            jmeterProps.setProperty("country", "US");
-            jmeterProps.setProperty("jmeter.locale", "en_US");
-            
-            // Create a temporary properties file and load it first
-            java.io.File tempProps = java.io.File.createTempFile("jmeter", ".properties");
-            tempProps.deleteOnExit();
-            try (java.io.FileOutputStream fos = new java.io.FileOutputStream(tempProps)) {
-                jmeterProps.store(fos, "JMeter properties for test automation");
-            }
-            
-            // Load JMeter properties BEFORE initializing logging and locale
-            JMeterUtils.loadJMeterProperties(tempProps.getAbsolutePath());
-            
-            // Now safely initialize logging and locale (properties are loaded)
-            JMeterUtils.initLogging();
-            JMeterUtils.initLocale();
-            
-            // Create JMeter engine
-            jmeterEngine = new StandardJMeterEngine();
-            
-            initialized = true;
-            logger.info("JMeter engine initialized successfully with default configuration");
-            
-        } catch (Exception e) {
-            logger.error("Failed to initialize JMeter engine", e);
-            throw new RuntimeException("JMeter initialization failed", e);
+        if (runtime == null) {
+            runtime = JMeterRuntime.get(connectionSettings);
         }
     }
     
     /**
      * Create a new test plan with specified parameters.
      */
+    @Override
     public JMeterTestEngine createTestPlan(String testPlanName, int threadCount, int rampUpSeconds, int loops) {
+        planStartNanos = System.nanoTime();
+        boolean warm = JMeterRuntime.isInitialized();
         initialize();
+        if (!warm) {
+            logger.info("First JMeter engine in this process, runtime started cold");
+        }
         
         try {
             // Create Test Plan
             testPlan = new TestPlan(testPlanName);
+            arrivalRateTimer = null;
+            loadProfile = null;
+            plannedDurationSeconds = 0;
+            binaryResultCollector = null;
+            payloadVariables = 0;
+            httpSamplers.clear();
+            trafficMix = null;
+            trafficMixControllers.clear();
             testPlan.setFunctionalMode(false);
             testPlan.setTearDownOnShutdown(true);
             testPlan.setUserDefinedVariables(testPlan.getArguments());
             
-            // Create Loop Controller
-            loopController = new LoopController();
-            loopController.setLoops(loops);
-            loopController.setFirst(true);
-            loopController.initialize();
-            
             // Create Thread Group
-            threadGroup = new ThreadGroup();
-            threadGroup.setName("Thread Group");
-            threadGroup.setNumThreads(threadCount);
-            threadGroup.setRampUp(rampUpSeconds);
-            threadGroup.setSamplerController(loopController);
+            threadGroup = createThreadGroup("Thread Group", threadCount, rampUpSeconds, loops);
+            loopController = (LoopController) threadGroup.getSamplerController();
+            threadGroups.clear();
+            threadGroups.add(threadGroup);
             
             // Create Test Plan Tree
             testPlanTree = new ListedHashTree();
             HashTree threadGroupHashTree = testPlanTree.add(testPlan, threadGroup);
             
+            // Aggregate samples in-process so results are available without re-reading the JTL
+            sampleAggregator = new AggregatingSampleListener();
+            testPlanTree.add(testPlan, sampleAggregator);
+            
             logger.info("Test plan '{}' created with {} threads, {} second ramp-up, {} loops", 
                        testPlanName, threadCount, rampUpSeconds, loops);
             
@@ -139,9 +126,109 @@ public class JMeterTestEngine {
         }
     }
     
+    /**
+     * Create a closed-model test plan whose threads loop until a fixed wall-clock duration has passed.
+     * The thread group scheduler stops the threads at the deadline; a watchdog drains any stragglers.
+     */
+    @Override
+    public JMeterTestEngine createDurationTestPlan(String testPlanName, int threadCount, int rampUpSeconds,
+                                                  int durationSeconds) {
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Duration must be positive: " + durationSeconds);
+        }
+        createTestPlan(testPlanName, threadCount, rampUpSeconds, LOOP_FOREVER);
+        
+        threadGroup.setScheduler(true);
+        threadGroup.setDuration(durationSeconds);
+        plannedDurationSeconds = durationSeconds;
+        
+        logger.info("Duration plan '{}': {} threads for {} seconds", testPlanName, threadCount, durationSeconds);
+        
+        return this;
+    }
+    
+    /**
+     * Create an open-model test plan that issues requests at a constant arrival rate.
+     * Requests are started on a fixed schedule regardless of response times; maxConcurrency caps
+     * the number of requests in flight, and requests that cannot be started in time are reported
+     * as delayed or dropped.
+     */
+    @Override
+    public JMeterTestEngine createArrivalRateTestPlan(String testPlanName, double targetRequestsPerSecond,
+                                                     int durationSeconds, int maxConcurrency) {
+        createTestPlan(testPlanName, maxConcurrency, 0, LOOP_FOREVER);
+        
+        // Run for a fixed wall-clock duration instead of a loop count
+        threadGroup.setScheduler(true);
+        threadGroup.setDuration(durationSeconds);
+        plannedDurationSeconds = durationSeconds;
+        
+        arrivalRateTimer = new ArrivalRateTimer(targetRequestsPerSecond);
+        testPlanTree.getTree(testPlan).getTree(threadGroup).add(arrivalRateTimer);
+        
+        logger.info("Open-model plan '{}': {} req/sec for {} seconds, max concurrency {}", 
+                   testPlanName, targetRequestsPerSecond, durationSeconds, maxConcurrency);
+        
+        return this;
+    }
+    
+    /**
+     * Create a test plan that runs a multi-stage load profile as one continuous run.
+     * Each group of users that starts and stops together gets its own scheduled thread group, so
+     * users added by a stage run on top of those already running instead of replacing them.
+     * Samples are tagged with the stage they started in.
+     */
+    @Override
+    public JMeterTestEngine createLoadProfileTestPlan(String testPlanName, LoadProfile profile) {
+        List<LoadProfile.UserGroup> userGroups = profile.getUserGroups();
+        LoadProfile.UserGroup firstGroup = userGroups.get(0);
+        createTestPlan(testPlanName, firstGroup.getUsers(), 0, LOOP_FOREVER);
+        scheduleUserGroup(threadGroup, firstGroup);
+        
+        for (int i = 1; i < userGroups.size(); i++) {
+            ThreadGroup group = createThreadGroup("Thread Group", userGroups.get(i).getUsers(), 0, LOOP_FOREVER);
+            scheduleUserGroup(group, userGroups.get(i));
+            testPlanTree.add(testPlan, group);
+            threadGroups.add(group);
+        }
+        
+        loadProfile = profile;
+        plannedDurationSeconds = profile.getTotalDurationSeconds();
+        sampleAggregator.getAggregator().setLoadProfile(profile);
+        
+        logger.info("Load profile plan '{}' created with stages: {} and thread groups: {}", testPlanName, profile, userGroups);
+        
+        return this;
+    }
+    
+    private ThreadGroup createThreadGroup(String name, int threadCount, int rampUpSeconds, int loops) {
+        // Create Loop Controller
+        LoopController groupLoopController = new LoopController();
+        groupLoopController.setLoops(loops);
+        groupLoopController.setFirst(true);
+        groupLoopController.initialize();
+        
+        ThreadGroup group = new ThreadGroup();
+        group.setName(name);
+        group.setNumThreads(threadCount);
+        group.setRampUp(rampUpSeconds);
+        group.setSamplerController(groupLoopController);
+        return group;
+    }
+    
+    private void scheduleUserGroup(ThreadGroup group, LoadProfile.UserGroup userGroup) {
+        // Thread group scheduling works in whole seconds
+        group.setName("Stage - " + userGroup.getName());
+        group.setRampUp((int) Math.round(userGroup.getRampUpMillis() / 1000.0));
+        group.setScheduler(true);
+        group.setDelay(Math.round(userGroup.getStartOffsetMillis() / 1000.0));
+        group.setDuration(Math.round(userGroup.getDurationMillis() / 1000.0));
+    }
+    
     /**
      * Add HTTP request sampler to the test plan.
      */
+    @Override
     public JMeterTestEngine addHttpRequest(String samplerName, String protocol, String serverName, 
                                           int port, String path, String method) {
         return addHttpRequest(samplerName, protocol, serverName, port, path, method, null, null);
@@ -150,41 +237,45 @@ public class JMeterTestEngine {
     /**
      * Add HTTP request sampler with headers and body.
      */
+    @Override
     public JMeterTestEngine addHttpRequest(String samplerName, String protocol, String serverName, 
                                           int port, String path, String method, 
                                           Map<String, String> headers, String requestBody) {
+        requireMixWeight(samplerName);
         try {
-            // Create HTTP Sampler
-            HTTPSampler httpSampler = new HTTPSampler();
-            httpSampler.setName(samplerName);
-            httpSampler.setProtocol(protocol);
-            httpSampler.setDomain(serverName);
-            httpSampler.setPort(port);
-            httpSampler.setPath(path);
-            httpSampler.setMethod(method);
-            
-            if (requestBody != null && !requestBody.trim().isEmpty()) {
-                httpSampler.addNonEncodedArgument("", requestBody, "");
-                httpSampler.setPostBodyRaw(true);
+            // Every thread group (load profile stage) runs the same requests
+            for (ThreadGroup group : threadGroups) {
+                addHttpSampler(group, samplerName, protocol, serverName, port, path, method, headers, requestBody);
             }
             
-            // Add to thread group
-            HashTree threadGroupTree = testPlanTree.getTree(testPlan).getTree(threadGroup);
-            HashTree httpSamplerTree = threadGroupTree.add(httpSampler);
+            logger.info("Added HTTP request: {} {} {}:{}{}", method, samplerName, serverName, port, path);
             
-            // Add headers if provided
-            if (headers != null && !headers.isEmpty()) {
-                HeaderManager headerManager = new HeaderManager();
-                headerManager.setName("HTTP Header Manager");
-                
-                for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    headerManager.add(new Header(entry.getKey(), entry.getValue()));
-                }
-                
-                httpSamplerTree.add(headerManager);
+            return this;
+            
+        } catch (Exception e) {
+            logger.error("Failed to add HTTP request sampler", e);
+            throw new RuntimeException("HTTP request addition failed", e);
+        }
+    }
+    
+    /**
+     * Add HTTP request sampler whose body is the next payload of the pool, set by a pre-processor.
+     */
+    @Override
+    public JMeterTestEngine addHttpRequestWithPayloads(String samplerName, String protocol, String serverName,
+                                                      int port, String path, String method,
+                                                      Map<String, String> headers, PayloadPool payloads) {
+        requireMixWeight(samplerName);
+        try {
+            String variableName = PAYLOAD_VARIABLE_PREFIX + payloadVariables++;
+            PayloadPreProcessor preProcessor = new PayloadPreProcessor(payloads, variableName);
+            for (ThreadGroup group : threadGroups) {
+                addHttpSampler(group, samplerName, protocol, serverName, port, path, method, headers,
+                        "${" + variableName + "}").add(preProcessor);
             }
             
-            logger.info("Added HTTP request: {} {} {}:{}{}", method, samplerName, serverName, port, path);
+            logger.info("Added HTTP request: {} {} {}:{}{} with {} pooled payloads",
+                       method, samplerName, serverName, port, path, payloads.size());
             
             return this;
             
@@ -194,10 +285,69 @@ public class JMeterTestEngine {
         }
     }
     
+    private HashTree addHttpSampler(ThreadGroup group, String samplerName, String protocol, String serverName,
+                                    int port, String path, String method,
+                                    Map<String, String> headers, String requestBody) {
+        // Create HTTP Sampler
+        HTTPSamplerProxy httpSampler = new HTTPSamplerProxy();
+        httpSampler.setName(samplerName);
+        httpSampler.setProtocol(protocol);
+        httpSampler.setDomain(serverName);
+        httpSampler.setPort(port);
+        httpSampler.setPath(path);
+        httpSampler.setMethod(method);
+        
+        if (requestBody != null && !requestBody.trim().isEmpty()) {
+            httpSampler.addNonEncodedArgument("", requestBody, "");
+            httpSampler.setPostBodyRaw(true);
+        }
+        
+        httpSamplers.add(httpSampler);
+        
+        // Add to thread group, or to its traffic mix with the sampler's weight
+        HashTree threadGroupTree = testPlanTree.getTree(testPlan).getTree(group);
+        TrafficMixController mixController = trafficMixControllers.get(group);
+        HashTree httpSamplerTree;
+        if (mixController != null) {
+            mixController.addWeight(trafficMix.getWeight(samplerName));
+            httpSamplerTree = threadGroupTree.getTree(mixController).add(httpSampler);
+        } else {
+            httpSamplerTree = threadGroupTree.add(httpSampler);
+        }
+        
+        // Add headers if provided
+        if (headers != null && !headers.isEmpty()) {
+            HeaderManager headerManager = new HeaderManager();
+            headerManager.setName("HTTP Header Manager");
+            
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                headerManager.add(new Header(entry.getKey(), entry.getValue()));
+            }
+            
+            httpSamplerTree.add(headerManager);
+        }
+        return httpSamplerTree;
+    }
+    
+    private void requireMixWeight(String samplerName) {
+        if (trafficMix != null && !trafficMix.contains(samplerName)) {
+            throw new IllegalArgumentException("No traffic mix weight for sampler: " + samplerName);
+        }
+    }
+    
     /**
      * Add result collector to save test results.
+     * A {@code .brl} file gets the compact binary log instead of a CSV JTL.
      */
+    @Override
     public JMeterTestEngine addResultCollector(String filename) {
+        if (SampleWriter.isBinary(filename)) {
+            binaryResultCollector = new BinaryResultCollector(filename);
+            testPlanTree.add(testPlan, binaryResultCollector);
+            resultFilename = filename;
+            logger.info("Added binary result collector with output file: {}", filename);
+            return this;
+        }
         try {
             // Create Summariser
             Summariser summer = new Summariser("summary");
@@ -209,6 +359,7 @@ public class JMeterTestEngine {
             
             // Add to test plan
             testPlanTree.add(testPlan, resultCollector);
+            resultFilename = filename;
             
             logger.info("Added result collector with output file: {}", filename);
             
@@ -220,45 +371,293 @@ public class JMeterTestEngine {
         }
     }
     
+    /**
+     * Configure the resolution and retained length of the per-interval time series.
+     */
+    @Override
+    public JMeterTestEngine withTimeSeries(long resolutionMillis, int capacity) {
+        if (sampleAggregator == null) {
+            throw new IllegalStateException("Test plan not created. Call createTestPlan() first.");
+        }
+        sampleAggregator.getAggregator().setTimeSeries(new TimeSeries(resolutionMillis, capacity));
+        logger.info("Time series configured with {} ms resolution, {} intervals retained", resolutionMillis, capacity);
+        return this;
+    }
+    
+    /**
+     * Put a traffic mix controller under every thread group; requests added afterwards become its
+     * weighted children.
+     */
+    @Override
+    public JMeterTestEngine withTrafficMix(TrafficMix trafficMix) {
+        if (testPlanTree == null) {
+            throw new IllegalStateException("Test plan not created. Call createTestPlan() first.");
+        }
+        if (!httpSamplers.isEmpty()) {
+            throw new IllegalStateException("Set the traffic mix before adding requests");
+        }
+        this.trafficMix = trafficMix;
+        trafficMixControllers.clear();
+        for (ThreadGroup group : threadGroups) {
+            TrafficMixController controller = new TrafficMixController();
+            testPlanTree.getTree(testPlan).getTree(group).add(controller);
+            trafficMixControllers.put(group, controller);
+        }
+        logger.info("Traffic mix: {}", trafficMix);
+        return this;
+    }
+    
+    @Override
+    public JMeterTestEngine withWarmUp(WarmUpWindow warmUp) {
+        this.warmUp = warmUp;
+        logger.info("Warm-up window: {}", warmUp);
+        return this;
+    }
+    
+    @Override
+    public JMeterTestEngine withExpectedInterval(long expectedIntervalMillis) {
+        this.expectedIntervalMillis = Math.max(0, expectedIntervalMillis);
+        return this;
+    }
+    
+    /**
+     * Expected interval between requests of one thread: configured, or for open-model plans the
+     * thread's share of the arrival schedule. Zero lets the aggregator use the median response time.
+     */
+    private long expectedIntervalMicros() {
+        if (expectedIntervalMillis > 0) {
+            return TimeUnit.MILLISECONDS.toMicros(expectedIntervalMillis);
+        }
+        if (arrivalRateTimer != null) {
+            return (long) (threadGroup.getNumThreads() * 1_000_000.0 / arrivalRateTimer.getTargetRequestsPerSecond());
+        }
+        return 0;
+    }
+    
+    @Override
+    public JMeterTestEngine withLiveSla(int windowSeconds, int gracePeriodSeconds, List<SlaRule> rules) {
+        this.liveSlaRules = new ArrayList<>(rules);
+        this.liveSlaWindowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.liveSlaGracePeriodMillis = TimeUnit.SECONDS.toMillis(gracePeriodSeconds);
+        logger.info("Live SLA over {} s windows with {} s grace period: {}", windowSeconds, gracePeriodSeconds, rules);
+        return this;
+    }
+    
+    /**
+     * Implementation and keep-alive are set on every sampler. HttpClient4 reads its idle timeout and
+     * whether TLS sessions survive an iteration once per process, so both are fixed by the first engine.
+     * It keeps one connection pool per virtual user, so a connection limit cannot be honoured and is rejected;
+     * cap concurrency with the thread count instead.
+     */
+    @Override
+    public JMeterTestEngine withConnectionSettings(ConnectionSettings settings) {
+        if (settings.getMaxConnections() > 0) {
+            throw new IllegalArgumentException("JMeter pools connections per virtual user and cannot limit them to "
+                    + settings.getMaxConnections() + "; limit the thread count instead");
+        }
+        this.connectionSettings = settings;
+        logger.info("Connection settings: {}", settings);
+        if (runtime != null && runtime.getIdleTimeoutMillis() != settings.getIdleTimeoutMillis()) {
+            logger.warn("Idle timeout {} ms ignored, the JMeter runtime was started with {} ms",
+                       settings.getIdleTimeoutMillis(), runtime.getIdleTimeoutMillis());
+        }
+        if (runtime != null && runtime.isTlsSessionReuse() != settings.isTlsSessionReuse()) {
+            logger.warn("TLS session reuse {} ignored, the JMeter runtime was started with {}",
+                       settings.isTlsSessionReuse(), runtime.isTlsSessionReuse());
+        }
+        return this;
+    }
+    
+    @Override
+    public JMeterTestEngine withGeneratorHealthThresholds(double maxCpuPercent, double maxGcPausePercent,
+                                                          double maxHeapPercent) {
+        this.healthMonitor = new GeneratorHealthMonitor(maxCpuPercent, maxGcPausePercent, maxHeapPercent);
+        return this;
+    }
+    
+    @Override
+    public JMeterTestEngine withMetricsEndpoint(int port) {
+        this.metricsEndpoint = new MetricsEndpoint(port);
+        return this;
+    }
+    
+    @Override
+    public JMeterTestEngine withMetricsEndpoint(String host, int port) {
+        this.metricsEndpoint = new MetricsEndpoint(host, port);
+        return this;
+    }
+    
+    /**
+     * The live metrics endpoint, or null if none was configured.
+     */
+    public MetricsEndpoint getMetricsEndpoint() {
+        return metricsEndpoint;
+    }
+    
+    private void applyConnectionSettings() {
+        for (HTTPSamplerProxy httpSampler : httpSamplers) {
+            httpSampler.setImplementation(connectionSettings.getImplementation().getJMeterName());
+            httpSampler.setUseKeepAlive(connectionSettings.isKeepAlive());
+        }
+        sampleAggregator.setKeepAlive(connectionSettings.isKeepAlive());
+    }
+    
+    /**
+     * Subscribe to live progress snapshots of every run of this engine.
+     */
+    @Override
+    public JMeterTestEngine onProgress(ProgressListener listener) {
+        progressPublisher.subscribe(listener);
+        return this;
+    }
+    
     /**
      * Execute the test plan and return performance results.
      */
+    @Override
     public PerformanceResults execute() {
+        try {
+            return executeAsync().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new RuntimeException("Test execution failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Start the test plan without blocking. The future completes with the results once JMeter
+     * reports the test has ended; the duration is measured between JMeter's start and end events.
+     */
+    @Override
+    public CompletableFuture<PerformanceResults> executeAsync() {
         if (testPlanTree == null || testPlan == null) {
             throw new IllegalStateException("Test plan not created. Call createTestPlan() first.");
         }
         
+        AggregatingSampleListener listener = sampleAggregator;
+        ScheduledExecutorService deadlineWatchdog = null;
+        LiveSlaMonitor slaMonitor = liveSlaRules.isEmpty() ? null
+                : new LiveSlaMonitor(liveSlaRules, liveSlaWindowMillis, liveSlaGracePeriodMillis, () -> jmeterEngine.stopTest(true));
         try {
             logger.info("Starting JMeter test execution...");
-            long startTime = System.currentTimeMillis();
             
-            // Configure and run test
+            // Configure and start test
+            listener.getAggregator().setExpectedIntervalMicros(expectedIntervalMicros());
+            listener.getAggregator().setWarmUp(warmUp);
+            applyConnectionSettings();
+            jmeterEngine = runtime.newEngine();
             jmeterEngine.configure(testPlanTree);
-            jmeterEngine.run();
-            
-            // Wait for test completion
-            while (jmeterEngine.isActive()) {
-                Thread.sleep(100);
+            deadlineWatchdog = plannedDurationSeconds > 0
+                    ? scheduleDeadline(TimeUnit.SECONDS.toMillis(plannedDurationSeconds)) : null;
+            if (slaMonitor != null) {
+                progressPublisher.subscribe(slaMonitor);
             }
+            progressPublisher.start(listener.getAggregator());
+            healthMonitor.start(listener.getAggregator().getTimeSeries());
+            if (metricsEndpoint != null) {
+                metricsEndpoint.start(testPlan.getName(), listener.getAggregator());
+            }
+            jmeterEngine.runTest();
+            startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - planStartNanos);
+            logger.info("JMeter test started {} ms after plan creation", startupMillis);
             
-            long endTime = System.currentTimeMillis();
-            long duration = endTime - startTime;
-            
+        } catch (Exception e) {
+            logger.error("JMeter test execution failed", e);
+            stopRunSupport(deadlineWatchdog, slaMonitor);
+            CompletableFuture<PerformanceResults> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new RuntimeException("Test execution failed", e));
+            return failed;
+        }
+        
+        ScheduledExecutorService watchdog = deadlineWatchdog;
+        return listener.getCompletion().thenApply(duration -> {
+            GeneratorHealthReport health = stopRunSupport(watchdog, slaMonitor);
             logger.info("JMeter test execution completed in {} ms", duration);
-            
-            // Create and return results
-            PerformanceResults results = new PerformanceResults();
-            results.setTestPlanName(testPlan.getName());
-            results.setTotalExecutionTime(duration);
-            results.setThreadCount(threadGroup.getNumThreads());
-            results.setRampUpTime(threadGroup.getRampUp());
-            results.setLoopCount(loopController.getLoops());
-            
+            PerformanceResults results = buildResults(listener, duration);
+            results.setGeneratorHealth(health);
+            if (slaMonitor != null) {
+                results.setSlaViolation(slaMonitor.getViolation());
+            }
             return results;
-            
+        });
+    }
+    
+    private GeneratorHealthReport stopRunSupport(ScheduledExecutorService deadlineWatchdog, LiveSlaMonitor slaMonitor) {
+        if (deadlineWatchdog != null) {
+            deadlineWatchdog.shutdownNow();
+        }
+        progressPublisher.stop();
+        GeneratorHealthReport health = healthMonitor.stop();
+        if (metricsEndpoint != null) {
+            metricsEndpoint.stop();
+        }
+        if (slaMonitor != null) {
+            progressPublisher.unsubscribe(slaMonitor);
+        }
+        // Flush the binary log before results are handed out, whichever listener JMeter ends first
+        if (binaryResultCollector != null) {
+            binaryResultCollector.close();
+        }
+        return health;
+    }
+    
+    private PerformanceResults buildResults(AggregatingSampleListener listener, long duration) {
+        PerformanceResults results = new PerformanceResults();
+        results.setTestPlanName(testPlan.getName());
+        results.setTotalExecutionTime(duration);
+        results.setStartupTimeMillis(startupMillis);
+        results.setThreadCount(loadProfile != null ? loadProfile.getMaxUsers() : threadGroup.getNumThreads());
+        results.setRampUpTime(threadGroup.getRampUp());
+        results.setLoopCount(loopController.getLoops());
+        listener.getAggregator().populate(results, duration);
+        results.setTrafficMix(trafficMix);
+        if (arrivalRateTimer != null) {
+            results.setTargetThroughput(arrivalRateTimer.getTargetRequestsPerSecond());
+            results.setDelayedRequests(arrivalRateTimer.getDelayedRequests());
+            results.setDroppedRequests(arrivalRateTimer.getDroppedRequests());
+        }
+        exportTimeSeries(results);
+        return results;
+    }
+    
+    /**
+     * Enforce the wall-clock deadline of a duration-driven run: at the deadline threads are asked to
+     * stop after their current sample, and if they have not drained in time the test is stopped hard.
+     */
+    private ScheduledExecutorService scheduleDeadline(long deadlineMillis) {
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jmeter-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.schedule(() -> {
+            if (jmeterEngine.isActive()) {
+                logger.info("Deadline reached after {} ms, draining threads", deadlineMillis);
+                jmeterEngine.askThreadsToStop();
+            }
+        }, deadlineMillis, TimeUnit.MILLISECONDS);
+        watchdog.schedule(() -> {
+            if (jmeterEngine.isActive()) {
+                logger.warn("Threads did not drain within {} ms of the deadline, stopping test", DRAIN_TIMEOUT_MILLIS);
+                jmeterEngine.stopTest(true);
+            }
+        }, deadlineMillis + DRAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        return watchdog;
+    }
+    
+    /**
+     * Export the time series next to the JTL file, if a result collector was configured.
+     */
+    private void exportTimeSeries(PerformanceResults results) {
+        if (resultFilename == null) {
+            return;
+        }
+        String timeSeriesFile = resultFilename.replaceAll("\\.(jtl|brl)$", "") + "-timeseries.csv";
+        try {
+            results.exportTimeSeries(timeSeriesFile);
+            logger.info("Exported time series with {} intervals to: {}", results.getTimeSeries().size(), timeSeriesFile);
         } catch (Exception e) {
-            logger.error("JMeter test execution failed", e);
-            throw new RuntimeException("Test execution failed", e);
+            logger.warn("Failed to export time series to: {}", timeSeriesFile, e);
         }
     }
     
@@ -288,6 +687,7 @@ public class JMeterTestEngine {
     /**
      * Shutdown JMeter engine.
      */
+    @Override
     public void shutdown() {
         if (jmeterEngine != null) {
             jmeterEngine.stopTest(true);
@@ -0,0 +1,82 @@
+package com.automation.performance;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes samples in JMeter's CSV JTL format so engines other than JMeter produce files
+ * that existing JTL tooling can read.
+ */
+public class JtlCsvWriter implements SampleWriter {
+
+    public static final String HEADER =
+            "timeStamp,elapsed,label,responseCode,responseMessage,threadName,success,bytes,grpThreads,allThreads,Latency,Connect";
+
+    private final BufferedWriter writer;
+
+    public JtlCsvWriter(String filename) throws IOException {
+        Path file = Paths.get(filename);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        writer.write(HEADER);
+        writer.newLine();
+    }
+
+    /**
+     * Append one sample line.
+     */
+    @Override
+    public synchronized void write(long timeStamp, long elapsedMillis, String label, String responseCode,
+                                   String responseMessage, String threadName, boolean success, long bytes,
+                                   int activeThreads, long latencyMillis, long connectMillis) throws IOException {
+        writer.write(Long.toString(timeStamp));
+        writer.write(',');
+        writer.write(Long.toString(elapsedMillis));
+        writer.write(',');
+        writer.write(quote(label));
+        writer.write(',');
+        writer.write(quote(responseCode));
+        writer.write(',');
+        writer.write(quote(responseMessage));
+        writer.write(',');
+        writer.write(quote(threadName));
+        writer.write(',');
+        writer.write(success ? "true" : "false");
+        writer.write(',');
+        writer.write(Long.toString(bytes));
+        writer.write(',');
+        writer.write(Integer.toString(activeThreads));
+        writer.write(',');
+        writer.write(Integer.toString(activeThreads));
+        writer.write(',');
+        writer.write(Long.toString(latencyMillis));
+        writer.write(',');
+        // An empty Connect field, not 0, for an unknown connect time: 0 means a reused connection
+        if (connectMillis >= 0) {
+            writer.write(Long.toString(connectMillis));
+        }
+        writer.newLine();
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,640 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rebuilds {@link PerformanceResults} (histograms, per-sampler results, time series) from a CSV JTL file.
+ * The file is split into record-aligned chunks that are memory-mapped and parsed in parallel on a fork/join
+ * pool straight into a shared {@link ResultAggregator}. Chunks are cut only at line feeds outside quoted
+ * fields, since a quoted response message may span lines. Fields are parsed from the mapped bytes; only
+ * distinct labels and error messages become Strings, so multi-gigabyte files need little heap.
+ * The timeStamp column is taken as the sample start time, as written by {@link JtlCsvWriter} and by
+ * JMeter once {@link JMeterRuntime} has set {@code sampleresult.timestamp.start}.
+ */
+public class JtlReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(JtlReader.class);
+
+    public static final int DEFAULT_CHUNK_BYTES = 16 * 1024 * 1024;
+
+    /** Intervals kept beyond the span between the first and last line, for samples written out of order. */
+    private static final int TIME_SERIES_SLACK_INTERVALS = 60;
+    private static final int SCAN_BUFFER_BYTES = 64 * 1024;
+    private static final long MALFORMED = Long.MIN_VALUE;
+
+    private final Path file;
+    private long resolutionMillis;
+    private int chunkBytes = DEFAULT_CHUNK_BYTES;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    public JtlReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Width of the time-series intervals; by default 1 s, widened so a long run fits the default capacity.
+     */
+    public JtlReader withResolution(long resolutionMillis) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolutionMillis);
+        }
+        this.resolutionMillis = resolutionMillis;
+        return this;
+    }
+
+    /**
+     * Approximate number of bytes each parallel task maps and parses.
+     */
+    public JtlReader withChunkSize(int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkBytes);
+        }
+        this.chunkBytes = chunkBytes;
+        return this;
+    }
+
+    public JtlReader withPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    public PerformanceResults read() {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            byte[] firstLine = readLine(channel, 0);
+            Columns columns;
+            long dataStart;
+            if (firstLine.length > 0 && !Character.isDigit(firstLine[0])) {
+                columns = Columns.fromHeader(new String(firstLine, StandardCharsets.UTF_8).trim());
+                dataStart = nextLineStart(channel, 0);
+            } else {
+                columns = Columns.fromHeader(JtlCsvWriter.HEADER);
+                dataStart = 0;
+            }
+
+            long firstTimestamp = timestampOf(readLine(channel, dataStart), columns);
+            long lastTimestamp = timestampOf(readLastLine(channel), columns);
+            ResultAggregator aggregator = new ResultAggregator();
+            if (firstTimestamp != MALFORMED && lastTimestamp != MALFORMED) {
+                aggregator.setTimeSeries(timeSeriesFor(Math.max(0, lastTimestamp - firstTimestamp)));
+                aggregator.markRunStart(firstTimestamp);
+            }
+
+            // Quote counts before each cut tell whether it falls inside a quoted field
+            int rawChunks = (int) ((size - dataStart + chunkBytes - 1) / chunkBytes);
+            long[] quotes = new long[rawChunks];
+            if (rawChunks > 1) {
+                pool.invoke(new QuoteCountTask(channel, dataStart, size, chunkBytes, quotes, 0, rawChunks));
+            }
+            List<long[]> chunks = new ArrayList<>();
+            long start = dataStart;
+            long quotesBefore = 0;
+            for (int i = 0; i < rawChunks; i++) {
+                quotesBefore += quotes[i];
+                long cut = Math.min(size, dataStart + (i + 1L) * chunkBytes);
+                long end = cut < size ? nextRecordStart(channel, cut, (quotesBefore & 1) == 1) : size;
+                // A record longer than a chunk can carry the boundary past the next cut
+                if (end > start) {
+                    chunks.add(new long[]{start, end});
+                    start = end;
+                }
+            }
+
+            ParseState state = new ParseState(channel, columns, aggregator);
+            if (!chunks.isEmpty()) {
+                pool.invoke(new ParseTask(state, chunks, 0, chunks.size()));
+            }
+
+            long duration = aggregator.getAccumulator().getActiveSpanMillis();
+            PerformanceResults results = new PerformanceResults();
+            results.setTestPlanName(file.getFileName().toString().replaceAll("\\.jtl$", ""));
+            results.setTotalExecutionTime(duration);
+            results.setThreadCount((int) state.maxThreads.get());
+            aggregator.populate(results, duration);
+
+            long skipped = state.malformedLines.sum();
+            if (skipped > 0) {
+                logger.warn("Skipped {} malformed lines in {}", skipped, file);
+            }
+            logger.info("Read {} samples from {} ({} MB in {} chunks) in {} ms", results.getTotalSamples(), file,
+                       size / (1024 * 1024), chunks.size(), (System.nanoTime() - startNanos) / 1_000_000);
+            return results;
+
+        } catch (IOException e) {
+            throw new RuntimeException("JTL read failed: " + file, e);
+        }
+    }
+
+    private TimeSeries timeSeriesFor(long spanMillis) {
+        long resolution = resolutionMillis;
+        if (resolution == 0) {
+            long seconds = (spanMillis / TimeSeries.DEFAULT_CAPACITY + 999) / 1000;
+            resolution = Math.max(TimeSeries.DEFAULT_RESOLUTION_MILLIS, seconds * 1000);
+        }
+        long capacity = spanMillis / resolution + 1 + TIME_SERIES_SLACK_INTERVALS;
+        return new TimeSeries(resolution, (int) Math.min(Integer.MAX_VALUE, capacity));
+    }
+
+    private static long timestampOf(byte[] line, Columns columns) {
+        if (line.length == 0) {
+            return MALFORMED;
+        }
+        LineParser parser = new LineParser(columns);
+        parser.parse(ByteBuffer.wrap(line), 0, line.length);
+        return parser.longField(columns.timeStamp);
+    }
+
+    /**
+     * Bytes of the line starting at the given position, without the line terminator.
+     */
+    private static byte[] readLine(FileChannel channel, long position) throws IOException {
+        long end = nextLineStart(channel, position);
+        int length = (int) Math.min(end - position, SCAN_BUFFER_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.read(buffer, position);
+        int trimmed = buffer.position();
+        while (trimmed > 0 && (buffer.get(trimmed - 1) == '\n' || buffer.get(trimmed - 1) == '\r')) {
+            trimmed--;
+        }
+        return Arrays.copyOf(buffer.array(), trimmed);
+    }
+
+    private static byte[] readLastLine(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long from = Math.max(0, size - SCAN_BUFFER_BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (size - from));
+        channel.read(buffer, from);
+        int end = buffer.position();
+        while (end > 0 && (buffer.get(end - 1) == '\n' || buffer.get(end - 1) == '\r')) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && buffer.get(start - 1) != '\n') {
+            start--;
+        }
+        return Arrays.copyOfRange(buffer.array(), start, end);
+    }
+
+    /**
+     * Position just past the next line feed at or after the given position, or the end of the file.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Position just past the next line feed at or after the given position that is outside a quoted
+     * field, or the end of the file; inQuotes is the quote state at the given position.
+     */
+    private static long nextRecordStart(FileChannel channel, long position, boolean inQuotes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    // An escaped quote toggles twice, so only field delimiters change the state
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Summarise a JTL file: {@code JtlReader <file.jtl> [resolutionSeconds]}.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: JtlReader <file.jtl> [resolutionSeconds]");
+            System.exit(2);
+        }
+        JtlReader reader = new JtlReader(Paths.get(args[0]));
+        if (args.length > 1) {
+            reader.withResolution(Long.parseLong(args[1]) * 1000);
+        }
+        System.out.println(reader.read().getSummary());
+    }
+
+    /**
+     * Column positions of the fields the reader needs, from the JTL header.
+     */
+    private static final class Columns {
+        private final int count;
+        private final int timeStamp;
+        private final int elapsed;
+        private final int label;
+        private final int responseCode;
+        private final int responseMessage;
+        private final int success;
+        private final int threads;
+        private final int latency;
+        private final int connect;
+
+        private Columns(List<String> names) {
+            this.count = names.size();
+            this.timeStamp = require(names, "timeStamp");
+            this.elapsed = require(names, "elapsed");
+            this.label = require(names, "label");
+            this.success = require(names, "success");
+            this.responseCode = names.indexOf("responseCode");
+            this.responseMessage = names.indexOf("responseMessage");
+            this.threads = names.contains("allThreads") ? names.indexOf("allThreads") : names.indexOf("grpThreads");
+            this.latency = names.indexOf("Latency");
+            this.connect = names.indexOf("Connect");
+        }
+
+        private static Columns fromHeader(String header) {
+            return new Columns(Arrays.asList(header.split(",")));
+        }
+
+        private static int require(List<String> names, String name) {
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("JTL header has no " + name + " column: " + names);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * State shared by all parse tasks of one read.
+     */
+    private static final class ParseState {
+        private final FileChannel channel;
+        private final Columns columns;
+        private final ResultAggregator aggregator;
+        private final LongAccumulator maxThreads = new LongAccumulator(Math::max, 0);
+        private final LongAdder malformedLines = new LongAdder();
+
+        private ParseState(FileChannel channel, Columns columns, ResultAggregator aggregator) {
+            this.channel = channel;
+            this.columns = columns;
+            this.aggregator = aggregator;
+        }
+    }
+
+    /**
+     * Splits the chunk list in halves until each task parses one mapped chunk.
+     */
+    private static final class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ParseState state;
+        private final List<long[]> chunks;
+        private final int from;
+        private final int to;
+
+        private ParseTask(ParseState state, List<long[]> chunks, int from, int to) {
+            this.state = state;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseTask(state, chunks, from, middle), new ParseTask(state, chunks, middle, to));
+                return;
+            }
+            long[] chunk = chunks.get(from);
+            try {
+                parseChunk(state.channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]));
+            } catch (IOException e) {
+                throw new RuntimeException("JTL chunk read failed at byte " + chunk[0], e);
+            }
+        }
+
+        private void parseChunk(MappedByteBuffer buffer) {
+            Columns columns = state.columns;
+            LineParser parser = new LineParser(columns);
+            StringTable labels = new StringTable();
+            StringTable codes = new StringTable();
+            StringTable messages = new StringTable();
+            Map<String, Map<String, String>> errorMessages = new HashMap<>();
+            long maxThreads = 0;
+
+            int limit = buffer.limit();
+            int position = 0;
+            while (position < limit) {
+                int next = parser.parse(buffer, position, limit);
+                if (parser.isBlank()) {
+                    position = next;
+                    continue;
+                }
+                long timestamp = parser.longField(columns.timeStamp);
+                long elapsed = parser.longField(columns.elapsed);
+                if (timestamp == MALFORMED || elapsed == MALFORMED || !parser.hasField(columns.label)) {
+                    state.malformedLines.increment();
+                    position = next;
+                    continue;
+                }
+                boolean success = parser.booleanField(columns.success);
+                long threads = columns.threads >= 0 ? Math.max(0, parser.longField(columns.threads)) : 0;
+                maxThreads = Math.max(maxThreads, threads);
+
+                String label = parser.stringField(columns.label, labels);
+                String errorMessage = null;
+                if (!success) {
+                    String code = columns.responseCode >= 0 ? parser.stringField(columns.responseCode, codes) : "";
+                    String message = columns.responseMessage >= 0 ? parser.stringField(columns.responseMessage, messages) : "";
+                    errorMessage = errorMessages.computeIfAbsent(code, key -> new HashMap<>())
+                            .computeIfAbsent(message, key -> code + " " + key);
+                }
+                boolean counted = state.aggregator.record(label, timestamp, elapsed * 1000, success, (int) threads, errorMessage);
+                // Warm-up samples and samples that never got a response have no timings to break down
+                long latency = columns.latency >= 0 ? parser.longField(columns.latency) : MALFORMED;
+                if (counted && latency != MALFORMED && (success || !errorMessage.startsWith("Non HTTP"))) {
+                    long connect = columns.connect >= 0 ? parser.longField(columns.connect) : MALFORMED;
+                    // An empty Connect field means the connect time is unknown
+                    state.aggregator.recordTimings(label, connect >= 0 ? connect * 1000 : -1,
+                            latency * 1000, elapsed * 1000);
+                }
+                position = next;
+            }
+            state.maxThreads.accumulate(maxThreads);
+        }
+    }
+
+    /**
+     * Counts the quote bytes of each fixed-size range of the file, splitting the ranges in halves
+     * until each task counts one.
+     */
+    private static final class QuoteCountTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long dataStart;
+        private final long size;
+        private final int chunkBytes;
+        private final long[] counts;
+        private final int from;
+        private final int to;
+
+        private QuoteCountTask(FileChannel channel, long dataStart, long size, int chunkBytes, long[] counts,
+                               int from, int to) {
+            this.channel = channel;
+            this.dataStart = dataStart;
+            this.size = size;
+            this.chunkBytes = chunkBytes;
+            this.counts = counts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new QuoteCountTask(channel, dataStart, size, chunkBytes, counts, from, middle),
+                          new QuoteCountTask(channel, dataStart, size, chunkBytes, counts, middle, to));
+                return;
+            }
+            long start = dataStart + (long) from * chunkBytes;
+            long end = Math.min(size, start + chunkBytes);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                long count = 0;
+                for (int i = 0, limit = buffer.limit(); i < limit; i++) {
+                    if (buffer.get(i) == '"') {
+                        count++;
+                    }
+                }
+                counts[from] = count;
+            } catch (IOException e) {
+                throw new RuntimeException("JTL chunk read failed at byte " + start, e);
+            }
+        }
+    }
+
+    /**
+     * Locates the fields of one CSV line in a buffer without copying it; reused for every line of a chunk.
+     */
+    private static final class LineParser {
+        private final int[] starts;
+        private final int[] ends;
+        private final boolean[] quoted;
+        private ByteBuffer buffer;
+        private int fields;
+
+        private LineParser(Columns columns) {
+            this.starts = new int[columns.count];
+            this.ends = new int[columns.count];
+            this.quoted = new boolean[columns.count];
+        }
+
+        /**
+         * Parse the line starting at the given position and return the position of the next line.
+         */
+        private int parse(ByteBuffer buffer, int position, int limit) {
+            this.buffer = buffer;
+            fields = 0;
+            int i = position;
+            while (true) {
+                int start = i;
+                boolean inQuotes = i < limit && buffer.get(i) == '"';
+                int end;
+                if (inQuotes) {
+                    i++;
+                    while (i < limit) {
+                        if (buffer.get(i) == '"') {
+                            if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                                i += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        i++;
+                    }
+                    end = Math.min(i, limit);
+                    start++;
+                    while (i < limit && buffer.get(i) != ',' && buffer.get(i) != '\n') {
+                        i++;
+                    }
+                } else {
+                    while (i < limit && buffer.get(i) != ',' && buffer.get(i) != '\n') {
+                        i++;
+                    }
+                    end = i;
+                    if (end > start && buffer.get(end - 1) == '\r') {
+                        end--;
+                    }
+                }
+                if (fields < starts.length) {
+                    starts[fields] = start;
+                    ends[fields] = end;
+                    quoted[fields] = inQuotes;
+                }
+                fields++;
+                if (i >= limit || buffer.get(i) == '\n') {
+                    return i + 1;
+                }
+                i++;
+            }
+        }
+
+        private boolean isBlank() {
+            return fields == 1 && ends[0] == starts[0];
+        }
+
+        private boolean hasField(int index) {
+            return index < fields && index < starts.length;
+        }
+
+        private long longField(int index) {
+            if (!hasField(index) || starts[index] == ends[index]) {
+                return MALFORMED;
+            }
+            int i = starts[index];
+            boolean negative = buffer.get(i) == '-';
+            if (negative) {
+                i++;
+            }
+            long value = 0;
+            for (; i < ends[index]; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return MALFORMED;
+                }
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+
+        private boolean booleanField(int index) {
+            if (!hasField(index) || ends[index] - starts[index] != 4) {
+                return false;
+            }
+            byte first = buffer.get(starts[index]);
+            return first == 't' || first == 'T';
+        }
+
+        private String stringField(int index, StringTable table) {
+            if (!hasField(index)) {
+                return "";
+            }
+            return table.get(buffer, starts[index], ends[index], quoted[index]);
+        }
+    }
+
+    /**
+     * Open-addressing table from raw field bytes to the decoded String, so repeated values allocate nothing.
+     */
+    private static final class StringTable {
+        private int[] hashes = new int[64];
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int size;
+
+        private String get(ByteBuffer buffer, int start, int end, boolean quoted) {
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int mask = keys.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                byte[] key = keys[slot];
+                if (key == null) {
+                    return insert(slot, hash, buffer, start, end, quoted);
+                }
+                if (hashes[slot] == hash && matches(key, buffer, start, end)) {
+                    return values[slot];
+                }
+            }
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String insert(int slot, int hash, ByteBuffer buffer, int start, int end, boolean quoted) {
+            byte[] key = new byte[end - start];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = buffer.get(start + i);
+            }
+            String value = new String(key, StandardCharsets.UTF_8);
+            if (quoted) {
+                value = value.replace("\"\"", "\"");
+            }
+            hashes[slot] = hash;
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return value;
+        }
+
+        private void resize() {
+            int[] oldHashes = hashes;
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            hashes = new int[oldKeys.length * 2];
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = oldHashes[i] & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    hashes[slot] = oldHashes[i];
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.automation.performance;
+
+/**
+ * Where the response time of one sampler went, as three histograms whose phases add up to the
+ * response time: opening the connection (zero when a pooled connection was reused), waiting for
+ * the first byte once connected, and downloading the rest of the body. Growing connect times point
+ * to connection or TLS churn, growing time to first byte to the server, growing download times to
+ * payload size. Values are recorded in microseconds; recording is lock-free.
+ */
+public class LatencyBreakdown {
+
+    private final String label;
+    private final LatencyHistogram connect;
+    private final LatencyHistogram timeToFirstByte;
+    private final LatencyHistogram download;
+
+    public LatencyBreakdown(String label) {
+        this(label, new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram());
+    }
+
+    public LatencyBreakdown(String label, LatencyHistogram connect, LatencyHistogram timeToFirstByte,
+                            LatencyHistogram download) {
+        this.label = label;
+        this.connect = connect;
+        this.timeToFirstByte = timeToFirstByte;
+        this.download = download;
+    }
+
+    /**
+     * Record one sample from the engine's timings: connect time (negative if the engine cannot tell
+     * it apart), latency until the first response byte counted from the start of the sample, and
+     * the full response time.
+     */
+    public void record(long connectMicros, long latencyMicros, long elapsedMicros) {
+        long latency = Math.min(Math.max(0, latencyMicros), elapsedMicros);
+        long waiting = latency;
+        if (connectMicros >= 0) {
+            long connected = Math.min(connectMicros, latency);
+            connect.recordValue(connected);
+            waiting -= connected;
+        }
+        timeToFirstByte.recordValue(waiting);
+        download.recordValue(elapsedMicros - latency);
+    }
+
+    public String getLabel() { return label; }
+
+    /**
+     * Time to open the connection, including the TLS handshake; empty if the engine does not report it.
+     */
+    public LatencyHistogram getConnectHistogram() { return connect; }
+
+    /**
+     * Time from an open connection to the first response byte; includes connecting when the engine
+     * does not report connect time separately.
+     */
+    public LatencyHistogram getTimeToFirstByteHistogram() { return timeToFirstByte; }
+
+    /**
+     * Time from the first to the last response byte.
+     */
+    public LatencyHistogram getDownloadHistogram() { return download; }
+
+    public double getConnectPercentile(double percentile) {
+        return connect.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double getTimeToFirstBytePercentile(double percentile) {
+        return timeToFirstByte.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double getDownloadPercentile(double percentile) {
+        return download.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public LatencyBreakdown copy() {
+        return new LatencyBreakdown(label, connect.copy(), timeToFirstByte.copy(), download.copy());
+    }
+
+    /**
+     * Combine with the breakdown of the same label from a concurrent run, e.g. another load generator.
+     */
+    public LatencyBreakdown merge(LatencyBreakdown other) {
+        LatencyBreakdown merged = copy();
+        merged.connect.add(other.connect);
+        merged.timeToFirstByte.add(other.timeToFirstByte);
+        merged.download.add(other.download);
+        return merged;
+    }
+
+    @Override
+    public String toString() {
+        String connectPart = connect.getTotalCount() == 0 ? "connect n/a"
+                : String.format("connect p50=%.2f p99=%.2f", getConnectPercentile(50.0), getConnectPercentile(99.0));
+        return String.format("%s: %s, ttfb p50=%.2f p99=%.2f, download p50=%.2f p99=%.2f ms",
+                label, connectPart, getTimeToFirstBytePercentile(50.0), getTimeToFirstBytePercentile(99.0),
+                getDownloadPercentile(50.0), getDownloadPercentile(99.0));
+    }
+}
@@ -0,0 +1,348 @@
+package com.automation.performance;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, high-dynamic-range latency histogram.
+ * Uses the HdrHistogram log-linear bucket layout: values are grouped into power-of-two buckets,
+ * each split into linear sub-buckets, so the relative error stays within the configured number
+ * of significant digits across the whole range. Recording is lock-free and allocation-free.
+ * Values are expected in microseconds.
+ */
+public class LatencyHistogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int ENCODING_MAGIC = 0x4C480001;
+
+    /** Default highest trackable latency: one hour, in microseconds. */
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+
+    private final long highestTrackableValue;
+    private final int significantDigits;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+    private final AtomicLongArray counts;
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong(0);
+
+    public LatencyHistogram() {
+        this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Create a histogram tracking values from 0 to highestTrackableValue with the given precision.
+     */
+    public LatencyHistogram(long highestTrackableValue, int significantDigits) {
+        if (significantDigits < 1 || significantDigits > 4) {
+            throw new IllegalArgumentException("Significant digits must be between 1 and 4: " + significantDigits);
+        }
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("Highest trackable value must be at least 2: " + highestTrackableValue);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+
+        long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = 64 - Long.numberOfLeadingZeros(largestValueWithSingleUnitResolution - 1);
+        int subBucketCount = 1 << subBucketCountMagnitude;
+
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        this.subBucketHalfCount = subBucketCount / 2;
+        this.subBucketMask = subBucketCount - 1;
+        this.leadingZeroCountBase = 64 - subBucketHalfCountMagnitude - 1;
+
+        // Number of power-of-two buckets needed to cover the trackable range
+        long smallestUntrackableValue = subBucketCount;
+        int bucketCount = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        this.counts = new AtomicLongArray((bucketCount + 1) * subBucketHalfCount);
+    }
+
+    /**
+     * Record a value. Values outside the trackable range are clamped to it.
+     */
+    public void recordValue(long value) {
+        recordValues(value, 1);
+    }
+
+    /**
+     * Record a value and back-fill the samples a stalled closed-model client never sent.
+     * When the value exceeds the expected interval between samples, the values that requests
+     * issued on schedule during the stall would have seen (value - interval, value - 2 * interval,
+     * ... down to the interval) are recorded as well. This corrects for coordinated omission.
+     */
+    public void recordValueWithExpectedInterval(long value, long expectedIntervalBetweenValueSamples) {
+        recordCorrectedValues(value, 1, expectedIntervalBetweenValueSamples);
+    }
+
+    private void recordCorrectedValues(long value, long count, long expectedInterval) {
+        recordValues(value, count);
+        if (expectedInterval <= 0) {
+            return;
+        }
+        for (long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+            recordValues(missing, count);
+        }
+    }
+
+    private void recordValues(long value, long count) {
+        long clamped = Math.max(0, Math.min(value, highestTrackableValue));
+        counts.addAndGet(countsIndex(clamped), count);
+        updateMin(clamped);
+        updateMax(clamped);
+    }
+
+    private void updateMin(long value) {
+        long current = minValue.get();
+        while (value < current && !minValue.compareAndSet(current, value)) {
+            current = minValue.get();
+        }
+    }
+
+    private void updateMax(long value) {
+        long current = maxValue.get();
+        while (value > current && !maxValue.compareAndSet(current, value)) {
+            current = maxValue.get();
+        }
+    }
+
+    private int countsIndex(long value) {
+        int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    private long valueFromIndex(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    private long highestEquivalentValue(int index) {
+        long lowest = valueFromIndex(index);
+        int bucketIndex = Math.max(0, (index >> subBucketHalfCountMagnitude) - 1);
+        return lowest + (1L << bucketIndex) - 1;
+    }
+
+    private long medianEquivalentValue(int index) {
+        long lowest = valueFromIndex(index);
+        int bucketIndex = Math.max(0, (index >> subBucketHalfCountMagnitude) - 1);
+        return lowest + ((1L << bucketIndex) >> 1);
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getMinValue() {
+        long min = minValue.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    public long getHighestTrackableValue() { return highestTrackableValue; }
+
+    public int getSignificantDigits() { return significantDigits; }
+
+    /**
+     * Mean of all recorded values, using the midpoint of each bucket.
+     */
+    public double getMean() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                total += count;
+                sum += (double) count * medianEquivalentValue(i);
+            }
+        }
+        return total == 0 ? 0.0 : sum / total;
+    }
+
+    /**
+     * Value at the given percentile (0-100). The result is the highest value equivalent to the
+     * bucket the percentile falls in, capped at the largest recorded value.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = getTotalCount();
+        if (total == 0) {
+            return 0;
+        }
+        double requested = Math.min(Math.max(percentile, 0.0), 100.0);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(requested / 100.0 * total));
+
+        long running = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            running += counts.get(i);
+            if (running >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i), getMaxValue());
+            }
+        }
+        return getMaxValue();
+    }
+
+    /**
+     * Number of recorded values at or below each of the given ascending bounds, counted in a single
+     * pass without copying; the extra last element holds the total. Buckets count towards a bound by
+     * their lowest equivalent value.
+     */
+    public long[] getCumulativeCounts(long[] ascendingBounds) {
+        long[] cumulative = new long[ascendingBounds.length + 1];
+        int bound = 0;
+        long running = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            long value = valueFromIndex(i);
+            while (bound < ascendingBounds.length && value > ascendingBounds[bound]) {
+                cumulative[bound++] = running;
+            }
+            running += count;
+        }
+        while (bound < ascendingBounds.length) {
+            cumulative[bound++] = running;
+        }
+        cumulative[ascendingBounds.length] = running;
+        return cumulative;
+    }
+
+    /**
+     * Add all values recorded in another histogram to this one.
+     * Histograms with a different layout are merged value by value.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < other.counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(countsIndex(Math.min(other.valueFromIndex(i), highestTrackableValue)), count);
+            }
+        }
+        if (other.getTotalCount() > 0) {
+            updateMin(Math.min(other.getMinValue(), highestTrackableValue));
+            updateMax(Math.min(other.getMaxValue(), highestTrackableValue));
+        }
+    }
+
+    /**
+     * Create an independent copy with the same layout.
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram(highestTrackableValue, significantDigits);
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * Create a copy corrected for coordinated omission, as if every value had been recorded with
+     * {@link #recordValueWithExpectedInterval(long, long)}. The original is left unchanged.
+     */
+    public LatencyHistogram copyCorrectedForCoordinatedOmission(long expectedIntervalBetweenValueSamples) {
+        LatencyHistogram corrected = new LatencyHistogram(highestTrackableValue, significantDigits);
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                corrected.recordCorrectedValues(valueFromIndex(i), count, expectedIntervalBetweenValueSamples);
+            }
+        }
+        if (getTotalCount() > 0) {
+            corrected.updateMin(getMinValue());
+            corrected.updateMax(getMaxValue());
+        }
+        return corrected;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        minValue.set(Long.MAX_VALUE);
+        maxValue.set(0);
+    }
+
+    /**
+     * Encode into a compact byte array containing only non-empty buckets.
+     */
+    public byte[] encode() {
+        int nonZero = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) != 0) {
+                nonZero++;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 8 + 8 + 8 + 4 + nonZero * 12);
+        buffer.putInt(ENCODING_MAGIC);
+        buffer.putInt(significantDigits);
+        buffer.putLong(highestTrackableValue);
+        buffer.putLong(minValue.get());
+        buffer.putLong(maxValue.get());
+        buffer.putInt(nonZero);
+        for (int i = 0; i < counts.length() && nonZero > 0; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                buffer.putInt(i);
+                buffer.putLong(count);
+                nonZero--;
+            }
+        }
+        return buffer.array();
+    }
+
+    public static LatencyHistogram decode(byte[] encoded) {
+        return decode(ByteBuffer.wrap(encoded));
+    }
+
+    /**
+     * Decode a histogram written by {@link #encode()}, advancing the buffer position past it.
+     */
+    public static LatencyHistogram decode(ByteBuffer buffer) {
+        int magic = buffer.getInt();
+        if (magic != ENCODING_MAGIC) {
+            throw new IllegalArgumentException("Not an encoded LatencyHistogram: 0x" + Integer.toHexString(magic));
+        }
+        int digits = buffer.getInt();
+        long highest = buffer.getLong();
+        LatencyHistogram histogram = new LatencyHistogram(highest, digits);
+        histogram.minValue.set(buffer.getLong());
+        histogram.maxValue.set(buffer.getLong());
+
+        int entries = buffer.getInt();
+        for (int i = 0; i < entries; i++) {
+            int index = buffer.getInt();
+            long count = buffer.getLong();
+            if (index < 0 || index >= histogram.counts.length()) {
+                throw new IllegalArgumentException("Histogram bucket index out of range: " + index);
+            }
+            histogram.counts.set(index, count);
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,93 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates SLA rules over a sliding window of progress intervals while a test runs.
+ * A rule that stays breached for longer than the grace period triggers the abort action once;
+ * the violation is kept for the partial results. Only windows that start after the warm-up are
+ * judged, since warm-up samples still feed the time series. Fed by the single progress publisher thread.
+ */
+public class LiveSlaMonitor implements ProgressListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveSlaMonitor.class);
+
+    private final List<SlaRule> rules;
+    private final long windowMillis;
+    private final long gracePeriodMillis;
+    private final Runnable abortAction;
+    private final Deque<TimeSeriesPoint> window = new ArrayDeque<>();
+    private final Map<SlaRule, Long> breachStarts = new HashMap<>();
+    private volatile SlaViolation violation;
+
+    public LiveSlaMonitor(List<SlaRule> rules, long windowMillis, long gracePeriodMillis, Runnable abortAction) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("SLA window must be positive: " + windowMillis);
+        }
+        this.rules = rules;
+        this.windowMillis = windowMillis;
+        this.gracePeriodMillis = Math.max(0, gracePeriodMillis);
+        this.abortAction = abortAction;
+    }
+
+    @Override
+    public void onProgress(ProgressSnapshot snapshot) {
+        if (violation != null || snapshot.isFinished()) {
+            return;
+        }
+        TimeSeriesPoint interval = snapshot.getInterval();
+        if (!window.isEmpty() && window.peekLast().getStartTimeMillis() == interval.getStartTimeMillis()) {
+            window.pollLast();
+        }
+        window.addLast(interval);
+        long windowStart = interval.getStartTimeMillis() + interval.getIntervalMillis() - windowMillis;
+        while (window.peekFirst().getStartTimeMillis() < windowStart) {
+            window.pollFirst();
+        }
+
+        // Wait for a full window, past ramp-up and any warm-up, so neither trips the rules
+        if (snapshot.getElapsedMillis() < windowMillis || windowStart < snapshot.getWarmUpEndTimeMillis()) {
+            breachStarts.clear();
+            return;
+        }
+        TimeSeriesPoint merged = mergeWindow();
+        for (SlaRule rule : rules) {
+            double measured = rule.measure(merged);
+            if (!rule.isBreachedBy(measured)) {
+                breachStarts.remove(rule);
+                continue;
+            }
+            long breachStart = breachStarts.computeIfAbsent(rule, r -> snapshot.getElapsedMillis());
+            if (snapshot.getElapsedMillis() - breachStart >= gracePeriodMillis) {
+                violation = new SlaViolation(rule, measured, breachStart, snapshot.getElapsedMillis());
+                logger.warn("Live SLA violated, aborting run: {}", violation);
+                abortAction.run();
+                return;
+            }
+        }
+    }
+
+    private TimeSeriesPoint mergeWindow() {
+        TimeSeriesPoint merged = null;
+        for (TimeSeriesPoint point : window) {
+            merged = merged == null ? point : merged.merge(point);
+        }
+        // Span the whole window so throughput is averaged over it
+        return new TimeSeriesPoint(merged.getStartTimeMillis(), windowMillis, merged.getSamples(),
+                merged.getErrors(), merged.getActiveThreads(), merged.getHistogram());
+    }
+
+    /**
+     * The rule that aborted the run, or null if every rule held.
+     */
+    public SlaViolation getViolation() {
+        return violation;
+    }
+}
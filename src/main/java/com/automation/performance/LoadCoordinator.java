@@ -0,0 +1,270 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coordinator of a distributed run.
+ * Starts local {@link LoadWorker} processes and/or attaches to workers on other hosts, hands each
+ * worker its share of the users, starts them together and merges their histograms and counters
+ * into one {@link PerformanceResults}.
+ */
+public class LoadCoordinator implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadCoordinator.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final long WORKER_START_TIMEOUT_SECONDS = 30;
+
+    /** Delay between sending START and the run starting, so every worker starts at the same time. */
+    private static final long START_DELAY_MILLIS = 500;
+
+    private final List<InetSocketAddress> workers = new ArrayList<>();
+    private final List<Process> localWorkers = new ArrayList<>();
+    private final String token;
+
+    /**
+     * Coordinator with a random token, for local workers only.
+     */
+    public LoadCoordinator() {
+        this(null);
+    }
+
+    /**
+     * Coordinator presenting the given shared token to its workers; a random one if null or empty.
+     */
+    public LoadCoordinator(String token) {
+        if (token == null || token.isEmpty()) {
+            byte[] random = new byte[16];
+            new SecureRandom().nextBytes(random);
+            token = HexFormat.of().formatHex(random);
+        }
+        this.token = token;
+    }
+
+    /**
+     * Attach to a worker already listening on the given host and port.
+     */
+    public LoadCoordinator attach(String host, int port) {
+        workers.add(new InetSocketAddress(host, port));
+        logger.info("Attached load worker {}:{}", host, port);
+        return this;
+    }
+
+    /**
+     * Start worker JVMs on this host with the current classpath and attach to them over loopback.
+     */
+    public LoadCoordinator startLocalWorkers(int count) {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 0; i < count; i++) {
+            try {
+                ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        LoadWorker.class.getName(), "0")
+                        .redirectErrorStream(true);
+                builder.environment().put(LoadWorker.TOKEN_ENV, token);
+                Process process = builder.start();
+                localWorkers.add(process);
+                attach("127.0.0.1", awaitListeningPort(process));
+            } catch (IOException e) {
+                throw new RuntimeException("Local worker start failed", e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Read the worker's port from its output, then keep draining the output so it never blocks.
+     */
+    private int awaitListeningPort(Process process) {
+        CompletableFuture<Integer> port = new CompletableFuture<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader output = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    if (!port.isDone() && line.startsWith(LoadWorker.LISTENING_BANNER)) {
+                        port.complete(Integer.parseInt(line.substring(LoadWorker.LISTENING_BANNER.length()).trim()));
+                    } else {
+                        logger.debug("[worker {}] {}", process.pid(), line);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                port.completeExceptionally(e);
+            }
+            port.completeExceptionally(new IllegalStateException("Worker exited before listening"));
+        }, "load-worker-output-" + process.pid());
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            return port.get(WORKER_START_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while starting local worker", e);
+        } catch (ExecutionException | TimeoutException e) {
+            process.destroyForcibly();
+            throw new RuntimeException("Local worker did not start", e);
+        }
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    /**
+     * Run the plan across all workers and merge their results.
+     */
+    public PerformanceResults execute(DistributedPlan plan) {
+        if (workers.isEmpty()) {
+            throw new IllegalStateException("No workers. Call attach() or startLocalWorkers() first.");
+        }
+
+        // Never hand a worker zero users
+        int workerCount = Math.min(workers.size(), plan.getThreadCount());
+        List<WorkerSession> sessions = new ArrayList<>();
+        ExecutorService collectors = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "load-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // Hand out the plan and wait until every worker is ready before starting any of them
+            for (int i = 0; i < workerCount; i++) {
+                WorkerSession session = new WorkerSession(workers.get(i), token);
+                sessions.add(session);
+                session.sendPlan(plan, plan.threadsForWorker(i, workerCount));
+            }
+            for (WorkerSession session : sessions) {
+                session.awaitReady();
+            }
+
+            logger.info("Starting distributed run '{}' on {} workers", plan.getTestPlanName(), sessions.size());
+            for (WorkerSession session : sessions) {
+                session.start(START_DELAY_MILLIS);
+            }
+
+            List<Future<PerformanceResults>> futures = new ArrayList<>();
+            for (WorkerSession session : sessions) {
+                futures.add(collectors.submit(session::awaitResults));
+            }
+
+            PerformanceResults merged = new PerformanceResults();
+            for (Future<PerformanceResults> future : futures) {
+                merged.merge(future.get());
+            }
+            merged.setTestPlanName(plan.getTestPlanName());
+            merged.setRampUpTime(plan.getRampUpSeconds());
+            merged.setLoopCount(plan.getLoops());
+
+            logger.info("Distributed run '{}' completed: {} samples from {} workers",
+                       plan.getTestPlanName(), merged.getTotalSamples(), sessions.size());
+            return merged;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Distributed run interrupted", e);
+        } catch (IOException | ExecutionException e) {
+            logger.error("Distributed run failed", e);
+            throw new RuntimeException("Distributed run failed", e);
+        } finally {
+            collectors.shutdownNow();
+            for (WorkerSession session : sessions) {
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Stop the local worker processes started by this coordinator.
+     */
+    @Override
+    public void close() {
+        for (Process process : localWorkers) {
+            process.destroy();
+        }
+        for (Process process : localWorkers) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        localWorkers.clear();
+    }
+
+    /**
+     * Connection to one worker for the duration of a run.
+     */
+    private static final class WorkerSession {
+        private final InetSocketAddress address;
+        private final String token;
+        private final Socket socket = new Socket();
+        private DataInputStream in;
+        private DataOutputStream out;
+
+        private WorkerSession(InetSocketAddress address, String token) {
+            this.address = address;
+            this.token = token;
+        }
+
+        private void sendPlan(DistributedPlan plan, int threads) throws IOException {
+            socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DistributedProtocol.writeHello(out, token);
+            DistributedProtocol.writePlan(out, plan, threads);
+            logger.debug("Sent plan with {} users to {}", threads, address);
+        }
+
+        private void awaitReady() throws IOException {
+            DistributedProtocol.expect(in, DistributedProtocol.READY);
+        }
+
+        private void start(long delayMillis) throws IOException {
+            out.writeByte(DistributedProtocol.START);
+            out.writeLong(delayMillis);
+            out.writeLong(System.currentTimeMillis() + delayMillis);
+            out.flush();
+        }
+
+        private PerformanceResults awaitResults() throws IOException {
+            DistributedProtocol.expect(in, DistributedProtocol.RESULT);
+            return DistributedProtocol.readResults(in);
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close connection to {}", address, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.automation.performance;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fluent API shared by all load generation engines.
+ * Lets {@link PerformanceTestRunner} switch between implementations without code changes.
+ */
+public interface LoadEngine {
+    
+    /**
+     * Create a closed-model test plan with a fixed number of users and loops.
+     */
+    LoadEngine createTestPlan(String testPlanName, int threadCount, int rampUpSeconds, int loops);
+    
+    /**
+     * Create a closed-model test plan whose users loop until a fixed wall-clock duration has passed.
+     */
+    LoadEngine createDurationTestPlan(String testPlanName, int threadCount, int rampUpSeconds, int durationSeconds);
+    
+    /**
+     * Create an open-model test plan that issues requests at a constant arrival rate.
+     */
+    LoadEngine createArrivalRateTestPlan(String testPlanName, double targetRequestsPerSecond,
+                                         int durationSeconds, int maxConcurrency);
+    
+    /**
+     * Create a test plan that runs the stages of a load profile back to back in one run, with users
+     * carrying over from one stage to the next.
+     */
+    LoadEngine createLoadProfileTestPlan(String testPlanName, LoadProfile profile);
+    
+    /**
+     * Add HTTP request to the test plan.
+     */
+    LoadEngine addHttpRequest(String samplerName, String protocol, String serverName,
+                              int port, String path, String method);
+    
+    /**
+     * Add HTTP request with headers and body.
+     */
+    LoadEngine addHttpRequest(String samplerName, String protocol, String serverName,
+                              int port, String path, String method,
+                              Map<String, String> headers, String requestBody);
+    
+    /**
+     * Add HTTP request that sends the next payload of the pool as its body, so every request is unique.
+     */
+    LoadEngine addHttpRequestWithPayloads(String samplerName, String protocol, String serverName,
+                                          int port, String path, String method,
+                                          Map<String, String> headers, PayloadPool payloads);
+    
+    /**
+     * Write every sample to a JTL-compatible result file, or to a compact binary log
+     * (convertible with {@link BinaryResultLog}) if the name ends in {@code .brl}.
+     */
+    LoadEngine addResultCollector(String filename);
+    
+    /**
+     * Configure the resolution and retained length of the per-interval time series.
+     */
+    LoadEngine withTimeSeries(long resolutionMillis, int capacity);
+    
+    /**
+     * Send one request per iteration, picked by weight from the mix, instead of every request in
+     * order. Call after creating the test plan and before adding requests; each request added
+     * needs a weight for its sampler name.
+     */
+    LoadEngine withTrafficMix(TrafficMix trafficMix);
+    
+    /**
+     * Set the expected time between requests of one user, used to correct latency percentiles for
+     * coordinated omission. Zero derives it from the arrival rate or the median response time.
+     */
+    LoadEngine withExpectedInterval(long expectedIntervalMillis);
+    
+    /**
+     * Record the samples of a warm-up window at the start of each run separately and leave them
+     * out of the results' statistics; null disables it.
+     */
+    LoadEngine withWarmUp(WarmUpWindow warmUp);
+    
+    /**
+     * Evaluate SLA rules over a sliding window while tests run, and abort a run once a rule has been
+     * breached for longer than the grace period. The tripped rule is recorded in the partial results.
+     */
+    LoadEngine withLiveSla(int windowSeconds, int gracePeriodSeconds, List<SlaRule> rules);
+    
+    /**
+     * Configure HTTP client implementation, keep-alive, pool size, idle eviction and TLS session reuse
+     * for the plans of this engine. Settings the engine's HTTP client cannot apply are logged.
+     */
+    LoadEngine withConnectionSettings(ConnectionSettings settings);
+    
+    /**
+     * Set the thresholds above which the generator's own process CPU, GC pause share and heap use
+     * mark a run as generator-saturated. All values are percentages.
+     */
+    LoadEngine withGeneratorHealthThresholds(double maxCpuPercent, double maxGcPausePercent, double maxHeapPercent);
+    
+    /**
+     * Serve live metrics of each run in the OpenMetrics / Prometheus text format on the given loopback port
+     * (0 picks a free one) under {@link MetricsEndpoint#PATH}, for the duration of the run.
+     */
+    LoadEngine withMetricsEndpoint(int port);
+    
+    /**
+     * Serve live metrics like {@link #withMetricsEndpoint(int)}, bound to the given host or address.
+     */
+    LoadEngine withMetricsEndpoint(String host, int port);
+    
+    /**
+     * Subscribe to live progress snapshots, pushed once per time-series interval while a test runs.
+     */
+    LoadEngine onProgress(ProgressListener listener);
+    
+    /**
+     * Execute the test plan and return performance results.
+     */
+    PerformanceResults execute();
+    
+    /**
+     * Start the test plan without blocking; the future completes with the results when the run ends.
+     */
+    CompletableFuture<PerformanceResults> executeAsync();
+    
+    /**
+     * Stop any running test and release resources.
+     */
+    void shutdown();
+}
@@ -0,0 +1,53 @@
+package com.automation.performance;
+
+/**
+ * Available load engine implementations.
+ */
+public enum LoadEngineType {
+    JMETER("jmeter"),
+    HTTP_CLIENT("httpclient");
+    
+    private final String name;
+    
+    LoadEngineType(String name) {
+        this.name = name;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Create a new engine instance of this type.
+     */
+    public LoadEngine create() {
+        switch (this) {
+            case HTTP_CLIENT:
+                return new HttpClientLoadEngine();
+            case JMETER:
+            default:
+                return new JMeterTestEngine();
+        }
+    }
+    
+    /**
+     * Resolve an engine type from its configuration name, e.g. "jmeter" or "httpclient".
+     */
+    public static LoadEngineType fromName(String engineName) {
+        if (engineName == null || engineName.trim().isEmpty()) {
+            return JMETER;
+        }
+        String normalized = engineName.trim().toLowerCase().replace("-", "").replace("_", "");
+        for (LoadEngineType type : values()) {
+            if (type.name.equals(normalized)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load engine: " + engineName);
+    }
+    
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,180 @@
+package com.automation.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declarative multi-stage load profile executed as one continuous run.
+ * Stages run back to back; samples are tagged with the stage they started in.
+ * Users carry over from one stage to the next: a stage with more users adds to those already
+ * running, and one with fewer stops the excess, so no stage boundary restarts the load cold.
+ */
+public class LoadProfile {
+    
+    private final List<LoadStage> stages;
+    
+    private LoadProfile(List<LoadStage> stages) {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("Load profile must have at least one stage");
+        }
+        this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+    }
+    
+    public List<LoadStage> getStages() {
+        return stages;
+    }
+    
+    /**
+     * Offset of the given stage from the start of the run, in seconds.
+     */
+    public int getStageOffsetSeconds(int stageIndex) {
+        int offset = 0;
+        for (int i = 0; i < stageIndex; i++) {
+            offset += stages.get(i).getDurationSeconds();
+        }
+        return offset;
+    }
+    
+    public int getTotalDurationSeconds() {
+        return getStageOffsetSeconds(stages.size());
+    }
+    
+    public int getMaxUsers() {
+        int max = 0;
+        for (LoadStage stage : stages) {
+            max = Math.max(max, stage.getUsers());
+        }
+        return max;
+    }
+    
+    /**
+     * Index of the stage running at the given offset from the start of the run.
+     */
+    public int stageIndexAt(long offsetMillis) {
+        long stageEnd = 0;
+        for (int i = 0; i < stages.size(); i++) {
+            stageEnd += stages.get(i).getDurationSeconds() * 1000L;
+            if (offsetMillis < stageEnd) {
+                return i;
+            }
+        }
+        return stages.size() - 1;
+    }
+    
+    /**
+     * Index of the spike stage: the first stage with the most users that has a stage before and after it,
+     * or -1 if the profile has no such stage.
+     */
+    public int getSpikeStageIndex() {
+        int spike = -1;
+        for (int i = 1; i < stages.size() - 1; i++) {
+            if (spike < 0 || stages.get(i).getUsers() > stages.get(spike).getUsers()) {
+                spike = i;
+            }
+        }
+        return spike >= 0 && stages.get(spike).getUsers() > stages.get(spike - 1).getUsers() ? spike : -1;
+    }
+    
+    /**
+     * Split the profile into groups of users that start and stop together.
+     * Users added by a stage ramp up over that stage's ramp-up and keep running through every
+     * following stage that still has room for them; the lowest users run longest.
+     */
+    public List<UserGroup> getUserGroups() {
+        List<UserGroup> groups = new ArrayList<>();
+        for (int s = 0; s < stages.size(); s++) {
+            LoadStage stage = stages.get(s);
+            int previousUsers = s == 0 ? 0 : stages.get(s - 1).getUsers();
+            int addedUsers = stage.getUsers() - previousUsers;
+            long stageStartMillis = getStageOffsetSeconds(s) * 1000L;
+            long rampUpMillis = stage.getRampUpSeconds() * 1000L;
+            
+            int from = previousUsers;
+            while (from < stage.getUsers()) {
+                // Users from here up to the lowest level of the stages they run through end together
+                int last = s;
+                int to = stage.getUsers();
+                while (last + 1 < stages.size() && stages.get(last + 1).getUsers() > from) {
+                    last++;
+                    to = Math.min(to, stages.get(last).getUsers());
+                }
+                long startMillis = stageStartMillis + rampUpMillis * (from - previousUsers) / addedUsers;
+                long endMillis = getStageOffsetSeconds(last + 1) * 1000L;
+                groups.add(new UserGroup(String.format("%s users %d-%d", stage.getName(), from + 1, to), to - from,
+                        startMillis, rampUpMillis * (to - from) / addedUsers, endMillis - startMillis));
+                from = to;
+            }
+        }
+        return groups;
+    }
+    
+    /**
+     * Classic spike profile: baseline, sudden spike, then recovery at the baseline load.
+     */
+    public static LoadProfile spike(int normalUsers, int spikeUsers, int baselineSeconds,
+                                    int spikeSeconds, int recoverySeconds) {
+        return builder()
+            .stage("baseline", normalUsers, Math.min(5, baselineSeconds), Math.max(0, baselineSeconds - 5))
+            .stage("spike", spikeUsers, 0, spikeSeconds)
+            .stage("recovery", normalUsers, 0, recoverySeconds)
+            .build();
+    }
+    
+    /**
+     * Users that start together at an offset from the start of the run and stop together.
+     */
+    public static class UserGroup {
+        private final String name;
+        private final int users;
+        private final long startOffsetMillis;
+        private final long rampUpMillis;
+        private final long durationMillis;
+        
+        UserGroup(String name, int users, long startOffsetMillis, long rampUpMillis, long durationMillis) {
+            this.name = name;
+            this.users = users;
+            this.startOffsetMillis = startOffsetMillis;
+            this.rampUpMillis = rampUpMillis;
+            this.durationMillis = durationMillis;
+        }
+        
+        public String getName() { return name; }
+        public int getUsers() { return users; }
+        public long getStartOffsetMillis() { return startOffsetMillis; }
+        public long getRampUpMillis() { return rampUpMillis; }
+        public long getDurationMillis() { return durationMillis; }
+        
+        @Override
+        public String toString() {
+            return String.format("%s(%d users from %d ms for %d ms)", name, users, startOffsetMillis, durationMillis);
+        }
+    }
+    
+    public static LoadProfileBuilder builder() {
+        return new LoadProfileBuilder();
+    }
+    
+    @Override
+    public String toString() {
+        return stages.toString();
+    }
+    
+    public static class LoadProfileBuilder {
+        private final List<LoadStage> stages = new ArrayList<>();
+        
+        public LoadProfileBuilder stage(String name, int users, int rampUpSeconds, int holdSeconds) {
+            stages.add(new LoadStage(name, users, rampUpSeconds, holdSeconds));
+            return this;
+        }
+        
+        public LoadProfileBuilder stage(LoadStage stage) {
+            stages.add(stage);
+            return this;
+        }
+        
+        public LoadProfile build() {
+            return new LoadProfile(stages);
+        }
+    }
+}
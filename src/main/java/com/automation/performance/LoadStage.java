@@ -0,0 +1,39 @@
+package com.automation.performance;
+
+/**
+ * One stage of a load profile: ramp to a number of users, then hold for a while.
+ */
+public class LoadStage {
+    
+    private final String name;
+    private final int users;
+    private final int rampUpSeconds;
+    private final int holdSeconds;
+    
+    public LoadStage(String name, int users, int rampUpSeconds, int holdSeconds) {
+        if (users <= 0) {
+            throw new IllegalArgumentException("Stage '" + name + "' must have at least one user");
+        }
+        if (rampUpSeconds < 0 || holdSeconds < 0 || rampUpSeconds + holdSeconds == 0) {
+            throw new IllegalArgumentException("Stage '" + name + "' must have a positive duration");
+        }
+        this.name = name;
+        this.users = users;
+        this.rampUpSeconds = rampUpSeconds;
+        this.holdSeconds = holdSeconds;
+    }
+    
+    public String getName() { return name; }
+    public int getUsers() { return users; }
+    public int getRampUpSeconds() { return rampUpSeconds; }
+    public int getHoldSeconds() { return holdSeconds; }
+    
+    public int getDurationSeconds() {
+        return rampUpSeconds + holdSeconds;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s(%d users, %ds ramp-up, %ds hold)", name, users, rampUpSeconds, holdSeconds);
+    }
+}
@@ -0,0 +1,173 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+
+/**
+ * Load generator process of a distributed run.
+ * Listens on a TCP port, receives its share of a {@link DistributedPlan} from the
+ * {@link LoadCoordinator}, runs it on a local engine when told to start and sends back
+ * mergeable results. Sessions are served one at a time.
+ * A worker generates load against whatever hosts a plan names, so it listens on loopback unless
+ * given another address and only accepts plans from coordinators that present its shared token.
+ */
+public class LoadWorker implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadWorker.class);
+
+    public static final int DEFAULT_PORT = 4450;
+
+    /** Printed to stdout once listening, so a parent process can pick up the port. */
+    public static final String LISTENING_BANNER = "LoadWorker listening on port ";
+
+    /** Environment variable {@link #main} reads the shared token from, so it never shows in process listings. */
+    public static final String TOKEN_ENV = "LOAD_WORKER_TOKEN";
+
+    /** Time a coordinator has to authenticate and send its plan once connected. */
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+
+    private final ServerSocket serverSocket;
+    private final String token;
+    private volatile boolean closed;
+
+    /**
+     * Listen on the loopback interface only.
+     */
+    public LoadWorker(int port, String token) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, token);
+    }
+
+    /**
+     * Listen on the given address; coordinators must present the given token.
+     */
+    public LoadWorker(InetAddress bindAddress, int port, String token) throws IOException {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("Load worker needs a shared token");
+        }
+        this.serverSocket = new ServerSocket(port, 50, bindAddress);
+        this.token = token;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public InetAddress getAddress() {
+        return serverSocket.getInetAddress();
+    }
+
+    /**
+     * Serve sessions on a background daemon thread.
+     */
+    public LoadWorker start() {
+        Thread acceptThread = new Thread(this::serve, "load-worker-" + getPort());
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        return this;
+    }
+
+    /**
+     * Serve sessions on the calling thread until the worker is closed.
+     */
+    public void serve() {
+        logger.info("Load worker listening on {}", serverSocket.getLocalSocketAddress());
+        while (!closed) {
+            try (Socket socket = serverSocket.accept()) {
+                handleSession(socket);
+            } catch (SocketException e) {
+                if (!closed) {
+                    logger.warn("Load worker connection failed", e);
+                }
+            } catch (IOException e) {
+                logger.warn("Load worker session failed", e);
+            }
+        }
+    }
+
+    private void handleSession(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        if (!DistributedProtocol.readHello(in, token)) {
+            logger.warn("Rejected coordinator {} with a wrong token", socket.getRemoteSocketAddress());
+            DistributedProtocol.writeError(out, "Unauthorized");
+            return;
+        }
+        DistributedPlan plan = DistributedProtocol.readPlan(in);
+        // The run itself may take longer than any timeout
+        socket.setSoTimeout(0);
+        logger.info("Received plan '{}' with {} users from {}", plan.getTestPlanName(), plan.getThreadCount(),
+                   socket.getRemoteSocketAddress());
+
+        LoadEngine engine = LoadEngineType.fromName(plan.getEngine()).create();
+        try {
+            plan.applyTo(engine, plan.getThreadCount());
+        } catch (RuntimeException e) {
+            DistributedProtocol.writeError(out, "Plan setup failed: " + e.getMessage());
+            return;
+        }
+        out.writeByte(DistributedProtocol.READY);
+        out.flush();
+
+        DistributedProtocol.expect(in, DistributedProtocol.START);
+        long startDelayMillis = in.readLong();
+        long coordinatorStartMillis = in.readLong();
+        try {
+            if (startDelayMillis > 0) {
+                Thread.sleep(startDelayMillis);
+            }
+            // How far the coordinator's clock is ahead of ours, give or take the START message's latency
+            long clockOffsetMillis = coordinatorStartMillis - System.currentTimeMillis();
+            PerformanceResults results = engine.execute();
+            results.shiftTimeSeries(clockOffsetMillis);
+            DistributedProtocol.writeResults(out, results);
+            logger.info("Sent results of '{}': {} samples", plan.getTestPlanName(), results.getTotalSamples());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DistributedProtocol.writeError(out, "Worker interrupted");
+        } catch (RuntimeException e) {
+            logger.error("Distributed run failed", e);
+            DistributedProtocol.writeError(out, "Run failed: " + e.getMessage());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+    }
+
+    /**
+     * Start a worker process: {@code LoadWorker [port] [bind address]}; port 0 picks a free port and
+     * the address defaults to loopback. The shared token is read from {@value #TOKEN_ENV}.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress bindAddress = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+        String token = System.getenv(TOKEN_ENV);
+        if (token == null || token.isEmpty()) {
+            System.err.println("Set the shared token in " + TOKEN_ENV);
+            System.exit(2);
+        }
+        try (LoadWorker worker = new LoadWorker(bindAddress, port, token)) {
+            System.out.println(LISTENING_BANNER + worker.getPort());
+            System.out.flush();
+            worker.serve();
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP/1.1 server on the loopback interface serving fixed JSON user fixtures, for running
+ * plans without a real target and for calibrating the load generator. Connections are spread over a
+ * few non-blocking selector threads with keep-alive and pipelining, and responses are pre-rendered,
+ * so the server adds next to no cost of its own. An artificial latency delays each response without
+ * holding a thread, and responses can be padded with trailing whitespace to a minimum size.
+ * <p>
+ * Routes: {@code GET /users}, {@code GET|PUT|DELETE /users/{1..10}} and {@code POST /users};
+ * anything else is a 404.
+ */
+public class LoopbackServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackServer.class);
+
+    public static final String HOST = "127.0.0.1";
+    public static final String USERS_PATH = "/users";
+    public static final int FIXTURE_USERS = 10;
+
+    private static final int MAX_REQUEST_BYTES = 1024 * 1024;
+    private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONNECTION_CLOSE = "connection: close".getBytes(StandardCharsets.US_ASCII);
+
+    private final long latencyMillis;
+    private final int responseBytes;
+    private final LongAdder requestCount = new LongAdder();
+    private final ByteBuffer usersResponse;
+    private final ByteBuffer[] userResponses = new ByteBuffer[FIXTURE_USERS + 1];
+    private final ByteBuffer createdResponse;
+    private final ByteBuffer deletedResponse;
+    private final ByteBuffer notFoundResponse;
+    private final ByteBuffer badRequestResponse;
+    private ServerSocketChannel serverChannel;
+    private Worker[] workers;
+    private Thread acceptor;
+    private ScheduledExecutorService delayer;
+    private volatile boolean running;
+
+    /**
+     * A server answering immediately with unpadded fixtures.
+     */
+    public LoopbackServer() {
+        this(0, 0);
+    }
+
+    public LoopbackServer(long latencyMillis, int responseBytes) {
+        if (latencyMillis < 0 || responseBytes < 0) {
+            throw new IllegalArgumentException("Latency and response size must not be negative");
+        }
+        this.latencyMillis = latencyMillis;
+        this.responseBytes = responseBytes;
+
+        StringBuilder users = new StringBuilder("[");
+        for (int id = 1; id <= FIXTURE_USERS; id++) {
+            users.append(id > 1 ? "," : "").append(userJson(id));
+            userResponses[id] = render(200, "OK", userJson(id));
+        }
+        this.usersResponse = render(200, "OK", users.append(']').toString());
+        this.createdResponse = render(201, "Created", userJson(FIXTURE_USERS + 1));
+        this.deletedResponse = render(200, "OK", "{}");
+        this.notFoundResponse = render(404, "Not Found", "{}");
+        this.badRequestResponse = render(400, "Bad Request", "{}");
+    }
+
+    private static String userJson(int id) {
+        return "{\"id\":" + id + ",\"name\":\"Loopback User " + id + "\",\"username\":\"loopback" + id
+                + "\",\"email\":\"user" + id + "@loopback.test\",\"phone\":\"555-010" + (id % 10)
+                + "\",\"website\":\"loopback.test\"}";
+    }
+
+    private ByteBuffer render(int status, String reason, String json) {
+        StringBuilder body = new StringBuilder(json);
+        while (body.length() < responseBytes) {
+            body.append(' ');
+        }
+        byte[] bodyBytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] head = ("HTTP/1.1 " + status + " " + reason + "\r\nContent-Type: application/json\r\nContent-Length: "
+                + bodyBytes.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer response = ByteBuffer.allocateDirect(head.length + bodyBytes.length);
+        response.put(head).put(bodyBytes).flip();
+        return response.asReadOnlyBuffer();
+    }
+
+    /**
+     * Bind to an ephemeral loopback port and start serving.
+     */
+    public LoopbackServer start() {
+        if (running) {
+            throw new IllegalStateException("Loopback server already started");
+        }
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(InetAddress.getByName(HOST), 0), 1024);
+            workers = new Worker[Math.max(1, Runtime.getRuntime().availableProcessors() / 2)];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = new Worker(i);
+            }
+            if (latencyMillis > 0) {
+                delayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "loopback-latency");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            running = true;
+            for (Worker worker : workers) {
+                worker.thread.start();
+            }
+            acceptor = new Thread(this::acceptLoop, "loopback-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            logger.info("Loopback server listening on {}:{} with {} selector threads, {} ms latency, {} byte responses",
+                       HOST, getPort(), workers.length, latencyMillis, responseBytes);
+            return this;
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Loopback server start failed", e);
+        }
+    }
+
+    public String getHost() {
+        return HOST;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * Requests answered so far, including 404s.
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                workers[next].register(channel);
+                next = (next + 1) % workers.length;
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Loopback server failed to accept a connection", e);
+                }
+            }
+        }
+    }
+
+    private ByteBuffer route(String method, String path) {
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        if (path.equals(USERS_PATH)) {
+            switch (method) {
+                case "GET":
+                    return usersResponse;
+                case "POST":
+                    return createdResponse;
+                default:
+                    return notFoundResponse;
+            }
+        }
+        if (path.startsWith(USERS_PATH + "/")) {
+            int id = parseId(path.substring(USERS_PATH.length() + 1));
+            if (id < 1 || id > FIXTURE_USERS) {
+                return notFoundResponse;
+            }
+            switch (method) {
+                case "GET":
+                case "PUT":
+                    return userResponses[id];
+                case "DELETE":
+                    return deletedResponse;
+                default:
+                    return notFoundResponse;
+            }
+        }
+        return notFoundResponse;
+    }
+
+    private static int parseId(String value) {
+        if (value.isEmpty() || value.length() > 9) {
+            return -1;
+        }
+        int id = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close loopback server socket", e);
+        }
+        if (delayer != null) {
+            delayer.shutdownNow();
+        }
+        if (workers != null) {
+            for (Worker worker : workers) {
+                if (worker != null) {
+                    worker.selector.wakeup();
+                }
+            }
+        }
+    }
+
+    /**
+     * One selector thread owning a share of the connections. Other threads hand it work through
+     * its task queue and a selector wake-up.
+     */
+    private final class Worker implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+
+        private Worker(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "loopback-selector-" + index);
+            thread.setDaemon(true);
+        }
+
+        private void register(SocketChannel channel) {
+            execute(() -> {
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new Connection(this, channel, key));
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            });
+        }
+
+        private void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        if (connection == null || !key.isValid()) {
+                            continue;
+                        }
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            } else if (key.isWritable()) {
+                                connection.write();
+                            }
+                        } catch (IOException e) {
+                            connection.close();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("Loopback selector failed", e);
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    closeQuietly(key.channel());
+                }
+                closeQuietly(selector);
+            }
+        }
+    }
+
+    /**
+     * Per-connection parsing and response state; only touched by the owning selector thread.
+     */
+    private final class Connection {
+        private final Worker worker;
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(4096);
+        private ByteBuffer out;
+        private boolean responding;
+        private boolean closeAfterWrite;
+
+        private Connection(Worker worker, SocketChannel channel, SelectionKey key) {
+            this.worker = worker;
+            this.channel = channel;
+            this.key = key;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            processRequest();
+        }
+
+        /**
+         * Answer the next complete request in the buffer. Pipelined requests are answered one at a
+         * time, in order, as each response finishes writing.
+         */
+        private void processRequest() throws IOException {
+            if (responding) {
+                return;
+            }
+            in.flip();
+            byte[] data = in.array();
+            int start = in.position();
+            int headerEnd = indexOfHeaderEnd(data, start, in.limit());
+            if (headerEnd < 0) {
+                awaitMore(in.remaining() + 1);
+                return;
+            }
+
+            int methodEnd = indexOf(data, start, headerEnd, (byte) ' ');
+            int pathEnd = methodEnd < 0 ? -1 : indexOf(data, methodEnd + 1, headerEnd, (byte) ' ');
+            if (pathEnd < 0) {
+                in.clear();
+                respond(badRequestResponse, true);
+                return;
+            }
+            long contentLength = 0;
+            boolean close = false;
+            for (int line = indexOf(data, start, headerEnd, (byte) '\n') + 1; line > 0 && line < headerEnd;
+                 line = indexOf(data, line, headerEnd, (byte) '\n') + 1) {
+                if (startsWithIgnoreCase(data, line, headerEnd, CONTENT_LENGTH)) {
+                    contentLength = parseNumber(data, line + CONTENT_LENGTH.length, headerEnd);
+                } else if (startsWithIgnoreCase(data, line, headerEnd, CONNECTION_CLOSE)) {
+                    close = true;
+                }
+            }
+            long requestLength = headerEnd + 4 - start + contentLength;
+            if (contentLength < 0 || requestLength > MAX_REQUEST_BYTES) {
+                in.clear();
+                respond(badRequestResponse, true);
+                return;
+            }
+            if (in.remaining() < requestLength) {
+                awaitMore((int) requestLength);
+                return;
+            }
+
+            String method = new String(data, start, methodEnd - start, StandardCharsets.US_ASCII);
+            String path = new String(data, methodEnd + 1, pathEnd - methodEnd - 1, StandardCharsets.US_ASCII);
+            in.position(start + (int) requestLength);
+            in.compact();
+            requestCount.increment();
+            respond(route(method, path), close);
+        }
+
+        /**
+         * Keep the partial request and read more, growing the buffer if the request will not fit.
+         */
+        private void awaitMore(int requiredBytes) {
+            if (requiredBytes > in.capacity()) {
+                if (requiredBytes > MAX_REQUEST_BYTES) {
+                    in.clear();
+                    respond(badRequestResponse, true);
+                    return;
+                }
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(requiredBytes, in.capacity() * 2));
+                larger.put(in);
+                in = larger;
+            } else {
+                in.compact();
+            }
+        }
+
+        private void respond(ByteBuffer response, boolean close) {
+            responding = true;
+            closeAfterWrite = close;
+            ByteBuffer body = response.duplicate();
+            if (latencyMillis > 0) {
+                delayer.schedule(() -> worker.execute(() -> startWrite(body)), latencyMillis, TimeUnit.MILLISECONDS);
+            } else {
+                startWrite(body);
+            }
+        }
+
+        private void startWrite(ByteBuffer response) {
+            if (!key.isValid()) {
+                return;
+            }
+            out = response;
+            try {
+                write();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void write() throws IOException {
+            channel.write(out);
+            if (out.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            out = null;
+            responding = false;
+            if (closeAfterWrite) {
+                close();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            processRequest();
+        }
+
+        private void close() {
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+
+    private static int indexOfHeaderEnd(byte[] data, int from, int to) {
+        for (int i = from; i + 3 < to; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n' && data[i + 2] == '\r' && data[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] data, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWithIgnoreCase(byte[] data, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            int c = data[from + i];
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseNumber(byte[] data, int from, int to) {
+        long value = 0;
+        boolean digits = false;
+        for (int i = from; i < to && data[i] != '\r'; i++) {
+            if (data[i] >= '0' && data[i] <= '9') {
+                value = value * 10 + (data[i] - '0');
+                digits = true;
+                if (value > MAX_REQUEST_BYTES) {
+                    return value;
+                }
+            } else if (data[i] != ' ' && data[i] != '\t') {
+                return -1;
+            }
+        }
+        return digits ? value : -1;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.automation.performance;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free accumulator for sample statistics.
+ * Uses striped adders so many sampler threads can record concurrently without contention.
+ * Elapsed times are recorded in microseconds and reported in milliseconds.
+ */
+public class MetricsAccumulator {
+
+    private final LongAdder sampleCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder elapsedSum = new LongAdder();
+    private final LongAccumulator firstStart = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator lastEnd = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * Record a single sample.
+     */
+    public void record(long startTimeMillis, long elapsedMicros, boolean success) {
+        sampleCount.increment();
+        if (!success) {
+            errorCount.increment();
+        }
+        elapsedSum.add(elapsedMicros);
+        histogram.recordValue(elapsedMicros);
+        firstStart.accumulate(startTimeMillis);
+        lastEnd.accumulate(startTimeMillis + elapsedMicros / 1000);
+    }
+
+    public long getSampleCount() { return sampleCount.sum(); }
+
+    public long getErrorCount() { return errorCount.sum(); }
+
+    /**
+     * Sum of all recorded response times, in microseconds.
+     */
+    public long getElapsedSumMicros() { return elapsedSum.sum(); }
+
+    public LatencyHistogram getHistogram() { return histogram; }
+
+    public double getAverageMillis() {
+        long count = sampleCount.sum();
+        return count == 0 ? 0.0 : elapsedSum.sum() / 1000.0 / count;
+    }
+
+    public double getMinMillis() {
+        return histogram.getMinValue() / 1000.0;
+    }
+
+    public double getMaxMillis() {
+        return histogram.getMaxValue() / 1000.0;
+    }
+
+    public double getErrorPercentage() {
+        long count = sampleCount.sum();
+        return count == 0 ? 0.0 : errorCount.sum() * 100.0 / count;
+    }
+
+    /**
+     * Time between the start of the first sample and the end of the last one.
+     */
+    public long getActiveSpanMillis() {
+        long first = firstStart.get();
+        long last = lastEnd.get();
+        return first == Long.MAX_VALUE || last == Long.MIN_VALUE ? 0 : Math.max(0, last - first);
+    }
+
+    /**
+     * Samples per second over the active span, falling back to the supplied duration.
+     */
+    public double getThroughputPerSecond(long fallbackDurationMillis) {
+        long span = getActiveSpanMillis();
+        long millis = span > 0 ? span : fallbackDurationMillis;
+        return millis <= 0 ? 0.0 : sampleCount.sum() * 1000.0 / millis;
+    }
+
+    /**
+     * Take an immutable snapshot of the current statistics.
+     */
+    public MetricsSummary snapshot(String label, long fallbackDurationMillis) {
+        return new MetricsSummary(label, getSampleCount(), getErrorCount(), getAverageMillis(),
+                getMinMillis(), getMaxMillis(), getThroughputPerSecond(fallbackDurationMillis), histogram.copy());
+    }
+}
@@ -0,0 +1,243 @@
+package com.automation.performance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP endpoint serving the live metrics of a running test in the Prometheus text format,
+ * or as OpenMetrics when the scraper asks for it: sample and error counters, throughput and a
+ * response-time histogram per sampler, plus the current interval's throughput and active threads.
+ * A scrape reads the run's lock-free accumulators directly on the endpoint's own thread, so it
+ * never blocks sampler threads and costs one pass over each sampler's histogram.
+ * The endpoint listens on loopback unless given a host to bind to, since it is unauthenticated.
+ */
+public class MetricsEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsEndpoint.class);
+
+    public static final String PATH = "/metrics";
+    public static final String DEFAULT_HOST = "127.0.0.1";
+
+    static final String OPENMETRICS_CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Histogram bucket bounds in seconds, from fast API calls to timeouts. */
+    private static final double[] BUCKET_BOUNDS_SECONDS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    private static final long[] BUCKET_BOUNDS_MICROS = new long[BUCKET_BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+            BUCKET_BOUNDS_MICROS[i] = Math.round(BUCKET_BOUNDS_SECONDS[i] * 1_000_000);
+        }
+    }
+
+    private final String host;
+    private final int requestedPort;
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile String testPlanName;
+    private volatile ResultAggregator aggregator;
+    private volatile long runStartNanos;
+
+    /**
+     * Listen on the loopback interface only.
+     *
+     * @param port port to listen on, or 0 for any free port
+     */
+    public MetricsEndpoint(int port) {
+        this(DEFAULT_HOST, port);
+    }
+
+    /**
+     * @param host host name or address to bind to, e.g. 0.0.0.0 to let remote scrapers in
+     * @param port port to listen on, or 0 for any free port
+     */
+    public MetricsEndpoint(String host, int port) {
+        if (host == null || host.trim().isEmpty()) {
+            throw new IllegalArgumentException("Metrics host must not be empty");
+        }
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Invalid metrics port: " + port);
+        }
+        this.host = host.trim();
+        this.requestedPort = port;
+    }
+
+    /**
+     * Start serving the metrics of a run that starts now.
+     */
+    public synchronized void start(String testPlanName, ResultAggregator aggregator) {
+        stop();
+        this.testPlanName = testPlanName;
+        this.aggregator = aggregator;
+        this.runStartNanos = System.nanoTime();
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, requestedPort), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Metrics endpoint start failed on " + host + ":" + requestedPort, e);
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-endpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+        logger.info("Serving live metrics of '{}' on http://{}:{}{}", testPlanName, host, getPort(), PATH);
+    }
+
+    /**
+     * Stop serving; scrapes in progress are given a moment to finish.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Host name or address the endpoint binds to.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Port the endpoint listens on; the requested port until started.
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : requestedPort;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String accept = exchange.getRequestHeaders().getFirst("Accept");
+            boolean openMetrics = accept != null && accept.contains("application/openmetrics-text");
+            byte[] body = render(openMetrics).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", openMetrics ? OPENMETRICS_CONTENT_TYPE : PROMETHEUS_CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Metrics scrape failed", e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Render the current metrics, as OpenMetrics or in the Prometheus text format.
+     */
+    public String render(boolean openMetrics) {
+        ResultAggregator source = aggregator;
+        if (source == null) {
+            return openMetrics ? "# EOF\n" : "";
+        }
+        StringBuilder text = new StringBuilder(4096);
+        String plan = "plan=\"" + escape(testPlanName) + "\"";
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStartNanos);
+        Map<String, MetricsAccumulator> samplers = new TreeMap<>(source.getSamplerAccumulators());
+
+        counterHeader(text, "loadtest_samples", "Completed samples.", openMetrics);
+        for (Map.Entry<String, MetricsAccumulator> sampler : samplers.entrySet()) {
+            sample(text, "loadtest_samples_total", labels(plan, sampler.getKey()), sampler.getValue().getSampleCount());
+        }
+        counterHeader(text, "loadtest_errors", "Failed samples.", openMetrics);
+        for (Map.Entry<String, MetricsAccumulator> sampler : samplers.entrySet()) {
+            sample(text, "loadtest_errors_total", labels(plan, sampler.getKey()), sampler.getValue().getErrorCount());
+        }
+
+        header(text, "loadtest_throughput_per_second", "gauge", "Samples per second since the sampler started.");
+        for (Map.Entry<String, MetricsAccumulator> sampler : samplers.entrySet()) {
+            sample(text, "loadtest_throughput_per_second", labels(plan, sampler.getKey()),
+                    sampler.getValue().getThroughputPerSecond(elapsedMillis));
+        }
+
+        header(text, "loadtest_response_time_seconds", "histogram", "Response time per sampler.");
+        for (Map.Entry<String, MetricsAccumulator> sampler : samplers.entrySet()) {
+            String labels = labels(plan, sampler.getKey());
+            MetricsAccumulator accumulator = sampler.getValue();
+            long[] cumulative = accumulator.getHistogram().getCumulativeCounts(BUCKET_BOUNDS_MICROS);
+            for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+                sample(text, "loadtest_response_time_seconds_bucket",
+                        bucketLabels(labels, format(BUCKET_BOUNDS_SECONDS[i])), cumulative[i]);
+            }
+            long count = cumulative[BUCKET_BOUNDS_SECONDS.length];
+            sample(text, "loadtest_response_time_seconds_bucket", bucketLabels(labels, "+Inf"), count);
+            sample(text, "loadtest_response_time_seconds_count", labels, count);
+            sample(text, "loadtest_response_time_seconds_sum", labels, accumulator.getElapsedSumMicros() / 1_000_000.0);
+        }
+
+        TimeSeries timeSeries = source.getTimeSeries();
+        TimeSeriesPoint interval = timeSeries.getPoint(System.currentTimeMillis() - timeSeries.getResolutionMillis());
+        header(text, "loadtest_interval_throughput_per_second", "gauge", "Samples per second in the last complete interval.");
+        sample(text, "loadtest_interval_throughput_per_second", "{" + plan + "}", interval.getThroughputPerSecond());
+        header(text, "loadtest_active_threads", "gauge", "Most active threads in the last complete interval.");
+        sample(text, "loadtest_active_threads", "{" + plan + "}", interval.getActiveThreads());
+
+        if (openMetrics) {
+            text.append("# EOF\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * OpenMetrics names a counter family without its _total suffix, the Prometheus format with it.
+     */
+    private static void counterHeader(StringBuilder text, String family, String help, boolean openMetrics) {
+        header(text, openMetrics ? family : family + "_total", "counter", help);
+    }
+
+    private static void header(StringBuilder text, String name, String type, String help) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, long value) {
+        text.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, double value) {
+        text.append(name).append(labels).append(' ').append(format(value)).append('\n');
+    }
+
+    private static String labels(String plan, String sampler) {
+        return "{" + plan + ",sampler=\"" + escape(sampler) + "\"}";
+    }
+
+    private static String bucketLabels(String labels, String upperBound) {
+        return labels.substring(0, labels.length() - 1) + ",le=\"" + upperBound + "\"}";
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%s", value);
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,75 @@
+package com.automation.performance;
+
+/**
+ * Immutable summary of the samples recorded under one label (sampler, phase, ...).
+ */
+public class MetricsSummary {
+
+    private final String label;
+    private final long samples;
+    private final long errors;
+    private final double averageResponseTime;
+    private final double minResponseTime;
+    private final double maxResponseTime;
+    private final double throughputPerSecond;
+    private final LatencyHistogram histogram;
+
+    public MetricsSummary(String label, long samples, long errors, double averageResponseTime,
+                          double minResponseTime, double maxResponseTime, double throughputPerSecond,
+                          LatencyHistogram histogram) {
+        this.label = label;
+        this.samples = samples;
+        this.errors = errors;
+        this.averageResponseTime = averageResponseTime;
+        this.minResponseTime = minResponseTime;
+        this.maxResponseTime = maxResponseTime;
+        this.throughputPerSecond = throughputPerSecond;
+        this.histogram = histogram;
+    }
+
+    public String getLabel() { return label; }
+    public long getSamples() { return samples; }
+    public long getErrors() { return errors; }
+    public double getAverageResponseTime() { return averageResponseTime; }
+    public double getMinResponseTime() { return minResponseTime; }
+    public double getMaxResponseTime() { return maxResponseTime; }
+    public double getThroughputPerSecond() { return throughputPerSecond; }
+
+    /**
+     * Latency histogram for this label, in microseconds.
+     */
+    public LatencyHistogram getHistogram() { return histogram; }
+
+    public double getErrorPercentage() {
+        return samples == 0 ? 0.0 : errors * 100.0 / samples;
+    }
+
+    /**
+     * Response time at the given percentile (0-100) in milliseconds.
+     */
+    public double getResponseTimePercentile(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Combine with the summary of the same label from a concurrent run, e.g. another load generator.
+     */
+    public MetricsSummary merge(MetricsSummary other) {
+        long total = samples + other.samples;
+        double average = total == 0 ? 0.0
+                : (averageResponseTime * samples + other.averageResponseTime * other.samples) / total;
+        double min = samples == 0 ? other.minResponseTime
+                : other.samples == 0 ? minResponseTime : Math.min(minResponseTime, other.minResponseTime);
+        LatencyHistogram merged = histogram.copy();
+        merged.add(other.histogram);
+        return new MetricsSummary(label, total, errors + other.errors, average, min,
+                Math.max(maxResponseTime, other.maxResponseTime), throughputPerSecond + other.throughputPerSecond, merged);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: samples=%d, errors=%.2f%%, avg=%.2f ms, p95=%.2f ms, p99=%.2f ms, throughput=%.2f req/sec",
+                label, samples, getErrorPercentage(), averageResponseTime,
+                getResponseTimePercentile(95.0), getResponseTimePercentile(99.0), throughputPerSecond);
+    }
+}
@@ -0,0 +1,212 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Pre-generated request bodies handed out to virtual users, so every request carries a unique payload
+ * without generating test data on the sampler threads. Payloads are generated in parallel before the
+ * run and kept off-heap in a memory-mapped file with an off-heap offset index; only the payload being
+ * sent is copied onto the heap. Each thread claims blocks of indices from a shared counter and walks
+ * its block with a private cursor, so handing out a payload takes no lock. Once every payload has been
+ * used the pool starts over.
+ */
+public class PayloadPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayloadPool.class);
+
+    /** Most indices a thread claims at a time; small pools use smaller blocks so few payloads go unused. */
+    public static final int MAX_CURSOR_BLOCK = 256;
+
+    private static final int GENERATION_BLOCK = 16 * 1024;
+
+    private final Path file;
+    private final MappedByteBuffer data;
+    private final IntBuffer offsets;
+    private final int count;
+    private final int cursorBlock;
+    private final AtomicLong claimed = new AtomicLong();
+    private final ThreadLocal<Cursor> cursors = ThreadLocal.withInitial(Cursor::new);
+    private volatile boolean wrapped;
+
+    private PayloadPool(Path file, MappedByteBuffer data, IntBuffer offsets, int count) {
+        this.file = file;
+        this.data = data;
+        this.offsets = offsets;
+        this.count = count;
+        this.cursorBlock = Math.max(1, Math.min(MAX_CURSOR_BLOCK, count / 1024));
+    }
+
+    /**
+     * Generate the given number of payloads in parallel into a temporary memory-mapped file.
+     * The generator is called once per index from several threads and must be thread-safe.
+     */
+    public static PayloadPool generate(int count, IntFunction<byte[]> generator) {
+        try {
+            return generate(count, generator, Files.createTempFile("payload-pool", ".bin"));
+        } catch (IOException e) {
+            throw new RuntimeException("Payload pool creation failed", e);
+        }
+    }
+
+    /**
+     * Generate the given number of payloads in parallel into the given file, which is deleted on close.
+     */
+    public static PayloadPool generate(int count, IntFunction<byte[]> generator, Path file) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Payload count must be positive: " + count);
+        }
+        long startNanos = System.nanoTime();
+        IntBuffer offsets = ByteBuffer.allocateDirect((count + 1) * Integer.BYTES).asIntBuffer();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long[] position = {0};
+            int blocks = (count + GENERATION_BLOCK - 1) / GENERATION_BLOCK;
+
+            // Blocks are generated in parallel and appended in order, so payload i always lands at index i
+            IntStream.range(0, blocks).parallel()
+                    .mapToObj(block -> generateBlock(block, count, generator))
+                    .forEachOrdered(block -> {
+                        int index = block.firstIndex;
+                        for (byte[] payload : block.payloads) {
+                            offsets.put(index++, (int) position[0]);
+                            position[0] += payload.length;
+                            if (position[0] > Integer.MAX_VALUE) {
+                                throw new IllegalArgumentException("Payload pool exceeds 2 GB at payload " + index);
+                            }
+                        }
+                        write(channel, block);
+                    });
+            offsets.put(count, (int) position[0]);
+
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, position[0]);
+            logger.info("Generated {} payloads ({} MB) in {} ms", count, position[0] / (1024 * 1024),
+                       (System.nanoTime() - startNanos) / 1_000_000);
+            return new PayloadPool(file, data, offsets, count);
+        } catch (IOException | UncheckedIOException e) {
+            deleteQuietly(file);
+            throw new RuntimeException("Payload pool generation failed", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private static Block generateBlock(int block, int count, IntFunction<byte[]> generator) {
+        int first = block * GENERATION_BLOCK;
+        int last = Math.min(count, first + GENERATION_BLOCK);
+        List<byte[]> payloads = new ArrayList<>(last - first);
+        for (int i = first; i < last; i++) {
+            payloads.add(generator.apply(i));
+        }
+        return new Block(first, payloads);
+    }
+
+    private static void write(FileChannel channel, Block block) {
+        try {
+            for (byte[] payload : block.payloads) {
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getSizeBytes() {
+        return offsets.get(count);
+    }
+
+    /**
+     * Whether payloads have started to repeat because the run used more than the pool holds.
+     */
+    public boolean isWrapped() {
+        return wrapped;
+    }
+
+    public byte[] get(int index) {
+        int start = offsets.get(index);
+        byte[] payload = new byte[offsets.get(index + 1) - start];
+        data.get(start, payload);
+        return payload;
+    }
+
+    /**
+     * The next payload for the calling thread.
+     */
+    public byte[] next() {
+        return get(nextIndex());
+    }
+
+    public String nextString() {
+        return new String(next(), StandardCharsets.UTF_8);
+    }
+
+    private int nextIndex() {
+        Cursor cursor = cursors.get();
+        if (cursor.next == cursor.end) {
+            cursor.next = claimed.getAndAdd(cursorBlock);
+            cursor.end = cursor.next + cursorBlock;
+        }
+        long sequence = cursor.next++;
+        if (sequence >= count && !wrapped) {
+            wrapped = true;
+            logger.warn("All {} payloads used, payloads now repeat", count);
+        }
+        return (int) (sequence % count);
+    }
+
+    /**
+     * Delete the backing file; the pool must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        deleteQuietly(file);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete payload pool file: {}", file, e);
+        }
+    }
+
+    private static final class Block {
+        private final int firstIndex;
+        private final List<byte[]> payloads;
+
+        private Block(int firstIndex, List<byte[]> payloads) {
+            this.firstIndex = firstIndex;
+            this.payloads = payloads;
+        }
+    }
+
+    private static final class Cursor {
+        private long next;
+        private long end;
+    }
+}
@@ -0,0 +1,32 @@
+package com.automation.performance;
+
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.processor.PreProcessor;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.threads.JMeterContextService;
+
+/**
+ * JMeter pre-processor that puts the next payload of a {@link PayloadPool} into a thread variable
+ * before each sample, for a sampler body of {@code ${variable}}. Shared by all threads (NoThreadClone);
+ * the pool itself keeps a cursor per thread.
+ */
+public class PayloadPreProcessor extends AbstractTestElement implements PreProcessor, NoThreadClone {
+
+    private final transient PayloadPool pool;
+    private final String variableName;
+
+    public PayloadPreProcessor(PayloadPool pool, String variableName) {
+        this.pool = pool;
+        this.variableName = variableName;
+        setName("Payload Pool " + variableName);
+    }
+
+    public String getVariableName() {
+        return variableName;
+    }
+
+    @Override
+    public void process() {
+        JMeterContextService.getContext().getVariables().put(variableName, pool.nextString());
+    }
+}
@@ -1,7 +1,13 @@
 package com.automation.performance;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Performance test results container.
@@ -11,6 +17,7 @@ public class PerformanceResults {
     
     private String testPlanName;
     private long totalExecutionTime;
+    private long startupTimeMillis;
     private int threadCount;
     private int rampUpTime;
     private int loopCount;
@@ -22,9 +29,40 @@ public class PerformanceResults {
     private long errorCount;
     private double errorPercentage;
     private double throughputPerSecond;
+    private LatencyHistogram responseTimeHistogram;
+    private LatencyHistogram correctedResponseTimeHistogram;
+    private double expectedIntervalMillis;
+    private List<TimeSeriesPoint> timeSeries;
+    private Map<String, MetricsSummary> samplerResults;
+    private Map<String, MetricsSummary> phaseResults;
+    private Map<String, LatencyBreakdown> latencyBreakdowns;
+    private boolean spikeProfile;
+    private long recoveryTimeMillis = -1;
+    private long steadyStateTimeMillis = -1;
+    private double latencyTrendMillisPerMinute = Double.NaN;
+    private double throughputTrendPerMinute = Double.NaN;
+    private SlaViolation slaViolation;
+    private double targetThroughput;
+    private long delayedRequests;
+    private long droppedRequests;
+    private long connectionsOpened;
+    private long connectionsReused;
+    private long totalConnectTimeMillis;
+    private GeneratorCalibration generatorCalibration;
+    private GeneratorHealthReport generatorHealth;
+    private TrafficMix trafficMix;
+    private MetricsSummary warmUpResults;
+    private long warmUpTimeMillis = -1;
+    private List<String> warmUpErrors = new ArrayList<>();
     
     public PerformanceResults() {
         this.errors = new ArrayList<>();
+        this.responseTimeHistogram = new LatencyHistogram();
+        this.correctedResponseTimeHistogram = new LatencyHistogram();
+        this.timeSeries = new ArrayList<>();
+        this.samplerResults = new TreeMap<>();
+        this.phaseResults = new LinkedHashMap<>();
+        this.latencyBreakdowns = new TreeMap<>();
     }
     
     // Getters and Setters
@@ -34,6 +72,12 @@ public class PerformanceResults {
     public long getTotalExecutionTime() { return totalExecutionTime; }
     public void setTotalExecutionTime(long totalExecutionTime) { this.totalExecutionTime = totalExecutionTime; }
     
+    /**
+     * Time from plan creation until the engine started the test, including engine runtime startup.
+     */
+    public long getStartupTimeMillis() { return startupTimeMillis; }
+    public void setStartupTimeMillis(long startupTimeMillis) { this.startupTimeMillis = startupTimeMillis; }
+    
     public int getThreadCount() { return threadCount; }
     public void setThreadCount(int threadCount) { this.threadCount = threadCount; }
     
@@ -68,6 +112,320 @@ public class PerformanceResults {
     public double getThroughputPerSecond() { return throughputPerSecond; }
     public void setThroughputPerSecond(double throughputPerSecond) { this.throughputPerSecond = throughputPerSecond; }
     
+    /**
+     * Target arrival rate for open-model runs; zero for closed-model runs.
+     */
+    public double getTargetThroughput() { return targetThroughput; }
+    public void setTargetThroughput(double targetThroughput) { this.targetThroughput = targetThroughput; }
+    
+    public long getDelayedRequests() { return delayedRequests; }
+    public void setDelayedRequests(long delayedRequests) { this.delayedRequests = delayedRequests; }
+    
+    public long getDroppedRequests() { return droppedRequests; }
+    public void setDroppedRequests(long droppedRequests) { this.droppedRequests = droppedRequests; }
+    
+    public LatencyHistogram getResponseTimeHistogram() { return responseTimeHistogram; }
+    public void setResponseTimeHistogram(LatencyHistogram responseTimeHistogram) { this.responseTimeHistogram = responseTimeHistogram; }
+    
+    /**
+     * Get response time at the given percentile (0-100) in milliseconds.
+     */
+    public double getResponseTimePercentile(double percentile) {
+        return responseTimeHistogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    public double getP50ResponseTime() { return getResponseTimePercentile(50.0); }
+    public double getP90ResponseTime() { return getResponseTimePercentile(90.0); }
+    public double getP95ResponseTime() { return getResponseTimePercentile(95.0); }
+    public double getP99ResponseTime() { return getResponseTimePercentile(99.0); }
+    public double getP999ResponseTime() { return getResponseTimePercentile(99.9); }
+    
+    /**
+     * Response times corrected for coordinated omission: includes the latencies of requests a
+     * stalled closed-model client should have sent but did not.
+     */
+    public LatencyHistogram getCorrectedResponseTimeHistogram() { return correctedResponseTimeHistogram; }
+    public void setCorrectedResponseTimeHistogram(LatencyHistogram correctedResponseTimeHistogram) { this.correctedResponseTimeHistogram = correctedResponseTimeHistogram; }
+    
+    /**
+     * Expected time between requests of one user, used for the coordinated-omission correction.
+     */
+    public double getExpectedIntervalMillis() { return expectedIntervalMillis; }
+    public void setExpectedIntervalMillis(double expectedIntervalMillis) { this.expectedIntervalMillis = expectedIntervalMillis; }
+    
+    /**
+     * Get corrected response time at the given percentile (0-100) in milliseconds.
+     */
+    public double getCorrectedResponseTimePercentile(double percentile) {
+        return correctedResponseTimeHistogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    public double getCorrectedP99ResponseTime() { return getCorrectedResponseTimePercentile(99.0); }
+    
+    public List<TimeSeriesPoint> getTimeSeries() { return timeSeries; }
+    public void setTimeSeries(List<TimeSeriesPoint> timeSeries) { this.timeSeries = timeSeries; }
+    
+    public Map<String, MetricsSummary> getSamplerResults() { return samplerResults; }
+    public void setSamplerResults(Map<String, MetricsSummary> samplerResults) { this.samplerResults = samplerResults; }
+    public void addSamplerResults(MetricsSummary summary) { this.samplerResults.put(summary.getLabel(), summary); }
+    
+    /**
+     * Get the breakdown for a single sampler label, or null if it did not run.
+     */
+    public MetricsSummary getSamplerResults(String samplerLabel) {
+        return samplerResults.get(samplerLabel);
+    }
+    
+    /**
+     * Results per load-profile phase, in stage order.
+     */
+    public Map<String, MetricsSummary> getPhaseResults() { return phaseResults; }
+    public void setPhaseResults(Map<String, MetricsSummary> phaseResults) { this.phaseResults = phaseResults; }
+    
+    public MetricsSummary getPhaseResults(String phaseName) {
+        return phaseResults.get(phaseName);
+    }
+    
+    /**
+     * Connect, time-to-first-byte and download histograms per sampler label.
+     */
+    public Map<String, LatencyBreakdown> getLatencyBreakdowns() { return latencyBreakdowns; }
+    public void addLatencyBreakdown(LatencyBreakdown breakdown) { this.latencyBreakdowns.put(breakdown.getLabel(), breakdown); }
+    
+    /**
+     * Get the latency breakdown of a single sampler label, or null if the engine did not report one.
+     */
+    public LatencyBreakdown getLatencyBreakdown(String samplerLabel) {
+        return latencyBreakdowns.get(samplerLabel);
+    }
+    
+    /**
+     * Time after the spike phase until latency and errors returned to baseline, or -1 if they never did.
+     */
+    public long getRecoveryTimeMillis() { return recoveryTimeMillis; }
+    public void setRecoveryTimeMillis(long recoveryTimeMillis) { this.recoveryTimeMillis = recoveryTimeMillis; }
+    
+    /**
+     * Whether the load profile had a spike stage, and so a recovery time to report.
+     */
+    public boolean isSpikeProfile() { return spikeProfile; }
+    public void setSpikeProfile(boolean spikeProfile) { this.spikeProfile = spikeProfile; }
+    
+    /**
+     * Time into the run after which throughput and p99 stopped drifting, or -1 if they never did.
+     */
+    public long getSteadyStateTimeMillis() { return steadyStateTimeMillis; }
+    public void setSteadyStateTimeMillis(long steadyStateTimeMillis) { this.steadyStateTimeMillis = steadyStateTimeMillis; }
+    
+    /**
+     * The live SLA rule that aborted the run, or null if the run was not aborted.
+     */
+    public SlaViolation getSlaViolation() { return slaViolation; }
+    public void setSlaViolation(SlaViolation slaViolation) { this.slaViolation = slaViolation; }
+    
+    public boolean isAborted() { return slaViolation != null; }
+    
+    /**
+     * Samples that opened a new connection, i.e. paid for a TCP and, over HTTPS, a TLS handshake.
+     */
+    public long getConnectionsOpened() { return connectionsOpened; }
+    public void setConnectionsOpened(long connectionsOpened) { this.connectionsOpened = connectionsOpened; }
+    
+    /**
+     * Samples sent on a pooled keep-alive connection.
+     */
+    public long getConnectionsReused() { return connectionsReused; }
+    public void setConnectionsReused(long connectionsReused) { this.connectionsReused = connectionsReused; }
+    
+    public long getTotalConnectTimeMillis() { return totalConnectTimeMillis; }
+    public void setTotalConnectTimeMillis(long totalConnectTimeMillis) { this.totalConnectTimeMillis = totalConnectTimeMillis; }
+    
+    /**
+     * Percentage of samples that reused a connection; 0 when the engine reports no connection data.
+     */
+    public double getConnectionReusePercentage() {
+        long connections = connectionsOpened + connectionsReused;
+        return connections == 0 ? 0.0 : connectionsReused * 100.0 / connections;
+    }
+    
+    /**
+     * Mean time to open a new connection, including the TLS handshake.
+     */
+    public double getAverageConnectTime() {
+        return connectionsOpened == 0 ? 0.0 : (double) totalConnectTimeMillis / connectionsOpened;
+    }
+    
+    /**
+     * Capacity of the load engine on this machine, or null if it was not calibrated.
+     */
+    public GeneratorCalibration getGeneratorCalibration() { return generatorCalibration; }
+    public void setGeneratorCalibration(GeneratorCalibration generatorCalibration) { this.generatorCalibration = generatorCalibration; }
+    
+    /**
+     * Whether throughput came close enough to the calibrated ceiling that the generator, not the
+     * system under test, may have been the limit.
+     */
+    public boolean isGeneratorBound() {
+        return generatorCalibration != null
+            && generatorCalibration.getCeilingPercentage(throughputPerSecond) >= GeneratorCalibration.SATURATION_PERCENTAGE;
+    }
+    
+    /**
+     * Health of the load generator's own JVM over the run, or null if it was not monitored.
+     */
+    public GeneratorHealthReport getGeneratorHealth() { return generatorHealth; }
+    public void setGeneratorHealth(GeneratorHealthReport generatorHealth) { this.generatorHealth = generatorHealth; }
+    
+    /**
+     * Whether the generator ran out of CPU, GC headroom or heap during the run, so its results
+     * cannot be trusted to describe the system under test.
+     */
+    public boolean isGeneratorSaturated() {
+        return generatorHealth != null && generatorHealth.isGeneratorSaturated();
+    }
+    
+    /**
+     * Samples of the warm-up window, which all other statistics exclude; null if there was none.
+     */
+    public MetricsSummary getWarmUpResults() { return warmUpResults; }
+    public void setWarmUpResults(MetricsSummary warmUpResults) { this.warmUpResults = warmUpResults; }
+    
+    /**
+     * Time from the start of the run until the warm-up window ended, or -1 if there was none.
+     */
+    public long getWarmUpTimeMillis() { return warmUpTimeMillis; }
+    public void setWarmUpTimeMillis(long warmUpTimeMillis) { this.warmUpTimeMillis = warmUpTimeMillis; }
+    
+    /**
+     * Distinct errors of the warm-up window, kept apart from {@link #getErrors()}.
+     */
+    public List<String> getWarmUpErrors() { return warmUpErrors; }
+    public void setWarmUpErrors(List<String> warmUpErrors) { this.warmUpErrors = warmUpErrors; }
+    public void addWarmUpError(String error) { this.warmUpErrors.add(error); }
+    
+    /**
+     * Move the time series onto another clock that is the given time ahead of the one it was recorded
+     * with, in whole intervals so it stays aligned with series recorded on that clock.
+     */
+    public void shiftTimeSeries(long offsetMillis) {
+        List<TimeSeriesPoint> shifted = new ArrayList<>(timeSeries.size());
+        for (TimeSeriesPoint point : timeSeries) {
+            long interval = point.getIntervalMillis();
+            shifted.add(interval > 0 ? point.shift(Math.round((double) offsetMillis / interval) * interval) : point);
+        }
+        timeSeries = shifted;
+    }
+    
+    /**
+     * Weights requests were picked by, or null if every iteration ran all requests in order.
+     */
+    public TrafficMix getTrafficMix() { return trafficMix; }
+    public void setTrafficMix(TrafficMix trafficMix) { this.trafficMix = trafficMix; }
+    
+    /**
+     * Share of a sampler label in the requests of the traffic mix actually sent, in percent.
+     */
+    public double getRealisedMixPercentage(String samplerLabel) {
+        long mixSamples = 0;
+        for (String label : trafficMix.getWeights().keySet()) {
+            MetricsSummary summary = samplerResults.get(label);
+            mixSamples += summary != null ? summary.getSamples() : 0;
+        }
+        MetricsSummary summary = samplerResults.get(samplerLabel);
+        return mixSamples == 0 || summary == null ? 0.0 : summary.getSamples() * 100.0 / mixSamples;
+    }
+    
+    /**
+     * Slope of p99 over the steady part of the run in ms per minute; NaN if the run was too short to tell.
+     */
+    public double getLatencyTrendMillisPerMinute() { return latencyTrendMillisPerMinute; }
+    public void setLatencyTrendMillisPerMinute(double latencyTrendMillisPerMinute) { this.latencyTrendMillisPerMinute = latencyTrendMillisPerMinute; }
+    
+    public double getThroughputTrendPerMinute() { return throughputTrendPerMinute; }
+    public void setThroughputTrendPerMinute(double throughputTrendPerMinute) { this.throughputTrendPerMinute = throughputTrendPerMinute; }
+    
+    /**
+     * Export the per-interval time series as CSV.
+     */
+    public Path exportTimeSeries(String filename) throws IOException {
+        Path file = Paths.get(filename);
+        TimeSeries.writeCsv(timeSeries, file);
+        return file;
+    }
+    
+    /**
+     * Merge the latency histogram of another run into this one.
+     */
+    public void mergeResponseTimes(PerformanceResults other) {
+        responseTimeHistogram.add(other.getResponseTimeHistogram());
+        correctedResponseTimeHistogram.add(other.getCorrectedResponseTimeHistogram());
+    }
+    
+    /**
+     * Merge the results of a run that executed concurrently with this one, such as another load
+     * generator of a distributed test: counters and throughput add up, histograms are merged and
+     * time-series intervals with the same start time are combined.
+     */
+    public void merge(PerformanceResults other) {
+        long samples = totalSamples + other.totalSamples;
+        if (samples > 0) {
+            averageResponseTime = (averageResponseTime * totalSamples + other.averageResponseTime * other.totalSamples) / samples;
+        }
+        if (totalSamples == 0) {
+            minResponseTime = other.minResponseTime;
+        } else if (other.totalSamples > 0) {
+            minResponseTime = Math.min(minResponseTime, other.minResponseTime);
+        }
+        maxResponseTime = Math.max(maxResponseTime, other.maxResponseTime);
+        totalSamples = samples;
+        errorCount += other.errorCount;
+        errorPercentage = samples == 0 ? 0.0 : errorCount * 100.0 / samples;
+        throughputPerSecond += other.throughputPerSecond;
+        totalExecutionTime = Math.max(totalExecutionTime, other.totalExecutionTime);
+        threadCount += other.threadCount;
+        targetThroughput += other.targetThroughput;
+        delayedRequests += other.delayedRequests;
+        droppedRequests += other.droppedRequests;
+        connectionsOpened += other.connectionsOpened;
+        connectionsReused += other.connectionsReused;
+        totalConnectTimeMillis += other.totalConnectTimeMillis;
+        expectedIntervalMillis = Math.max(expectedIntervalMillis, other.expectedIntervalMillis);
+        mergeResponseTimes(other);
+        
+        other.samplerResults.forEach((label, summary) -> samplerResults.merge(label, summary, MetricsSummary::merge));
+        spikeProfile |= other.spikeProfile;
+        other.phaseResults.forEach((name, summary) -> phaseResults.merge(name, summary, MetricsSummary::merge));
+        other.latencyBreakdowns.forEach((label, breakdown) -> latencyBreakdowns.merge(label, breakdown, LatencyBreakdown::merge));
+        
+        Map<Long, TimeSeriesPoint> points = new TreeMap<>();
+        for (TimeSeriesPoint point : timeSeries) {
+            points.put(point.getStartTimeMillis(), point);
+        }
+        for (TimeSeriesPoint point : other.timeSeries) {
+            points.merge(point.getStartTimeMillis(), point, TimeSeriesPoint::merge);
+        }
+        timeSeries = new ArrayList<>(points.values());
+        
+        errors.addAll(other.errors);
+        if (slaViolation == null) {
+            slaViolation = other.slaViolation;
+        }
+        // A single saturated generator taints the whole run
+        if (generatorHealth == null || (!isGeneratorSaturated() && other.isGeneratorSaturated())) {
+            generatorHealth = other.generatorHealth;
+        }
+        if (trafficMix == null) {
+            trafficMix = other.trafficMix;
+        }
+        if (warmUpResults == null || other.warmUpResults == null) {
+            warmUpResults = warmUpResults != null ? warmUpResults : other.warmUpResults;
+        } else {
+            warmUpResults = warmUpResults.merge(other.warmUpResults);
+        }
+        warmUpTimeMillis = Math.max(warmUpTimeMillis, other.warmUpTimeMillis);
+        warmUpErrors.addAll(other.warmUpErrors);
+    }
+    
     /**
      * Check if performance test passed based on error rate threshold.
      */
@@ -97,16 +455,104 @@ public class PerformanceResults {
         summary.append("Performance Test Results Summary:\n");
         summary.append("Test Plan: ").append(testPlanName).append("\n");
         summary.append("Execution Time: ").append(totalExecutionTime).append(" ms\n");
+        if (startupTimeMillis > 0) {
+            summary.append("Startup Time: ").append(startupTimeMillis).append(" ms\n");
+        }
         summary.append("Threads: ").append(threadCount).append("\n");
         summary.append("Ramp-up: ").append(rampUpTime).append(" seconds\n");
         summary.append("Loops: ").append(loopCount).append("\n");
+        if (warmUpResults != null) {
+            summary.append("Warm-up (excluded): ").append(warmUpTimeMillis).append(" ms, ")
+                   .append(warmUpResults).append("\n");
+            for (String error : warmUpErrors) {
+                summary.append("  - ").append(error).append("\n");
+            }
+        }
         summary.append("Total Samples: ").append(totalSamples).append("\n");
         summary.append("Error Count: ").append(errorCount).append("\n");
         summary.append("Error Rate: ").append(String.format("%.2f", errorPercentage)).append("%\n");
         summary.append("Average Response Time: ").append(String.format("%.2f", averageResponseTime)).append(" ms\n");
         summary.append("Min Response Time: ").append(String.format("%.2f", minResponseTime)).append(" ms\n");
         summary.append("Max Response Time: ").append(String.format("%.2f", maxResponseTime)).append(" ms\n");
+        summary.append("Percentiles: ")
+               .append(String.format("p50=%.2f p90=%.2f p95=%.2f p99=%.2f p99.9=%.2f",
+                       getP50ResponseTime(), getP90ResponseTime(), getP95ResponseTime(),
+                       getP99ResponseTime(), getP999ResponseTime()))
+               .append(" ms\n");
+        if (correctedResponseTimeHistogram.getTotalCount() > 0) {
+            summary.append("Corrected Percentiles: ")
+                   .append(String.format("p50=%.2f p90=%.2f p95=%.2f p99=%.2f p99.9=%.2f",
+                           getCorrectedResponseTimePercentile(50.0), getCorrectedResponseTimePercentile(90.0),
+                           getCorrectedResponseTimePercentile(95.0), getCorrectedP99ResponseTime(),
+                           getCorrectedResponseTimePercentile(99.9)))
+                   .append(String.format(" ms (expected interval %.2f ms)%n", expectedIntervalMillis));
+        }
         summary.append("Throughput: ").append(String.format("%.2f", throughputPerSecond)).append(" requests/sec\n");
+        if (targetThroughput > 0) {
+            summary.append("Target Throughput: ").append(String.format("%.2f", targetThroughput)).append(" requests/sec\n");
+            summary.append("Delayed Requests: ").append(delayedRequests).append("\n");
+            summary.append("Dropped Requests: ").append(droppedRequests).append("\n");
+        }
+        if (generatorCalibration != null) {
+            summary.append(String.format("Generator Ceiling: %.2f requests/sec, overhead p50 %.2f ms p99 %.2f ms (%.1f%% of ceiling used%s)%n",
+                    generatorCalibration.getMaxThroughput(), generatorCalibration.getOverheadP50Millis(),
+                    generatorCalibration.getOverheadP99Millis(), generatorCalibration.getCeilingPercentage(throughputPerSecond),
+                    isGeneratorBound() ? ", generator-bound" : ""));
+        }
+        if (generatorHealth != null) {
+            summary.append("Generator Health: ").append(generatorHealth).append("\n");
+            if (generatorHealth.isGeneratorSaturated()) {
+                summary.append("WARNING: generator saturated, ").append(generatorHealth.getSaturationReason()).append("\n");
+            }
+        }
+        if (connectionsOpened + connectionsReused > 0) {
+            summary.append(String.format("Connections: %d opened (avg connect %.2f ms), %d reused (%.2f%% reuse)%n",
+                    connectionsOpened, getAverageConnectTime(), connectionsReused, getConnectionReusePercentage()));
+        }
+        if (samplerResults.size() > 1) {
+            summary.append("Per-Sampler Results:\n");
+            for (MetricsSummary samplerSummary : samplerResults.values()) {
+                summary.append("  - ").append(samplerSummary).append("\n");
+            }
+        }
+        if (trafficMix != null) {
+            summary.append("Traffic Mix:\n");
+            for (String label : trafficMix.getWeights().keySet()) {
+                summary.append(String.format("  - %s: target %.2f%%, realised %.2f%%%n",
+                        label, trafficMix.getTargetPercentage(label), getRealisedMixPercentage(label)));
+            }
+        }
+        if (!latencyBreakdowns.isEmpty()) {
+            summary.append("Latency Breakdown:\n");
+            for (LatencyBreakdown breakdown : latencyBreakdowns.values()) {
+                summary.append("  - ").append(breakdown).append("\n");
+            }
+        }
+        if (!phaseResults.isEmpty()) {
+            summary.append("Phase Results:\n");
+            for (MetricsSummary phaseSummary : phaseResults.values()) {
+                summary.append("  - ").append(phaseSummary).append("\n");
+            }
+        }
+        if (spikeProfile) {
+            summary.append("Recovery Time: ")
+                   .append(recoveryTimeMillis >= 0 ? recoveryTimeMillis + " ms" : "not recovered").append("\n");
+        }
+        if (!timeSeries.isEmpty()) {
+            summary.append("Time Series: ").append(timeSeries.size()).append(" intervals of ")
+                   .append(timeSeries.get(0).getIntervalMillis()).append(" ms\n");
+        }
+        if (!Double.isNaN(latencyTrendMillisPerMinute)) {
+            summary.append("Steady State: ")
+                   .append(steadyStateTimeMillis >= 0 ? "reached after " + steadyStateTimeMillis + " ms" : "not reached")
+                   .append("\n");
+            summary.append(String.format("Trend: p99 %+.3f ms/min, throughput %+.3f requests/sec/min%n",
+                    latencyTrendMillisPerMinute, throughputTrendPerMinute));
+        }
+        
+        if (slaViolation != null) {
+            summary.append("Aborted: ").append(slaViolation).append("\n");
+        }
         
         if (!errors.isEmpty()) {
             summary.append("Errors:\n");
@@ -7,16 +7,22 @@ import com.github.javafaker.Faker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Performance test runner that integrates JMeter with our API testing framework.
  * Provides easy-to-use methods for running performance tests on API endpoints.
+ * The load engine is selected with the performance.engine property (jmeter or httpclient).
  */
 public class PerformanceTestRunner {
     
     private static final Logger logger = LoggerFactory.getLogger(PerformanceTestRunner.class);
+    private static final int SPIKE_BASELINE_SECONDS = 15;
+    private static final int SPIKE_RECOVERY_SECONDS = 15;
     private final ApiConfig apiConfig;
     private final ObjectMapper objectMapper;
     private final Faker faker;
@@ -27,6 +33,100 @@ public class PerformanceTestRunner {
         this.faker = new Faker();
     }
     
+    /**
+     * Create the load engine selected by the performance.engine property.
+     */
+    private LoadEngine createEngine() {
+        LoadEngineType engineType = LoadEngineType.fromName(apiConfig.getPerformanceEngine());
+        logger.debug("Using {} load engine", engineType);
+        LoadEngine engine = engineType.create()
+            .withExpectedInterval(apiConfig.getPerformanceExpectedIntervalMillis())
+            .withConnectionSettings(createConnectionSettings())
+            .withGeneratorHealthThresholds(apiConfig.getPerformanceGeneratorMaxCpuPercent(),
+                apiConfig.getPerformanceGeneratorMaxGcPercent(), apiConfig.getPerformanceGeneratorMaxHeapPercent());
+        
+        List<SlaRule> liveSlaRules = createLiveSlaRules();
+        if (!liveSlaRules.isEmpty()) {
+            engine.withLiveSla(apiConfig.getPerformanceSlaWindowSeconds(),
+                               apiConfig.getPerformanceSlaGracePeriodSeconds(), liveSlaRules);
+        }
+        if (apiConfig.getPerformanceMetricsPort() > 0) {
+            engine.withMetricsEndpoint(apiConfig.getPerformanceMetricsHost(), apiConfig.getPerformanceMetricsPort());
+        }
+        WarmUpWindow warmUp = createWarmUpWindow();
+        if (warmUp != null) {
+            engine.withWarmUp(warmUp);
+        }
+        return engine;
+    }
+    
+    private ConnectionSettings createConnectionSettings() {
+        return ConnectionSettings.builder()
+            .implementation(ConnectionSettings.Implementation.fromName(apiConfig.getPerformanceHttpImplementation()))
+            .keepAlive(apiConfig.isPerformanceHttpKeepAlive())
+            .maxConnections(apiConfig.getPerformanceHttpMaxConnections())
+            .idleTimeoutMillis(apiConfig.getPerformanceHttpIdleTimeoutMillis())
+            .tlsSessionReuse(apiConfig.isPerformanceHttpTlsSessionReuse())
+            .build();
+    }
+    
+    /**
+     * Warm-up window from configuration: a sample count, a duration, or a duration that ends early
+     * once p50 is stable. Null if none is configured.
+     */
+    private WarmUpWindow createWarmUpWindow() {
+        if (apiConfig.getPerformanceWarmUpSamples() > 0) {
+            return WarmUpWindow.samples(apiConfig.getPerformanceWarmUpSamples());
+        }
+        long warmUpMillis = apiConfig.getPerformanceWarmUpSeconds() * 1000L;
+        if (warmUpMillis <= 0) {
+            return null;
+        }
+        return apiConfig.isPerformanceWarmUpUntilStable()
+            ? WarmUpWindow.untilStable(warmUpMillis) : WarmUpWindow.duration(warmUpMillis);
+    }
+    
+    /**
+     * Live SLA rules from configuration; a threshold of 0 leaves its rule out.
+     */
+    private List<SlaRule> createLiveSlaRules() {
+        List<SlaRule> rules = new ArrayList<>();
+        if (apiConfig.getPerformanceSlaMaxErrorRate() > 0) {
+            rules.add(SlaRule.maxErrorRate(apiConfig.getPerformanceSlaMaxErrorRate()));
+        }
+        if (apiConfig.getPerformanceSlaMaxP99Millis() > 0) {
+            rules.add(SlaRule.maxP99ResponseTime(apiConfig.getPerformanceSlaMaxP99Millis()));
+        }
+        if (apiConfig.getPerformanceSlaMinThroughput() > 0) {
+            rules.add(SlaRule.minThroughput(apiConfig.getPerformanceSlaMinThroughput()));
+        }
+        return rules;
+    }
+    
+    /**
+     * Publish the load engine's calibrated ceiling with the results, so a low throughput number can be
+     * told apart from a generator that ran out of capacity. Calibration runs once per engine and process.
+     */
+    private PerformanceResults withGeneratorCeiling(PerformanceResults results) {
+        if (!apiConfig.isPerformanceCalibrationEnabled()) {
+            return results;
+        }
+        try {
+            int users = apiConfig.getPerformanceCalibrationUsers() > 0
+                ? apiConfig.getPerformanceCalibrationUsers() : GeneratorCalibration.defaultUsers();
+            results.setGeneratorCalibration(GeneratorCalibration.forEngine(
+                LoadEngineType.fromName(apiConfig.getPerformanceEngine()), users, apiConfig.getPerformanceCalibrationSeconds()));
+            if (results.isGeneratorBound()) {
+                logger.warn("'{}' used {}% of the generator ceiling; throughput may be limited by the load generator",
+                           results.getTestPlanName(), String.format("%.1f",
+                           results.getGeneratorCalibration().getCeilingPercentage(results.getThroughputPerSecond())));
+            }
+        } catch (Exception e) {
+            logger.warn("Generator calibration failed, publishing results without a ceiling", e);
+        }
+        return results;
+    }
+    
     /**
      * Generate a random user for testing.
      */
@@ -40,6 +140,34 @@ public class PerformanceTestRunner {
             .build();
     }
     
+    /**
+     * Pre-generate unique serialized users for POST/PUT bodies, one per request up to
+     * performance.payload.pool.size; null when the pool is disabled.
+     */
+    private PayloadPool createUserPayloadPool(long requests) {
+        int maxPayloads = apiConfig.getPerformancePayloadPoolSize();
+        if (maxPayloads <= 0) {
+            return null;
+        }
+        // Faker is not thread-safe; payloads are generated on all cores
+        ThreadLocal<Faker> fakers = ThreadLocal.withInitial(Faker::new);
+        return PayloadPool.generate((int) Math.max(1, Math.min(maxPayloads, requests)), index -> {
+            Faker generator = fakers.get();
+            CreateUserRequest user = CreateUserRequest.builder()
+                .name(generator.name().fullName())
+                .username(generator.name().username() + "." + index)
+                .email(index + "." + generator.internet().emailAddress())
+                .phone(generator.phoneNumber().phoneNumber())
+                .website(generator.internet().domainName())
+                .build();
+            try {
+                return objectMapper.writeValueAsBytes(user);
+            } catch (Exception e) {
+                throw new RuntimeException("Payload serialization failed", e);
+            }
+        });
+    }
+    
     /**
      * Run a simple load test on GET endpoint.
      */
@@ -55,7 +183,7 @@ public class PerformanceTestRunner {
         logger.info("Starting GET load test for endpoint: {}", endpoint);
         
         try {
-            JMeterTestEngine engine = new JMeterTestEngine();
+            LoadEngine engine = createEngine();
             
             // Prepare endpoint with query parameters
             String fullEndpoint = endpoint;
@@ -86,7 +214,7 @@ public class PerformanceTestRunner {
                 .execute();
             
             logger.info("GET load test completed for endpoint: {}", endpoint);
-            return results;
+            return withGeneratorCeiling(results);
             
         } catch (Exception e) {
             logger.error("GET load test failed for endpoint: {}", endpoint, e);
@@ -96,13 +224,30 @@ public class PerformanceTestRunner {
     
     /**
      * Run a load test on POST endpoint with JSON payload.
+     * Every request sends the given body.
      */
     public PerformanceResults runPostLoadTest(String endpoint, Object requestBody, 
                                             int users, int rampUpSeconds, int loops) {
+        return runPostLoadTest(endpoint, requestBody, null, users, rampUpSeconds, loops);
+    }
+    
+    /**
+     * Run a load test on POST endpoint that creates users from a pool of unique generated payloads,
+     * so server-side caching or duplicate checks cannot skew the results. With the pool disabled,
+     * every request sends one generated user.
+     */
+    public PerformanceResults runGeneratedUserPostLoadTest(String endpoint, int users, int rampUpSeconds, int loops) {
+        try (PayloadPool payloads = createUserPayloadPool((long) users * Math.max(1, loops))) {
+            return runPostLoadTest(endpoint, generateRandomUser(), payloads, users, rampUpSeconds, loops);
+        }
+    }
+    
+    private PerformanceResults runPostLoadTest(String endpoint, Object requestBody, PayloadPool payloads,
+                                               int users, int rampUpSeconds, int loops) {
         logger.info("Starting POST load test for endpoint: {}", endpoint);
         
         try {
-            JMeterTestEngine engine = new JMeterTestEngine();
+            LoadEngine engine = createEngine();
             
             // Convert request body to JSON
             String jsonBody = null;
@@ -123,14 +268,18 @@ public class PerformanceTestRunner {
             headers.put("User-Agent", "PerformanceTestRunner");
             
             // Execute test
+            engine.createTestPlan("POST Load Test - " + endpoint, users, rampUpSeconds, loops);
+            if (payloads != null) {
+                engine.addHttpRequestWithPayloads("POST " + endpoint, protocol, serverName, port, endpoint, "POST", headers, payloads);
+            } else {
+                engine.addHttpRequest("POST " + endpoint, protocol, serverName, port, endpoint, "POST", headers, jsonBody);
+            }
             PerformanceResults results = engine
-                .createTestPlan("POST Load Test - " + endpoint, users, rampUpSeconds, loops)
-                .addHttpRequest("POST " + endpoint, protocol, serverName, port, endpoint, "POST", headers, jsonBody)
                 .addResultCollector("target/jmeter-post-results.jtl")
                 .execute();
             
             logger.info("POST load test completed for endpoint: {}", endpoint);
-            return results;
+            return withGeneratorCeiling(results);
             
         } catch (Exception e) {
             logger.error("POST load test failed for endpoint: {}", endpoint, e);
@@ -139,13 +288,101 @@ public class PerformanceTestRunner {
     }
     
     /**
-     * Run a comprehensive API stress test with multiple endpoints.
+     * Run an open-model load test on GET endpoint at a constant arrival rate.
+     */
+    public PerformanceResults runArrivalRateTest(String endpoint, double targetRequestsPerSecond,
+                                               int durationSeconds, int maxConcurrency) {
+        logger.info("Starting arrival-rate test for endpoint: {} at {} req/sec", endpoint, targetRequestsPerSecond);
+        
+        try {
+            LoadEngine engine = createEngine();
+            
+            // Parse API base URL
+            String baseUrl = apiConfig.getBaseUrl();
+            String protocol = baseUrl.startsWith("https") ? "https" : "http";
+            String serverName = baseUrl.replace("https://", "").replace("http://", "");
+            int port = protocol.equals("https") ? 443 : 80;
+            
+            // Create headers
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Accept", "application/json");
+            headers.put("User-Agent", "PerformanceTestRunner");
+            
+            // Execute test
+            PerformanceResults results = engine
+                .createArrivalRateTestPlan("Arrival Rate Test - " + endpoint, targetRequestsPerSecond,
+                                           durationSeconds, maxConcurrency)
+                .addHttpRequest("GET " + endpoint, protocol, serverName, port, endpoint, "GET", headers, null)
+                .addResultCollector("target/jmeter-arrival-rate-results.jtl")
+                .execute();
+            
+            logger.info("Arrival-rate test completed for endpoint: {}", endpoint);
+            return withGeneratorCeiling(results);
+            
+        } catch (Exception e) {
+            logger.error("Arrival-rate test failed for endpoint: {}", endpoint, e);
+            throw new RuntimeException("Arrival-rate test failed", e);
+        }
+    }
+    
+    /**
+     * Run a GET load test spread over several load generator processes.
+     * Starts the given number of local worker JVMs and attaches the remote workers listed in
+     * performance.workers, authenticating with performance.worker.token; the users are split across
+     * all of them and the results merged.
+     */
+    public PerformanceResults runDistributedLoadTest(String endpoint, int users, int rampUpSeconds, int loops,
+                                                     int localWorkers) {
+        logger.info("Starting distributed load test for endpoint: {} with {} users", endpoint, users);
+        
+        try (LoadCoordinator coordinator = new LoadCoordinator(apiConfig.getPerformanceWorkerToken())) {
+            for (String worker : apiConfig.getPerformanceWorkers()) {
+                int separator = worker.lastIndexOf(':');
+                coordinator.attach(worker.substring(0, separator), Integer.parseInt(worker.substring(separator + 1)));
+            }
+            coordinator.startLocalWorkers(localWorkers);
+            
+            // Parse API base URL
+            String baseUrl = apiConfig.getBaseUrl();
+            String protocol = baseUrl.startsWith("https") ? "https" : "http";
+            String serverName = baseUrl.replace("https://", "").replace("http://", "");
+            int port = protocol.equals("https") ? 443 : 80;
+            
+            // Create headers
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Accept", "application/json");
+            headers.put("User-Agent", "PerformanceTestRunner");
+            
+            // Workers get the same engine settings a local run would
+            DistributedPlan plan = new DistributedPlan("Distributed Load Test - " + endpoint, users, rampUpSeconds, loops)
+                .withEngine(apiConfig.getPerformanceEngine())
+                .withConnectionSettings(createConnectionSettings())
+                .withWarmUp(createWarmUpWindow())
+                .withLiveSla(apiConfig.getPerformanceSlaWindowSeconds(),
+                             apiConfig.getPerformanceSlaGracePeriodSeconds(), createLiveSlaRules())
+                .addHttpRequest("GET " + endpoint, protocol, serverName, port, endpoint, "GET", headers, null);
+            
+            PerformanceResults results = coordinator.execute(plan);
+            
+            logger.info("Distributed load test completed on {} workers", coordinator.getWorkerCount());
+            return results;
+            
+        } catch (Exception e) {
+            logger.error("Distributed load test failed for endpoint: {}", endpoint, e);
+            throw new RuntimeException("Distributed load test failed", e);
+        }
+    }
+    
+    /**
+     * Run a comprehensive API stress test with multiple endpoints. Each loop of a user sends one
+     * request picked from the configured traffic mix, so the load has production's read/write ratio.
      */
     public PerformanceResults runApiStressTest(int users, int rampUpSeconds, int loops) {
         logger.info("Starting comprehensive API stress test");
         
-        try {
-            JMeterTestEngine engine = new JMeterTestEngine();
+        // POST and PUT each take a unique user per request
+        try (PayloadPool payloads = createUserPayloadPool((long) users * Math.max(1, loops))) {
+            LoadEngine engine = createEngine();
             
             // Parse API base URL
             String baseUrl = apiConfig.getBaseUrl();
@@ -163,22 +400,33 @@ public class PerformanceTestRunner {
             CreateUserRequest testUser = generateRandomUser();
             String userJson = objectMapper.writeValueAsString(testUser);
             
-            // Create comprehensive test plan
+            // Create comprehensive test plan, one weighted request per iteration
             engine.createTestPlan("API Stress Test", users, rampUpSeconds, loops)
+                  .withTrafficMix(TrafficMix.builder()
+                      .weight("GET All Users", apiConfig.getPerformanceMixGetAllWeight())
+                      .weight("GET User by ID", apiConfig.getPerformanceMixGetByIdWeight())
+                      .weight("POST Create User", apiConfig.getPerformanceMixCreateWeight())
+                      .weight("PUT Update User", apiConfig.getPerformanceMixUpdateWeight())
+                      .build())
                   // Test GET /users
                   .addHttpRequest("GET All Users", protocol, serverName, port, "/users", "GET", headers, null)
                   // Test GET /users/1
-                  .addHttpRequest("GET User by ID", protocol, serverName, port, "/users/1", "GET", headers, null)
-                  // Test POST /users
-                  .addHttpRequest("POST Create User", protocol, serverName, port, "/users", "POST", headers, userJson)
-                  // Test PUT /users/1
-                  .addHttpRequest("PUT Update User", protocol, serverName, port, "/users/1", "PUT", headers, userJson)
-                  .addResultCollector("target/jmeter-stress-results.jtl");
+                  .addHttpRequest("GET User by ID", protocol, serverName, port, "/users/1", "GET", headers, null);
+            if (payloads != null) {
+                // Test POST /users and PUT /users/1 with unique users
+                engine.addHttpRequestWithPayloads("POST Create User", protocol, serverName, port, "/users", "POST", headers, payloads)
+                      .addHttpRequestWithPayloads("PUT Update User", protocol, serverName, port, "/users/1", "PUT", headers, payloads);
+            } else {
+                // Test POST /users and PUT /users/1
+                engine.addHttpRequest("POST Create User", protocol, serverName, port, "/users", "POST", headers, userJson)
+                      .addHttpRequest("PUT Update User", protocol, serverName, port, "/users/1", "PUT", headers, userJson);
+            }
+            engine.addResultCollector("target/jmeter-stress-results.jtl");
             
             PerformanceResults results = engine.execute();
             
             logger.info("API stress test completed");
-            return results;
+            return withGeneratorCeiling(results);
             
         } catch (Exception e) {
             logger.error("API stress test failed", e);
@@ -188,27 +436,39 @@ public class PerformanceTestRunner {
     
     /**
      * Run a spike test to check system behavior under sudden load increases.
+     * Baseline, spike and recovery run as one continuous test so the results show how
+     * the system behaved in each phase and how long it took to recover after the spike.
      */
-    public PerformanceResults runSpikeTest(String endpoint, int normalUsers, int spikeUsers, int spikeDuration) {
+    public PerformanceResults runSpikeTest(String endpoint, int normalUsers, int spikeUsers, int spikeDurationSeconds) {
         logger.info("Starting spike test for endpoint: {}", endpoint);
         
         try {
-            // First run normal load
-            logger.info("Running normal load with {} users", normalUsers);
-            PerformanceResults normalResults = runGetLoadTest(endpoint, normalUsers, 30, 5);
+            LoadEngine engine = createEngine();
             
-            // Then run spike load
-            logger.info("Running spike load with {} users for {} loops", spikeUsers, spikeDuration);
-            PerformanceResults spikeResults = runGetLoadTest(endpoint, spikeUsers, 5, spikeDuration);
+            // Parse API base URL
+            String baseUrl = apiConfig.getBaseUrl();
+            String protocol = baseUrl.startsWith("https") ? "https" : "http";
+            String serverName = baseUrl.replace("https://", "").replace("http://", "");
+            int port = protocol.equals("https") ? 443 : 80;
             
-            // Combine results (simplified - in real scenario you'd want more sophisticated merging)
-            PerformanceResults combinedResults = new PerformanceResults();
-            combinedResults.setTestPlanName("Spike Test - " + endpoint);
-            combinedResults.setTotalExecutionTime(normalResults.getTotalExecutionTime() + spikeResults.getTotalExecutionTime());
-            combinedResults.setThreadCount(Math.max(normalResults.getThreadCount(), spikeResults.getThreadCount()));
+            // Create headers
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Accept", "application/json");
+            headers.put("User-Agent", "PerformanceTestRunner");
+            
+            LoadProfile profile = LoadProfile.spike(normalUsers, spikeUsers,
+                    SPIKE_BASELINE_SECONDS, spikeDurationSeconds, SPIKE_RECOVERY_SECONDS);
+            logger.info("Spike profile: {}", profile);
+            
+            // Execute test
+            PerformanceResults results = engine
+                .createLoadProfileTestPlan("Spike Test - " + endpoint, profile)
+                .addHttpRequest("GET " + endpoint, protocol, serverName, port, endpoint, "GET", headers, null)
+                .addResultCollector("target/jmeter-spike-results.jtl")
+                .execute();
             
             logger.info("Spike test completed for endpoint: {}", endpoint);
-            return combinedResults;
+            return withGeneratorCeiling(results);
             
         } catch (Exception e) {
             logger.error("Spike test failed for endpoint: {}", endpoint, e);
@@ -218,19 +478,36 @@ public class PerformanceTestRunner {
     
     /**
      * Run endurance test to check system stability over time.
+     * Users loop until a fixed wall-clock deadline, so the run lasts the requested time regardless
+     * of how fast the endpoint responds. Results report when the run reached a steady state and
+     * the p99 and throughput trends over it.
      */
     public PerformanceResults runEnduranceTest(String endpoint, int users, int durationMinutes) {
         logger.info("Starting endurance test for endpoint: {} - Duration: {} minutes", endpoint, durationMinutes);
         
         try {
-            // Calculate loops based on duration (approximate)
-            int loops = durationMinutes * 10; // Assume each loop takes ~6 seconds
+            LoadEngine engine = createEngine();
             
-            PerformanceResults results = runGetLoadTest(endpoint, users, 60, loops);
-            results.setTestPlanName("Endurance Test - " + endpoint);
+            // Parse API base URL
+            String baseUrl = apiConfig.getBaseUrl();
+            String protocol = baseUrl.startsWith("https") ? "https" : "http";
+            String serverName = baseUrl.replace("https://", "").replace("http://", "");
+            int port = protocol.equals("https") ? 443 : 80;
+            
+            // Create headers
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Accept", "application/json");
+            headers.put("User-Agent", "PerformanceTestRunner");
+            
+            // Execute test
+            PerformanceResults results = engine
+                .createDurationTestPlan("Endurance Test - " + endpoint, users, 60, durationMinutes * 60)
+                .addHttpRequest("GET " + endpoint, protocol, serverName, port, endpoint, "GET", headers, null)
+                .addResultCollector("target/jmeter-endurance-results.jtl")
+                .execute();
             
             logger.info("Endurance test completed for endpoint: {}", endpoint);
-            return results;
+            return withGeneratorCeiling(results);
             
         } catch (Exception e) {
             logger.error("Endurance test failed for endpoint: {}", endpoint, e);
@@ -238,18 +515,117 @@ public class PerformanceTestRunner {
         }
     }
     
+    /**
+     * Search for the most users a GET endpoint sustains while p99 and the error rate meet their targets,
+     * instead of hand-tuning the users of {@link #runGetLoadTest}. Load doubles from one user, then the
+     * knee is bisected; each step is held until its metrics settle.
+     */
+    public CapacityReport runCapacitySearch(String endpoint, double targetP99Millis, double maxErrorPercentage,
+                                            int maxUsers) {
+        logger.info("Starting capacity search for endpoint: {}", endpoint);
+        
+        try {
+            // Parse API base URL
+            String baseUrl = apiConfig.getBaseUrl();
+            String protocol = baseUrl.startsWith("https") ? "https" : "http";
+            String serverName = baseUrl.replace("https://", "").replace("http://", "");
+            int port = protocol.equals("https") ? 443 : 80;
+            
+            // Create headers
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Accept", "application/json");
+            headers.put("User-Agent", "PerformanceTestRunner");
+            
+            int maxStepSeconds = apiConfig.getPerformanceCapacityMaxStepSeconds();
+            int intervals = (int) (maxStepSeconds * 1000L / CapacitySearch.STEP_RESOLUTION_MILLIS) + 1;
+            CapacityReport report = CapacitySearch.builder()
+                .targetP99Millis(targetP99Millis)
+                .maxErrorPercentage(maxErrorPercentage)
+                .maxUsers(maxUsers)
+                .stepSeconds(apiConfig.getPerformanceCapacityStepSeconds())
+                .maxStepSeconds(maxStepSeconds)
+                .build()
+                .search((users, durationSeconds) -> createEngine()
+                    .createDurationTestPlan("Capacity Search - " + endpoint + " - " + users + " users",
+                                            users, 0, durationSeconds)
+                    .withTimeSeries(CapacitySearch.STEP_RESOLUTION_MILLIS, intervals)
+                    .addHttpRequest("GET " + endpoint, protocol, serverName, port, endpoint, "GET", headers, null)
+                    .execute());
+            
+            logger.info("Capacity search completed for endpoint: {}", endpoint);
+            return report;
+            
+        } catch (Exception e) {
+            logger.error("Capacity search failed for endpoint: {}", endpoint, e);
+            throw new RuntimeException("Capacity search failed", e);
+        }
+    }
+    
     /**
      * Validate performance results against SLA criteria.
+     * With performance.baseline.enabled the run must also show no regressions against its recorded history;
+     * the fixed thresholds stay a hard floor either way. Passing runs are added to the history by {@link #recordBaseline}.
+     * A run whose load generator was saturated is not judged at all and fails, since its numbers describe the generator.
      */
     public boolean validatePerformanceSLA(PerformanceResults results, double maxErrorRate, 
                                         double maxResponseTime, double minThroughput) {
+        if (results.isGeneratorSaturated()) {
+            logger.warn("Refusing to validate SLA, the load generator was saturated: {}",
+                       results.getGeneratorHealth().getSaturationReason());
+            return false;
+        }
+        boolean fixedPassed = validateFixedSLA(results, maxErrorRate, maxResponseTime, minThroughput);
+        if (!apiConfig.isPerformanceBaselineEnabled()) {
+            return fixedPassed;
+        }
+        
+        RegressionReport report = checkForRegressions(results);
+        boolean overallPassed = fixedPassed && !report.hasRegressions();
+        logger.info("  Baseline SLA ({} runs): {}", report.getBaselineRuns(), report.hasRegressions() ? "FAIL" : "PASS");
+        return overallPassed;
+    }
+    
+    /**
+     * Add a run to the baseline history of its test plan in the current environment.
+     * Call it only for runs that passed their SLA, so a regression cannot become the new normal.
+     * Does nothing unless performance.baseline.enabled is set.
+     */
+    public void recordBaseline(PerformanceResults results) {
+        if (!apiConfig.isPerformanceBaselineEnabled()) {
+            return;
+        }
+        if (results.isGeneratorSaturated() || results.isAborted()) {
+            logger.warn("Not recording '{}' as a baseline, the run was saturated or aborted", results.getTestPlanName());
+            return;
+        }
+        createBaselineStore().record(results, apiConfig.getEnvironmentName());
+    }
+    
+    /**
+     * Compare a run with the rolling baseline of its test plan in the current environment.
+     */
+    public RegressionReport checkForRegressions(PerformanceResults results) {
+        int baselineRuns = Math.max(RegressionDetector.DEFAULT_MIN_BASELINE_RUNS, apiConfig.getPerformanceBaselineRuns());
+        RegressionDetector detector = new RegressionDetector(baselineRuns, RegressionDetector.DEFAULT_MIN_BASELINE_RUNS,
+            RegressionDetector.DEFAULT_Z_THRESHOLD, RegressionDetector.DEFAULT_MIN_RELATIVE_CHANGE);
+        return detector.compare(createBaselineStore(), results, apiConfig.getEnvironmentName());
+    }
+    
+    private BaselineStore createBaselineStore() {
+        return new BaselineStore(Paths.get(apiConfig.getPerformanceBaselineFile()));
+    }
+    
+    private boolean validateFixedSLA(PerformanceResults results, double maxErrorRate, 
+                                     double maxResponseTime, double minThroughput) {
         logger.info("Validating performance results against SLA");
         
         boolean errorRateOk = results.isTestPassed(maxErrorRate);
         boolean responseTimeOk = results.isResponseTimeAcceptable(maxResponseTime);
         boolean throughputOk = results.isThroughputAcceptable(minThroughput);
         
-        boolean overallPassed = errorRateOk && responseTimeOk && throughputOk;
+        boolean liveSlaOk = !results.isAborted();
+        
+        boolean overallPassed = errorRateOk && responseTimeOk && throughputOk && liveSlaOk;
         
         logger.info("SLA Validation Results:");
         logger.info("  Error Rate: {} (max: {}) - {}", 
@@ -264,6 +640,9 @@ public class PerformanceTestRunner {
                    String.format("%.2f", results.getThroughputPerSecond()), 
                    String.format("%.2f", minThroughput),
                    throughputOk ? "PASS" : "FAIL");
+        if (!liveSlaOk) {
+            logger.info("  Live SLA: {} - FAIL", results.getSlaViolation());
+        }
         logger.info("  Overall SLA: {}", overallPassed ? "PASS" : "FAIL");
         
         return overallPassed;
@@ -0,0 +1,11 @@
+package com.automation.performance;
+
+/**
+ * Receives live progress snapshots while a test is running.
+ * Called from a single publisher thread once per time-series interval and once more when the run ends.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    
+    void onProgress(ProgressSnapshot snapshot);
+}
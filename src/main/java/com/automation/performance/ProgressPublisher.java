@@ -0,0 +1,86 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes {@link ProgressSnapshot}s of a running test to subscribed listeners.
+ * Reads the aggregator once per time-series interval on its own thread, so sampler threads
+ * never wait on listeners. Does nothing when nobody is subscribed.
+ */
+public class ProgressPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressPublisher.class);
+
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private ResultAggregator aggregator;
+    private long startNanos;
+
+    public void subscribe(ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(ProgressListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Start publishing for a run that starts now.
+     */
+    public synchronized void start(ResultAggregator aggregator) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        stop();
+        this.aggregator = aggregator;
+        this.startNanos = System.nanoTime();
+        long period = aggregator.getTimeSeries().getResolutionMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> publish(false), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop publishing and send the final snapshot.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        publish(true);
+    }
+
+    private void publish(boolean finished) {
+        TimeSeries timeSeries = aggregator.getTimeSeries();
+        long resolution = timeSeries.getResolutionMillis();
+        TimeSeriesPoint interval = timeSeries.getPoint(System.currentTimeMillis() - resolution);
+        MetricsAccumulator totals = aggregator.getAccumulator();
+        ProgressSnapshot snapshot = new ProgressSnapshot(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                totals.getSampleCount(), totals.getErrorCount(), interval, finished, aggregator.getWarmUpEndTimeMillis());
+
+        for (ProgressListener listener : listeners) {
+            try {
+                listener.onProgress(snapshot);
+            } catch (RuntimeException e) {
+                logger.warn("Progress listener failed", e);
+            }
+        }
+    }
+}
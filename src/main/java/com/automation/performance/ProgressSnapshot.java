@@ -0,0 +1,61 @@
+package com.automation.performance;
+
+/**
+ * Live view of a running test: running totals plus the most recently completed interval.
+ */
+public class ProgressSnapshot {
+
+    private final long elapsedMillis;
+    private final long totalSamples;
+    private final long totalErrors;
+    private final TimeSeriesPoint interval;
+    private final boolean finished;
+    private final long warmUpEndTimeMillis;
+
+    public ProgressSnapshot(long elapsedMillis, long totalSamples, long totalErrors,
+                            TimeSeriesPoint interval, boolean finished) {
+        this(elapsedMillis, totalSamples, totalErrors, interval, finished, 0);
+    }
+
+    public ProgressSnapshot(long elapsedMillis, long totalSamples, long totalErrors,
+                            TimeSeriesPoint interval, boolean finished, long warmUpEndTimeMillis) {
+        this.elapsedMillis = elapsedMillis;
+        this.totalSamples = totalSamples;
+        this.totalErrors = totalErrors;
+        this.interval = interval;
+        this.finished = finished;
+        this.warmUpEndTimeMillis = warmUpEndTimeMillis;
+    }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public long getTotalSamples() { return totalSamples; }
+    public long getTotalErrors() { return totalErrors; }
+
+    /**
+     * The last completed time-series interval; empty if nothing completed in it.
+     */
+    public TimeSeriesPoint getInterval() { return interval; }
+
+    /**
+     * True for the final snapshot published when the run has ended.
+     */
+    public boolean isFinished() { return finished; }
+
+    /**
+     * Wall-clock time the warm-up window ended: 0 without a warm-up, Long.MAX_VALUE while it lasts.
+     * Intervals before it include warm-up samples, which the totals leave out.
+     */
+    public long getWarmUpEndTimeMillis() { return warmUpEndTimeMillis; }
+
+    public double getRequestsPerSecond() { return interval.getThroughputPerSecond(); }
+    public long getIntervalErrors() { return interval.getErrors(); }
+    public double getP99ResponseTime() { return interval.getP99ResponseTime(); }
+    public int getActiveThreads() { return interval.getActiveThreads(); }
+
+    @Override
+    public String toString() {
+        return String.format("%ds: %d samples (%d errors), %.1f req/sec, p99=%.2f ms, %d threads",
+                elapsedMillis / 1000, totalSamples, totalErrors, getRequestsPerSecond(),
+                getP99ResponseTime(), getActiveThreads());
+    }
+}
@@ -0,0 +1,144 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Flags statistically significant regressions of a run against the rolling baseline in a {@link BaselineStore}.
+ * Latency percentiles and throughput are compared to the spread of the same metric over the last runs
+ * (z-score) and must also have moved by a minimum relative amount, so a perfectly stable history does not
+ * turn noise into failures. Error rates are compared with a two-proportion z-test on the pooled samples.
+ */
+public class RegressionDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegressionDetector.class);
+
+    public static final int DEFAULT_BASELINE_RUNS = 10;
+    public static final int DEFAULT_MIN_BASELINE_RUNS = 3;
+    public static final double DEFAULT_Z_THRESHOLD = 3.0;
+    public static final double DEFAULT_MIN_RELATIVE_CHANGE = 0.10;
+
+    /** Smallest error rate increase, in percentage points, reported as a regression. */
+    private static final double MIN_ERROR_RATE_INCREASE = 0.5;
+
+    private static final double[] PERCENTILES = {50.0, 95.0, 99.0};
+
+    private final int baselineRuns;
+    private final int minBaselineRuns;
+    private final double zThreshold;
+    private final double minRelativeChange;
+
+    public RegressionDetector() {
+        this(DEFAULT_BASELINE_RUNS, DEFAULT_MIN_BASELINE_RUNS, DEFAULT_Z_THRESHOLD, DEFAULT_MIN_RELATIVE_CHANGE);
+    }
+
+    /**
+     * @param baselineRuns      number of most recent runs forming the rolling baseline
+     * @param minBaselineRuns   runs needed before a sampler is compared at all
+     * @param zThreshold        standard deviations a metric must move to count as significant
+     * @param minRelativeChange fraction a metric must move by in addition to being significant
+     */
+    public RegressionDetector(int baselineRuns, int minBaselineRuns, double zThreshold, double minRelativeChange) {
+        if (minBaselineRuns < 2 || baselineRuns < minBaselineRuns) {
+            throw new IllegalArgumentException("Need at least 2 baseline runs and no more than the window: "
+                    + minBaselineRuns + " of " + baselineRuns);
+        }
+        this.baselineRuns = baselineRuns;
+        this.minBaselineRuns = minBaselineRuns;
+        this.zThreshold = zThreshold;
+        this.minRelativeChange = minRelativeChange;
+    }
+
+    /**
+     * Compare the totals and every sampler of a run with their history in the given environment.
+     */
+    public RegressionReport compare(BaselineStore store, PerformanceResults results, String environment) {
+        String plan = results.getTestPlanName();
+        List<BaselineRecord> overallHistory = store.history(plan, environment, BaselineRecord.OVERALL_SAMPLER, baselineRuns);
+        RegressionReport report = new RegressionReport(plan, overallHistory.size());
+
+        compare(report, overallHistory, new MetricsSummary(BaselineRecord.OVERALL_SAMPLER, results.getTotalSamples(),
+                results.getErrorCount(), results.getAverageResponseTime(), results.getMinResponseTime(),
+                results.getMaxResponseTime(), results.getThroughputPerSecond(), results.getResponseTimeHistogram()));
+        for (MetricsSummary sampler : results.getSamplerResults().values()) {
+            compare(report, store.history(plan, environment, sampler.getLabel(), baselineRuns), sampler);
+        }
+
+        logger.info(report.getSummary());
+        return report;
+    }
+
+    /**
+     * Compare one sampler against its history, oldest first.
+     */
+    public void compare(RegressionReport report, List<BaselineRecord> history, MetricsSummary current) {
+        if (history.size() < minBaselineRuns) {
+            report.addSamplerWithoutBaseline(current.getLabel());
+            return;
+        }
+        for (double percentile : PERCENTILES) {
+            checkDistribution(report, String.format("p%.0f (ms)", percentile), history, current,
+                    summary -> summary.getResponseTimePercentile(percentile), 1);
+        }
+        checkDistribution(report, "throughput (req/sec)", history, current,
+                MetricsSummary::getThroughputPerSecond, -1);
+        checkErrorRate(report, history, current);
+    }
+
+    /**
+     * Flag a metric that moved in the bad direction (1 = higher is worse, -1 = lower is worse)
+     * by more than the z threshold and the minimum relative change.
+     */
+    private void checkDistribution(RegressionReport report, String metric, List<BaselineRecord> history,
+                                   MetricsSummary currentSummary, ToDoubleFunction<MetricsSummary> extractor,
+                                   int worseDirection) {
+        double sum = 0;
+        for (BaselineRecord record : history) {
+            sum += extractor.applyAsDouble(record.getSummary());
+        }
+        double mean = sum / history.size();
+        double squares = 0;
+        for (BaselineRecord record : history) {
+            double deviation = extractor.applyAsDouble(record.getSummary()) - mean;
+            squares += deviation * deviation;
+        }
+        double standardDeviation = Math.sqrt(squares / (history.size() - 1));
+
+        double current = extractor.applyAsDouble(currentSummary);
+        double change = (current - mean) * worseDirection;
+        if (change <= 0 || change < minRelativeChange * Math.abs(mean)) {
+            return;
+        }
+        double zScore = standardDeviation == 0 ? Double.POSITIVE_INFINITY : change / standardDeviation;
+        if (zScore >= zThreshold) {
+            report.addRegression(new RegressionReport.Regression(currentSummary.getLabel(), metric, mean, current, zScore));
+        }
+    }
+
+    private void checkErrorRate(RegressionReport report, List<BaselineRecord> history, MetricsSummary current) {
+        long baselineSamples = 0;
+        long baselineErrors = 0;
+        for (BaselineRecord record : history) {
+            baselineSamples += record.getSummary().getSamples();
+            baselineErrors += record.getSummary().getErrors();
+        }
+        if (baselineSamples == 0 || current.getSamples() == 0) {
+            return;
+        }
+        double baselineRate = (double) baselineErrors / baselineSamples;
+        double currentRate = (double) current.getErrors() / current.getSamples();
+        if ((currentRate - baselineRate) * 100.0 < MIN_ERROR_RATE_INCREASE) {
+            return;
+        }
+        double pooled = (double) (baselineErrors + current.getErrors()) / (baselineSamples + current.getSamples());
+        double standardError = Math.sqrt(pooled * (1 - pooled) * (1.0 / baselineSamples + 1.0 / current.getSamples()));
+        double zScore = standardError == 0 ? Double.POSITIVE_INFINITY : (currentRate - baselineRate) / standardError;
+        if (zScore >= zThreshold) {
+            report.addRegression(new RegressionReport.Regression(current.getLabel(), "error rate (%)",
+                    baselineRate * 100.0, currentRate * 100.0, zScore));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.automation.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of comparing a run against its rolling baseline.
+ */
+public class RegressionReport {
+
+    private final String testPlanName;
+    private final int baselineRuns;
+    private final List<Regression> regressions = new ArrayList<>();
+    private final List<String> samplersWithoutBaseline = new ArrayList<>();
+
+    public RegressionReport(String testPlanName, int baselineRuns) {
+        this.testPlanName = testPlanName;
+        this.baselineRuns = baselineRuns;
+    }
+
+    void addRegression(Regression regression) {
+        regressions.add(regression);
+    }
+
+    void addSamplerWithoutBaseline(String sampler) {
+        samplersWithoutBaseline.add(sampler);
+    }
+
+    public String getTestPlanName() { return testPlanName; }
+
+    /**
+     * Number of past runs of the whole plan the comparison was based on.
+     */
+    public int getBaselineRuns() { return baselineRuns; }
+
+    public List<Regression> getRegressions() { return Collections.unmodifiableList(regressions); }
+    public List<String> getSamplersWithoutBaseline() { return Collections.unmodifiableList(samplersWithoutBaseline); }
+
+    /**
+     * Whether the plan had enough history for the comparison to mean anything.
+     */
+    public boolean hasBaseline() {
+        return !samplersWithoutBaseline.contains(BaselineRecord.OVERALL_SAMPLER);
+    }
+
+    public boolean hasRegressions() {
+        return !regressions.isEmpty();
+    }
+
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Regression check of '%s' against %d baseline runs: %s",
+                testPlanName, baselineRuns,
+                !hasBaseline() ? "NO BASELINE" : hasRegressions() ? regressions.size() + " REGRESSIONS" : "OK"));
+        for (Regression regression : regressions) {
+            summary.append("\n  ").append(regression);
+        }
+        if (hasBaseline() && !samplersWithoutBaseline.isEmpty()) {
+            summary.append("\n  Without baseline: ").append(samplersWithoutBaseline);
+        }
+        return summary.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+
+    /**
+     * A metric of one sampler that is significantly worse than its baseline.
+     */
+    public static class Regression {
+        private final String sampler;
+        private final String metric;
+        private final double baselineValue;
+        private final double currentValue;
+        private final double zScore;
+
+        public Regression(String sampler, String metric, double baselineValue, double currentValue, double zScore) {
+            this.sampler = sampler;
+            this.metric = metric;
+            this.baselineValue = baselineValue;
+            this.currentValue = currentValue;
+            this.zScore = zScore;
+        }
+
+        public String getSampler() { return sampler; }
+        public String getMetric() { return metric; }
+        public double getBaselineValue() { return baselineValue; }
+        public double getCurrentValue() { return currentValue; }
+        public double getZScore() { return zScore; }
+
+        public double getChangePercentage() {
+            return baselineValue == 0 ? Double.POSITIVE_INFINITY : (currentValue - baselineValue) * 100.0 / baselineValue;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %.2f -> %.2f (%+.1f%%, z=%.1f)",
+                    sampler, metric, baselineValue, currentValue, getChangePercentage(), zScore);
+        }
+    }
+}
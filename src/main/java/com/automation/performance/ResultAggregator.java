@@ -0,0 +1,302 @@
+package com.automation.performance;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Engine-independent, lock-free aggregation of samples into overall, per-sampler, per-phase and
+ * per-interval statistics. Safe to call concurrently from any number of sampler threads.
+ * Samples of an optional warm-up window are kept apart and appear only in the time series.
+ */
+public class ResultAggregator {
+
+    private static final int MAX_DISTINCT_ERRORS = 20;
+
+    private final MetricsAccumulator accumulator = new MetricsAccumulator();
+    private final Map<String, MetricsAccumulator> samplerAccumulators = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errorMessages = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> warmUpErrorMessages = new ConcurrentHashMap<>();
+    private final Map<String, LatencyBreakdown> latencyBreakdowns = new ConcurrentHashMap<>();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder connectionsReused = new LongAdder();
+    private final LongAdder connectTimeMillis = new LongAdder();
+    private volatile TimeSeries timeSeries = new TimeSeries();
+    private volatile LoadProfile loadProfile;
+    private volatile MetricsAccumulator[] phaseAccumulators;
+    private volatile long runStartMillis;
+    private volatile long expectedIntervalMicros;
+    private final MetricsAccumulator warmUpAccumulator = new MetricsAccumulator();
+    private final AtomicLong warmUpSamples = new AtomicLong();
+    private final AtomicLong warmUpCheckedInterval = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong warmUpEndMillis = new AtomicLong(-1);
+    private volatile WarmUpWindow warmUp;
+    private volatile boolean warmingUp;
+
+    /**
+     * Record a completed sample. The error message is only used for failed samples.
+     *
+     * @return whether the sample counts towards the statistics, false if it fell in the warm-up
+     *         window; callers record the sample's connection and timings only if it does
+     */
+    public boolean record(String label, long startTimeMillis, long elapsedMicros, boolean success,
+                          int activeThreads, String errorMessage) {
+        long endTimeMillis = startTimeMillis + elapsedMicros / 1000;
+        timeSeries.record(endTimeMillis, elapsedMicros, success, activeThreads);
+        if (warmingUp && isWarmUp(startTimeMillis, endTimeMillis)) {
+            warmUpAccumulator.record(startTimeMillis, elapsedMicros, success);
+            if (!success) {
+                recordError(warmUpErrorMessages, errorMessage);
+            }
+            return false;
+        }
+        accumulator.record(startTimeMillis, elapsedMicros, success);
+        samplerAccumulator(label).record(startTimeMillis, elapsedMicros, success);
+        
+        MetricsAccumulator[] phases = phaseAccumulators;
+        if (phases != null) {
+            phases[loadProfile.stageIndexAt(startTimeMillis - runStartMillis)]
+                    .record(startTimeMillis, elapsedMicros, success);
+        }
+
+        if (!success) {
+            recordError(errorMessages, errorMessage);
+        }
+        return true;
+    }
+
+    /**
+     * Record how a sample got its connection: whether it opened a new one, and how long connecting took.
+     * Only for samples {@link #record} counted.
+     */
+    public void recordConnection(boolean opened, long connectMillis) {
+        if (opened) {
+            connectionsOpened.increment();
+            connectTimeMillis.add(connectMillis);
+        } else {
+            connectionsReused.increment();
+        }
+    }
+
+    /**
+     * Record the phases of a sample's response time: connect time (negative if unknown), latency until
+     * the first response byte from the start of the sample, and the full response time.
+     * Only for samples {@link #record} counted.
+     */
+    public void recordTimings(String label, long connectMicros, long latencyMicros, long elapsedMicros) {
+        LatencyBreakdown breakdown = latencyBreakdowns.get(label);
+        if (breakdown == null) {
+            breakdown = latencyBreakdowns.computeIfAbsent(label, LatencyBreakdown::new);
+        }
+        breakdown.record(connectMicros, latencyMicros, elapsedMicros);
+    }
+
+    /**
+     * Whether a sample still belongs to the warm-up window; the first one that does not ends it.
+     */
+    private boolean isWarmUp(long startTimeMillis, long endTimeMillis) {
+        WarmUpWindow window = warmUp;
+        if (window.getSamples() > 0) {
+            if (warmUpSamples.incrementAndGet() <= window.getSamples()) {
+                return true;
+            }
+        } else if (startTimeMillis - runStartMillis < window.getDurationMillis()
+                && !(window.isUntilStable() && hasSettled(endTimeMillis))) {
+            return true;
+        }
+        if (warmUpEndMillis.compareAndSet(-1, Math.max(0, startTimeMillis - runStartMillis))) {
+            warmingUp = false;
+        }
+        return false;
+    }
+
+    /**
+     * Check once per time-series interval, on whichever thread first records in it, whether p50
+     * of the last complete intervals has settled.
+     */
+    private boolean hasSettled(long timestampMillis) {
+        long resolution = timeSeries.getResolutionMillis();
+        long interval = Math.floorDiv(timestampMillis, resolution);
+        long checked = warmUpCheckedInterval.get();
+        if (interval <= checked || !warmUpCheckedInterval.compareAndSet(checked, interval)) {
+            return false;
+        }
+        TimeSeriesPoint[] recent = new TimeSeriesPoint[WarmUpWindow.STABLE_INTERVALS];
+        for (int i = 0; i < recent.length; i++) {
+            recent[i] = timeSeries.getPoint((interval - 1 - i) * resolution);
+        }
+        return WarmUpWindow.isMedianStable(recent);
+    }
+
+    private MetricsAccumulator samplerAccumulator(String label) {
+        MetricsAccumulator samplerAccumulator = samplerAccumulators.get(label);
+        if (samplerAccumulator == null) {
+            samplerAccumulator = samplerAccumulators.computeIfAbsent(label, key -> new MetricsAccumulator());
+        }
+        return samplerAccumulator;
+    }
+
+    private static void recordError(Map<String, LongAdder> messages, String message) {
+        LongAdder counter = messages.get(message);
+        if (counter == null) {
+            if (messages.size() >= MAX_DISTINCT_ERRORS) {
+                return;
+            }
+            counter = messages.computeIfAbsent(message, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public MetricsAccumulator getAccumulator() {
+        return accumulator;
+    }
+
+    /**
+     * Live per-sampler accumulators keyed by label, for reading while the run is in progress.
+     */
+    public Map<String, MetricsAccumulator> getSamplerAccumulators() {
+        return Collections.unmodifiableMap(samplerAccumulators);
+    }
+
+    public TimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    /**
+     * Replace the time series; must be called before the run starts.
+     */
+    public void setTimeSeries(TimeSeries timeSeries) {
+        this.timeSeries = timeSeries;
+    }
+
+    /**
+     * Tag samples with the stage of the given profile they started in.
+     * Must be called before the run starts.
+     */
+    public void setLoadProfile(LoadProfile loadProfile) {
+        MetricsAccumulator[] phases = new MetricsAccumulator[loadProfile.getStages().size()];
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new MetricsAccumulator();
+        }
+        this.loadProfile = loadProfile;
+        this.phaseAccumulators = phases;
+    }
+    
+    /**
+     * Mark the wall-clock start of the run; stage boundaries are measured from here.
+     */
+    public void markRunStart(long startTimeMillis) {
+        this.runStartMillis = startTimeMillis;
+    }
+    
+    /**
+     * Keep the samples of the given window out of the statistics, or none if null.
+     * Must be called before the run starts; time windows are measured from {@link #markRunStart}.
+     */
+    public void setWarmUp(WarmUpWindow warmUp) {
+        this.warmUp = warmUp;
+        warmUpSamples.set(0);
+        warmUpCheckedInterval.set(Long.MIN_VALUE);
+        warmUpEndMillis.set(-1);
+        this.warmingUp = warmUp != null && !warmUp.isEmpty();
+    }
+    
+    /**
+     * Wall-clock time the warm-up window ended: 0 without a warm-up, Long.MAX_VALUE while it lasts.
+     * Warm-up samples still feed the time series, so live checks ignore intervals before this time.
+     */
+    public long getWarmUpEndTimeMillis() {
+        if (warmingUp) {
+            return Long.MAX_VALUE;
+        }
+        long end = warmUpEndMillis.get();
+        return end < 0 ? 0 : runStartMillis + end;
+    }
+    
+    /**
+     * Expected time between requests of one user, used to correct for coordinated omission.
+     * Zero (the default) uses the median response time, i.e. a closed model without think time.
+     */
+    public void setExpectedIntervalMicros(long expectedIntervalMicros) {
+        this.expectedIntervalMicros = Math.max(0, expectedIntervalMicros);
+    }
+    
+    /**
+     * Copy the aggregated statistics into the given results.
+     */
+    public void populate(PerformanceResults results, long durationMillis) {
+        results.setTotalSamples(accumulator.getSampleCount());
+        results.setErrorCount(accumulator.getErrorCount());
+        results.setErrorPercentage(accumulator.getErrorPercentage());
+        results.setAverageResponseTime(accumulator.getAverageMillis());
+        results.setMinResponseTime(accumulator.getMinMillis());
+        results.setMaxResponseTime(accumulator.getMaxMillis());
+        results.setThroughputPerSecond(accumulator.getThroughputPerSecond(durationMillis));
+        results.setResponseTimeHistogram(accumulator.getHistogram().copy());
+        populateCorrectedResponseTimes(results);
+        results.setTimeSeries(timeSeries.getPoints());
+        results.setConnectionsOpened(connectionsOpened.sum());
+        results.setConnectionsReused(connectionsReused.sum());
+        results.setTotalConnectTimeMillis(connectTimeMillis.sum());
+        samplerAccumulators.forEach((label, samplerAccumulator) ->
+                results.addSamplerResults(samplerAccumulator.snapshot(label, durationMillis)));
+        latencyBreakdowns.forEach((label, breakdown) -> results.addLatencyBreakdown(breakdown.copy()));
+
+        errorMessages.forEach((message, count) -> results.addError(message + " (" + count.sum() + " samples)"));
+        
+        if (phaseAccumulators != null) {
+            populatePhases(results, durationMillis);
+        }
+        if (warmUp != null && !warmUp.isEmpty()) {
+            long warmUpEnd = warmUpEndMillis.get();
+            results.setWarmUpResults(warmUpAccumulator.snapshot("Warm-up", durationMillis));
+            results.setWarmUpTimeMillis(warmUpEnd >= 0 ? warmUpEnd : durationMillis);
+            warmUpErrorMessages.forEach((message, count) -> results.addWarmUpError(message + " (" + count.sum() + " samples)"));
+        }
+        populateTrends(results);
+    }
+    
+    private void populateCorrectedResponseTimes(PerformanceResults results) {
+        LatencyHistogram histogram = results.getResponseTimeHistogram();
+        long interval = expectedIntervalMicros > 0 ? expectedIntervalMicros : histogram.getValueAtPercentile(50.0);
+        results.setExpectedIntervalMillis(interval / 1000.0);
+        results.setCorrectedResponseTimeHistogram(histogram.copyCorrectedForCoordinatedOmission(interval));
+    }
+    
+    private void populateTrends(PerformanceResults results) {
+        List<TimeSeriesPoint> points = results.getTimeSeries();
+        if (points.size() < TimeSeriesAnalysis.STEADY_STATE_WINDOW * 2) {
+            return;
+        }
+        int steadyFrom = TimeSeriesAnalysis.steadyStateIndex(points);
+        long origin = runStartMillis > 0 ? runStartMillis : points.get(0).getStartTimeMillis();
+        results.setSteadyStateTimeMillis(steadyFrom >= 0 ? Math.max(0, points.get(steadyFrom).getStartTimeMillis() - origin) : -1);
+        
+        // Measure drift over the steady part of the run, or the whole run if it never settled
+        int trendFrom = Math.max(0, steadyFrom);
+        results.setLatencyTrendMillisPerMinute(TimeSeriesAnalysis.latencyTrendMillisPerMinute(points, trendFrom));
+        results.setThroughputTrendPerMinute(TimeSeriesAnalysis.throughputTrendPerMinute(points, trendFrom));
+    }
+    
+    private void populatePhases(PerformanceResults results, long durationMillis) {
+        List<LoadStage> stages = loadProfile.getStages();
+        Map<String, MetricsSummary> phaseResults = new LinkedHashMap<>();
+        for (int i = 0; i < stages.size(); i++) {
+            phaseResults.put(stages.get(i).getName(), phaseAccumulators[i].snapshot(stages.get(i).getName(), durationMillis));
+        }
+        results.setPhaseResults(phaseResults);
+        
+        int spike = loadProfile.getSpikeStageIndex();
+        results.setSpikeProfile(spike > 0);
+        if (spike > 0) {
+            MetricsSummary baseline = phaseResults.get(stages.get(spike - 1).getName());
+            long spikeEndMillis = runStartMillis + loadProfile.getStageOffsetSeconds(spike + 1) * 1000L;
+            results.setRecoveryTimeMillis(TimeSeriesAnalysis.recoveryTimeMillis(results.getTimeSeries(), spikeEndMillis,
+                    baseline.getResponseTimePercentile(99.0), baseline.getErrorPercentage()));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.automation.performance;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for per-sample result lines, chosen by file extension: {@code .brl} writes the
+ * compact {@link BinaryResultWriter binary log}, anything else a CSV JTL.
+ */
+public interface SampleWriter extends Closeable {
+
+    /**
+     * Append one sample. A negative connect time means it is unknown, as opposed to zero for a
+     * reused connection.
+     */
+    void write(long timeStamp, long elapsedMillis, String label, String responseCode, String responseMessage,
+               String threadName, boolean success, long bytes, int activeThreads, long latencyMillis,
+               long connectMillis) throws IOException;
+
+    static boolean isBinary(String filename) {
+        return filename.endsWith(BinaryResultLog.EXTENSION);
+    }
+
+    static SampleWriter open(String filename) throws IOException {
+        return isBinary(filename) ? new BinaryResultWriter(filename) : new JtlCsvWriter(filename);
+    }
+}
@@ -0,0 +1,86 @@
+package com.automation.performance;
+
+/**
+ * A service-level rule evaluated continuously over a sliding window while a test runs.
+ */
+public class SlaRule {
+
+    /**
+     * Measured quantity of a rule; throughput is a lower bound, everything else an upper bound.
+     */
+    public enum Metric {
+        ERROR_RATE("error rate", "%"),
+        P95_RESPONSE_TIME("p95", "ms"),
+        P99_RESPONSE_TIME("p99", "ms"),
+        THROUGHPUT("throughput", "req/sec");
+
+        private final String displayName;
+        private final String unit;
+
+        Metric(String displayName, String unit) {
+            this.displayName = displayName;
+            this.unit = unit;
+        }
+    }
+
+    private final Metric metric;
+    private final double threshold;
+
+    public SlaRule(Metric metric, double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("SLA threshold must not be negative: " + threshold);
+        }
+        this.metric = metric;
+        this.threshold = threshold;
+    }
+
+    public static SlaRule maxErrorRate(double maxErrorPercentage) {
+        return new SlaRule(Metric.ERROR_RATE, maxErrorPercentage);
+    }
+
+    public static SlaRule maxP95ResponseTime(double maxMillis) {
+        return new SlaRule(Metric.P95_RESPONSE_TIME, maxMillis);
+    }
+
+    public static SlaRule maxP99ResponseTime(double maxMillis) {
+        return new SlaRule(Metric.P99_RESPONSE_TIME, maxMillis);
+    }
+
+    public static SlaRule minThroughput(double minRequestsPerSecond) {
+        return new SlaRule(Metric.THROUGHPUT, minRequestsPerSecond);
+    }
+
+    public Metric getMetric() { return metric; }
+    public double getThreshold() { return threshold; }
+
+    /**
+     * Measure this rule's metric over a window, given as one point spanning the whole window.
+     */
+    public double measure(TimeSeriesPoint window) {
+        switch (metric) {
+            case ERROR_RATE:
+                return window.getErrorPercentage();
+            case P95_RESPONSE_TIME:
+                return window.getP95ResponseTime();
+            case P99_RESPONSE_TIME:
+                return window.getP99ResponseTime();
+            case THROUGHPUT:
+                return window.getThroughputPerSecond();
+            default:
+                throw new IllegalStateException("Unknown SLA metric: " + metric);
+        }
+    }
+
+    public boolean isBreachedBy(double measured) {
+        return metric == Metric.THROUGHPUT ? measured < threshold : measured > threshold;
+    }
+
+    public String format(double value) {
+        return String.format("%.2f %s", value, metric.unit);
+    }
+
+    @Override
+    public String toString() {
+        return metric.displayName + (metric == Metric.THROUGHPUT ? " >= " : " <= ") + format(threshold);
+    }
+}
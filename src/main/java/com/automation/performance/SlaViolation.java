@@ -0,0 +1,31 @@
+package com.automation.performance;
+
+/**
+ * Records which live SLA rule tripped, what was measured and when the run was aborted.
+ * Times are offsets from the start of the run.
+ */
+public class SlaViolation {
+
+    private final SlaRule rule;
+    private final double measuredValue;
+    private final long breachStartMillis;
+    private final long abortedAtMillis;
+
+    public SlaViolation(SlaRule rule, double measuredValue, long breachStartMillis, long abortedAtMillis) {
+        this.rule = rule;
+        this.measuredValue = measuredValue;
+        this.breachStartMillis = breachStartMillis;
+        this.abortedAtMillis = abortedAtMillis;
+    }
+
+    public SlaRule getRule() { return rule; }
+    public double getMeasuredValue() { return measuredValue; }
+    public long getBreachStartMillis() { return breachStartMillis; }
+    public long getAbortedAtMillis() { return abortedAtMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("%s breached (measured %s) from %d ms, aborted at %d ms",
+                rule, rule.format(measuredValue), breachStartMillis, abortedAtMillis);
+    }
+}
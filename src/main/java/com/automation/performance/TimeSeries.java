@@ -0,0 +1,198 @@
+package com.automation.performance;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rolling ring buffer of fixed-width time buckets for a performance run.
+ * Memory is bounded by the capacity: once the ring is full, the oldest interval is evicted,
+ * so a long soak costs the same as a short run. Recording is lock-free; a new bucket is only
+ * allocated when an interval rolls over.
+ */
+public class TimeSeries {
+
+    public static final long DEFAULT_RESOLUTION_MILLIS = 1000;
+    public static final int DEFAULT_CAPACITY = 3600;
+
+    // Per-interval histograms trade precision for memory: ~3 KB per bucket
+    private static final long BUCKET_HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toMicros(1);
+    private static final int BUCKET_SIGNIFICANT_DIGITS = 1;
+
+    private final long resolutionMillis;
+    private final int capacity;
+    private final AtomicReferenceArray<Bucket> slots;
+    private final LongAdder evictedIntervals = new LongAdder();
+    private final LongAdder lateSamples = new LongAdder();
+
+    public TimeSeries() {
+        this(DEFAULT_RESOLUTION_MILLIS, DEFAULT_CAPACITY);
+    }
+
+    public TimeSeries(long resolutionMillis, int capacity) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolutionMillis);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.resolutionMillis = resolutionMillis;
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Record a sample into the interval containing the given timestamp.
+     */
+    public void record(long timestampMillis, long elapsedMicros, boolean success, int activeThreads) {
+        Bucket bucket = bucketFor(timestampMillis);
+        if (bucket == null) {
+            lateSamples.increment();
+            return;
+        }
+        bucket.count.increment();
+        if (!success) {
+            bucket.errors.increment();
+        }
+        bucket.activeThreads.accumulate(activeThreads);
+        bucket.histogram.recordValue(elapsedMicros);
+    }
+
+    /**
+     * Attach a generator health reading to the interval containing the middle of its sampling period.
+     */
+    public void recordHealth(GeneratorHealthSample sample) {
+        Bucket bucket = bucketFor(sample.getStartTimeMillis() + sample.getIntervalMillis() / 2);
+        if (bucket != null) {
+            bucket.health = sample;
+        }
+    }
+
+    private Bucket bucketFor(long timestampMillis) {
+        long interval = Math.floorDiv(timestampMillis, resolutionMillis);
+        int slot = (int) Math.floorMod(interval, (long) capacity);
+
+        while (true) {
+            Bucket current = slots.get(slot);
+            if (current != null && current.interval == interval) {
+                return current;
+            }
+            if (current != null && current.interval > interval) {
+                // Sample belongs to an interval that has already been evicted
+                return null;
+            }
+            Bucket replacement = new Bucket(interval);
+            if (slots.compareAndSet(slot, current, replacement)) {
+                if (current != null) {
+                    evictedIntervals.increment();
+                }
+                return replacement;
+            }
+        }
+    }
+
+    public long getResolutionMillis() { return resolutionMillis; }
+
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Number of intervals dropped from the ring because it was full.
+     */
+    public long getEvictedIntervals() { return evictedIntervals.sum(); }
+
+    /**
+     * Number of samples that arrived for an interval already evicted from the ring.
+     */
+    public long getLateSamples() { return lateSamples.sum(); }
+
+    /**
+     * Snapshot of the interval containing the given timestamp; empty if it has no samples or was evicted.
+     */
+    public TimeSeriesPoint getPoint(long timestampMillis) {
+        long interval = Math.floorDiv(timestampMillis, resolutionMillis);
+        Bucket bucket = slots.get((int) Math.floorMod(interval, (long) capacity));
+        if (bucket == null || bucket.interval != interval) {
+            return new TimeSeriesPoint(interval * resolutionMillis, resolutionMillis, 0, 0, 0,
+                    new LatencyHistogram(BUCKET_HIGHEST_TRACKABLE_VALUE, BUCKET_SIGNIFICANT_DIGITS));
+        }
+        return toPoint(bucket);
+    }
+
+    /**
+     * Snapshot of all retained intervals in chronological order.
+     */
+    public List<TimeSeriesPoint> getPoints() {
+        List<Bucket> buckets = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            Bucket bucket = slots.get(i);
+            if (bucket != null) {
+                buckets.add(bucket);
+            }
+        }
+        buckets.sort(Comparator.comparingLong(bucket -> bucket.interval));
+
+        List<TimeSeriesPoint> points = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets) {
+            points.add(toPoint(bucket));
+        }
+        return points;
+    }
+
+    private TimeSeriesPoint toPoint(Bucket bucket) {
+        return new TimeSeriesPoint(bucket.interval * resolutionMillis, resolutionMillis,
+                bucket.count.sum(), bucket.errors.sum(), (int) bucket.activeThreads.get(),
+                bucket.histogram.copy(), bucket.health);
+    }
+
+    /**
+     * Write time-series points as CSV.
+     */
+    public static void writeCsv(List<TimeSeriesPoint> points, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("timeStamp,intervalMs,samples,errors,throughput,p50,p95,p99,max,activeThreads,"
+                    + "generatorCpu,generatorGcMs,generatorAllocMBps,generatorHeapMB,generatorThreads");
+            writer.newLine();
+            for (TimeSeriesPoint point : points) {
+                writer.write(String.format(Locale.ROOT, "%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%d,",
+                        point.getStartTimeMillis(), point.getIntervalMillis(), point.getSamples(),
+                        point.getErrors(), point.getThroughputPerSecond(), point.getP50ResponseTime(),
+                        point.getP95ResponseTime(), point.getP99ResponseTime(), point.getMaxResponseTime(),
+                        point.getActiveThreads()));
+                GeneratorHealthSample health = point.getGeneratorHealth();
+                // Intervals without a health reading leave the generator columns empty
+                writer.write(health == null ? ",,,," : String.format(Locale.ROOT, "%.1f,%d,%.1f,%d,%d",
+                        health.getProcessCpuPercent(), health.getGcPauseMillis(), health.getAllocationMBPerSecond(),
+                        health.getHeapUsedBytes() / (1024 * 1024), health.getThreadCount()));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final long interval;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAccumulator activeThreads = new LongAccumulator(Math::max, 0);
+        private final LatencyHistogram histogram =
+                new LatencyHistogram(BUCKET_HIGHEST_TRACKABLE_VALUE, BUCKET_SIGNIFICANT_DIGITS);
+        private volatile GeneratorHealthSample health;
+
+        private Bucket(long interval) {
+            this.interval = interval;
+        }
+    }
+}
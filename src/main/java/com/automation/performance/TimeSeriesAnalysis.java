@@ -0,0 +1,129 @@
+package com.automation.performance;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Analysis helpers over the per-interval time series of a run.
+ */
+public final class TimeSeriesAnalysis {
+    
+    /** Recovered once p99 is back within this factor of the baseline p99. */
+    public static final double RECOVERY_LATENCY_TOLERANCE = 1.2;
+    /** Recovered once the error rate is within this many percentage points of the baseline. */
+    public static final double RECOVERY_ERROR_TOLERANCE = 1.0;
+    /** Number of intervals averaged when looking for drift. */
+    public static final int STEADY_STATE_WINDOW = 10;
+    /** Steady once rolling throughput and p99 each stay within this fraction of their maximum. */
+    public static final double STEADY_STATE_TOLERANCE = 0.2;
+    
+    private TimeSeriesAnalysis() {
+    }
+    
+    /**
+     * Time from the given moment until the first interval whose p99 and error rate are back near
+     * the baseline, or -1 if the run never recovered.
+     */
+    public static long recoveryTimeMillis(List<TimeSeriesPoint> points, long fromTimeMillis,
+                                          double baselineP99, double baselineErrorPercentage) {
+        for (TimeSeriesPoint point : points) {
+            if (point.getStartTimeMillis() < fromTimeMillis || point.getSamples() == 0) {
+                continue;
+            }
+            boolean latencyRecovered = point.getP99ResponseTime() <= baselineP99 * RECOVERY_LATENCY_TOLERANCE;
+            boolean errorsRecovered = point.getErrorPercentage() <= baselineErrorPercentage + RECOVERY_ERROR_TOLERANCE;
+            if (latencyRecovered && errorsRecovered) {
+                return point.getStartTimeMillis() + point.getIntervalMillis() - fromTimeMillis;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Index of the first interval from which rolling throughput and p99 stopped drifting and stayed
+     * within the tolerance until the end of the run, or -1 if the run never settled.
+     */
+    public static int steadyStateIndex(List<TimeSeriesPoint> points) {
+        int n = points.size();
+        if (n < STEADY_STATE_WINDOW * 2) {
+            return -1;
+        }
+        double[] throughput = rollingMean(points, TimeSeriesPoint::getThroughputPerSecond);
+        double[] p99 = rollingMean(points, TimeSeriesPoint::getP99ResponseTime);
+        
+        // Walk back from the end while the rolling values stay within the tolerance band
+        double minThroughput = Double.MAX_VALUE, maxThroughput = 0;
+        double minP99 = Double.MAX_VALUE, maxP99 = 0;
+        int steadyFrom = -1;
+        for (int i = n - 1; i >= STEADY_STATE_WINDOW - 1; i--) {
+            minThroughput = Math.min(minThroughput, throughput[i]);
+            maxThroughput = Math.max(maxThroughput, throughput[i]);
+            minP99 = Math.min(minP99, p99[i]);
+            maxP99 = Math.max(maxP99, p99[i]);
+            if (maxThroughput - minThroughput > maxThroughput * STEADY_STATE_TOLERANCE
+                    || maxP99 - minP99 > maxP99 * STEADY_STATE_TOLERANCE) {
+                break;
+            }
+            steadyFrom = i;
+        }
+        
+        // Require at least one full window of steady rolling values
+        if (steadyFrom < 0 || n - steadyFrom < STEADY_STATE_WINDOW) {
+            return -1;
+        }
+        return steadyFrom - STEADY_STATE_WINDOW + 1;
+    }
+    
+    /**
+     * Least-squares slope of the per-interval p99 from the given interval on, in milliseconds per minute.
+     * A sustained positive slope during a constant load points to a leak or a growing backlog.
+     */
+    public static double latencyTrendMillisPerMinute(List<TimeSeriesPoint> points, int fromIndex) {
+        return slopePerMinute(points, fromIndex, TimeSeriesPoint::getP99ResponseTime);
+    }
+    
+    /**
+     * Least-squares slope of the per-interval throughput from the given interval on, in requests/sec per minute.
+     */
+    public static double throughputTrendPerMinute(List<TimeSeriesPoint> points, int fromIndex) {
+        return slopePerMinute(points, fromIndex, TimeSeriesPoint::getThroughputPerSecond);
+    }
+    
+    private static double[] rollingMean(List<TimeSeriesPoint> points, ToDoubleFunction<TimeSeriesPoint> metric) {
+        double[] means = new double[points.size()];
+        double sum = 0;
+        for (int i = 0; i < points.size(); i++) {
+            sum += metric.applyAsDouble(points.get(i));
+            if (i >= STEADY_STATE_WINDOW) {
+                sum -= metric.applyAsDouble(points.get(i - STEADY_STATE_WINDOW));
+            }
+            means[i] = sum / Math.min(i + 1, STEADY_STATE_WINDOW);
+        }
+        return means;
+    }
+    
+    private static double slopePerMinute(List<TimeSeriesPoint> points, int fromIndex,
+                                         ToDoubleFunction<TimeSeriesPoint> metric) {
+        if (fromIndex < 0 || points.size() - fromIndex < 2) {
+            return 0.0;
+        }
+        long origin = points.get(fromIndex).getStartTimeMillis();
+        int count = 0;
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        for (int i = fromIndex; i < points.size(); i++) {
+            TimeSeriesPoint point = points.get(i);
+            if (point.getSamples() == 0) {
+                continue;
+            }
+            double x = (point.getStartTimeMillis() - origin) / 60_000.0;
+            double y = metric.applyAsDouble(point);
+            count++;
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        double denominator = count * sumXX - sumX * sumX;
+        return count < 2 || denominator == 0 ? 0.0 : (count * sumXY - sumX * sumY) / denominator;
+    }
+}
@@ -0,0 +1,87 @@
+package com.automation.performance;
+
+/**
+ * Immutable snapshot of one time-series interval of a performance run.
+ */
+public class TimeSeriesPoint {
+
+    private final long startTimeMillis;
+    private final long intervalMillis;
+    private final long samples;
+    private final long errors;
+    private final double p50ResponseTime;
+    private final double p95ResponseTime;
+    private final double p99ResponseTime;
+    private final double maxResponseTime;
+    private final int activeThreads;
+    private final LatencyHistogram histogram;
+    private final GeneratorHealthSample generatorHealth;
+
+    public TimeSeriesPoint(long startTimeMillis, long intervalMillis, long samples, long errors,
+                           int activeThreads, LatencyHistogram histogram) {
+        this(startTimeMillis, intervalMillis, samples, errors, activeThreads, histogram, null);
+    }
+
+    public TimeSeriesPoint(long startTimeMillis, long intervalMillis, long samples, long errors,
+                           int activeThreads, LatencyHistogram histogram, GeneratorHealthSample generatorHealth) {
+        this.startTimeMillis = startTimeMillis;
+        this.intervalMillis = intervalMillis;
+        this.samples = samples;
+        this.errors = errors;
+        this.activeThreads = activeThreads;
+        this.histogram = histogram;
+        this.generatorHealth = generatorHealth;
+        this.p50ResponseTime = histogram.getValueAtPercentile(50.0) / 1000.0;
+        this.p95ResponseTime = histogram.getValueAtPercentile(95.0) / 1000.0;
+        this.p99ResponseTime = histogram.getValueAtPercentile(99.0) / 1000.0;
+        this.maxResponseTime = histogram.getMaxValue() / 1000.0;
+    }
+
+    /**
+     * A copy of this interval starting the given time later.
+     */
+    public TimeSeriesPoint shift(long offsetMillis) {
+        return new TimeSeriesPoint(startTimeMillis + offsetMillis, intervalMillis, samples, errors, activeThreads,
+                histogram, generatorHealth);
+    }
+
+    public long getStartTimeMillis() { return startTimeMillis; }
+    public long getIntervalMillis() { return intervalMillis; }
+    public long getSamples() { return samples; }
+    public long getErrors() { return errors; }
+    public int getActiveThreads() { return activeThreads; }
+    public double getP50ResponseTime() { return p50ResponseTime; }
+    public double getP95ResponseTime() { return p95ResponseTime; }
+    public double getP99ResponseTime() { return p99ResponseTime; }
+    public double getMaxResponseTime() { return maxResponseTime; }
+
+    /**
+     * Latency histogram of this interval, in microseconds.
+     */
+    public LatencyHistogram getHistogram() { return histogram; }
+
+    /**
+     * Health of the load generator during this interval, or null if it was not sampled.
+     */
+    public GeneratorHealthSample getGeneratorHealth() { return generatorHealth; }
+
+    /**
+     * Combine with the same interval recorded by a concurrent run, e.g. another load generator.
+     * Generator health cannot be added up, so the first reading is kept.
+     */
+    public TimeSeriesPoint merge(TimeSeriesPoint other) {
+        LatencyHistogram merged = histogram.copy();
+        merged.add(other.histogram);
+        return new TimeSeriesPoint(startTimeMillis, intervalMillis, samples + other.samples,
+                errors + other.errors, activeThreads + other.activeThreads, merged,
+                generatorHealth != null ? generatorHealth : other.generatorHealth);
+    }
+
+    public double getThroughputPerSecond() {
+        return intervalMillis <= 0 ? 0.0 : samples * 1000.0 / intervalMillis;
+    }
+
+    public double getErrorPercentage() {
+        return samples == 0 ? 0.0 : errors * 100.0 / samples;
+    }
+}
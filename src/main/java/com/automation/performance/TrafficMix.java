@@ -0,0 +1,128 @@
+package com.automation.performance;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Relative weights of the request types of a plan, keyed by sampler label. With a traffic mix each
+ * iteration of a virtual user sends one request, picked at random in proportion to its weight,
+ * instead of every request in order; e.g. weights 40/40/10/10 give 80% reads.
+ */
+public class TrafficMix {
+
+    private final Map<String, Double> weights;
+    private final double totalWeight;
+
+    private TrafficMix(TrafficMixBuilder builder) {
+        if (builder.weights.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix needs at least one weighted request");
+        }
+        this.weights = Collections.unmodifiableMap(new LinkedHashMap<>(builder.weights));
+        this.totalWeight = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    public static TrafficMixBuilder builder() {
+        return new TrafficMixBuilder();
+    }
+
+    /**
+     * Weights by sampler label, in the order they were given.
+     */
+    public Map<String, Double> getWeights() { return weights; }
+
+    public boolean contains(String label) {
+        return weights.containsKey(label);
+    }
+
+    /**
+     * Weight of a sampler label.
+     */
+    public double getWeight(String label) {
+        Double weight = weights.get(label);
+        if (weight == null) {
+            throw new IllegalArgumentException("No traffic mix weight for sampler: " + label);
+        }
+        return weight;
+    }
+
+    /**
+     * Intended share of a sampler label in percent.
+     */
+    public double getTargetPercentage(String label) {
+        return getWeight(label) * 100.0 / totalWeight;
+    }
+
+    /**
+     * Running totals of the weights of the given labels, in order, for {@link #select(double[])}.
+     */
+    public double[] cumulativeWeights(List<String> labels) {
+        double[] cumulative = new double[labels.size()];
+        double running = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            running += getWeight(labels.get(i));
+            cumulative[i] = running;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Pick an index in proportion to its weight, given as running totals of positive weights.
+     * Uses the calling thread's random generator, so concurrent users never contend.
+     */
+    public static int select(double[] cumulativeWeights) {
+        return select(cumulativeWeights, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Pick an index in proportion to its weight, drawing from the given random generator.
+     */
+    public static int select(double[] cumulativeWeights, Random random) {
+        double point = random.nextDouble(cumulativeWeights[cumulativeWeights.length - 1]);
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (point < cumulativeWeights[middle]) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (String label : weights.keySet()) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(String.format("%s %.1f%%", label, getTargetPercentage(label)));
+        }
+        return text.toString();
+    }
+
+    public static class TrafficMixBuilder {
+        private final Map<String, Double> weights = new LinkedHashMap<>();
+
+        /**
+         * Weight of the requests with the given sampler label, relative to the other weights.
+         */
+        public TrafficMixBuilder weight(String label, double weight) {
+            if (!(weight > 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Traffic mix weight must be positive: " + label + "=" + weight);
+            }
+            weights.put(label, weight);
+            return this;
+        }
+
+        public TrafficMix build() {
+            return new TrafficMix(this);
+        }
+    }
+}
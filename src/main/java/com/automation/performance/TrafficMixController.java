@@ -0,0 +1,69 @@
+package com.automation.performance;
+
+import org.apache.jmeter.control.GenericController;
+import org.apache.jmeter.samplers.Sampler;
+
+/**
+ * JMeter controller that runs one of its children per iteration, chosen by weighted random choice,
+ * like a switch controller whose selection is drawn from a {@link TrafficMix}. Weights are kept in
+ * a property, in child order, so they survive JMeter's per-thread cloning; each clone draws from
+ * its own thread's random generator.
+ */
+public class TrafficMixController extends GenericController {
+
+    private static final String WEIGHTS = "TrafficMixController.weights";
+
+    private transient double[] cumulativeWeights;
+
+    public TrafficMixController() {
+        setName("Traffic Mix");
+    }
+
+    /**
+     * Append the weight of the next child added under this controller.
+     */
+    public void addWeight(double weight) {
+        String weights = getPropertyAsString(WEIGHTS);
+        setProperty(WEIGHTS, weights.isEmpty() ? Double.toString(weight) : weights + "," + weight);
+        cumulativeWeights = null;
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        cumulativeWeights = null;
+    }
+
+    @Override
+    public Sampler next() {
+        // Draw the child once per iteration
+        if (isFirst()) {
+            double[] cumulative = getCumulativeWeights();
+            current = cumulative.length == 0 ? 0 : TrafficMix.select(cumulative);
+        }
+        return super.next();
+    }
+
+    /**
+     * One child per iteration: once it has run, the iteration is over.
+     */
+    @Override
+    protected void incrementCurrent() {
+        current = Integer.MAX_VALUE;
+    }
+
+    private double[] getCumulativeWeights() {
+        if (cumulativeWeights == null) {
+            String weights = getPropertyAsString(WEIGHTS);
+            String[] values = weights.isEmpty() ? new String[0] : weights.split(",");
+            double[] cumulative = new double[Math.min(values.length, getSubControllers().size())];
+            double running = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                running += Double.parseDouble(values[i]);
+                cumulative[i] = running;
+            }
+            cumulativeWeights = cumulative;
+        }
+        return cumulativeWeights;
+    }
+}
@@ -0,0 +1,94 @@
+package com.automation.performance;
+
+/**
+ * Start of a run whose samples are recorded separately and left out of the reported statistics:
+ * JIT compilation, connection setup and TLS handshakes on both sides make the first samples slow.
+ * The window lasts a fixed duration, a fixed number of samples, or until the per-interval median
+ * latency has settled, bounded by a maximum duration.
+ */
+public class WarmUpWindow {
+
+    /** Consecutive intervals whose p50 must agree before an adaptive warm-up ends. */
+    public static final int STABLE_INTERVALS = 3;
+    /** Intervals agree once their p50 values are within this fraction of the highest. */
+    public static final double STABLE_TOLERANCE = 0.2;
+
+    private final long durationMillis;
+    private final long samples;
+    private final boolean untilStable;
+
+    private WarmUpWindow(long durationMillis, long samples, boolean untilStable) {
+        if (durationMillis < 0 || samples < 0) {
+            throw new IllegalArgumentException("Warm-up must not be negative: " + durationMillis + " ms, " + samples + " samples");
+        }
+        this.durationMillis = durationMillis;
+        this.samples = samples;
+        this.untilStable = untilStable;
+    }
+
+    /**
+     * Samples starting within the given time from the start of the run.
+     */
+    public static WarmUpWindow duration(long durationMillis) {
+        return new WarmUpWindow(durationMillis, 0, false);
+    }
+
+    /**
+     * The given number of first samples.
+     */
+    public static WarmUpWindow samples(long samples) {
+        return new WarmUpWindow(0, samples, false);
+    }
+
+    /**
+     * Samples until p50 has held steady for {@link #STABLE_INTERVALS} time-series intervals,
+     * or until the given maximum time from the start of the run.
+     */
+    public static WarmUpWindow untilStable(long maxDurationMillis) {
+        return new WarmUpWindow(maxDurationMillis, 0, true);
+    }
+
+    /**
+     * Length of the window, or its upper bound if it ends adaptively; 0 for a sample-count window.
+     */
+    public long getDurationMillis() { return durationMillis; }
+
+    /**
+     * Number of samples in the window; 0 for a time-based window.
+     */
+    public long getSamples() { return samples; }
+
+    public boolean isUntilStable() { return untilStable; }
+
+    /**
+     * Whether the window contains no samples at all.
+     */
+    public boolean isEmpty() {
+        return durationMillis == 0 && samples == 0;
+    }
+
+    /**
+     * Whether the p50 of the given consecutive intervals agrees within {@link #STABLE_TOLERANCE};
+     * false if any interval has no samples.
+     */
+    public static boolean isMedianStable(TimeSeriesPoint[] intervals) {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (TimeSeriesPoint interval : intervals) {
+            if (interval.getSamples() == 0) {
+                return false;
+            }
+            min = Math.min(min, interval.getP50ResponseTime());
+            max = Math.max(max, interval.getP50ResponseTime());
+        }
+        return max - min <= max * STABLE_TOLERANCE;
+    }
+
+    @Override
+    public String toString() {
+        if (samples > 0) {
+            return samples + " samples";
+        }
+        return untilStable ? "until p50 is stable, at most " + durationMillis + " ms" : durationMillis + " ms";
+    }
+}
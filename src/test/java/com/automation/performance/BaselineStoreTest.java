@@ -0,0 +1,132 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for the run history store and regression detection against it.
+ */
+public class BaselineStoreTest {
+
+    private static final String PLAN = "Nightly Users";
+    private static final String SAMPLER = "GET users";
+
+    @Test(description = "Runs are appended and read back per plan, environment and sampler")
+    public void testRecordAndHistory() throws Exception {
+        Path file = Files.createTempFile("baselines", ".bin");
+        Files.delete(file);
+        BaselineStore store = new BaselineStore(file);
+
+        for (int run = 0; run < 4; run++) {
+            store.record(run(100 + run, 0), "dev");
+        }
+        store.record(run(500, 0), "staging");
+
+        List<BaselineRecord> history = store.history(PLAN, "dev", SAMPLER, 3);
+        assertEquals(history.size(), 3, "History should be limited to the most recent runs");
+        assertEquals(history.get(2).getSummary().getResponseTimePercentile(99.0), 103.0, 1.0);
+        assertEquals(history.get(0).getSummary().getSamples(), 1000);
+        assertEquals(store.history(PLAN, "staging", BaselineRecord.OVERALL_SAMPLER, 10).size(), 1);
+        assertTrue(store.history("Other Plan", "dev", SAMPLER, 10).isEmpty());
+
+        // A record cut off mid-write only loses itself
+        Files.write(file, new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+        assertEquals(new BaselineStore(file).readAll().size(), 10);
+        Files.delete(file);
+    }
+
+    @Test(description = "An append after an interrupted write starts at the end of the last complete record")
+    public void testAppendAfterTruncatedRecord() throws Exception {
+        Path file = Files.createTempFile("baselines", ".bin");
+        Files.delete(file);
+        BaselineStore store = new BaselineStore(file);
+        store.record(run(100, 0), "dev");
+        long complete = Files.size(file);
+        store.record(run(110, 0), "dev");
+
+        // Cut the second run off in the middle of its last record, then record another run
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 7));
+        store.record(run(120, 0), "dev");
+
+        List<BaselineRecord> history = new BaselineStore(file).history(PLAN, "dev", SAMPLER, 10);
+        assertEquals(history.size(), 2, "The run whose sampler record was cut off loses it");
+        assertEquals(history.get(0).getSummary().getResponseTimePercentile(99.0), 100.0, 1.0);
+        assertEquals(history.get(1).getSummary().getResponseTimePercentile(99.0), 120.0, 1.0);
+        assertEquals(new BaselineStore(file).history(PLAN, "dev", BaselineRecord.OVERALL_SAMPLER, 10).size(), 3,
+                "The complete overall record of the interrupted run is kept");
+
+        // A length prefix cut in half is dropped as well
+        Files.write(file, Arrays.copyOf(Files.readAllBytes(file), (int) complete + 2));
+        store.record(run(130, 0), "dev");
+        history = new BaselineStore(file).history(PLAN, "dev", SAMPLER, 10);
+        assertEquals(history.size(), 2);
+        assertEquals(history.get(1).getSummary().getResponseTimePercentile(99.0), 130.0, 1.0);
+        Files.delete(file);
+    }
+
+    @Test(description = "A 20% p99 regression is flagged while normal run-to-run noise is not")
+    public void testRegressionDetection() throws Exception {
+        Path file = Files.createTempFile("baselines", ".bin");
+        Files.delete(file);
+        BaselineStore store = new BaselineStore(file);
+        RegressionDetector detector = new RegressionDetector();
+
+        RegressionReport first = detector.compare(store, run(100, 0), "dev");
+        assertFalse(first.hasBaseline(), "Empty history should not be a baseline");
+
+        int[] p99History = {98, 102, 100, 101, 99};
+        for (int p99 : p99History) {
+            store.record(run(p99, 0), "dev");
+        }
+
+        RegressionReport stable = detector.compare(store, run(103, 0), "dev");
+        assertTrue(stable.hasBaseline());
+        assertEquals(stable.getBaselineRuns(), 5);
+        assertFalse(stable.hasRegressions(), stable.getSummary());
+
+        RegressionReport slower = detector.compare(store, run(120, 0), "dev");
+        assertTrue(slower.hasRegressions(), slower.getSummary());
+        assertTrue(slower.getRegressions().stream()
+                       .anyMatch(regression -> regression.getSampler().equals(SAMPLER)
+                                               && regression.getMetric().startsWith("p99")),
+                   slower.getSummary());
+
+        RegressionReport failing = detector.compare(store, run(100, 50), "dev");
+        assertTrue(failing.getRegressions().stream()
+                       .anyMatch(regression -> regression.getMetric().startsWith("error rate")),
+                   failing.getSummary());
+        Files.delete(file);
+    }
+
+    /**
+     * A run of 1000 samples: 980 at 50 ms and 20 at the given p99.
+     */
+    private static PerformanceResults run(int p99Millis, int errors) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 980; i++) {
+            histogram.recordValue(50_000);
+        }
+        for (int i = 0; i < 20; i++) {
+            histogram.recordValue(p99Millis * 1000L);
+        }
+
+        PerformanceResults results = new PerformanceResults();
+        results.setTestPlanName(PLAN);
+        results.setTotalSamples(1000);
+        results.setErrorCount(errors);
+        results.setAverageResponseTime(histogram.getMean() / 1000.0);
+        results.setThroughputPerSecond(50.0);
+        results.setResponseTimeHistogram(histogram);
+        results.addSamplerResults(new MetricsSummary(SAMPLER, 1000, errors, histogram.getMean() / 1000.0,
+                50.0, p99Millis, 50.0, histogram.copy()));
+        return results;
+    }
+}
@@ -0,0 +1,133 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for the binary result log writer, reader and CSV converter.
+ */
+public class BinaryResultLogTest {
+
+    @Test(description = "Samples written concurrently through a small ring are all logged and read back")
+    public void testConcurrentWrites() throws Exception {
+        Path file = Files.createTempFile("results", BinaryResultLog.EXTENSION);
+        int threads = 8;
+        int samplesPerThread = 20_000;
+        long start = 1_700_000_000_000L;
+
+        try (BinaryResultWriter writer = new BinaryResultWriter(file.toString(), 1024)) {
+            List<Thread> samplers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                Thread sampler = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < samplesPerThread; i++) {
+                            boolean success = i % 100 != 0;
+                            writer.write(start + i, 10 + i % 90, "GET users " + (i % 3), success ? "200" : "503",
+                                    success ? "OK" : "Service Unavailable", "Thread 1-" + thread, success,
+                                    2048, threads, 5, 1);
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                samplers.add(sampler);
+                sampler.start();
+            }
+            for (Thread sampler : samplers) {
+                sampler.join();
+            }
+        }
+
+        AtomicLong failures = new AtomicLong();
+        AtomicLong elapsedSum = new AtomicLong();
+        long samples = BinaryResultLog.read(file, (timeStamp, elapsed, label, code, message, thread, success,
+                                                   bytes, activeThreads, latency, connect) -> {
+            assertTrue(timeStamp >= start && timeStamp < start + samplesPerThread, "Timestamp " + timeStamp);
+            assertTrue(label.startsWith("GET users "), label);
+            assertEquals(bytes, 2048);
+            if (!success) {
+                assertEquals(code, "503");
+                assertEquals(message, "Service Unavailable");
+                failures.incrementAndGet();
+            }
+            elapsedSum.addAndGet(elapsed);
+        });
+
+        assertEquals(samples, (long) threads * samplesPerThread);
+        assertEquals(failures.get(), (long) threads * samplesPerThread / 100);
+        long expectedElapsed = 0;
+        for (int i = 0; i < samplesPerThread; i++) {
+            expectedElapsed += 10 + i % 90;
+        }
+        assertEquals(elapsedSum.get(), expectedElapsed * threads);
+        assertTrue(Files.size(file) < samples * 40, "Log should stay compact: " + Files.size(file) + " bytes");
+        Files.delete(file);
+    }
+
+    @Test(description = "Writes racing close() are either logged or fail, never silently lost")
+    public void testWritesRacingClose() throws Exception {
+        Path file = Files.createTempFile("results", BinaryResultLog.EXTENSION);
+        AtomicLong accepted = new AtomicLong();
+        BinaryResultWriter writer = new BinaryResultWriter(file.toString(), 1024);
+        List<Thread> samplers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread sampler = new Thread(() -> {
+                try {
+                    while (true) {
+                        writer.write(1_700_000_000_000L, 10, "GET users", "200", "OK", "Thread 1-1", true, 2048, 4, 5, 1);
+                        accepted.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    // Closed
+                }
+            });
+            samplers.add(sampler);
+            sampler.start();
+        }
+        Thread.sleep(50);
+        writer.close();
+        for (Thread sampler : samplers) {
+            sampler.join();
+        }
+
+        long samples = BinaryResultLog.read(file, (timeStamp, elapsed, label, code, message, thread, success,
+                                                   bytes, activeThreads, latency, connect) -> { });
+        assertTrue(samples > 0);
+        assertEquals(samples, accepted.get(), "Every accepted write is in the log");
+        assertThrows(IOException.class, () -> writer.write(0, 0, "late", "", "", "", true, 0, 0, 0, 0));
+        Files.delete(file);
+    }
+
+    @Test(description = "A binary log converts to a CSV JTL with the same samples")
+    public void testConvertToCsv() throws Exception {
+        Path file = Files.createTempFile("results", BinaryResultLog.EXTENSION);
+        Path csv = Files.createTempFile("results", ".jtl");
+        try (SampleWriter writer = SampleWriter.open(file.toString())) {
+            assertTrue(writer instanceof BinaryResultWriter);
+            writer.write(1_700_000_000_000L, 120, "POST \"user\", with body", "201", "Created", "Thread 1-1", true, 64, 1, 100, 7);
+            // Gap larger than an int delta is written as a new reference timestamp
+            writer.write(1_800_000_000_000L, 80, "GET users", "500", "Internal Server Error", "Thread 1-2", false, 0, 2, 80, 0);
+        }
+
+        assertEquals(BinaryResultLog.convertToCsv(file, csv), 2);
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(lines.get(0), JtlCsvWriter.HEADER);
+        assertEquals(lines.get(1), "1700000000000,120,\"POST \"\"user\"\", with body\",201,Created,Thread 1-1,true,64,1,1,100,7");
+        assertEquals(lines.get(2), "1800000000000,80,GET users,500,Internal Server Error,Thread 1-2,false,0,2,2,80,0");
+
+        PerformanceResults results = new JtlReader(csv).read();
+        assertEquals(results.getTotalSamples(), 2);
+        assertEquals(results.getErrorCount(), 1);
+        Files.delete(file);
+        Files.delete(csv);
+    }
+}
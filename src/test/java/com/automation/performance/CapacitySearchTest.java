@@ -0,0 +1,117 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for the capacity search, run against a modelled server instead of real load.
+ */
+public class CapacitySearchTest {
+
+    /** Modelled server: 4 workers with a 10 ms service time, so 400 requests/sec at most. */
+    private static final int WORKERS = 4;
+    private static final long SERVICE_MILLIS = 10;
+
+    /**
+     * Closed-model results of the modelled server: latency stays at the service time until users
+     * exceed the workers, then grows with the queue while throughput stays at capacity.
+     */
+    private static PerformanceResults modelledRun(int users, int durationSeconds, boolean warmingUp) {
+        long latencyMicros = Math.max(SERVICE_MILLIS, users * SERVICE_MILLIS / WORKERS) * 1000;
+        double throughput = users * 1_000_000.0 / latencyMicros;
+        TimeSeries timeSeries = new TimeSeries(CapacitySearch.STEP_RESOLUTION_MILLIS, 1000);
+        long intervals = durationSeconds * 1000L / CapacitySearch.STEP_RESOLUTION_MILLIS;
+        for (long interval = 0; interval < intervals; interval++) {
+            // A warming-up run keeps slowing down, so it never settles
+            long elapsed = warmingUp ? latencyMicros * (interval + 1) : latencyMicros;
+            long samples = Math.max(1, Math.round(throughput * CapacitySearch.STEP_RESOLUTION_MILLIS / 1000.0));
+            for (long i = 0; i < samples; i++) {
+                long timestamp = interval * CapacitySearch.STEP_RESOLUTION_MILLIS + i * CapacitySearch.STEP_RESOLUTION_MILLIS / samples;
+                // One slower request in fifty puts p99 a fifth above the median
+                timeSeries.record(timestamp, i % 50 == 49 ? elapsed * 6 / 5 : elapsed, true, users);
+            }
+        }
+        PerformanceResults results = new PerformanceResults();
+        results.getTimeSeries().addAll(timeSeries.getPoints());
+        return results;
+    }
+
+    @Test(description = "Doubling then bisecting finds the most users within the p99 target")
+    public void testFindsKnee() {
+        List<Integer> levels = new ArrayList<>();
+        CapacityReport report = CapacitySearch.builder()
+            .targetP99Millis(100)
+            .maxErrorPercentage(1.0)
+            .maxUsers(1024)
+            .stepSeconds(6)
+            .maxStepSeconds(6)
+            .precision(0)
+            .build()
+            .search((users, seconds) -> {
+                levels.add(users);
+                return modelledRun(users, seconds, false);
+            });
+
+        // p99 of about 1.2 * users * 2.5 ms reaches 100 ms near 33 users
+        assertEquals(levels.subList(0, 7), List.of(1, 2, 4, 8, 16, 32, 64));
+        CapacityStep sustainable = report.getMaxSustainableStep();
+        assertTrue(sustainable.getUsers() >= 28 && sustainable.getUsers() <= 38, report.getSummary());
+        assertTrue(sustainable.getP99ResponseTime() <= 100);
+        assertEquals(report.getBreakingStep().getUsers(), sustainable.getUsers() + 1, "Bisected down to one user");
+        assertTrue(report.getBreakingStep().getP99ResponseTime() > 100);
+        assertEquals(report.getMaxSustainableThroughput(), 400.0, 10.0);
+        assertEquals(report.getQueueingStep().getUsers(), 8, "Latency rises once users outnumber the workers");
+        assertFalse(report.isGeneratorLimited());
+
+        List<CapacityStep> curve = report.getSteps();
+        for (int i = 1; i < curve.size(); i++) {
+            assertTrue(curve.get(i).getUsers() > curve.get(i - 1).getUsers(), "Curve ordered by users");
+            assertTrue(curve.get(i).getP99ResponseTime() >= curve.get(i - 1).getP99ResponseTime());
+        }
+    }
+
+    @Test(description = "A step that has not settled is held longer, up to the maximum hold")
+    public void testHoldsUntilSteady() {
+        List<Integer> holds = new ArrayList<>();
+        CapacityReport report = CapacitySearch.builder()
+            .targetP99Millis(1_000_000)
+            .maxUsers(1)
+            .stepSeconds(6)
+            .maxStepSeconds(20)
+            .build()
+            .search((users, seconds) -> {
+                holds.add(seconds);
+                // Only the longest hold settles
+                return modelledRun(users, seconds, seconds < 20);
+            });
+
+        assertEquals(holds, List.of(6, 12, 20));
+        assertTrue(report.getSteps().get(0).isSteady());
+        assertNull(report.getBreakingStep());
+    }
+
+    @Test(description = "A saturated generator ends the search with a lower bound")
+    public void testStopsOnGeneratorSaturation() {
+        CapacityReport report = CapacitySearch.builder()
+            .targetP99Millis(100)
+            .stepSeconds(6)
+            .maxStepSeconds(6)
+            .build()
+            .search((users, seconds) -> {
+                PerformanceResults results = modelledRun(users, seconds, false);
+                if (users >= 4) {
+                    results.setGeneratorHealth(new GeneratorHealthReport(10, 99, 0, 0, 10, 50, "process CPU 99.0% above 90.0%"));
+                }
+                return results;
+            });
+
+        assertTrue(report.isGeneratorLimited());
+        assertEquals(report.getSteps().size(), 3);
+        assertEquals(report.getMaxSustainableStep().getUsers(), 2);
+        assertNull(report.getBreakingStep());
+    }
+}
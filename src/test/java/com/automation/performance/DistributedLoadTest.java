@@ -0,0 +1,218 @@
+package com.automation.performance;
+
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests for coordinator/worker distributed runs, using loopback workers on this host.
+ */
+public class DistributedLoadTest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DistributedLoadTest.class);
+    private static final String TOKEN = "distributed-test-token";
+    private HttpServer server;
+    private int port;
+    
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/users", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/fail", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        port = server.getAddress().getPort();
+    }
+    
+    @AfterClass
+    public void stopServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+    
+    private DistributedPlan plan(int users, int loops) {
+        return new DistributedPlan("Distributed", users, 0, loops)
+            .withEngine("httpclient")
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET",
+                            Collections.singletonMap("Accept", "application/json"), null)
+            .addHttpRequest("GET fail", "http", "127.0.0.1", port, "/fail", "GET");
+    }
+    
+    @Test(description = "Users are split across workers and results merged exactly")
+    public void testLoopbackWorkers() throws Exception {
+        try (LoadWorker first = new LoadWorker(0, TOKEN).start();
+             LoadWorker second = new LoadWorker(0, TOKEN).start();
+             LoadCoordinator coordinator = new LoadCoordinator(TOKEN)) {
+            coordinator.attach("127.0.0.1", first.getPort()).attach("127.0.0.1", second.getPort());
+            
+            PerformanceResults results = coordinator.execute(plan(11, 3));
+            
+            logger.info(results.getSummary());
+            assertEquals(results.getThreadCount(), 11, "Every user should run on exactly one worker");
+            assertEquals(results.getTotalSamples(), 66);
+            assertEquals(results.getErrorCount(), 33);
+            assertEquals(results.getResponseTimeHistogram().getTotalCount(), 66, "Histograms should be merged");
+            assertEquals(results.getSamplerResults("GET users").getSamples(), 33);
+            assertEquals(results.getSamplerResults("GET fail").getErrors(), 33);
+            assertEquals(results.getTestPlanName(), "Distributed");
+            
+            // Workers serve one session after another
+            assertEquals(coordinator.execute(plan(2, 1)).getTotalSamples(), 4);
+        }
+    }
+    
+    @Test(description = "A worker listens on loopback and refuses plans from coordinators without its token")
+    public void testWorkerRequiresToken() throws Exception {
+        try (LoadWorker worker = new LoadWorker(0, TOKEN).start();
+             LoadCoordinator coordinator = new LoadCoordinator("wrong-token")) {
+            assertTrue(worker.getAddress().isLoopbackAddress(), "Workers bind to loopback by default");
+            coordinator.attach("127.0.0.1", worker.getPort());
+            
+            try {
+                coordinator.execute(plan(2, 1));
+                fail("A coordinator with the wrong token must be refused");
+            } catch (RuntimeException e) {
+                assertTrue(String.valueOf(e.getCause()).contains("Unauthorized"), String.valueOf(e.getCause()));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new LoadWorker(0, ""));
+    }
+    
+    @Test(description = "Local worker processes are started, used and stopped")
+    public void testLocalWorkerProcesses() {
+        try (LoadCoordinator coordinator = new LoadCoordinator().startLocalWorkers(2)) {
+            assertEquals(coordinator.getWorkerCount(), 2);
+            
+            PerformanceResults results = coordinator.execute(plan(4, 2));
+            
+            logger.info(results.getSummary());
+            assertEquals(results.getTotalSamples(), 16);
+            assertEquals(results.getErrorCount(), 8);
+        }
+    }
+    
+    @Test(description = "Time series of a worker whose clock is behind line up once moved onto the coordinator's clock")
+    public void testClockSkewedTimeSeries() {
+        ResultAggregator onTime = new ResultAggregator();
+        onTime.record("GET users", 10_200, 20_000, true, 1, null);
+        PerformanceResults merged = new PerformanceResults();
+        onTime.populate(merged, 1_000);
+        
+        // The same second on a host whose clock is 3 s behind, measured with 20 ms of message latency
+        ResultAggregator behind = new ResultAggregator();
+        behind.record("GET users", 7_300, 20_000, true, 1, null);
+        PerformanceResults skewed = new PerformanceResults();
+        behind.populate(skewed, 1_000);
+        skewed.shiftTimeSeries(3_020);
+        
+        merged.merge(skewed);
+        assertEquals(merged.getTimeSeries().size(), 1, "Both samples fall in the same interval: " + merged.getTimeSeries());
+        assertEquals(merged.getTimeSeries().get(0).getStartTimeMillis(), 10_000);
+        assertEquals(merged.getTimeSeries().get(0).getSamples(), 2);
+    }
+    
+    @Test(description = "Results survive the wire format unchanged")
+    public void testResultEncoding() throws Exception {
+        ResultAggregator aggregator = new ResultAggregator();
+        aggregator.record("GET users", 1_000, 20_000, true, 2, null);
+        aggregator.record("GET fail", 1_500, 40_000, false, 2, "500 Internal Server Error");
+        aggregator.recordTimings("GET users", 2_000, 15_000, 20_000);
+        PerformanceResults original = new PerformanceResults();
+        aggregator.populate(original, 1_000);
+        original.setGeneratorHealth(new GeneratorHealthReport(3, 97.5, 120, 250.0, 40.0, 64, "process CPU 97.5% above 90.0% for 3 intervals"));
+        original.setTargetThroughput(50.0);
+        original.setDelayedRequests(7);
+        original.setDroppedRequests(2);
+        original.setConnectionsOpened(4);
+        original.setConnectionsReused(96);
+        original.setTotalConnectTimeMillis(40);
+        original.setTrafficMix(TrafficMix.builder().weight("GET users", 3).weight("GET fail", 1).build());
+        original.setWarmUpResults(new MetricsSummary("Warm-up", 5, 1, 80.0, 60.0, 100.0, 2.5, new LatencyHistogram()));
+        original.setWarmUpTimeMillis(2_000);
+        original.addWarmUpError("Connection reset (1 samples)");
+        original.setSlaViolation(new SlaViolation(SlaRule.maxErrorRate(5.0), 12.5, 3_000, 8_000));
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DistributedProtocol.writeResults(new DataOutputStream(bytes), original);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        DistributedProtocol.expect(in, DistributedProtocol.RESULT);
+        PerformanceResults decoded = DistributedProtocol.readResults(in);
+        
+        assertEquals(decoded.getTotalSamples(), 2);
+        assertEquals(decoded.getErrorCount(), 1);
+        assertEquals(decoded.getP99ResponseTime(), original.getP99ResponseTime(), 0.001);
+        assertEquals(decoded.getSamplerResults().keySet(), original.getSamplerResults().keySet());
+        assertEquals(decoded.getTimeSeries().size(), original.getTimeSeries().size());
+        assertEquals(decoded.getErrors(), original.getErrors());
+        assertTrue(decoded.isGeneratorSaturated());
+        assertEquals(decoded.getGeneratorHealth().getSaturationReason(), original.getGeneratorHealth().getSaturationReason());
+        assertEquals(decoded.getGeneratorHealth().getPeakThreadCount(), 64);
+        assertEquals(decoded.getLatencyBreakdown("GET users").getDownloadPercentile(50.0),
+                original.getLatencyBreakdown("GET users").getDownloadPercentile(50.0), 0.001);
+        assertEquals(decoded.getTargetThroughput(), 50.0, 0.001);
+        assertEquals(decoded.getDelayedRequests(), 7);
+        assertEquals(decoded.getDroppedRequests(), 2);
+        assertEquals(decoded.getConnectionsOpened(), 4);
+        assertEquals(decoded.getConnectionsReused(), 96);
+        assertEquals(decoded.getTotalConnectTimeMillis(), 40);
+        assertEquals(decoded.getTrafficMix().getTargetPercentage("GET users"), 75.0, 0.001);
+        assertEquals(decoded.getWarmUpResults().getSamples(), 5);
+        assertEquals(decoded.getWarmUpTimeMillis(), 2_000);
+        assertEquals(decoded.getWarmUpErrors(), original.getWarmUpErrors());
+        assertTrue(decoded.isAborted());
+        assertEquals(decoded.getSlaViolation().getRule().getMetric(), SlaRule.Metric.ERROR_RATE);
+        assertEquals(decoded.getSlaViolation().getMeasuredValue(), 12.5, 0.001);
+    }
+    
+    @Test(description = "Plans carry the engine settings and bodies beyond 64 KB over the wire")
+    public void testPlanEncoding() throws Exception {
+        String body = "x".repeat(100_000);
+        DistributedPlan original = new DistributedPlan("Settings", 8, 2, 3)
+            .withConnectionSettings(ConnectionSettings.builder().keepAlive(false).maxConnections(4).idleTimeoutMillis(5_000).build())
+            .withTrafficMix(TrafficMix.builder().weight("POST big", 1).weight("GET users", 3).build())
+            .withWarmUp(WarmUpWindow.untilStable(10_000))
+            .withLiveSla(5, 10, List.of(SlaRule.maxP99ResponseTime(800), SlaRule.minThroughput(2.5)))
+            .addHttpRequest("POST big", "http", "127.0.0.1", port, "/users", "POST", null, body)
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET");
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DistributedProtocol.writePlan(new DataOutputStream(bytes), original, 3);
+        DistributedPlan decoded = DistributedProtocol.readPlan(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        
+        assertEquals(decoded.getThreadCount(), 3);
+        assertEquals(decoded.getRequests().get(0).getRequestBody(), body);
+        assertNull(decoded.getRequests().get(1).getRequestBody());
+        assertFalse(decoded.getConnectionSettings().isKeepAlive());
+        assertEquals(decoded.getConnectionSettings().getMaxConnections(), 4);
+        assertEquals(decoded.getConnectionSettings().getIdleTimeoutMillis(), 5_000);
+        assertEquals(decoded.getTrafficMix().getWeights(), original.getTrafficMix().getWeights());
+        assertTrue(decoded.getWarmUp().isUntilStable());
+        assertEquals(decoded.getWarmUp().getDurationMillis(), 10_000);
+        assertEquals(decoded.getLiveSlaWindowSeconds(), 5);
+        assertEquals(decoded.getLiveSlaGracePeriodSeconds(), 10);
+        assertEquals(decoded.getLiveSlaRules().size(), 2);
+        assertEquals(decoded.getLiveSlaRules().get(1).getMetric(), SlaRule.Metric.THROUGHPUT);
+        assertEquals(decoded.getLiveSlaRules().get(1).getThreshold(), 2.5, 0.001);
+    }
+}
@@ -0,0 +1,75 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for the load generator's self-health monitoring.
+ */
+public class GeneratorHealthMonitorTest {
+
+    @Test(description = "Health readings are attached to the time series and exported with it")
+    public void testSamplesRecordedInTimeSeries() throws Exception {
+        TimeSeries timeSeries = new TimeSeries(100, 100);
+        GeneratorHealthMonitor monitor = new GeneratorHealthMonitor();
+        monitor.start(timeSeries);
+        long deadline = System.currentTimeMillis() + 500;
+        long spin = 0;
+        while (System.currentTimeMillis() < deadline) {
+            timeSeries.record(System.currentTimeMillis(), 1_000, true, 1);
+            spin += String.valueOf(spin).length();
+        }
+        GeneratorHealthReport report = monitor.stop();
+
+        assertTrue(report.getSampleCount() >= 3, "Expected a reading per interval, got " + report.getSampleCount());
+        assertTrue(report.getPeakCpuPercent() > 0, "A busy loop should show up as CPU");
+        assertTrue(report.getPeakThreadCount() > 0);
+
+        List<TimeSeriesPoint> points = timeSeries.getPoints();
+        assertTrue(points.stream().anyMatch(point -> point.getGeneratorHealth() != null), "No interval carries health");
+
+        Path file = Files.createTempFile("timeseries", ".csv");
+        try {
+            TimeSeries.writeCsv(points, file);
+            List<String> lines = Files.readAllLines(file);
+            assertTrue(lines.get(0).endsWith(",generatorCpu,generatorGcMs,generatorAllocMBps,generatorHeapMB,generatorThreads"));
+            assertEquals(lines.get(1).split(",", -1).length, 15);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(description = "Sustained breaches mark the generator saturated and the run unjudgeable")
+    public void testSaturationDetected() throws Exception {
+        // Any heap in use exceeds a 0.001% threshold, so every interval breaches
+        GeneratorHealthMonitor monitor = new GeneratorHealthMonitor(GeneratorHealthMonitor.DEFAULT_MAX_CPU_PERCENT,
+                GeneratorHealthMonitor.DEFAULT_MAX_GC_PAUSE_PERCENT, 0.001);
+        monitor.start(new TimeSeries(100, 100));
+        Thread.sleep(100 * (GeneratorHealthMonitor.SUSTAINED_SAMPLES + 2));
+        GeneratorHealthReport report = monitor.stop();
+
+        assertTrue(report.isGeneratorSaturated());
+        assertTrue(report.getSaturationReason().startsWith("heap"), report.getSaturationReason());
+
+        PerformanceResults results = new PerformanceResults();
+        results.setGeneratorHealth(report);
+        assertTrue(results.isGeneratorSaturated());
+        assertTrue(results.getSummary().contains("WARNING: generator saturated"));
+
+        // A healthy worker merged into a saturated run does not clear the warning
+        PerformanceResults merged = new PerformanceResults();
+        merged.setGeneratorHealth(new GeneratorHealthReport(1, 10, 0, 1, 10, 20, null));
+        merged.merge(results);
+        assertTrue(merged.isGeneratorSaturated());
+    }
+
+    @Test(description = "Thresholds must be positive")
+    public void testInvalidThresholds() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorHealthMonitor(0, 10, 90));
+    }
+}
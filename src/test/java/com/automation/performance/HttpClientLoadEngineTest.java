@@ -0,0 +1,339 @@
+package com.automation.performance;
+
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests for the HttpClient-based load engine against a local HTTP server.
+ */
+public class HttpClientLoadEngineTest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientLoadEngineTest.class);
+    private final Set<String> receivedBodies = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger slowInFlight = new AtomicInteger();
+    private final AtomicInteger slowMaxInFlight = new AtomicInteger();
+    private HttpServer server;
+    private int port;
+    
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/users", exchange -> {
+            byte[] body = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/echo", exchange -> {
+            receivedBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(201, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            slowMaxInFlight.accumulateAndGet(slowInFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowInFlight.decrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/stream", exchange -> {
+            // Headers go out at once, the body only after a pause
+            exchange.sendResponseHeaders(200, 0);
+            exchange.getResponseBody().flush();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseBody().write("[{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+            exchange.close();
+        });
+        server.createContext("/fail", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.start();
+        port = server.getAddress().getPort();
+    }
+    
+    @AfterClass
+    public void stopServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+    
+    @Test(description = "Closed-model run aggregates every sample per sampler")
+    public void testClosedModel() throws Exception {
+        Path jtl = Files.createTempFile("httpclient", ".jtl");
+        
+        PerformanceResults results = LoadEngineType.fromName("httpclient").create()
+            .createTestPlan("HttpClient Closed Model", 20, 1, 5)
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .addHttpRequest("GET fail", "http", "127.0.0.1", port, "/fail", "GET")
+            .addResultCollector(jtl.toString())
+            .execute();
+        
+        logger.info(results.getSummary());
+        assertEquals(results.getTotalSamples(), 200);
+        assertEquals(results.getErrorCount(), 100);
+        assertEquals(results.getSamplerResults("GET users").getErrors(), 0);
+        assertEquals(results.getSamplerResults("GET fail").getErrors(), 100);
+        assertTrue(results.getThroughputPerSecond() > 0, "Throughput should be computed");
+        
+        List<String> lines = Files.readAllLines(jtl);
+        assertEquals(lines.get(0), JtlCsvWriter.HEADER);
+        assertEquals(lines.size(), 201, "One JTL line per sample plus header");
+        assertTrue(lines.get(1).endsWith(","), "Unknown connect time is left empty: " + lines.get(1));
+        
+        PerformanceResults reread = new JtlReader(jtl).read();
+        assertEquals(reread.getLatencyBreakdown("GET users").getConnectHistogram().getTotalCount(), 0,
+                "An empty Connect field is not read back as a reused connection");
+        Files.deleteIfExists(jtl);
+    }
+    
+    @Test(description = "A .brl result file gets the binary log with one record per sample")
+    public void testBinaryResultLog() throws Exception {
+        Path log = Files.createTempFile("httpclient", BinaryResultLog.EXTENSION);
+        
+        PerformanceResults results = new HttpClientLoadEngine()
+            .createTestPlan("HttpClient Binary Log", 10, 0, 5)
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .addResultCollector(log.toString())
+            .execute();
+        
+        long logged = BinaryResultLog.read(log, (timeStamp, elapsed, label, code, message, thread, success,
+                                                 bytes, activeThreads, latency, connect) -> {
+            assertEquals(label, "GET users");
+            assertEquals(connect, -1, "The JDK client does not report connect time");
+        });
+        assertEquals(logged, results.getTotalSamples());
+        Files.deleteIfExists(log);
+    }
+    
+    @Test(description = "A payload pool gives every request its own body")
+    public void testPayloadPool() {
+        try (PayloadPool payloads = PayloadPool.generate(100,
+                index -> ("{\"id\":" + index + "}").getBytes(StandardCharsets.UTF_8))) {
+            PerformanceResults results = new HttpClientLoadEngine()
+                .createTestPlan("HttpClient Payload Pool", 10, 0, 10)
+                .addHttpRequestWithPayloads("POST echo", "http", "127.0.0.1", port, "/echo", "POST",
+                                            Map.of("Content-Type", "application/json"), payloads)
+                .execute();
+            
+            assertEquals(results.getTotalSamples(), 100);
+            assertEquals(results.getErrorCount(), 0);
+            assertEquals(receivedBodies.size(), 100, "Every request should carry a distinct payload");
+            assertTrue(receivedBodies.contains("{\"id\":99}"));
+        }
+    }
+    
+    @Test(description = "A connection limit caps requests in flight without losing any")
+    public void testConnectionLimit() {
+        PerformanceResults results = new HttpClientLoadEngine()
+            .withConnectionSettings(ConnectionSettings.builder().maxConnections(3).build())
+            .createTestPlan("HttpClient Connection Limit", 12, 0, 5)
+            .addHttpRequest("GET slow", "http", "127.0.0.1", port, "/slow", "GET")
+            .execute();
+        
+        assertEquals(results.getTotalSamples(), 60);
+        assertEquals(results.getErrorCount(), 0);
+        assertTrue(slowMaxInFlight.get() <= 3, "At most 3 requests in flight, saw " + slowMaxInFlight.get());
+    }
+    
+    @Test(description = "Response time is split into time to first byte and download per sampler")
+    public void testLatencyBreakdown() {
+        PerformanceResults results = new HttpClientLoadEngine()
+            .createTestPlan("HttpClient Latency Breakdown", 4, 0, 5)
+            .addHttpRequest("GET stream", "http", "127.0.0.1", port, "/stream", "GET")
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .execute();
+        
+        LatencyBreakdown stream = results.getLatencyBreakdown("GET stream");
+        assertEquals(stream.getDownloadHistogram().getTotalCount(), 20);
+        assertTrue(stream.getDownloadPercentile(50.0) >= 90, "Body pause should show as download: " + stream);
+        assertTrue(stream.getTimeToFirstBytePercentile(50.0) < 50, "Headers arrive before the pause: " + stream);
+        assertEquals(stream.getConnectHistogram().getTotalCount(), 0, "The JDK client does not report connect time");
+        assertTrue(results.getLatencyBreakdown("GET users").getDownloadPercentile(50.0) < stream.getDownloadPercentile(50.0),
+                results.getSummary());
+        assertTrue(results.getSummary().contains("Latency Breakdown:"));
+    }
+    
+    @Test(description = "Duration-driven run stops at the wall-clock deadline")
+    public void testDurationPlan() {
+        PerformanceResults results = new HttpClientLoadEngine()
+            .createDurationTestPlan("HttpClient Duration", 4, 0, 2)
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .execute();
+        
+        logger.info(results.getSummary());
+        assertTrue(results.getTotalExecutionTime() >= 2_000, "Run should last until the deadline");
+        assertTrue(results.getTotalExecutionTime() < 5_000, "Run should stop shortly after the deadline");
+        assertTrue(results.getTotalSamples() > 4, "Users should loop until the deadline");
+    }
+    
+    @Test(description = "Asynchronous run completes a future and streams live progress")
+    public void testAsyncExecutionWithProgress() throws Exception {
+        List<ProgressSnapshot> snapshots = new CopyOnWriteArrayList<>();
+        
+        CompletableFuture<PerformanceResults> future = new HttpClientLoadEngine()
+            .onProgress(snapshots::add)
+            .createDurationTestPlan("HttpClient Async", 4, 0, 3)
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .executeAsync();
+        assertFalse(future.isDone(), "executeAsync should not block");
+        
+        PerformanceResults results = future.get(30, TimeUnit.SECONDS);
+        
+        logger.info(results.getSummary());
+        assertTrue(snapshots.size() >= 2, "Snapshots should be pushed while running: " + snapshots.size());
+        assertTrue(snapshots.stream().anyMatch(snapshot -> snapshot.getRequestsPerSecond() > 0),
+                   "Interval throughput should be reported: " + snapshots);
+        ProgressSnapshot last = snapshots.get(snapshots.size() - 1);
+        assertTrue(last.isFinished(), "Final snapshot should be marked finished");
+        assertEquals(last.getTotalSamples(), results.getTotalSamples());
+    }
+    
+    @Test(description = "A breached live SLA aborts the run early and is reported in the results")
+    public void testLiveSlaAbort() {
+        PerformanceResults results = new HttpClientLoadEngine()
+            .withLiveSla(1, 1, List.of(SlaRule.maxErrorRate(10)))
+            .createDurationTestPlan("HttpClient Live SLA", 2, 0, 20)
+            .addHttpRequest("GET fail", "http", "127.0.0.1", port, "/fail", "GET")
+            .execute();
+        
+        logger.info(results.getSummary());
+        assertTrue(results.isAborted(), "Run should be aborted by the error rate rule");
+        assertEquals(results.getSlaViolation().getRule().getMetric(), SlaRule.Metric.ERROR_RATE);
+        assertTrue(results.getTotalExecutionTime() < 10_000,
+                   "Run should stop well before its deadline: " + results.getTotalExecutionTime() + " ms");
+    }
+    
+    @Test(description = "Open-model run issues requests at the target rate")
+    public void testOpenModel() {
+        PerformanceResults results = new HttpClientLoadEngine()
+            .createArrivalRateTestPlan("HttpClient Open Model", 50.0, 2, 10)
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .execute();
+        
+        logger.info(results.getSummary());
+        assertEquals(results.getTargetThroughput(), 50.0, 0.001);
+        assertEquals(results.getTotalSamples() + results.getDroppedRequests(), 100, 2);
+        assertEquals(results.getErrorCount(), 0);
+    }
+    
+    @Test(description = "At the concurrency cap, late requests are delayed and those past the allowed lag dropped")
+    public void testOpenModelLag() {
+        // One request in flight at a time, each taking over 100 ms, against a slot every 10 ms
+        PerformanceResults results = new HttpClientLoadEngine()
+            .createArrivalRateTestPlan("HttpClient Open Model Lag", 100.0, 1, 1)
+            .addHttpRequest("GET stream", "http", "127.0.0.1", port, "/stream", "GET")
+            .execute();
+        
+        logger.info(results.getSummary());
+        assertEquals(results.getTotalSamples() + results.getDroppedRequests(), 100, 1, "Every slot is sent or dropped");
+        assertTrue(results.getDroppedRequests() > 50, "Slots that wait past the allowed lag are dropped: " + results.getDroppedRequests());
+        assertTrue(results.getDelayedRequests() >= results.getTotalSamples() - 2,
+                "Requests that waited for the cap are delayed: " + results.getDelayedRequests() + " of " + results.getTotalSamples());
+    }
+    
+    @Test(description = "Load profile stages run back to back and are reported per phase")
+    public void testLoadProfile() {
+        LoadProfile profile = LoadProfile.builder()
+            .stage("warm", 2, 0, 1)
+            .stage("peak", 8, 0, 1)
+            .stage("cool", 2, 0, 1)
+            .build();
+        
+        PerformanceResults results = new HttpClientLoadEngine()
+            .createLoadProfileTestPlan("HttpClient Load Profile", profile)
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .execute();
+        
+        logger.info(results.getSummary());
+        assertEquals(results.getThreadCount(), 8);
+        assertTrue(results.getTotalExecutionTime() >= 3_000, "Run should last for every stage");
+        assertEquals(results.getPhaseResults().size(), 3);
+        long phaseSamples = 0;
+        for (MetricsSummary phase : results.getPhaseResults().values()) {
+            assertTrue(phase.getSamples() > 0, "Every phase should have samples: " + phase);
+            phaseSamples += phase.getSamples();
+        }
+        assertEquals(phaseSamples, results.getTotalSamples());
+        assertTrue(results.getSummary().contains("Recovery Time"), "A spike profile reports recovery");
+    }
+    
+    @Test(description = "A traffic mix sends one weighted request per iteration and reports the realised mix")
+    public void testTrafficMix() {
+        PerformanceResults results = new HttpClientLoadEngine()
+            .createTestPlan("HttpClient Traffic Mix", 20, 0, 100)
+            .withTrafficMix(TrafficMix.builder().weight("GET users", 80).weight("GET users again", 20).build())
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .addHttpRequest("GET users again", "http", "127.0.0.1", port, "/users", "GET")
+            .execute();
+        
+        logger.info(results.getSummary());
+        assertEquals(results.getTotalSamples(), 2000, "One request per iteration");
+        assertEquals(results.getRealisedMixPercentage("GET users"), 80.0, 3.0);
+        assertEquals(results.getRealisedMixPercentage("GET users again"), 20.0, 3.0);
+        assertTrue(results.getSummary().contains("GET users again: target 20.00%"));
+    }
+    
+    @Test(description = "Samples of the warm-up window are reported apart from the results")
+    public void testWarmUp() {
+        PerformanceResults results = new HttpClientLoadEngine()
+            .withWarmUp(WarmUpWindow.samples(20))
+            .createTestPlan("HttpClient Warm-up", 5, 0, 10)
+            .addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET")
+            .execute();
+        
+        assertEquals(results.getTotalSamples(), 30);
+        assertEquals(results.getSamplerResults("GET users").getSamples(), 30);
+        assertEquals(results.getWarmUpResults().getSamples(), 20);
+        assertTrue(results.getWarmUpTimeMillis() >= 0);
+    }
+    
+    @Test(description = "Every request of a traffic mix needs a weight")
+    public void testTrafficMixRequiresWeight() {
+        HttpClientLoadEngine engine = new HttpClientLoadEngine().createTestPlan("HttpClient Traffic Mix", 1, 0, 1);
+        engine.withTrafficMix(TrafficMix.builder().weight("GET users", 1).build());
+        assertThrows(IllegalArgumentException.class,
+            () -> engine.addHttpRequest("POST echo", "http", "127.0.0.1", port, "/echo", "POST"));
+        engine.addHttpRequest("GET users", "http", "127.0.0.1", port, "/users", "GET");
+        assertThrows(IllegalStateException.class,
+            () -> engine.withTrafficMix(TrafficMix.builder().weight("GET users", 1).build()));
+        assertThrows(IllegalArgumentException.class, () -> TrafficMix.builder().weight("GET users", 0));
+    }
+    
+    @Test(description = "Engine type names resolve to implementations")
+    public void testEngineTypes() {
+        assertTrue(LoadEngineType.fromName(null).create() instanceof JMeterTestEngine);
+        assertTrue(LoadEngineType.fromName("JMeter").create() instanceof JMeterTestEngine);
+        assertTrue(LoadEngineType.fromName("http-client").create() instanceof HttpClientLoadEngine);
+    }
+}
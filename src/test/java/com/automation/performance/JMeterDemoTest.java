@@ -2,20 +2,37 @@ package com.automation.performance;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.testng.Assert.*;
 
 /**
  * Simple JMeter demonstration test that doesn't depend on external APIs.
- * Shows basic JMeter engine functionality.
+ * Shows basic JMeter engine functionality against an embedded loopback server.
  */
 public class JMeterDemoTest {
     
     private static final Logger logger = LoggerFactory.getLogger(JMeterDemoTest.class);
+    private LoopbackServer server;
+    
+    @BeforeClass
+    public void startServer() {
+        server = new LoopbackServer().start();
+    }
+    
+    @AfterClass
+    public void stopServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
     
     @Test(description = "Demonstrate JMeter engine initialization and basic functionality")
     public void testJMeterEngineBasics() {
@@ -29,12 +46,12 @@ public class JMeterDemoTest {
             logger.info("Creating test plan...");
             engine.createTestPlan("Demo Test Plan", 2, 5, 1);
             
-            // Add a simple HTTP request (using httpbin.org which is reliable)
+            // Add a simple HTTP request against the loopback server
             Map<String, String> headers = new HashMap<>();
             headers.put("Accept", "application/json");
             headers.put("User-Agent", "JMeter-Demo");
             
-            engine.addHttpRequest("Demo Request", "https", "httpbin.org", 443, "/get", "GET", headers, null);
+            engine.addHttpRequest("Demo Request", "http", server.getHost(), server.getPort(), "/users", "GET", headers, null);
             engine.addResultCollector("target/jmeter-demo-results.jtl");
             
             // Execute the test
@@ -47,6 +64,7 @@ public class JMeterDemoTest {
             assertEquals(results.getThreadCount(), 2, "Thread count should match");
             assertEquals(results.getLoopCount(), 1, "Loop count should match");
             assertTrue(results.getTotalExecutionTime() > 0, "Execution time should be positive");
+            assertNotNull(results.getSamplerResults("Demo Request"), "Sampler breakdown should be present");
             
             logger.info("JMeter test completed successfully!");
             logger.info("Results summary: {}", results.getSummary());
@@ -83,6 +101,49 @@ public class JMeterDemoTest {
         }
     }
     
+    @Test(description = "Engines share one warm JMeter runtime and can run plans concurrently", priority = 1)
+    public void testSharedRuntime() {
+        JMeterRuntime runtime = JMeterRuntime.get();
+        long enginesBefore = runtime.getEnginesCreated();
+        
+        // Nothing listens on the discard port, so samples fail fast without leaving the machine
+        CompletableFuture<PerformanceResults> first = new JMeterTestEngine()
+            .createTestPlan("Concurrent Plan A", 2, 0, 3)
+            .addHttpRequest("Request A", "http", "127.0.0.1", 9, "/a", "GET")
+            .executeAsync();
+        CompletableFuture<PerformanceResults> second = new JMeterTestEngine()
+            .createTestPlan("Concurrent Plan B", 2, 0, 3)
+            .addHttpRequest("Request B", "http", "127.0.0.1", 9, "/b", "GET")
+            .executeAsync();
+        
+        PerformanceResults resultsA = first.join();
+        PerformanceResults resultsB = second.join();
+        assertSame(JMeterRuntime.get(), runtime, "Runtime should be initialized once per process");
+        assertEquals(runtime.getEnginesCreated(), enginesBefore + 2, "Each run should get its own engine");
+        assertEquals(resultsA.getTotalSamples(), 6);
+        assertEquals(resultsB.getTotalSamples(), 6);
+        assertNotNull(resultsA.getSamplerResults("Request A"));
+        assertNull(resultsA.getSamplerResults("Request B"), "Runs should not see each other's samples");
+        assertTrue(resultsB.getStartupTimeMillis() >= 0);
+        logger.info("Runtime configuration {} ms, warm-up {} ms, warm startup {} ms",
+                   runtime.getInitializationMillis(), runtime.getWarmUpMillis(), resultsB.getStartupTimeMillis());
+    }
+    
+    @Test(description = "A traffic mix controller runs one weighted sampler per iteration", priority = 1)
+    public void testTrafficMix() {
+        PerformanceResults results = new JMeterTestEngine()
+            .createTestPlan("Traffic Mix Plan", 2, 0, 100)
+            .withTrafficMix(TrafficMix.builder().weight("Read", 3).weight("Write", 1).build())
+            .addHttpRequest("Read", "http", "127.0.0.1", 9, "/read", "GET")
+            .addHttpRequest("Write", "http", "127.0.0.1", 9, "/write", "POST")
+            .execute();
+        
+        logger.info(results.getSummary());
+        assertEquals(results.getTotalSamples(), 200, "One sampler per iteration");
+        assertEquals(results.getRealisedMixPercentage("Read"), 75.0, 12.0);
+        assertEquals(results.getTrafficMix().getTargetPercentage("Write"), 25.0, 0.001);
+    }
+    
     @Test(description = "Test PerformanceResults class functionality", priority = 0)
     public void testPerformanceResults() {
         logger.info("=== Testing PerformanceResults Class ===");
@@ -134,4 +195,202 @@ public class JMeterDemoTest {
         
         logger.info("PerformanceResults test completed successfully");
     }
-} 
\ No newline at end of file
+    
+    @Test(description = "Warm-up samples are kept out of the statistics but stay in the time series", priority = 0)
+    public void testWarmUpWindow() {
+        ResultAggregator byDuration = new ResultAggregator();
+        byDuration.markRunStart(10_000);
+        byDuration.setWarmUp(WarmUpWindow.duration(2_000));
+        for (int i = 0; i < 50; i++) {
+            // Cold samples are ten times slower
+            byDuration.record("GET", 10_000 + i * 100L, i < 20 ? 100_000 : 10_000, true, 1, null);
+        }
+        PerformanceResults results = new PerformanceResults();
+        byDuration.populate(results, 5_000);
+        assertEquals(results.getTotalSamples(), 30);
+        assertEquals(results.getAverageResponseTime(), 10.0, 0.01);
+        assertEquals(results.getSamplerResults("GET").getSamples(), 30);
+        assertEquals(results.getWarmUpResults().getSamples(), 20);
+        assertEquals(results.getWarmUpResults().getAverageResponseTime(), 100.0, 0.01);
+        assertEquals(results.getWarmUpTimeMillis(), 2_000);
+        assertEquals(results.getTimeSeries().stream().mapToLong(TimeSeriesPoint::getSamples).sum(), 50);
+        assertTrue(results.getSummary().contains("Warm-up (excluded): 2000 ms"));
+        
+        ResultAggregator bySamples = new ResultAggregator();
+        bySamples.setWarmUp(WarmUpWindow.samples(5));
+        for (int i = 0; i < 12; i++) {
+            assertEquals(bySamples.record("GET", 1_000 + i, 10_000, i >= 5, 1, "Connection reset"), i >= 5,
+                    "Only samples after the warm-up count, so only they get connection and timing breakdowns");
+        }
+        results = new PerformanceResults();
+        bySamples.populate(results, 1_000);
+        assertEquals(results.getTotalSamples(), 7);
+        assertEquals(results.getErrorCount(), 0, "Warm-up errors stay out of the error rate");
+        assertEquals(results.getWarmUpResults().getErrors(), 5);
+        assertTrue(results.getErrors().isEmpty(), "Warm-up errors stay out of the error list: " + results.getErrors());
+        assertEquals(results.getWarmUpErrors(), List.of("Connection reset (5 samples)"));
+        
+        ResultAggregator none = new ResultAggregator();
+        none.record("GET", 1_000, 10_000, true, 1, null);
+        results = new PerformanceResults();
+        none.populate(results, 1_000);
+        assertEquals(results.getTotalSamples(), 1);
+        assertNull(results.getWarmUpResults());
+        assertEquals(results.getWarmUpTimeMillis(), -1);
+    }
+    
+    @Test(description = "An adaptive warm-up ends once p50 holds steady", priority = 0)
+    public void testWarmUpUntilStable() {
+        ResultAggregator aggregator = new ResultAggregator();
+        aggregator.markRunStart(0);
+        aggregator.setWarmUp(WarmUpWindow.untilStable(60_000));
+        long[] p50Micros = {50_000, 30_000, 20_000, 10_000, 10_000, 10_000, 10_000, 10_000, 10_000, 10_000};
+        for (int second = 0; second < p50Micros.length; second++) {
+            for (int i = 0; i < 10; i++) {
+                aggregator.record("GET", second * 1000L + i * 100L, p50Micros[second], true, 1, null);
+            }
+        }
+        PerformanceResults results = new PerformanceResults();
+        aggregator.populate(results, 10_000);
+        
+        // The first sample of the fourth steady second ends the warm-up
+        assertEquals(results.getWarmUpTimeMillis(), 6_000);
+        assertEquals(results.getWarmUpResults().getSamples(), 60);
+        assertEquals(results.getTotalSamples(), 40);
+        assertEquals(results.getAverageResponseTime(), 10.0, 0.01);
+    }
+    
+    @Test(description = "Test in-process sample aggregation", priority = 0)
+    public void testMetricsAccumulator() {
+        logger.info("=== Testing MetricsAccumulator ===");
+        
+        MetricsAccumulator accumulator = new MetricsAccumulator();
+        accumulator.record(1_000, 100_000, true);
+        accumulator.record(1_500, 300_000, true);
+        accumulator.record(2_000, 200_000, false);
+        accumulator.record(2_800, 200_000, true);
+        
+        assertEquals(accumulator.getSampleCount(), 4);
+        assertEquals(accumulator.getErrorCount(), 1);
+        assertEquals(accumulator.getAverageMillis(), 200.0, 0.01);
+        assertEquals(accumulator.getMinMillis(), 100.0, 0.01);
+        assertEquals(accumulator.getMaxMillis(), 300.0, 0.01);
+        assertEquals(accumulator.getHistogram().getTotalCount(), 4);
+        assertEquals(accumulator.getErrorPercentage(), 25.0, 0.01);
+        
+        // Active span runs from the first start (1000) to the last end (3000)
+        assertEquals(accumulator.getActiveSpanMillis(), 2_000);
+        assertEquals(accumulator.getThroughputPerSecond(10_000), 2.0, 0.01);
+        
+        // Empty accumulator should report zeros rather than sentinel values
+        MetricsAccumulator empty = new MetricsAccumulator();
+        assertEquals(empty.getMinMillis(), 0.0, 0.0);
+        assertEquals(empty.getMaxMillis(), 0.0, 0.0);
+        assertEquals(empty.getThroughputPerSecond(0), 0.0, 0.0);
+    }
+    
+    @Test(description = "Connect times are reported as opened and reused connections", priority = 0)
+    public void testConnectionMetrics() {
+        ResultAggregator aggregator = new ResultAggregator();
+        aggregator.recordConnection(true, 40);
+        aggregator.recordConnection(true, 20);
+        // A new connection that took under a millisecond still counts as opened
+        aggregator.recordConnection(true, 0);
+        aggregator.recordConnection(false, 0);
+        aggregator.recordConnection(false, 0);
+        aggregator.recordConnection(false, 0);
+        
+        PerformanceResults results = new PerformanceResults();
+        aggregator.populate(results, 1_000);
+        assertEquals(results.getConnectionsOpened(), 3);
+        assertEquals(results.getConnectionsReused(), 3);
+        assertEquals(results.getAverageConnectTime(), 20.0, 0.01);
+        assertEquals(results.getConnectionReusePercentage(), 50.0, 0.01);
+        assertTrue(results.getSummary().contains("Connections: 3 opened"));
+        
+        // JMeter pools connections per virtual user, so it cannot honour a connection limit
+        assertThrows(IllegalArgumentException.class, () -> new JMeterTestEngine()
+                .withConnectionSettings(ConnectionSettings.builder().maxConnections(4).build()));
+        
+        assertEquals(ConnectionSettings.Implementation.fromName("httpclient4"), ConnectionSettings.Implementation.HTTP_CLIENT4);
+        assertEquals(ConnectionSettings.Implementation.fromName("Java").getJMeterName(), "Java");
+        assertThrows(IllegalArgumentException.class, () -> ConnectionSettings.Implementation.fromName("okhttp"));
+    }
+    
+    @Test(description = "Test open-model arrival rate schedule", priority = 0)
+    public void testArrivalRateTimerSchedule() throws InterruptedException {
+        logger.info("=== Testing ArrivalRateTimer ===");
+        
+        // 100 req/sec: slots every 10 ms, regardless of how quickly threads come back
+        ArrivalRateTimer timer = new ArrivalRateTimer(100.0, 50);
+        timer.testStarted();
+        
+        assertEquals(timer.delay(), 0, "First request starts immediately");
+        long secondDelay = timer.delay();
+        long thirdDelay = timer.delay();
+        assertTrue(secondDelay >= 8 && secondDelay <= 10, "Second slot should be ~10 ms out: " + secondDelay);
+        assertTrue(thirdDelay >= 18 && thirdDelay <= 20, "Third slot should be ~20 ms out: " + thirdDelay);
+        assertEquals(timer.getDroppedRequests(), 0);
+        
+        // Simulate every thread being busy for 300 ms: slots beyond the 50 ms lag are dropped
+        Thread.sleep(300);
+        assertEquals(timer.delay(), 0, "Late request should be issued immediately");
+        assertTrue(timer.getDelayedRequests() >= 1, "Late request should be counted as delayed");
+        assertTrue(timer.getDroppedRequests() >= 20, "Missed slots should be dropped: " + timer.getDroppedRequests());
+        assertEquals(timer.getIssuedRequests(), 4);
+    }
+    
+    @Test(description = "Test multi-phase load profile and phase tagging", priority = 0)
+    public void testLoadProfilePhases() {
+        logger.info("=== Testing LoadProfile ===");
+        
+        LoadProfile profile = LoadProfile.spike(3, 12, 15, 10, 15);
+        assertEquals(profile.getStages().size(), 3);
+        assertEquals(profile.getTotalDurationSeconds(), 40);
+        assertEquals(profile.getStageOffsetSeconds(1), 15);
+        assertEquals(profile.getMaxUsers(), 12);
+        assertEquals(profile.getSpikeStageIndex(), 1);
+        assertEquals(profile.stageIndexAt(14_999), 0);
+        assertEquals(profile.stageIndexAt(15_000), 1);
+        assertEquals(profile.stageIndexAt(60_000), 2, "Samples after the last stage belong to it");
+        // The baseline users run through the whole profile and the spike adds users on top of them
+        assertEquals(profile.getUserGroups().toString(),
+                "[baseline users 1-3(3 users from 0 ms for 40000 ms), spike users 4-12(9 users from 15000 ms for 10000 ms)]");
+        LoadProfile steps = LoadProfile.builder()
+            .stage("low", 2, 4, 6)
+            .stage("high", 6, 2, 8)
+            .stage("medium", 4, 0, 10)
+            .build();
+        assertEquals(steps.getUserGroups().toString(),
+                "[low users 1-2(2 users from 0 ms for 30000 ms), high users 3-4(2 users from 10000 ms for 20000 ms), "
+                + "high users 5-6(2 users from 11000 ms for 9000 ms)]");
+        assertEquals(steps.getUserGroups().get(2).getRampUpMillis(), 1000);
+        LoadProfile rampOnly = LoadProfile.builder().stage("low", 2, 0, 10).stage("high", 6, 0, 10).build();
+        assertEquals(rampOnly.getSpikeStageIndex(), -1);
+        PerformanceResults stepResults = new PerformanceResults();
+        ResultAggregator stepAggregator = new ResultAggregator();
+        stepAggregator.setLoadProfile(rampOnly);
+        stepAggregator.populate(stepResults, 20_000);
+        assertFalse(stepResults.getSummary().contains("Recovery Time"), "Only a spike profile reports recovery");
+        
+        // Samples are tagged with the phase they started in
+        ResultAggregator aggregator = new ResultAggregator();
+        aggregator.setLoadProfile(profile);
+        aggregator.markRunStart(100_000);
+        aggregator.record("GET /users", 101_000, 20_000, true, 3, null);
+        aggregator.record("GET /users", 116_000, 400_000, false, 12, "500 Internal Server Error");
+        aggregator.record("GET /users", 116_500, 300_000, true, 12, null);
+        aggregator.record("GET /users", 126_000, 22_000, true, 3, null);
+        
+        PerformanceResults results = new PerformanceResults();
+        aggregator.populate(results, 40_000);
+        assertEquals(results.getPhaseResults().keySet().toString(), "[baseline, spike, recovery]");
+        assertEquals(results.getPhaseResults("baseline").getSamples(), 1);
+        assertEquals(results.getPhaseResults("spike").getSamples(), 2);
+        assertEquals(results.getPhaseResults("spike").getErrors(), 1);
+        assertEquals(results.getPhaseResults("recovery").getSamples(), 1);
+        // Spike ends at 125 s; the first interval back near the baseline p99 ends at 127 s
+        assertEquals(results.getRecoveryTimeMillis(), 2_000);
+        assertTrue(results.getSummary().contains("Recovery Time: 2000 ms"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for rebuilding results from JTL files.
+ */
+public class JtlReaderTest {
+
+    private static final String[] LABELS = {"GET users", "POST \"user\", with body"};
+
+    @Test(description = "Results rebuilt from a JTL match the results aggregated while writing it")
+    public void testRoundTrip() throws Exception {
+        Path file = Files.createTempFile("results", ".jtl");
+        ResultAggregator expected = new ResultAggregator();
+        long start = 1_700_000_000_000L;
+        Random random = new Random(42);
+        try (JtlCsvWriter writer = new JtlCsvWriter(file.toString())) {
+            for (int i = 0; i < 20_000; i++) {
+                long timestamp = start + i * 5L;
+                long elapsed = 10 + random.nextInt(200);
+                String label = LABELS[i % LABELS.length];
+                boolean success = i % 50 != 0;
+                String message = success ? "OK" : "Internal Server Error";
+                writer.write(timestamp, elapsed, label, success ? "200" : "500", message, "Thread 1-" + (i % 8),
+                        success, 512, 8, elapsed, 0);
+                expected.record(label, timestamp, elapsed * 1000, success, 8, success ? null : "500 " + message);
+            }
+        }
+
+        // Small chunks force many parallel tasks and line boundaries inside chunks
+        PerformanceResults results = new JtlReader(file).withChunkSize(4096).read();
+        PerformanceResults reference = new PerformanceResults();
+        expected.populate(reference, 100_000);
+
+        assertEquals(results.getTotalSamples(), 20_000);
+        assertEquals(results.getErrorCount(), 400);
+        assertEquals(results.getThreadCount(), 8);
+        assertEquals(results.getAverageResponseTime(), reference.getAverageResponseTime(), 0.001);
+        assertEquals(results.getP99ResponseTime(), reference.getP99ResponseTime(), 0.001);
+        assertEquals(results.getThroughputPerSecond(), reference.getThroughputPerSecond(), 0.01);
+        assertEquals(results.getSamplerResults().size(), 2);
+        for (String label : LABELS) {
+            assertEquals(results.getSamplerResults(label).getSamples(), 10_000, "Samples of " + label);
+        }
+        assertTrue(results.getErrors().get(0).startsWith("500 Internal Server Error"), results.getErrors().toString());
+
+        List<TimeSeriesPoint> points = results.getTimeSeries();
+        assertEquals(points.size(), reference.getTimeSeries().size());
+        assertEquals(points.stream().mapToLong(TimeSeriesPoint::getSamples).sum(), 20_000);
+        Files.delete(file);
+    }
+
+    @Test(description = "Quoted messages spanning lines never split a record across chunks")
+    public void testMultiLineMessages() throws Exception {
+        Path file = Files.createTempFile("results", ".jtl");
+        long start = 1_700_000_000_000L;
+        // Long error bodies full of line feeds and escaped quotes, so many chunk cuts land inside them
+        String message = ("Internal \"Server\" Error\n" + "at stack frame, line\n".repeat(40)).trim();
+        try (JtlCsvWriter writer = new JtlCsvWriter(file.toString())) {
+            for (int i = 0; i < 2_000; i++) {
+                boolean success = i % 3 != 0;
+                writer.write(start + i * 10L, 20, "GET users", success ? "200" : "500", message,
+                        "Thread 1-1", success, 512, 1, 15, 0);
+            }
+            writer.write(start + 20_000, 20, "GET users", "200", "OK", "Thread 1-1", true, 512, 1, 15, 0);
+        }
+
+        PerformanceResults results = new JtlReader(file).withChunkSize(1024).read();
+
+        assertEquals(results.getTotalSamples(), 2_001);
+        assertEquals(results.getErrorCount(), 667);
+        assertEquals(results.getErrors(), List.of("500 " + message + " (667 samples)"));
+        Files.delete(file);
+    }
+
+    @Test(description = "Files without a header and with malformed lines are still read")
+    public void testHeaderlessAndMalformed() throws Exception {
+        Path file = Files.createTempFile("results", ".jtl");
+        Files.write(file, String.join("\n",
+                "1700000000000,120,GET users,200,OK,Thread 1-1,true,512,1,1,100,5",
+                "not,a,sample",
+                "",
+                "1700000001000,80,GET users,503,Unavailable,Thread 1-1,false,0,1,1,80,0").getBytes());
+
+        PerformanceResults results = new JtlReader(file).read();
+
+        assertEquals(results.getTotalSamples(), 2);
+        assertEquals(results.getErrorCount(), 1);
+        assertEquals(results.getMaxResponseTime(), 120.0, 1.0);
+        assertEquals(results.getTimeSeries().size(), 2);
+
+        // Latency and Connect columns give the breakdown: 5 ms connect, 95 ms to first byte, 20 ms download
+        LatencyBreakdown breakdown = results.getLatencyBreakdown("GET users");
+        assertEquals(breakdown.getConnectHistogram().getTotalCount(), 2);
+        assertEquals(breakdown.getConnectHistogram().getMaxValue(), 5_000, 50);
+        assertEquals(breakdown.getTimeToFirstByteHistogram().getMaxValue(), 95_000, 1_000);
+        assertEquals(breakdown.getDownloadHistogram().getMaxValue(), 20_000, 200);
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,135 @@
+package com.automation.performance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for the HDR latency histogram used by performance results.
+ */
+public class LatencyHistogramTest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LatencyHistogramTest.class);
+    
+    @Test(description = "Percentiles stay within the configured precision")
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        
+        // 1..100000 microseconds uniformly
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.recordValue(value);
+        }
+        
+        assertEquals(histogram.getTotalCount(), 100_000);
+        assertEquals(histogram.getMinValue(), 1);
+        assertEquals(histogram.getMaxValue(), 100_000);
+        assertEquals(histogram.getValueAtPercentile(50.0), 50_000, 50_000 * 0.01);
+        assertEquals(histogram.getValueAtPercentile(99.0), 99_000, 99_000 * 0.01);
+        assertEquals(histogram.getValueAtPercentile(99.9), 99_900, 99_900 * 0.01);
+        assertEquals(histogram.getValueAtPercentile(100.0), 100_000);
+        assertEquals(histogram.getMean(), 50_000, 50_000 * 0.01);
+        
+        logger.info("p50={} p99={} p99.9={}", histogram.getValueAtPercentile(50.0),
+                    histogram.getValueAtPercentile(99.0), histogram.getValueAtPercentile(99.9));
+    }
+    
+    @Test(description = "Tail latency is visible even when the average is low")
+    public void testTailLatency() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.recordValue(10_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.recordValue(2_000_000);
+        }
+        
+        assertEquals(histogram.getValueAtPercentile(50.0), 10_000, 100);
+        assertEquals(histogram.getValueAtPercentile(99.5), 2_000_000, 20_000);
+    }
+    
+    @Test(description = "Values outside the trackable range are clamped")
+    public void testClamping() {
+        LatencyHistogram histogram = new LatencyHistogram(1_000_000, 2);
+        histogram.recordValue(-5);
+        histogram.recordValue(5_000_000);
+        
+        assertEquals(histogram.getTotalCount(), 2);
+        assertEquals(histogram.getMinValue(), 0);
+        assertEquals(histogram.getMaxValue(), 1_000_000);
+    }
+    
+    @Test(description = "Histograms from several runs can be merged")
+    public void testMerge() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram(60_000_000, 1);
+        for (int i = 0; i < 100; i++) {
+            first.recordValue(1_000);
+            second.recordValue(50_000);
+        }
+        
+        first.add(second);
+        
+        assertEquals(first.getTotalCount(), 200);
+        assertEquals(first.getMinValue(), 1_000);
+        assertEquals(first.getMaxValue(), 50_000, 50_000 * 0.1);
+        assertEquals(first.getValueAtPercentile(25.0), 1_000, 10);
+    }
+    
+    @Test(description = "Compact encoding and Java serialization round-trip")
+    public void testEncodingRoundTrip() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 100; value < 1_000_000; value *= 3) {
+            histogram.recordValue(value);
+        }
+        
+        LatencyHistogram decoded = LatencyHistogram.decode(histogram.encode());
+        assertEquals(decoded.getTotalCount(), histogram.getTotalCount());
+        assertEquals(decoded.getMinValue(), histogram.getMinValue());
+        assertEquals(decoded.getMaxValue(), histogram.getMaxValue());
+        assertEquals(decoded.getValueAtPercentile(90.0), histogram.getValueAtPercentile(90.0));
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(histogram);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            LatencyHistogram deserialized = (LatencyHistogram) in.readObject();
+            assertEquals(deserialized.getValueAtPercentile(99.0), histogram.getValueAtPercentile(99.0));
+        }
+    }
+    
+    @Test(description = "Coordinated-omission correction back-fills samples lost to a stall")
+    public void testCoordinatedOmissionCorrection() {
+        // A client sending every 10 ms sees 1 ms responses, then one 10 s stall
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 9_900; i++) {
+            histogram.recordValue(1_000);
+        }
+        histogram.recordValue(10_000_000);
+        assertTrue(histogram.getValueAtPercentile(99.0) < 1_100, "Uncorrected p99 hides the stall");
+        
+        // The ~1000 requests that should have been sent during the stall are back-filled
+        LatencyHistogram corrected = histogram.copyCorrectedForCoordinatedOmission(10_000);
+        assertEquals(corrected.getTotalCount(), 9_900 + 1_000, 10, "Bucket precision may drop a few back-filled values");
+        assertTrue(corrected.getValueAtPercentile(99.0) > 8_000_000,
+                "Corrected p99 should reflect the stall: " + corrected.getValueAtPercentile(99.0));
+        assertEquals(corrected.getMaxValue(), histogram.getMaxValue());
+        assertEquals(histogram.getTotalCount(), 9_901, "Original histogram is unchanged");
+        
+        // Recording with the expected interval applies the same correction up front
+        LatencyHistogram recorded = new LatencyHistogram();
+        recorded.recordValueWithExpectedInterval(10_000_000, 10_000);
+        recorded.recordValueWithExpectedInterval(1_000, 10_000);
+        assertEquals(recorded.getTotalCount(), 1_001);
+        
+        // Without a stall nothing is added
+        assertEquals(new LatencyHistogram().copyCorrectedForCoordinatedOmission(10_000).getTotalCount(), 0);
+    }
+}
@@ -0,0 +1,99 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests for the embedded loopback server and generator calibration.
+ */
+public class LoopbackServerTest {
+
+    private static HttpResponse<String> send(HttpClient client, LoopbackServer server, String method, String path,
+                                             String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://" + server.getHost() + ":" + server.getPort() + path))
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test(description = "Fixtures are served per route over keep-alive connections")
+    public void testRoutes() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try (LoopbackServer server = new LoopbackServer().start()) {
+            HttpResponse<String> users = send(client, server, "GET", "/users?page=1", null);
+            assertEquals(users.statusCode(), 200);
+            assertTrue(users.body().startsWith("[{\"id\":1,"), users.body());
+            assertTrue(users.body().contains("\"id\":" + LoopbackServer.FIXTURE_USERS + ","));
+
+            HttpResponse<String> user = send(client, server, "GET", "/users/3", null);
+            assertEquals(user.statusCode(), 200);
+            assertTrue(user.body().startsWith("{\"id\":3,"), user.body());
+
+            assertEquals(send(client, server, "POST", "/users", "{\"name\":\"x\"}").statusCode(), 201);
+            assertEquals(send(client, server, "PUT", "/users/1", "{\"name\":\"y\"}").statusCode(), 200);
+            assertEquals(send(client, server, "DELETE", "/users/1", null).statusCode(), 200);
+            assertEquals(send(client, server, "GET", "/users/99", null).statusCode(), 404);
+            assertEquals(send(client, server, "GET", "/orders", null).statusCode(), 404);
+            assertEquals(server.getRequestCount(), 7);
+        }
+    }
+
+    @Test(description = "Responses are padded and delayed as configured")
+    public void testLatencyAndResponseSize() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try (LoopbackServer server = new LoopbackServer(50, 4096).start()) {
+            long start = System.nanoTime();
+            HttpResponse<String> user = send(client, server, "GET", "/users/1", null);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals(user.statusCode(), 200);
+            assertEquals(user.body().length(), 4096);
+            assertTrue(elapsedMillis >= 50, "Response should be delayed, took " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test(description = "Pipelined requests on one connection are answered in order")
+    public void testPipelining() throws Exception {
+        try (LoopbackServer server = new LoopbackServer().start();
+             Socket socket = new Socket(server.getHost(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /users/1 HTTP/1.1\r\nHost: loopback\r\n\r\n"
+                + "POST /users HTTP/1.1\r\nHost: loopback\r\nContent-Length: 2\r\n\r\n{}"
+                + "GET /users/2 HTTP/1.1\r\nHost: loopback\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            String responses = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            int first = responses.indexOf("{\"id\":1,");
+            int second = responses.indexOf("HTTP/1.1 201 Created");
+            int third = responses.indexOf("{\"id\":2,");
+            assertTrue(first >= 0 && first < second && second < third, responses);
+            assertEquals(server.getRequestCount(), 3);
+        }
+    }
+
+    @Test(description = "Calibration measures a throughput ceiling and latency overhead")
+    public void testCalibration() {
+        GeneratorCalibration calibration = GeneratorCalibration.calibrate(LoadEngineType.HTTP_CLIENT, 4, 1);
+
+        assertTrue(calibration.getMaxThroughput() > 0, "Ceiling should be measured");
+        assertTrue(calibration.getOverheadP50Millis() >= 0);
+        assertEquals(calibration.getCeilingPercentage(calibration.getMaxThroughput() / 2), 50.0, 0.01);
+
+        PerformanceResults results = new PerformanceResults();
+        results.setThroughputPerSecond(calibration.getMaxThroughput() * 0.9);
+        results.setGeneratorCalibration(calibration);
+        assertTrue(results.isGeneratorBound());
+        assertTrue(results.getSummary().contains("Generator Ceiling"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests for the live metrics endpoint, scraped over HTTP like Prometheus would.
+ */
+public class MetricsEndpointTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<String> scrape(int port, String accept) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + MetricsEndpoint.PATH));
+        if (accept != null) {
+            request.header("Accept", accept);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test(description = "Counters and cumulative histogram buckets per sampler in both text formats")
+    public void testScrape() throws Exception {
+        ResultAggregator aggregator = new ResultAggregator();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            aggregator.record("GET users", now, 3_000, true, 4, null);
+        }
+        aggregator.record("GET users", now, 200_000, false, 4, "500 Internal Server Error");
+        aggregator.record("POST \"quoted\"", now, 40_000, true, 4, null);
+
+        MetricsEndpoint endpoint = new MetricsEndpoint(0);
+        assertEquals(endpoint.getHost(), MetricsEndpoint.DEFAULT_HOST, "Unauthenticated metrics stay on loopback by default");
+        assertThrows(IllegalArgumentException.class, () -> new MetricsEndpoint(" ", 0));
+        endpoint.start("Scrape Test", aggregator);
+        try {
+            HttpResponse<String> prometheus = scrape(endpoint.getPort(), null);
+            assertEquals(prometheus.statusCode(), 200);
+            assertTrue(prometheus.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+            String text = prometheus.body();
+            String users = "plan=\"Scrape Test\",sampler=\"GET users\"";
+            assertTrue(text.contains("# TYPE loadtest_samples_total counter\n"), text);
+            assertTrue(text.contains("loadtest_samples_total{" + users + "} 11\n"), text);
+            assertTrue(text.contains("loadtest_errors_total{" + users + "} 1\n"), text);
+            assertTrue(text.contains("loadtest_response_time_seconds_bucket{" + users + ",le=\"0.005\"} 10\n"), text);
+            assertTrue(text.contains("loadtest_response_time_seconds_bucket{" + users + ",le=\"0.1\"} 10\n"), text);
+            assertTrue(text.contains("loadtest_response_time_seconds_bucket{" + users + ",le=\"0.25\"} 11\n"), text);
+            assertTrue(text.contains("loadtest_response_time_seconds_bucket{" + users + ",le=\"+Inf\"} 11\n"), text);
+            assertTrue(text.contains("loadtest_response_time_seconds_count{" + users + "} 11\n"), text);
+            assertTrue(text.contains("loadtest_response_time_seconds_sum{" + users + "} 0.23\n"), text);
+            assertTrue(text.contains("sampler=\"POST \\\"quoted\\\"\""), "Label values are escaped");
+            assertFalse(text.contains("# EOF"));
+
+            HttpResponse<String> openMetrics = scrape(endpoint.getPort(), "application/openmetrics-text; version=1.0.0");
+            assertEquals(openMetrics.headers().firstValue("Content-Type").orElse(""), MetricsEndpoint.OPENMETRICS_CONTENT_TYPE);
+            assertTrue(openMetrics.body().contains("# TYPE loadtest_samples counter\n"), "Counter families drop _total");
+            assertTrue(openMetrics.body().contains("loadtest_samples_total{" + users + "} 11\n"));
+            assertTrue(openMetrics.body().endsWith("# EOF\n"));
+        } finally {
+            endpoint.stop();
+        }
+    }
+
+    @Test(description = "The endpoint serves growing counters while a run is in progress and stops with it")
+    public void testLiveScrapeDuringRun() throws Exception {
+        int port;
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        try (LoopbackServer server = new LoopbackServer().start()) {
+            HttpClientLoadEngine engine = new HttpClientLoadEngine();
+            engine.withMetricsEndpoint("127.0.0.1", port)
+                .createDurationTestPlan("Live Metrics", 2, 0, 3)
+                .addHttpRequest("GET users", "http", server.getHost(), server.getPort(), LoopbackServer.USERS_PATH, "GET");
+            CompletableFuture<PerformanceResults> run = engine.executeAsync();
+
+            long first = -1;
+            long last = -1;
+            long deadline = System.currentTimeMillis() + 2500;
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(500);
+                long count = samples(scrape(port, null).body());
+                first = first < 0 ? count : first;
+                last = count;
+            }
+            PerformanceResults results = run.get(30, TimeUnit.SECONDS);
+
+            assertTrue(last > first, "Counters grow during the run: " + first + " then " + last);
+            assertTrue(last <= results.getTotalSamples());
+            assertThrows(IOException.class, () -> scrape(port, null));
+        }
+    }
+
+    private static long samples(String text) {
+        for (String line : text.split("\n")) {
+            if (line.startsWith("loadtest_samples_total{")) {
+                return Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+            }
+        }
+        return 0;
+    }
+}
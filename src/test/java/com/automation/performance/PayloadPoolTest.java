@@ -0,0 +1,73 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for the pre-generated payload pool.
+ */
+public class PayloadPoolTest {
+
+    private static byte[] payload(int index) {
+        return ("{\"username\":\"user" + index + "\",\"padding\":\"" + "x".repeat(index % 50) + "\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test(description = "Payloads are stored in index order and read back unchanged")
+    public void testGetMatchesGenerator() {
+        try (PayloadPool pool = PayloadPool.generate(40_000, PayloadPoolTest::payload)) {
+            assertEquals(pool.size(), 40_000);
+            long expectedBytes = 0;
+            for (int i = 0; i < pool.size(); i++) {
+                assertEquals(pool.get(i), payload(i), "Payload " + i);
+                expectedBytes += payload(i).length;
+            }
+            assertEquals(pool.getSizeBytes(), expectedBytes);
+        }
+    }
+
+    @Test(description = "Concurrent threads receive every payload exactly once before the pool wraps")
+    public void testConcurrentHandoutIsUnique() throws Exception {
+        int count = 64 * 1024;
+        int threads = 8;
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        try (PayloadPool pool = PayloadPool.generate(count, PayloadPoolTest::payload)) {
+            List<Thread> users = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread user = new Thread(() -> {
+                    for (int i = 0; i < count / threads; i++) {
+                        assertTrue(seen.add(pool.nextString()), "Duplicate payload handed out");
+                    }
+                });
+                users.add(user);
+                user.start();
+            }
+            for (Thread user : users) {
+                user.join();
+            }
+            assertEquals(seen.size(), count);
+            assertFalse(pool.isWrapped());
+
+            // The next claim runs past the end and starts over
+            pool.next();
+            assertTrue(pool.isWrapped());
+        }
+    }
+
+    @Test(description = "A pool smaller than the run repeats payloads instead of failing")
+    public void testWrapAround() {
+        try (PayloadPool pool = PayloadPool.generate(3, PayloadPoolTest::payload)) {
+            for (int i = 0; i < 7; i++) {
+                assertEquals(pool.next(), payload(i % 3));
+            }
+            assertTrue(pool.isWrapped());
+        }
+    }
+}
@@ -46,6 +46,7 @@ public class PerformanceTest {
         );
         
         assertTrue(slaPass, "Light load test should meet SLA requirements");
+        performanceRunner.recordBaseline(results);
     }
     
     @Test(priority = 2, description = "Medium load test for GET /users/1 endpoint")
@@ -70,6 +71,7 @@ public class PerformanceTest {
         );
         
         assertTrue(slaPass, "Medium load test should meet SLA requirements");
+        performanceRunner.recordBaseline(results);
     }
     
     @Test(priority = 3, description = "POST endpoint load test with realistic data")
@@ -97,6 +99,7 @@ public class PerformanceTest {
         );
         
         assertTrue(slaPass, "POST load test should meet SLA requirements");
+        performanceRunner.recordBaseline(results);
     }
     
     @Test(priority = 4, description = "Comprehensive API stress test")
@@ -113,6 +116,17 @@ public class PerformanceTest {
         logger.info("Stress test results:");
         logger.info(results.getSummary());
         
+        // Each endpoint should be reported separately, and only endpoints of the mix may have run;
+        // the mix distribution itself is covered by TrafficMixTest
+        TrafficMix mix = results.getTrafficMix();
+        assertNotNull(mix, "The traffic mix should be reported");
+        long samplerSamples = 0;
+        for (String label : results.getSamplerResults().keySet()) {
+            assertTrue(mix.contains(label), "Every sampler should be part of the mix: " + label);
+            samplerSamples += results.getSamplerResults(label).getSamples();
+        }
+        assertEquals(samplerSamples, results.getTotalSamples(), "Each sample should be attributed to its sampler");
+        
         // Validate stress test criteria (more tolerant)
         boolean slaPass = performanceRunner.validatePerformanceSLA(results, 
                 10.0,    // Max 10% error rate (higher tolerance for stress test)
@@ -121,14 +135,15 @@ public class PerformanceTest {
         );
         
         assertTrue(slaPass, "Stress test should meet relaxed SLA requirements");
+        performanceRunner.recordBaseline(results);
     }
     
     @Test(priority = 5, description = "Spike test to check sudden load handling")
     public void testSpikeTest() {
         logger.info("=== Starting Spike Test ===");
         
-        // Spike test: normal 3 users, spike to 12 users for 2 loops
-        PerformanceResults results = performanceRunner.runSpikeTest("/users", 3, 12, 2);
+        // Spike test: normal 3 users, spike to 12 users for 10 seconds, in one continuous run
+        PerformanceResults results = performanceRunner.runSpikeTest("/users", 3, 12, 10);
         
         assertNotNull(results, "Performance results should not be null");
         assertTrue(results.getThreadCount() >= 3, "Thread count should be at least normal load");
@@ -139,6 +154,27 @@ public class PerformanceTest {
         // For spike test, we mainly check that the system didn't completely fail
         assertTrue(results.getTotalExecutionTime() > 0, "Test should have executed");
         assertNotNull(results.getTestPlanName(), "Test plan name should be set");
+        
+        // Each phase is reported separately
+        assertEquals(results.getPhaseResults().size(), 3, "Baseline, spike and recovery phases should be reported");
+        assertNotNull(results.getPhaseResults("spike"), "Spike phase should be reported");
+    }
+    
+    @Test(priority = 8, description = "Open-model constant arrival rate test")
+    public void testArrivalRateLoad() {
+        logger.info("=== Starting Constant Arrival Rate Test ===");
+        
+        // Open model: 5 req/sec for 10 seconds, at most 10 requests in flight
+        PerformanceResults results = performanceRunner.runArrivalRateTest("/users", 5.0, 10, 10);
+        
+        assertNotNull(results, "Performance results should not be null");
+        assertEquals(results.getTargetThroughput(), 5.0, 0.001, "Target rate should be reported");
+        
+        logger.info("Arrival rate test results:");
+        logger.info(results.getSummary());
+        
+        // Requests are issued on schedule, so the achieved rate tracks the target unless the cap was hit
+        assertTrue(results.getTotalSamples() + results.getDroppedRequests() > 0, "Requests should have been scheduled");
     }
     
     @Test(priority = 6, description = "Short endurance test", enabled = false)
@@ -162,7 +198,9 @@ public class PerformanceTest {
                 1.0      // Min 1 req/sec throughput
         );
         
+        assertTrue(results.getTotalExecutionTime() >= 120_000, "Endurance test should run for the full duration");
         assertTrue(slaPass, "Endurance test should meet SLA requirements");
+        performanceRunner.recordBaseline(results);
     }
     
     @Test(priority = 7, description = "Performance baseline measurement")
@@ -0,0 +1,140 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for the per-interval time-series ring buffer.
+ */
+public class TimeSeriesTest {
+    
+    @Test(description = "Samples are grouped into fixed-width intervals")
+    public void testIntervalBuckets() {
+        TimeSeries timeSeries = new TimeSeries(1000, 10);
+        timeSeries.record(10_000, 5_000, true, 2);
+        timeSeries.record(10_999, 15_000, false, 3);
+        timeSeries.record(11_000, 20_000, true, 4);
+        
+        List<TimeSeriesPoint> points = timeSeries.getPoints();
+        assertEquals(points.size(), 2);
+        
+        TimeSeriesPoint first = points.get(0);
+        assertEquals(first.getStartTimeMillis(), 10_000);
+        assertEquals(first.getSamples(), 2);
+        assertEquals(first.getErrors(), 1);
+        assertEquals(first.getActiveThreads(), 3);
+        assertEquals(first.getThroughputPerSecond(), 2.0, 0.001);
+        assertEquals(first.getErrorPercentage(), 50.0, 0.001);
+        
+        TimeSeriesPoint second = points.get(1);
+        assertEquals(second.getStartTimeMillis(), 11_000);
+        assertEquals(second.getMaxResponseTime(), 20.0, 0.001);
+    }
+    
+    @Test(description = "Memory stays bounded: old intervals are evicted from the ring")
+    public void testRingEviction() {
+        TimeSeries timeSeries = new TimeSeries(100, 5);
+        for (long t = 0; t < 2_000; t += 100) {
+            timeSeries.record(t, 1_000, true, 1);
+        }
+        
+        List<TimeSeriesPoint> points = timeSeries.getPoints();
+        assertEquals(points.size(), 5, "Only the configured capacity should be retained");
+        assertEquals(points.get(0).getStartTimeMillis(), 1_500);
+        assertEquals(points.get(4).getStartTimeMillis(), 1_900);
+        assertEquals(timeSeries.getEvictedIntervals(), 15);
+        
+        // A sample for an evicted interval is counted but not recorded
+        timeSeries.record(0, 1_000, true, 1);
+        assertEquals(timeSeries.getLateSamples(), 1);
+    }
+    
+    @Test(description = "Time series can be exported as CSV")
+    public void testCsvExport() throws Exception {
+        TimeSeries timeSeries = new TimeSeries(1000, 10);
+        timeSeries.record(5_000, 2_000, true, 1);
+        
+        Path file = Files.createTempFile("timeseries", ".csv");
+        try {
+            TimeSeries.writeCsv(timeSeries.getPoints(), file);
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(lines.size(), 2);
+            assertTrue(lines.get(0).startsWith("timeStamp,"), "Header expected");
+            assertTrue(lines.get(1).startsWith("5000,1000,1,0,"), "Unexpected row: " + lines.get(1));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test(description = "Steady state is detected once throughput and p99 stop drifting")
+    public void testSteadyStateDetection() {
+        TimeSeries timeSeries = new TimeSeries(1000, 120);
+        for (int second = 0; second < 60; second++) {
+            // Warm-up: throughput climbs and latency falls for 15 s, then both hold
+            int samples = second < 15 ? (second + 1) * 2 : 40;
+            long elapsedMicros = second < 15 ? 500_000 - second * 30_000 : 50_000;
+            for (int i = 0; i < samples; i++) {
+                timeSeries.record(second * 1000L + i, elapsedMicros, true, 10);
+            }
+        }
+        
+        List<TimeSeriesPoint> points = timeSeries.getPoints();
+        // Rolling windows that only just overlap the warm-up are already within tolerance
+        int steadyFrom = TimeSeriesAnalysis.steadyStateIndex(points);
+        assertTrue(steadyFrom >= 12 && steadyFrom <= 15, "Steady state should start near 15 s, got " + steadyFrom);
+        assertEquals(TimeSeriesAnalysis.latencyTrendMillisPerMinute(points, 15), 0.0, 0.001);
+        assertEquals(TimeSeriesAnalysis.throughputTrendPerMinute(points, 15), 0.0, 0.001);
+        
+        // Too short to tell
+        assertEquals(TimeSeriesAnalysis.steadyStateIndex(points.subList(0, 15)), -1);
+    }
+    
+    @Test(description = "A steadily growing p99 shows up as a positive latency trend")
+    public void testLeakTrend() {
+        TimeSeries timeSeries = new TimeSeries(1000, 120);
+        for (int second = 0; second < 60; second++) {
+            // p99 grows by 1 ms every second at constant throughput
+            for (int i = 0; i < 20; i++) {
+                timeSeries.record(second * 1000L + i, (20 + second) * 1000L, true, 5);
+            }
+        }
+        
+        List<TimeSeriesPoint> points = timeSeries.getPoints();
+        double trend = TimeSeriesAnalysis.latencyTrendMillisPerMinute(points, 0);
+        assertTrue(trend > 40 && trend < 80, "Expected ~60 ms/min growth, got " + trend);
+        assertEquals(TimeSeriesAnalysis.throughputTrendPerMinute(points, 0), 0.0, 0.001);
+    }
+    
+    @Test(description = "Errors of the warm-up window never trip the live SLA")
+    public void testLiveSlaSkipsWarmUp() {
+        long start = 1_700_000_000_000L;
+        ResultAggregator aggregator = new ResultAggregator();
+        aggregator.markRunStart(start);
+        aggregator.setWarmUp(WarmUpWindow.duration(3_000));
+        // Every warm-up sample fails; the service is healthy afterwards
+        for (int second = 0; second < 8; second++) {
+            for (int i = 0; i < 10; i++) {
+                aggregator.record("GET users", start + second * 1000L + i * 50, 5_000, second >= 3, 2, "503 Unavailable");
+            }
+        }
+        assertEquals(aggregator.getWarmUpEndTimeMillis(), start + 3_000);
+        
+        LiveSlaMonitor monitor = new LiveSlaMonitor(List.of(SlaRule.maxErrorRate(10)), 2_000, 0, () -> { });
+        LiveSlaMonitor unaware = new LiveSlaMonitor(List.of(SlaRule.maxErrorRate(10)), 2_000, 0, () -> { });
+        for (int second = 0; second < 8; second++) {
+            TimeSeriesPoint interval = aggregator.getTimeSeries().getPoint(start + second * 1000L);
+            long elapsed = (second + 1) * 1000L;
+            long warmUpEnd = second < 3 ? Long.MAX_VALUE : aggregator.getWarmUpEndTimeMillis();
+            monitor.onProgress(new ProgressSnapshot(elapsed, 0, 0, interval, false, warmUpEnd));
+            unaware.onProgress(new ProgressSnapshot(elapsed, 0, 0, interval, false));
+        }
+        
+        assertNull(monitor.getViolation(), "Warm-up errors should not abort the run");
+        assertNotNull(unaware.getViolation(), "Counting warm-up intervals would have aborted the run");
+    }
+}
@@ -0,0 +1,60 @@
+package com.automation.performance;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests for weighted request selection of a traffic mix.
+ */
+public class TrafficMixTest {
+    
+    private static final int DRAWS = 100_000;
+    
+    @Test(description = "Weighted picks land on each request in proportion to its weight")
+    public void testSelectionDistribution() {
+        TrafficMix mix = TrafficMix.builder()
+            .weight("GET users", 40)
+            .weight("GET user", 40)
+            .weight("POST user", 10)
+            .weight("DELETE user", 10)
+            .build();
+        List<String> labels = List.copyOf(mix.getWeights().keySet());
+        double[] cumulative = mix.cumulativeWeights(labels);
+        assertEquals(Arrays.toString(cumulative), "[40.0, 80.0, 90.0, 100.0]");
+        
+        // A fixed seed keeps the run reproducible; 100k draws put one standard deviation well under 0.2 points
+        Random random = new Random(42);
+        int[] counts = new int[labels.size()];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[TrafficMix.select(cumulative, random)]++;
+        }
+        for (int i = 0; i < labels.size(); i++) {
+            assertEquals(counts[i] * 100.0 / DRAWS, mix.getTargetPercentage(labels.get(i)), 1.0,
+                    "Share of " + labels.get(i));
+        }
+    }
+    
+    @Test(description = "Every index is reachable and nothing outside the weights is picked")
+    public void testSelectionBounds() {
+        double[] cumulative = TrafficMix.builder().weight("only", 0.5).build().cumulativeWeights(List.of("only"));
+        Random random = new Random(7);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(TrafficMix.select(cumulative, random), 0);
+        }
+        
+        // A tiny weight is still picked now and then, and never past the last index
+        double[] skewed = {1, 1_000};
+        int rare = 0;
+        for (int i = 0; i < DRAWS; i++) {
+            int index = TrafficMix.select(skewed, random);
+            assertTrue(index == 0 || index == 1, "Index out of range: " + index);
+            rare += index == 0 ? 1 : 0;
+        }
+        assertTrue(rare > 0, "The rarely weighted request should still be picked");
+    }
+}